@@ -0,0 +1,56 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common;
+
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.profile.GCProfiler;
+
+/**
+ * The entry point of the benchmarks JAR. Accepts the same command line options as the standard
+ * JMH runner but always enables the {@link GCProfiler} so that allocation rate (bytes/op) is
+ * reported along with the throughput.
+ *
+ * <p>Typical usage:</p>
+ * <blockquote><pre>
+ * mvn install -DskipTests
+ * mvn -f benchmarks/pom.xml package
+ * java -jar benchmarks/target/benchmarks.jar CharBuffer
+ * </pre></blockquote>
+ *
+ * @author Fox Mulder
+ */
+public final class Benchmarks {
+
+  // Instantiation is not possible
+  private Benchmarks() {
+    throw new IllegalAccessError();
+  }
+
+  public static void main(String... args) throws RunnerException, CommandLineOptionException {
+    final Options options = new OptionsBuilder()
+        .parent(new CommandLineOptions(args))
+        .addProfiler(GCProfiler.class)
+        .build();
+    new Runner(options).run();
+  }
+
+}
@@ -0,0 +1,244 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.Map;
+import java.util.List;
+import java.util.UUID;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the {@link CharBuffer} implementations. Each benchmark appends {@link #count}
+ * values to a new buffer (or to a reused one in case of {@link #reset_reuse()}) and returns the
+ * buffer to avoid dead code elimination. See {@link StringBuilderBenchmark} for the baseline.
+ *
+ * @author Fox Mulder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharBufferBenchmark {
+
+  /**
+   * Types of the buffers to benchmark.
+   */
+  public enum Type {
+    LINEAR {
+      @Override CharBuffer create() {
+        return new LinearCharBuffer();
+      }
+    },
+    PAGINAL {
+      @Override CharBuffer create() {
+        return new PaginalCharBuffer();
+      }
+    },
+    COMPACT {
+      @Override CharBuffer create() {
+        return new CompactCharBuffer();
+      }
+    },
+    UTF8 {
+      @Override CharBuffer create() {
+        return new Utf8Buffer();
+      }
+    };
+
+    abstract CharBuffer create();
+  }
+
+  /**
+   * The type of the buffer to benchmark.
+   */
+  @Param({"LINEAR", "PAGINAL", "COMPACT", "UTF8"})
+  public Type type;
+
+  /**
+   * The number of values to append per single operation.
+   */
+  @Param({"1000"})
+  public int count;
+
+  /**
+   * The segment for the {@link #append_CharSegment()} benchmark.
+   */
+  private final CharSegment segment = CharSegment.from("benchmark");
+
+  /**
+   * The object graph for the {@link #appendObject()} benchmark.
+   */
+  private Object graph;
+
+  /**
+   * The deep object graph of {@link #count} nodes for the {@link #appendObject_deep()} benchmark.
+   */
+  private Object deepGraph;
+
+  /**
+   * The filled buffer for the {@link #toString_copy()} benchmark.
+   */
+  private CharBuffer filled;
+
+  /**
+   * The buffer for the {@link #reset_reuse()} benchmark.
+   */
+  private CharBuffer reusable;
+
+  @Setup
+  public void setUp() {
+    final Map<String, Object> map = new HashMap<>();
+    map.put("int", 12345);
+    map.put("long", 1234567890123L);
+    map.put("double", 3.14159d);
+    map.put("string", "some \"quoted\" text");
+    final List<Object> list = Arrays.asList("element", 42, 'c', new int[] {1, 2, 3}, map);
+    graph = new Object[] {list, map, Thread.State.RUNNABLE, true};
+    final List<Object> nodes = new ArrayList<>();
+    for (int n = 0; n < count; n++) {
+      final Map<String, Object> node = new LinkedHashMap<>();
+      node.put("id", new UUID(n, n * 31L));
+      node.put("state", Thread.State.values()[n % 6]);
+      node.put("flags", new boolean[] {(n & 1) == 0, (n & 2) == 0});
+      node.put("values", Arrays.asList(n, (long) n << 20, 'c', (byte) n));
+      nodes.add(node);
+    }
+    deepGraph = nodes;
+    filled = type.create();
+    for (int n = 0; n < count; n++) {
+      filled.append(segment);
+    }
+    reusable = type.create();
+  }
+
+  @Benchmark
+  public CharBuffer append_char() {
+    final CharBuffer buffer = type.create();
+    for (int n = 0; n < count; n++) {
+      buffer.append((char) ('a' + (n & 0x0f)));
+    }
+    return buffer;
+  }
+
+  @Benchmark
+  public CharBuffer append_int() {
+    final CharBuffer buffer = type.create();
+    for (int n = 0; n < count; n++) {
+      // every 16th character is a supplementary one
+      buffer.append((n & 0x0f) == 0 ? 0x1f600 + n % 80 : 'a' + (n & 0x0f));
+    }
+    return buffer;
+  }
+
+  @Benchmark
+  public CharBuffer append_CharSegment() {
+    final CharBuffer buffer = type.create();
+    for (int n = 0; n < count; n++) {
+      buffer.append(segment);
+    }
+    return buffer;
+  }
+
+  @Benchmark
+  public CharBuffer appendDec_int() {
+    final CharBuffer buffer = type.create();
+    for (int n = 0; n < count; n++) {
+      buffer.appendDec(n * 1_000_003);
+    }
+    return buffer;
+  }
+
+  @Benchmark
+  public CharBuffer appendDec_long() {
+    final CharBuffer buffer = type.create();
+    for (int n = 0; n < count; n++) {
+      buffer.appendDec(n * 1_000_000_007L);
+    }
+    return buffer;
+  }
+
+  @Benchmark
+  public CharBuffer appendDec_double() {
+    final CharBuffer buffer = type.create();
+    for (int n = 0; n < count; n++) {
+      buffer.appendDec(n * 1.0009d);
+    }
+    return buffer;
+  }
+
+  @Benchmark
+  public CharBuffer appendHex_int() {
+    final CharBuffer buffer = type.create();
+    for (int n = 0; n < count; n++) {
+      buffer.appendHex(n * 1_000_003);
+    }
+    return buffer;
+  }
+
+  @Benchmark
+  public CharBuffer appendHex_long() {
+    final CharBuffer buffer = type.create();
+    for (int n = 0; n < count; n++) {
+      buffer.appendHex(n * 1_000_000_007L);
+    }
+    return buffer;
+  }
+
+  @Benchmark
+  public CharBuffer appendObject() {
+    return type.create().appendObject(graph);
+  }
+
+  @Benchmark
+  public CharBuffer appendObject_deep() {
+    return type.create().appendObject(deepGraph);
+  }
+
+  @Benchmark
+  public String toString_copy() {
+    return filled.toString();
+  }
+
+  @Benchmark
+  public CharBuffer reset_reuse() {
+    final CharBuffer buffer = reusable;
+    buffer.reset();
+    for (int n = 0; n < count; n++) {
+      buffer.append(segment);
+    }
+    return buffer;
+  }
+
+}
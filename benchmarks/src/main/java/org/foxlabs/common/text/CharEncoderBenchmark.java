@@ -0,0 +1,119 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the {@link CharBuffer#appendEncoded(CharSegment, CharEncoder)} method with the
+ * markup and quoting encoders. The {@link #append_raw()} benchmark appends the same text without
+ * encoding and is the baseline. On clean text the {@link LinearCharBuffer} copies the text in bulk
+ * and scans the copy in place, so the ratio to the baseline is the cost of the scan.
+ *
+ * @author Fox Mulder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CharEncoderBenchmark {
+
+  /**
+   * Encoders to benchmark.
+   */
+  public enum Encoder {
+    HTML(CharEncoder.HTML),
+    XML_TEXT(CharEncoder.XML_TEXT),
+    XML_ATTRIBUTE(CharEncoder.XML_ATTRIBUTE),
+    CSV(CharEncoder.CSV),
+    SHELL(CharEncoder.SHELL);
+
+    final CharEncoder encoder;
+
+    Encoder(CharEncoder encoder) {
+      this.encoder = encoder;
+    }
+  }
+
+  /**
+   * The encoder to benchmark.
+   */
+  @Param({"HTML", "XML_TEXT", "XML_ATTRIBUTE", "CSV", "SHELL"})
+  public Encoder encoder;
+
+  /**
+   * The number of characters to encode per single operation.
+   */
+  @Param({"65536"})
+  public int length;
+
+  /**
+   * Whether the text contains characters to be escaped (one per 64 characters on average).
+   */
+  @Param({"false", "true"})
+  public boolean dirty;
+
+  /**
+   * The text to be encoded.
+   */
+  private CharSegment text;
+
+  /**
+   * The buffer reused across invocations.
+   */
+  private CharBuffer buffer;
+
+  @Setup
+  public void setUp() {
+    final String words = "The quick brown fox jumps over the lazy dog, 0123456789. ";
+    final String special = "&<>\"'\t";
+    final StringBuilder builder = new StringBuilder(length);
+    for (int n = 0; builder.length() < length; n++) {
+      final char ch = words.charAt(n % words.length());
+      builder.append(dirty && n % 64 == 63 ? special.charAt(n / 64 % special.length()) : ch);
+    }
+    text = CharSegment.from(builder.toString());
+    buffer = new LinearCharBuffer(length * 8);
+  }
+
+  @Benchmark
+  public CharBuffer append_raw() {
+    buffer.reset();
+    return buffer.append(text);
+  }
+
+  @Benchmark
+  public CharBuffer appendEncoded() {
+    buffer.reset();
+    return buffer.appendEncoded(text, encoder.encoder);
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.text.MessageFormat;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the {@link MessageTemplate} class. The {@link #messageFormat_new()} benchmark
+ * is the baseline that parses the pattern on every call (as the {@code MessageBundle} used to
+ * do), the {@link #messageFormat_cached()} one reuses a {@link MessageFormat} instance (which is
+ * not thread-safe).
+ *
+ * @author Fox Mulder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MessageTemplateBenchmark {
+
+  @Param({"User {0} has {1} unread messages in {2}",
+      "Request {0} took {1,number,integer} ms, {2,number,#.##} KB"})
+  public String pattern;
+
+  private final Object[] args = {"fox.mulder", 1234567, 36.6d};
+
+  private MessageFormat format;
+
+  private MessageTemplate template;
+
+  private final CharBuffer buffer = new LinearCharBuffer();
+
+  @Setup
+  public void setUp() {
+    format = new MessageFormat(pattern, Locale.US);
+    template = MessageTemplate.compile(pattern, Locale.US);
+  }
+
+  @Benchmark
+  public String messageFormat_new() {
+    return new MessageFormat(pattern, Locale.US).format(args);
+  }
+
+  @Benchmark
+  public String messageFormat_cached() {
+    return format.format(args);
+  }
+
+  @Benchmark
+  public String template_String() {
+    return template.format(args);
+  }
+
+  @Benchmark
+  public CharBuffer template_CharBuffer() {
+    buffer.reset();
+    return template.format(buffer, args);
+  }
+
+}
@@ -0,0 +1,91 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Benchmarks for the {@link PaginalCharBuffer#copyToParallel(int, int, char[], int, ForkJoinPool,
+ * int)} method. The {@link #copyTo_sequential()} benchmark is the baseline, the
+ * {@link #copyTo_parallel()} one copies pages in the {@link ForkJoinPool#commonPool()} regardless
+ * of the buffer length, so the crossover point is the smallest {@link #length} where the parallel
+ * copying takes less time. The result depends on the number of cores and memory bandwidth, so it
+ * should be measured on the target hardware and passed as the threshold to the
+ * {@code copyToParallel()} method. On a single CPU both benchmarks take the same time.
+ *
+ * @author Fox Mulder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PaginalCharBufferBenchmark {
+
+  /**
+   * The number of characters in the buffer.
+   */
+  @Param({"65536", "262144", "1048576", "4194304", "16777216", "67108864"})
+  public int length;
+
+  /**
+   * The filled buffer to copy.
+   */
+  private PaginalCharBuffer buffer;
+
+  /**
+   * The preallocated target array, so that only copying is measured.
+   */
+  private char[] target;
+
+  @Setup
+  public void setUp() {
+    buffer = new PaginalCharBuffer(length, PaginalCharBuffer.MAX_DEPTH);
+    for (int n = 0; n < length; n++) {
+      buffer.append((char) ('a' + n % 26));
+    }
+    target = new char[length];
+  }
+
+  @Benchmark
+  public char[] copyTo_sequential() {
+    buffer.copyTo(0, length, target, 0);
+    return target;
+  }
+
+  @Benchmark
+  public char[] copyTo_parallel() {
+    buffer.copyToParallel(0, length, target, 0, ForkJoinPool.commonPool(), 0);
+    return target;
+  }
+
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.Map;
+import java.util.List;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * The {@link StringBuilder} baseline for the {@link CharBufferBenchmark}. Benchmark names match
+ * each other so that results can be compared side by side.
+ *
+ * @author Fox Mulder
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class StringBuilderBenchmark {
+
+  /**
+   * The number of values to append per single operation.
+   */
+  @Param({"1000"})
+  public int count;
+
+  /**
+   * The sequence for the {@link #append_CharSegment()} benchmark.
+   */
+  private final String sequence = "benchmark";
+
+  /**
+   * The object graph for the {@link #appendObject()} benchmark.
+   */
+  private Object graph;
+
+  /**
+   * The filled builder for the {@link #toString_copy()} benchmark.
+   */
+  private StringBuilder filled;
+
+  /**
+   * The builder for the {@link #reset_reuse()} benchmark.
+   */
+  private StringBuilder reusable;
+
+  @Setup
+  public void setUp() {
+    final Map<String, Object> map = new HashMap<>();
+    map.put("int", 12345);
+    map.put("long", 1234567890123L);
+    map.put("double", 3.14159d);
+    map.put("string", "some \"quoted\" text");
+    final List<Object> list = Arrays.asList("element", 42, 'c', new int[] {1, 2, 3}, map);
+    graph = Arrays.asList(list, map, Thread.State.RUNNABLE, true);
+    filled = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      filled.append(sequence);
+    }
+    reusable = new StringBuilder();
+  }
+
+  @Benchmark
+  public StringBuilder append_char() {
+    final StringBuilder builder = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      builder.append((char) ('a' + (n & 0x0f)));
+    }
+    return builder;
+  }
+
+  @Benchmark
+  public StringBuilder append_int() {
+    final StringBuilder builder = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      builder.appendCodePoint((n & 0x0f) == 0 ? 0x1f600 + n % 80 : 'a' + (n & 0x0f));
+    }
+    return builder;
+  }
+
+  @Benchmark
+  public StringBuilder append_CharSegment() {
+    final StringBuilder builder = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      builder.append(sequence);
+    }
+    return builder;
+  }
+
+  @Benchmark
+  public StringBuilder appendDec_int() {
+    final StringBuilder builder = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      builder.append(n * 1_000_003);
+    }
+    return builder;
+  }
+
+  @Benchmark
+  public StringBuilder appendDec_long() {
+    final StringBuilder builder = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      builder.append(n * 1_000_000_007L);
+    }
+    return builder;
+  }
+
+  @Benchmark
+  public StringBuilder appendDec_double() {
+    final StringBuilder builder = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      builder.append(n * 1.0009d);
+    }
+    return builder;
+  }
+
+  @Benchmark
+  public StringBuilder appendHex_int() {
+    final StringBuilder builder = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      builder.append(Integer.toHexString(n * 1_000_003));
+    }
+    return builder;
+  }
+
+  @Benchmark
+  public StringBuilder appendHex_long() {
+    final StringBuilder builder = new StringBuilder();
+    for (int n = 0; n < count; n++) {
+      builder.append(Long.toHexString(n * 1_000_000_007L));
+    }
+    return builder;
+  }
+
+  @Benchmark
+  public StringBuilder appendObject() {
+    return new StringBuilder().append(graph);
+  }
+
+  @Benchmark
+  public String toString_copy() {
+    return filled.toString();
+  }
+
+  @Benchmark
+  public StringBuilder reset_reuse() {
+    final StringBuilder builder = reusable;
+    builder.setLength(0);
+    for (int n = 0; n < count; n++) {
+      builder.append(sequence);
+    }
+    return builder;
+  }
+
+}
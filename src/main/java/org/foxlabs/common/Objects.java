@@ -19,6 +19,8 @@ package org.foxlabs.common;
 import java.util.function.Supplier;
 
 import org.foxlabs.common.text.CharBuffer;
+import org.foxlabs.common.text.CharBufferPool;
+import org.foxlabs.common.text.CountingCharBuffer;
 import org.foxlabs.common.text.LinearCharBuffer;
 import org.foxlabs.common.exception.ThresholdReachedException;
 
@@ -70,15 +72,49 @@ public final class Objects {
    * @see CharBuffer#appendObject(Object)
    */
   public static String toString(Object object, int threshold) {
+    return toString(object, threshold, false);
+  }
+
+  /**
+   * Converts the specified object to a string representation with a length that will never exceed
+   * the specified threshold. If the {@code presize} flag is set then length of the result is
+   * measured with a {@link CountingCharBuffer} first, so that a buffer of the exact length is
+   * allocated and never grows. This method is designed primarily for logging purposes.
+   *
+   * @param object The reference to an object to be converted to a string representation.
+   * @param threshold The maximum length that the resulting string will never exceed.
+   * @param presize Determines whether to measure length of the result before formatting.
+   * @return A string representation of the specified object.
+   * @see CharBuffer#appendObject(Object)
+   * @see CountingCharBuffer#measure(Object, int)
+   */
+  public static String toString(Object object, int threshold, boolean presize) {
     try {
-      return new LinearCharBuffer(LinearCharBuffer.DEFAULT_CAPACITY, threshold)
-          .appendObject(object).toString();
+      final int capacity = presize
+          ? CountingCharBuffer.measure(object, threshold)
+          : LinearCharBuffer.DEFAULT_CAPACITY;
+      return new LinearCharBuffer(capacity, threshold).appendObject(object).toString();
     } catch (ThresholdReachedException e) {
       // threshold has been reached, return partial result anyway
       return e.getProducer().toString();
     }
   }
 
+  /**
+   * Converts the specified object to a string representation using a buffer from the specified
+   * pool. The length of the resulting string will never exceed threshold of the pool. This method
+   * is designed primarily for logging purposes.
+   *
+   * @param object The reference to an object to be converted to a string representation.
+   * @param pool The pool of buffers to be used.
+   * @return A string representation of the specified object.
+   * @throws NullPointerException if the specified pool is {@code null}.
+   * @see CharBufferPool#format(Object)
+   */
+  public static String toString(Object object, CharBufferPool pool) {
+    return pool.format(object);
+  }
+
   /**
    * Returns a new object with the overridden {@link Object#toString()} method that uses the
    * specified formatter to generate the resulting string. This method is useful for lazy message
@@ -20,6 +20,10 @@ import java.util.function.Function;
 import java.util.function.IntPredicate;
 import java.util.function.IntUnaryOperator;
 
+import org.foxlabs.common.text.CharBuffer;
+import org.foxlabs.common.text.CharDecoder;
+import org.foxlabs.common.text.LinearCharBuffer;
+
 /**
  * Implementation of commonly used string operations.
  *
@@ -554,10 +558,11 @@ public final class Strings {
      * @see #unescape(String, StringBuilder)
      */
     public static String unescape(String value) {
-        if (value == null || value.length() == 0) {
+        if (value == null || value.indexOf('\\') < 0) {
             return value;
         }
-        return unescape(value, new StringBuilder(value.length())).toString();
+        final CharBuffer buffer = new LinearCharBuffer(value.length());
+        return buffer.appendDecoded(value, CharDecoder.JAVA).toString();
     }
 
     /**
@@ -568,68 +573,10 @@ public final class Strings {
      * @param buf Buffer to append.
      * @return The specified buffer.
      * @throws IllegalArgumentException if the specified string is malformed.
+     * @see CharDecoder#JAVA
      */
     public static StringBuilder unescape(String value, StringBuilder buf) {
-        int length = value == null ? 0 : value.length();
-        for (int i = 0; i < length;) {
-            char ch = value.charAt(i++);
-            if (ch == '\\') {
-                if (i == length) {
-                    throw new IllegalArgumentException(value);
-                }
-                switch (value.charAt(i++)) {
-                case '\"':
-                    buf.append('\"');
-                    break;
-                case '\'':
-                    buf.append('\'');
-                    break;
-                case '\\':
-                    buf.append('\\');
-                    break;
-                case 'n':
-                    buf.append('\n');
-                    break;
-                case 'r':
-                    buf.append('\r');
-                    break;
-                case 't':
-                    buf.append('\t');
-                    break;
-                case 'f':
-                    buf.append('\f');
-                    break;
-                case 'b':
-                    buf.append('\b');
-                    break;
-                case 'u':
-                    if (i + 4 > length) {
-                        throw new IllegalArgumentException(value);
-                    }
-                    int ucode = 0;
-                    for (int j = 0; j < 4; j++) {
-                        ucode <<= 4;
-                        ch = value.charAt(i++);
-                        if (ch >= 0x30 && ch <= 0x39) {
-                            ucode |= ch - 0x30;
-                        } else if (ch >= 0x61 && ch <= 0x7a) {
-                            ucode |= ch - 0x57;
-                        } else if (ch >= 0x41 && ch <= 0x5a) {
-                            ucode |= ch - 0x37;
-                        } else {
-                            throw new IllegalArgumentException(value);
-                        }
-                    }
-                    buf.append((char) ucode);
-                    break;
-                default:
-                    throw new IllegalArgumentException(value);
-                }
-            } else {
-                buf.append(ch);
-            }
-        }
-        return buf;
+        return value == null ? buf : buf.append(unescape(value));
     }
 
   // ----- TO BE REFACTORED END -----------------------------------------------
@@ -0,0 +1,605 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.Arrays;
+
+import org.foxlabs.common.Checks;
+import org.foxlabs.util.ByteBuffer;
+
+/**
+ * A binary-to-text encoding defined by the <a href="https://tools.ietf.org/html/rfc4648">RFC
+ * 4648</a> that encodes bytes to characters of a 64 or 32 character alphabet.
+ *
+ * <p>Encoding appends characters directly to a {@link CharBuffer} and decoding appends bytes
+ * directly to a {@link ByteBuffer}, without intermediate arrays or strings. The alphabet is looked
+ * up in tables and bytes are processed in whole groups (3 bytes to 4 characters for Base64, 5
+ * bytes to 8 characters for Base32). The {@link Encoder} and {@link Decoder} returned by the
+ * {@link #newEncoder()} and {@link #newDecoder()} methods allow to process data incrementally,
+ * chunk by chunk, keeping incomplete groups between calls.</p>
+ *
+ * <p>Decoders accept input with or without padding, but characters outside the alphabet
+ * (including line separators and whitespace) are rejected.</p>
+ *
+ * @author Fox Mulder
+ * @see CharBuffer#appendBase64(byte[], int, int)
+ * @see CharBuffer#appendBase64Url(byte[], int, int)
+ * @see CharBuffer#appendBase32(byte[], int, int)
+ */
+public final class BaseEncoding {
+
+  /**
+   * The Base64 encoding with the standard alphabet ({@code A-Za-z0-9+/}) and padding.
+   */
+  public static final BaseEncoding BASE64 = new BaseEncoding("Base64",
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/".toCharArray(), true);
+
+  /**
+   * The Base64 encoding with the URL and filename safe alphabet ({@code A-Za-z0-9-_}) and
+   * padding.
+   *
+   * @see #withoutPadding()
+   */
+  public static final BaseEncoding BASE64_URL = new BaseEncoding("Base64Url",
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_".toCharArray(), true);
+
+  /**
+   * The Base32 encoding with the standard alphabet ({@code A-Z2-7}) and padding.
+   */
+  public static final BaseEncoding BASE32 = new BaseEncoding("Base32",
+      "ABCDEFGHIJKLMNOPQRSTUVWXYZ234567".toCharArray(), true);
+
+  /**
+   * The padding character.
+   */
+  private static final char PAD = '=';
+
+  /**
+   * The maximum number of characters collected in a local chunk before appending to a buffer.
+   * Must be a multiple of both 4 and 8 characters.
+   */
+  private static final int CHUNK_SIZE = 1 << 12;
+
+  /**
+   * The name of this encoding.
+   */
+  private final String name;
+
+  /**
+   * The alphabet of this encoding.
+   */
+  private final char[] alphabet;
+
+  /**
+   * The values of ASCII characters in the alphabet or {@code -1} for characters outside the
+   * alphabet.
+   */
+  private final byte[] values;
+
+  /**
+   * Determines whether the encoder appends padding characters.
+   */
+  private final boolean padding;
+
+  /**
+   * The number of bits per character (6 for Base64, 5 for Base32).
+   */
+  private final int bits;
+
+  /**
+   * The number of characters per group (4 for Base64, 8 for Base32).
+   */
+  private final int groupChars;
+
+  /**
+   * The number of bytes per group (3 for Base64, 5 for Base32).
+   */
+  private final int groupBytes;
+
+  /**
+   * Constructs a new encoding with the specified name, alphabet and padding.
+   *
+   * @param name The name of the encoding.
+   * @param alphabet The alphabet of the encoding (64 or 32 characters).
+   * @param padding Determines whether the encoder appends padding characters.
+   */
+  private BaseEncoding(String name, char[] alphabet, boolean padding) {
+    this.name = name;
+    this.alphabet = alphabet;
+    this.padding = padding;
+    this.bits = Integer.numberOfTrailingZeros(alphabet.length);
+    this.groupChars = 8 / (bits & -bits); // 8 / gcd(bits, 8)
+    this.groupBytes = groupChars * bits / 8;
+    this.values = new byte[128];
+    Arrays.fill(values, (byte) -1);
+    for (int i = 0; i < alphabet.length; i++) {
+      values[alphabet[i]] = (byte) i;
+    }
+  }
+
+  /**
+   * Returns an encoding that is the same as this encoding but does not append padding characters.
+   * Note that decoders accept input with or without padding anyway.
+   *
+   * @return An encoding that does not append padding characters.
+   */
+  public BaseEncoding withoutPadding() {
+    return padding ? new BaseEncoding(name, alphabet, false) : this;
+  }
+
+  /**
+   * Returns the number of characters required to encode the specified number of bytes, or
+   * {@code Integer.MAX_VALUE} if the result does not fit into an {@code int}.
+   *
+   * @param count The number of bytes to be encoded.
+   * @return The number of characters required to encode the specified number of bytes.
+   * @throws IllegalArgumentException if the specified number of bytes is negative.
+   */
+  public int getEncodedCapacity(int count) {
+    Checks.checkThat(count, count >= 0);
+    final long size = padding
+        ? ((long) count + groupBytes - 1) / groupBytes * groupChars
+        : ((long) count * 8 + bits - 1) / bits;
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Returns the maximum number of bytes that can be decoded from the specified number of
+   * characters.
+   *
+   * @param length The number of characters to be decoded.
+   * @return The maximum number of bytes that can be decoded from the specified number of
+   *         characters.
+   * @throws IllegalArgumentException if the specified number of characters is negative.
+   */
+  public int getDecodedCapacity(int length) {
+    Checks.checkThat(length, length >= 0);
+    return (int) ((long) length * bits / 8);
+  }
+
+  // Encoding
+
+  /**
+   * Encodes all the bytes in the specified array and appends the resulting characters to the
+   * specified buffer.
+   *
+   * @param array The array of bytes to be encoded.
+   * @param buffer The buffer to append characters to.
+   * @return A reference to the specified buffer.
+   * @throws NullPointerException if the specified array or buffer is {@code null}.
+   * @see #encode(byte[], int, int, CharBuffer)
+   */
+  public CharBuffer encode(byte[] array, CharBuffer buffer) {
+    return encode(array, 0, array.length, buffer);
+  }
+
+  /**
+   * Encodes the bytes in the specified range of the array and appends the resulting characters to
+   * the specified buffer.
+   *
+   * @param array The array of bytes to be encoded.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @param buffer The buffer to append characters to.
+   * @return A reference to the specified buffer.
+   * @throws NullPointerException if the specified array or buffer is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   */
+  public CharBuffer encode(byte[] array, int from, int to, CharBuffer buffer) {
+    Checks.checkRange(array, from, to);
+    if (from < to) {
+      buffer.ensureCapacity(getEncodedCapacity(to - from));
+      final int end = to - (to - from) % groupBytes;
+      encodeGroups(array, from, end, buffer);
+      if (end < to) {
+        long group = 0L;
+        for (int index = end; index < to; index++) {
+          group = group << 8 | array[index] & 0xff;
+        }
+        encodeGroup(group, to - end, buffer);
+      }
+    }
+    return buffer;
+  }
+
+  /**
+   * Returns a new encoder that allows to encode bytes incrementally.
+   *
+   * @return A new encoder.
+   */
+  public Encoder newEncoder() {
+    return new Encoder();
+  }
+
+  /**
+   * Encodes whole groups of bytes in the specified range of the array, the range length must be a
+   * multiple of the {@link #groupBytes}. Characters are collected in a local chunk and appended to
+   * the buffer in bulk.
+   */
+  private void encodeGroups(byte[] array, int from, int to, CharBuffer buffer) {
+    if (from < to) {
+      final long size = (long) (to - from) / groupBytes * groupChars;
+      final char[] chunk = new char[(int) Math.min(size, CHUNK_SIZE)];
+      int count = 0;
+      if (bits == 6) {
+        // 3 bytes to 4 characters
+        while (from < to) {
+          final int group =
+              (array[from++] & 0xff) << 16 | (array[from++] & 0xff) << 8 | array[from++] & 0xff;
+          chunk[count++] = alphabet[group >>> 18];
+          chunk[count++] = alphabet[group >>> 12 & 0x3f];
+          chunk[count++] = alphabet[group >>> 6 & 0x3f];
+          chunk[count++] = alphabet[group & 0x3f];
+          if (count == chunk.length) {
+            buffer.append(CharSegment.from(chunk, 0, count));
+            count = 0;
+          }
+        }
+      } else {
+        // 5 bytes to 8 characters
+        while (from < to) {
+          final long group = (long) (array[from++] & 0xff) << 32
+              | (long) (array[from++] & 0xff) << 24 | (array[from++] & 0xff) << 16
+              | (array[from++] & 0xff) << 8 | array[from++] & 0xff;
+          for (int shift = 35; shift >= 0; shift -= 5) {
+            chunk[count++] = alphabet[(int) (group >>> shift) & 0x1f];
+          }
+          if (count == chunk.length) {
+            buffer.append(CharSegment.from(chunk, 0, count));
+            count = 0;
+          }
+        }
+      }
+      if (count > 0) {
+        buffer.append(CharSegment.from(chunk, 0, count));
+      }
+    }
+  }
+
+  /**
+   * Encodes a possibly incomplete group of the specified number of bytes and appends padding
+   * characters if necessary.
+   */
+  private void encodeGroup(long group, int count, CharBuffer buffer) {
+    group <<= (groupBytes - count) << 3;
+    final int chars = ((count << 3) + bits - 1) / bits;
+    int shift = (groupChars - 1) * bits;
+    for (int index = 0; index < chars; index++, shift -= bits) {
+      buffer.append(alphabet[(int) (group >>> shift) & (alphabet.length - 1)]);
+    }
+    if (padding) {
+      for (int index = chars; index < groupChars; index++) {
+        buffer.append(PAD);
+      }
+    }
+  }
+
+  // Decoding
+
+  /**
+   * Decodes all the characters of the specified sequence and appends the resulting bytes to the
+   * specified buffer.
+   *
+   * @param sequence The sequence of characters to be decoded.
+   * @param buffer The buffer to append bytes to.
+   * @return A reference to the specified buffer.
+   * @throws NullPointerException if the specified sequence or buffer is {@code null}.
+   * @throws IllegalArgumentException if the specified sequence is not a valid encoded data.
+   * @see #decode(CharSegment, ByteBuffer)
+   */
+  public ByteBuffer decode(CharSequence sequence, ByteBuffer buffer) {
+    return decode(CharSegment.from(sequence), buffer);
+  }
+
+  /**
+   * Decodes all the characters of the specified segment and appends the resulting bytes to the
+   * specified buffer.
+   *
+   * @param segment The segment of characters to be decoded.
+   * @param buffer The buffer to append bytes to.
+   * @return A reference to the specified buffer.
+   * @throws NullPointerException if the specified segment or buffer is {@code null}.
+   * @throws IllegalArgumentException if the specified segment is not a valid encoded data.
+   */
+  public ByteBuffer decode(CharSegment segment, ByteBuffer buffer) {
+    return newDecoder().update(segment, buffer).finish(buffer);
+  }
+
+  /**
+   * Returns a new decoder that allows to decode characters incrementally.
+   *
+   * @return A new decoder.
+   */
+  public Decoder newDecoder() {
+    return new Decoder();
+  }
+
+  /**
+   * Returns the value of the specified character or {@code -1} if it is outside the alphabet.
+   */
+  private int valueOf(char ch) {
+    return ch < 128 ? values[ch] : -1;
+  }
+
+  /**
+   * Determines whether the specified number of characters is a valid length of the final
+   * incomplete group.
+   */
+  private boolean isValidTail(int count) {
+    return count > 0 && ((count * bits >>> 3 << 3) + bits - 1) / bits == count;
+  }
+
+  /**
+   * Returns the name of this encoding.
+   *
+   * @return The name of this encoding.
+   */
+  @Override
+  public String toString() {
+    return name;
+  }
+
+  // Encoder
+
+  /**
+   * An encoder that encodes bytes incrementally. Whole groups of bytes are encoded immediately
+   * and the remaining bytes are kept until the next {@link #update(byte[], int, int, CharBuffer)}
+   * or the {@link #finish(CharBuffer)} call. An encoder can be reused after finishing.
+   *
+   * <p>Encoders are not thread-safe.</p>
+   *
+   * @author Fox Mulder
+   */
+  public final class Encoder {
+
+    /**
+     * The bytes of the incomplete group.
+     */
+    private long group;
+
+    /**
+     * The number of bytes in the incomplete group.
+     */
+    private int count;
+
+    private Encoder() {}
+
+    /**
+     * Encodes all the bytes in the specified array.
+     *
+     * @param array The array of bytes to be encoded.
+     * @param buffer The buffer to append characters to.
+     * @return A reference to this encoder.
+     * @throws NullPointerException if the specified array or buffer is {@code null}.
+     * @see #update(byte[], int, int, CharBuffer)
+     */
+    public Encoder update(byte[] array, CharBuffer buffer) {
+      return update(array, 0, array.length, buffer);
+    }
+
+    /**
+     * Encodes the bytes in the specified range of the array.
+     *
+     * @param array The array of bytes to be encoded.
+     * @param from The initial index of the range, inclusive.
+     * @param to The final index of the range, exclusive.
+     * @param buffer The buffer to append characters to.
+     * @return A reference to this encoder.
+     * @throws NullPointerException if the specified array or buffer is {@code null}.
+     * @throws IndexOutOfBoundsException if the specified range is invalid.
+     */
+    public Encoder update(byte[] array, int from, int to, CharBuffer buffer) {
+      Checks.checkRange(array, from, to);
+      Checks.checkNotNull(buffer);
+      // complete the incomplete group first
+      for (; count > 0 && from < to; from++) {
+        group = group << 8 | array[from] & 0xff;
+        if (++count == groupBytes) {
+          encodeGroup(group, count, buffer);
+          group = 0L;
+          count = 0;
+        }
+      }
+      final int end = to - (to - from) % groupBytes;
+      encodeGroups(array, from, end, buffer);
+      for (from = end; from < to; from++, count++) {
+        group = group << 8 | array[from] & 0xff;
+      }
+      return this;
+    }
+
+    /**
+     * Encodes the remaining bytes, if any, and resets this encoder.
+     *
+     * @param buffer The buffer to append characters to.
+     * @return A reference to the specified buffer.
+     * @throws NullPointerException if the specified buffer is {@code null}.
+     */
+    public CharBuffer finish(CharBuffer buffer) {
+      Checks.checkNotNull(buffer);
+      if (count > 0) {
+        encodeGroup(group, count, buffer);
+        group = 0L;
+        count = 0;
+      }
+      return buffer;
+    }
+
+  }
+
+  // Decoder
+
+  /**
+   * A decoder that decodes characters incrementally. Whole groups of characters are decoded
+   * immediately and the remaining characters are kept until the next
+   * {@link #update(CharSegment, ByteBuffer)} or the {@link #finish(ByteBuffer)} call. A decoder
+   * can be reused after finishing.
+   *
+   * <p>Decoders are not thread-safe.</p>
+   *
+   * @author Fox Mulder
+   */
+  public final class Decoder {
+
+    /**
+     * The bits of the incomplete group.
+     */
+    private long group;
+
+    /**
+     * The number of characters in the incomplete group.
+     */
+    private int count;
+
+    /**
+     * The number of padding characters expected or {@code -1} if padding has not started yet.
+     */
+    private int padding = -1;
+
+    /**
+     * The number of characters decoded so far, used in error messages.
+     */
+    private long position;
+
+    private Decoder() {}
+
+    /**
+     * Decodes all the characters of the specified sequence.
+     *
+     * @param sequence The sequence of characters to be decoded.
+     * @param buffer The buffer to append bytes to.
+     * @return A reference to this decoder.
+     * @throws NullPointerException if the specified sequence or buffer is {@code null}.
+     * @throws IllegalArgumentException if the specified sequence is not a valid encoded data.
+     * @see #update(CharSegment, ByteBuffer)
+     */
+    public Decoder update(CharSequence sequence, ByteBuffer buffer) {
+      return update(CharSegment.from(sequence), buffer);
+    }
+
+    /**
+     * Decodes all the characters of the specified segment.
+     *
+     * @param segment The segment of characters to be decoded.
+     * @param buffer The buffer to append bytes to.
+     * @return A reference to this decoder.
+     * @throws NullPointerException if the specified segment or buffer is {@code null}.
+     * @throws IllegalArgumentException if the specified segment is not a valid encoded data.
+     */
+    public Decoder update(CharSegment segment, ByteBuffer buffer) {
+      final int length = segment.length();
+      buffer.ensureCapacity(buffer.length() + getDecodedCapacity(length + count));
+      int index = 0;
+      if (bits == 6 && count == 0 && padding < 0) {
+        // fast path: 4 characters to 3 bytes
+        for (int end = length - 3; index < end; index += 4) {
+          final int a = valueOf(segment.charAt(index));
+          final int b = valueOf(segment.charAt(index + 1));
+          final int c = valueOf(segment.charAt(index + 2));
+          final int d = valueOf(segment.charAt(index + 3));
+          if ((a | b | c | d) < 0) {
+            break; // let the general path deal with it
+          }
+          final int bytes = a << 18 | b << 12 | c << 6 | d;
+          buffer.append((byte) (bytes >>> 16));
+          buffer.append((byte) (bytes >>> 8));
+          buffer.append((byte) bytes);
+        }
+      }
+      for (; index < length; index++) {
+        final char ch = segment.charAt(index);
+        if (ch == PAD) {
+          if (padding < 0) {
+            if (!isValidTail(count)) {
+              throw newDecodingException("Unexpected padding", index);
+            }
+            padding = groupChars - count;
+            decodeGroup(buffer);
+          }
+          if (padding == 0) {
+            throw newDecodingException("Unexpected padding", index);
+          }
+          padding--;
+        } else {
+          final int value = valueOf(ch);
+          if (value < 0) {
+            throw newDecodingException("Invalid character", index);
+          } else if (padding >= 0) {
+            throw newDecodingException("Unexpected character after padding", index);
+          }
+          group = group << bits | value;
+          if (++count == groupChars) {
+            decodeGroup(buffer);
+          }
+        }
+      }
+      position += length;
+      return this;
+    }
+
+    /**
+     * Decodes the remaining characters, if any, and resets this decoder.
+     *
+     * @param buffer The buffer to append bytes to.
+     * @return A reference to the specified buffer.
+     * @throws NullPointerException if the specified buffer is {@code null}.
+     * @throws IllegalArgumentException if the remaining characters are not a valid encoded data.
+     */
+    public ByteBuffer finish(ByteBuffer buffer) {
+      Checks.checkNotNull(buffer);
+      try {
+        if (padding > 0) {
+          throw newDecodingException("Incomplete padding", 0);
+        } else if (count > 0) {
+          if (!isValidTail(count)) {
+            throw newDecodingException("Incomplete group", 0);
+          }
+          decodeGroup(buffer);
+        }
+        return buffer;
+      } finally {
+        group = 0L;
+        count = 0;
+        padding = -1;
+        position = 0L;
+      }
+    }
+
+    /**
+     * Appends the bytes of the possibly incomplete group to the buffer and resets the group.
+     */
+    private void decodeGroup(ByteBuffer buffer) {
+      final int bytes = count * bits >>> 3;
+      group >>>= count * bits - (bytes << 3); // drop unused bits
+      for (int shift = (bytes - 1) << 3; shift >= 0; shift -= 8) {
+        buffer.append((byte) (group >>> shift));
+      }
+      group = 0L;
+      count = 0;
+    }
+
+    /**
+     * Creates a new exception with the specified message and position.
+     */
+    private IllegalArgumentException newDecodingException(String message, int index) {
+      return new IllegalArgumentException(
+          message + " in " + name + " data at " + (position + index));
+    }
+
+  }
+
+}
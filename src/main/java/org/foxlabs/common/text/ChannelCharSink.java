@@ -0,0 +1,175 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * A {@link CharSink} that encodes characters and writes them to a {@link WritableByteChannel}
+ * through a single reusable byte buffer. Surrogate pairs split between writes are carried over to
+ * the next write.
+ *
+ * @author Fox Mulder
+ */
+final class ChannelCharSink implements CharSink {
+
+  /**
+   * The number of characters the byte buffer should be able to receive.
+   */
+  private static final int BUFFER_SIZE = 1 << 13;
+
+  private final WritableByteChannel channel;
+
+  private final CharsetEncoder encoder;
+
+  private final ByteBuffer bytes;
+
+  /**
+   * Characters that have not been consumed by the encoder yet (i.e. a high surrogate).
+   */
+  private final java.nio.CharBuffer carry = java.nio.CharBuffer.allocate(2);
+
+  ChannelCharSink(WritableByteChannel channel, CharsetEncoder encoder) {
+    this.channel = Checks.checkNotNull(channel);
+    this.encoder = encoder.reset();
+    this.bytes = ByteBuffer.allocate(Math.max((int) (BUFFER_SIZE * encoder.maxBytesPerChar()), 16));
+  }
+
+  static ChannelCharSink from(OutputStream stream, Charset charset) {
+    return new ChannelCharSink(new StreamChannel(stream), charset.newEncoder()
+        .onMalformedInput(CodingErrorAction.REPLACE)
+        .onUnmappableCharacter(CodingErrorAction.REPLACE));
+  }
+
+  @Override
+  public void write(char[] chars, int offset, int count) throws IOException {
+    // complete carried characters one by one
+    while (carry.position() > 0 && count > 0) {
+      carry.put(chars[offset++]);
+      count--;
+      ((java.nio.Buffer) carry).flip();
+      encode(carry, false);
+      carry.compact();
+    }
+    if (count > 0) {
+      final java.nio.CharBuffer chunk = java.nio.CharBuffer.wrap(chars, offset, count);
+      encode(chunk, false);
+      carry.put(chunk);
+    }
+  }
+
+  /**
+   * Writes all the encoded bytes to the channel.
+   */
+  @Override
+  public void flush() throws IOException {
+    drain();
+  }
+
+  /**
+   * Completes encoding and writes all the encoded bytes to the channel, but does not close it.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  void finish() throws IOException {
+    ((java.nio.Buffer) carry).flip();
+    encode(carry, true);
+    ((java.nio.Buffer) carry).clear();
+    while (encoder.flush(bytes).isOverflow()) {
+      drain();
+    }
+    drain();
+  }
+
+  /**
+   * Completes encoding and closes the channel.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      finish();
+    } finally {
+      channel.close();
+    }
+  }
+
+  private void encode(java.nio.CharBuffer chars, boolean endOfInput) throws IOException {
+    for (;;) {
+      final CoderResult result = encoder.encode(chars, bytes, endOfInput);
+      if (result.isOverflow()) {
+        drain();
+      } else if (result.isUnderflow()) {
+        return;
+      } else {
+        result.throwException();
+      }
+    }
+  }
+
+  private void drain() throws IOException {
+    ((java.nio.Buffer) bytes).flip();
+    while (bytes.hasRemaining()) {
+      channel.write(bytes);
+    }
+    ((java.nio.Buffer) bytes).clear();
+  }
+
+  /**
+   * Adapts an {@code OutputStream} to the {@code WritableByteChannel} without intermediate copying
+   * of heap byte buffers.
+   */
+  private static final class StreamChannel implements WritableByteChannel {
+
+    private final OutputStream stream;
+
+    private boolean open = true;
+
+    StreamChannel(OutputStream stream) {
+      this.stream = Checks.checkNotNull(stream);
+    }
+
+    @Override
+    public int write(ByteBuffer src) throws IOException {
+      final int count = src.remaining();
+      stream.write(src.array(), src.arrayOffset() + src.position(), count);
+      ((java.nio.Buffer) src).position(src.limit());
+      return count;
+    }
+
+    @Override
+    public boolean isOpen() {
+      return open;
+    }
+
+    @Override
+    public void close() throws IOException {
+      open = false;
+      stream.close();
+    }
+
+  }
+
+}
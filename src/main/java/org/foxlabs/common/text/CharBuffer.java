@@ -16,6 +16,14 @@
 
 package org.foxlabs.common.text;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.math.RoundingMode;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
 import java.util.Set;
 import java.util.Map;
 import java.util.IdentityHashMap;
@@ -39,6 +47,14 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
    */
   protected final int threshold;
 
+  /**
+   * The generation of the buffer contents that is incremented each time the contents are
+   * discarded.
+   *
+   * @see #invalidateViews()
+   */
+  private int generation;
+
   /**
    * Constructs a new {@code CharBuffer} with the specified {@code threshold}.
    *
@@ -215,19 +231,46 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
   public abstract CharBuffer append(CharSegment segment);
 
   /**
-   * Returns a {@code CharSegment} that is a copy of the buffer contents in the specified range
-   * (i.e. {@code CharSegment.from(substring(start, end))}.
+   * Returns a {@code CharSegment} view of the buffer contents in the specified range. The view
+   * does not copy characters, it reads them directly from the buffer storage.
    *
    * <p>The {@code start} and {@code end} positions are zero-based and must not be greater than
    * {@link #length()}, the {@code start} position must not be greater than the {@code end}
    * position (i.e. {@code 0 <= start <= end <= length()}).</p>
    *
+   * <p>The view is immutable since characters that have already been appended are never changed
+   * by the buffer. But the view becomes invalid as soon as the buffer contents are discarded (by
+   * the {@link #reset()} or {@link #clear()} method, for example), in which case any attempt to
+   * read characters from the view will fail with
+   * {@link java.util.ConcurrentModificationException}. Use
+   * the {@link #substring(int, int)} method to get a copy that outlives the buffer contents.</p>
+   *
    * @throws IndexOutOfBoundsException if the specified range is invalid.
    * @see #substring(int, int)
    */
   @Override
   public CharSegment subSequence(int start, int end) {
-    return CharSegment.from(substring(start, end));
+    Checks.checkRange(this, start, end);
+    return start == end ? CharSegment.EMPTY : new CharBufferView(this, start, end, generation);
+  }
+
+  /**
+   * Returns the current generation of the buffer contents.
+   *
+   * @see #invalidateViews()
+   */
+  final int generation() {
+    return generation;
+  }
+
+  /**
+   * Invalidates all the views of the buffer contents returned by the
+   * {@link #subSequence(int, int)} method. Subclasses must call this method whenever characters
+   * that have already been appended are discarded, moved or changed (i.e. on {@link #reset()} and
+   * {@link #clear()}).
+   */
+  protected final void invalidateViews() {
+    generation++;
   }
 
   /**
@@ -401,6 +444,270 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
     return new String(copy);
   }
 
+  // Streaming
+
+  /**
+   * The maximum size of the transfer buffer used by the default {@link #writeChars(int, int,
+   * CharSink)} implementation.
+   */
+  private static final int TRANSFER_SIZE = 1 << 13;
+
+  /**
+   * Writes current contents of the buffer to the specified sink. The contents are written in
+   * chunks (page by page, if possible) without creating a {@code String} copy.
+   *
+   * @param sink The sink to write to.
+   * @throws NullPointerException if the specified sink is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   * @see #writeChars(int, int, CharSink)
+   */
+  public final void writeTo(CharSink sink) throws IOException {
+    Checks.checkNotNull(sink);
+    if (length() > 0) { // fast check
+      writeChars(0, length(), sink);
+    }
+  }
+
+  /**
+   * Writes current contents of the buffer to the specified writer. The contents are written in
+   * chunks (page by page, if possible) without creating a {@code String} copy.
+   *
+   * @param writer The writer to write to.
+   * @throws NullPointerException if the specified writer is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   * @see #writeTo(CharSink)
+   */
+  public final void writeTo(Writer writer) throws IOException {
+    writeTo(Checks.checkNotNull(writer)::write);
+  }
+
+  /**
+   * Writes current contents of the buffer to the specified output stream encoding characters
+   * using the specified charset. Malformed and unmappable characters are replaced with the
+   * charset's default replacement, the same way as {@link String#getBytes(Charset)} does.
+   *
+   * @param stream The output stream to write to.
+   * @param charset The charset to encode characters.
+   * @throws NullPointerException if the specified output stream or charset is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   * @see CharSink#from(OutputStream, Charset)
+   */
+  public final void writeTo(OutputStream stream, Charset charset) throws IOException {
+    final ChannelCharSink sink = ChannelCharSink.from(stream, charset);
+    writeTo(sink);
+    sink.finish();
+  }
+
+  /**
+   * Writes current contents of the buffer to the specified channel encoding characters using the
+   * specified encoder. The encoder is reset before encoding and flushed after that, encoded bytes
+   * are passed to the channel through a single reusable byte buffer.
+   *
+   * @param channel The channel to write to.
+   * @param encoder The encoder to encode characters.
+   * @throws NullPointerException if the specified channel or encoder is {@code null}.
+   * @throws CharacterCodingException if the encoder reports malformed or unmappable characters.
+   * @throws IOException if an I/O error occurs.
+   * @see CharSink#from(WritableByteChannel, CharsetEncoder)
+   */
+  public final void writeTo(WritableByteChannel channel, CharsetEncoder encoder)
+      throws IOException {
+    final ChannelCharSink sink = new ChannelCharSink(channel, encoder);
+    writeTo(sink);
+    sink.finish();
+  }
+
+  /**
+   * Does an actual writing of characters from the buffer contents in the specified range to the
+   * specified sink. Default implementation copies characters through a transfer buffer,
+   * subclasses may override it to write their internal arrays directly.
+   *
+   * <p>Subclasses should not worry about correctness of the arguments provided since they should
+   * already be verified by the {@code public} methods.</p>
+   *
+   * @param start The start position in the buffer contents.
+   * @param end The end position in the buffer contents.
+   * @param sink The sink to write to.
+   * @throws IOException if an I/O error occurs.
+   */
+  protected void writeChars(int start, int end, CharSink sink) throws IOException {
+    final char[] transfer = new char[Math.min(end - start, TRANSFER_SIZE)];
+    while (start < end) {
+      final int count = Math.min(transfer.length, end - start);
+      copyChars(start, start + count, transfer, 0);
+      sink.write(transfer, 0, count);
+      start += count;
+    }
+  }
+
+  // ===== SEARCH OPERATIONS ======================================================================
+
+  /**
+   * Returns index of the first occurrence of the specified character in the buffer contents or
+   * {@code -1} if there is no such occurrence.
+   *
+   * @param ch The character to search for.
+   * @return Index of the first occurrence of the character or {@code -1}.
+   * @see #indexOf(char, int)
+   */
+  public final int indexOf(char ch) {
+    return indexOf(ch, 0, length());
+  }
+
+  /**
+   * Returns index of the first occurrence of the specified character in the buffer contents
+   * starting the search at the specified index or {@code -1} if there is no such occurrence. The
+   * {@code from} index has the same semantics as in the {@link String#indexOf(int, int)} method,
+   * there are no restrictions on its value.
+   *
+   * @param ch The character to search for.
+   * @param from The index to start the search from.
+   * @return Index of the first occurrence of the character or {@code -1}.
+   * @see #indexOf(char, int, int)
+   */
+  public final int indexOf(char ch, int from) {
+    final int length = length();
+    return from < length ? indexOf(ch, Math.max(from, 0), length) : -1;
+  }
+
+  /**
+   * Returns index of the last occurrence of the specified character in the buffer contents or
+   * {@code -1} if there is no such occurrence.
+   *
+   * @param ch The character to search for.
+   * @return Index of the last occurrence of the character or {@code -1}.
+   * @see #lastIndexOf(char, int)
+   */
+  public final int lastIndexOf(char ch) {
+    return lastIndexOf(ch, 0, length());
+  }
+
+  /**
+   * Returns index of the last occurrence of the specified character in the buffer contents
+   * searching backward starting at the specified index or {@code -1} if there is no such
+   * occurrence. The {@code from} index has the same semantics as in the
+   * {@link String#lastIndexOf(int, int)} method, there are no restrictions on its value.
+   *
+   * @param ch The character to search for.
+   * @param from The index to start the search from.
+   * @return Index of the last occurrence of the character or {@code -1}.
+   * @see #lastIndexOf(char, int, int)
+   */
+  public final int lastIndexOf(char ch, int from) {
+    return from < 0 ? -1 : lastIndexOf(ch, 0, Math.min(from, length() - 1) + 1);
+  }
+
+  /**
+   * Returns index of the first occurrence of the specified {@code needle} in the buffer contents
+   * or {@code -1} if there is no such occurrence.
+   *
+   * @param needle The sequence of characters to search for.
+   * @return Index of the first occurrence of the needle or {@code -1}.
+   * @throws NullPointerException if the specified needle is {@code null}.
+   * @see #indexOf(CharSequence, int)
+   */
+  public final int indexOf(CharSequence needle) {
+    return indexOf(needle, 0, length());
+  }
+
+  /**
+   * Returns index of the first occurrence of the specified {@code needle} in the buffer contents
+   * starting the search at the specified index or {@code -1} if there is no such occurrence. The
+   * {@code from} index has the same semantics as in the {@link String#indexOf(String, int)}
+   * method, there are no restrictions on its value.
+   *
+   * @param needle The sequence of characters to search for.
+   * @param from The index to start the search from.
+   * @return Index of the first occurrence of the needle or {@code -1}.
+   * @throws NullPointerException if the specified needle is {@code null}.
+   * @see #indexOf(CharSequence, int, int)
+   */
+  public final int indexOf(CharSequence needle, int from) {
+    final int length = length();
+    return indexOf(needle, Math.min(Math.max(from, 0), length), length);
+  }
+
+  /**
+   * Returns index of the last occurrence of the specified {@code needle} in the buffer contents
+   * or {@code -1} if there is no such occurrence.
+   *
+   * @param needle The sequence of characters to search for.
+   * @return Index of the last occurrence of the needle or {@code -1}.
+   * @throws NullPointerException if the specified needle is {@code null}.
+   * @see #lastIndexOf(CharSequence, int)
+   */
+  public final int lastIndexOf(CharSequence needle) {
+    return lastIndexOf(needle, 0, length());
+  }
+
+  /**
+   * Returns index of the last occurrence of the specified {@code needle} in the buffer contents
+   * searching backward starting at the specified index or {@code -1} if there is no such
+   * occurrence. The {@code from} index has the same semantics as in the
+   * {@link String#lastIndexOf(String, int)} method, there are no restrictions on its value.
+   *
+   * @param needle The sequence of characters to search for.
+   * @param from The index to start the search from.
+   * @return Index of the last occurrence of the needle or {@code -1}.
+   * @throws NullPointerException if the specified needle is {@code null}.
+   * @see #lastIndexOf(CharSequence, int, int)
+   */
+  public final int lastIndexOf(CharSequence needle, int from) {
+    final int end = (int) Math.min((long) from + needle.length(), length());
+    return from < 0 ? -1 : lastIndexOf(needle, 0, end);
+  }
+
+  /**
+   * Tests if the buffer contents contain the specified sequence of characters.
+   *
+   * @param sequence The sequence of characters to search for.
+   * @return {@code true} if the buffer contents contain the specified sequence.
+   * @throws NullPointerException if the specified sequence is {@code null}.
+   * @see #indexOf(CharSequence)
+   */
+  public final boolean contains(CharSequence sequence) {
+    return indexOf(sequence, 0, length()) >= 0;
+  }
+
+  /**
+   * Tests if the buffer contents start with the specified prefix.
+   *
+   * @param prefix The prefix to test.
+   * @return {@code true} if the buffer contents start with the specified prefix.
+   * @throws NullPointerException if the specified prefix is {@code null}.
+   * @see #startsWith(CharSequence, int)
+   */
+  public final boolean startsWith(CharSequence prefix) {
+    return startsWith(prefix, 0);
+  }
+
+  /**
+   * Tests if the buffer contents starting at the specified offset start with the specified
+   * prefix. Returns {@code false} if the specified offset is out of range.
+   *
+   * @param prefix The prefix to test.
+   * @param offset The offset in the buffer contents.
+   * @return {@code true} if the buffer contents start with the specified prefix at the specified
+   *         offset.
+   * @throws NullPointerException if the specified prefix is {@code null}.
+   * @see #regionMatches(boolean, int, CharSequence, int, int)
+   */
+  public final boolean startsWith(CharSequence prefix, int offset) {
+    return regionMatches(false, offset, prefix, 0, prefix.length());
+  }
+
+  /**
+   * Tests if the buffer contents end with the specified suffix.
+   *
+   * @param suffix The suffix to test.
+   * @return {@code true} if the buffer contents end with the specified suffix.
+   * @throws NullPointerException if the specified suffix is {@code null}.
+   * @see #regionMatches(boolean, int, CharSequence, int, int)
+   */
+  public final boolean endsWith(CharSequence suffix) {
+    return regionMatches(false, length() - suffix.length(), suffix, 0, suffix.length());
+  }
+
   // ===== BOOLEAN TO STRING ======================================================================
 
   /**
@@ -449,6 +756,71 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
       '8', '9', 'a', 'b', 'c', 'd', 'e', 'f'
   };
 
+  /**
+   * Hexadecimal digit pairs of all possible {@code byte} values, 2 characters per value, used by
+   * the bulk hexadecimal representation methods.
+   */
+  private static final char[] HEX_DIGITS = newDigitsTable(4);
+
+  /**
+   * Binary digit octets of all possible {@code byte} values, 8 characters per value, used by the
+   * bulk binary representation methods.
+   */
+  private static final char[] BIN_DIGITS = newDigitsTable(1);
+
+  /**
+   * Creates a lookup table of fixed length digit strings for all possible {@code byte} values.
+   *
+   * @param bits The number of bits per digit (4 for hexadecimal, 1 for binary).
+   * @return A lookup table of digit strings for all possible {@code byte} values.
+   */
+  private static char[] newDigitsTable(int bits) {
+    final int digits = 8 / bits, mask = (1 << bits) - 1;
+    final char[] table = new char[256 * digits];
+    for (int value = 0, index = 0; value < 256; value++) {
+      for (int shift = 8 - bits; shift >= 0; shift -= bits) {
+        table[index++] = DIGITS[value >>> shift & mask];
+      }
+    }
+    return table;
+  }
+
+  /**
+   * Appends fixed length digit strings of the specified range of bytes to the buffer using the
+   * specified lookup table. Digits are collected in a local chunk and appended in bulk after
+   * presizing the buffer once.
+   *
+   * @param array The array of bytes to be converted.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @param table The lookup table of digit strings.
+   * @param digits The number of digits per {@code byte} value.
+   * @return A reference to this buffer.
+   */
+  private CharBuffer appendDigits(byte[] array, int from, int to, char[] table, int digits) {
+    Checks.checkRange(array, from, to);
+    if (from < to) {
+      final long size = (long) (to - from) * digits;
+      ensureCapacity((int) Math.min(size, Integer.MAX_VALUE));
+      final char[] chunk = new char[(int) Math.min(size, TRANSFER_SIZE)];
+      int count = 0;
+      for (int index = from; index < to; index++) {
+        final int offset = (array[index] & 0xff) * digits;
+        for (int i = 0; i < digits; i++) {
+          chunk[count++] = table[offset + i];
+        }
+        if (count == chunk.length) {
+          append(CharSegment.from(chunk, 0, count));
+          count = 0;
+        }
+      }
+      if (count > 0) {
+        append(CharSegment.from(chunk, 0, count));
+      }
+    }
+    return this;
+  }
+
   /**
    * The decimal string representation of the {@code int} min value ({@code -2147483648}).
    */
@@ -629,35 +1001,440 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
   }
 
   /**
-   * Appends a decimal string representation of the specified {@code float} value to the buffer.
-   * This is a shortcut for the {@code append(Float.toString(value))}.
+   * Appends the shortest decimal string representation of the specified {@code float} value that
+   * rounds to that value to the buffer. The result is the same as the {@link Float#toString(float)}
+   * method returns since JDK 19, but no intermediate objects are created.
    *
    * <p>The format is <code>(NaN)|(\-?Infinity)|(\-?[0-9]*\.?[0-9]+([eE]\-?[0-9]+)?)</code>.</p>
    *
    * @param value The {@code float} value to be converted to a decimal string.
    * @return A reference to this buffer.
+   * @see #getDecCapacity(float)
    * @see Float#toString(float)
    */
   public final CharBuffer appendDec(float value) {
-    // the float-to-string algorithm is hard enough
-    // so let's use Float.toString() for now
-    return append(Float.toString(value));
+    FloatToDecimal.format(this, value, FloatToDecimal.SHORTEST, 0, null);
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to represent the specified {@code float} value as
+   * the shortest decimal string.
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @return The number of characters required to represent the specified {@code float} value as
+   *         the shortest decimal string.
+   * @see #appendDec(float)
+   */
+  public static int getDecCapacity(float value) {
+    return FloatToDecimal.format(null, value, FloatToDecimal.SHORTEST, 0, null);
+  }
+
+  /**
+   * Appends a plain decimal string representation of the specified {@code float} value with the
+   * specified number of fraction digits to the buffer. This is a shortcut for the
+   * {@code appendDec(value, fractionDigits, RoundingMode.HALF_UP)}.
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @see #appendDec(float, int, RoundingMode)
+   */
+  public final CharBuffer appendDec(float value, int fractionDigits) {
+    return appendDec(value, fractionDigits, RoundingMode.HALF_UP);
   }
 
   /**
-   * Appends a decimal string representation of the specified {@code double} value to the buffer.
-   * This is a shortcut for the {@code append(Double.toString(value))}.
+   * Appends a plain decimal string representation of the specified {@code float} value with the
+   * specified number of fraction digits to the buffer. The shortest decimal representation of the
+   * value (see {@link #appendDec(float)}) is rounded using the specified rounding mode, so for
+   * example {@code 0.15} is rounded to {@code 0.2} using {@code HALF_UP} (the same way as the
+   * {@code String.format("%.1f", 0.15)} does). The decimal point is omitted if the number of
+   * fraction digits is 0. The sign of negative values is preserved even if they are rounded to 0.
+   *
+   * <p>The format is <code>(NaN)|(\-?Infinity)|(\-?[0-9]+(\.[0-9]+)?)</code>.</p>
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #getDecCapacity(float, int, RoundingMode)
+   */
+  public final CharBuffer appendDec(float value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    FloatToDecimal.format(this, value, FloatToDecimal.FIXED, fractionDigits,
+        Checks.checkNotNull(mode));
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to represent the specified {@code float} value as a
+   * plain decimal string with the specified number of fraction digits.
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return The number of characters required to represent the specified {@code float} value as a
+   *         plain decimal string with the specified number of fraction digits.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #appendDec(float, int, RoundingMode)
+   */
+  public static int getDecCapacity(float value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    return FloatToDecimal.format(null, value, FloatToDecimal.FIXED, fractionDigits,
+        Checks.checkNotNull(mode));
+  }
+
+  /**
+   * Appends the shortest decimal string representation of the specified {@code double} value that
+   * rounds to that value to the buffer. The result is the same as the
+   * {@link Double#toString(double)} method returns since JDK 19, but no intermediate objects are
+   * created.
    *
    * <p>The format is <code>(NaN)|(\-?Infinity)|(\-?[0-9]*\.?[0-9]+([eE]\-?[0-9]+)?)</code>.</p>
    *
    * @param value The {@code double} value to be converted to a decimal string.
    * @return A reference to this buffer.
+   * @see #getDecCapacity(double)
    * @see Double#toString(double)
    */
   public final CharBuffer appendDec(double value) {
-    // the double-to-string algorithm is hard enough
-    // so let's use Double.toString() for now
-    return append(Double.toString(value));
+    FloatToDecimal.format(this, value, FloatToDecimal.SHORTEST, 0, null);
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to represent the specified {@code double} value as
+   * the shortest decimal string.
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @return The number of characters required to represent the specified {@code double} value as
+   *         the shortest decimal string.
+   * @see #appendDec(double)
+   */
+  public static int getDecCapacity(double value) {
+    return FloatToDecimal.format(null, value, FloatToDecimal.SHORTEST, 0, null);
+  }
+
+  /**
+   * Appends a plain decimal string representation of the specified {@code double} value with the
+   * specified number of fraction digits to the buffer. This is a shortcut for the
+   * {@code appendDec(value, fractionDigits, RoundingMode.HALF_UP)}.
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @see #appendDec(double, int, RoundingMode)
+   */
+  public final CharBuffer appendDec(double value, int fractionDigits) {
+    return appendDec(value, fractionDigits, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Appends a plain decimal string representation of the specified {@code double} value with the
+   * specified number of fraction digits to the buffer. The shortest decimal representation of the
+   * value (see {@link #appendDec(double)}) is rounded using the specified rounding mode, so for
+   * example {@code 0.15} is rounded to {@code 0.2} using {@code HALF_UP} (the same way as the
+   * {@code String.format("%.1f", 0.15)} does). The decimal point is omitted if the number of
+   * fraction digits is 0. The sign of negative values is preserved even if they are rounded to 0.
+   *
+   * <p>The format is <code>(NaN)|(\-?Infinity)|(\-?[0-9]+(\.[0-9]+)?)</code>.</p>
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #getDecCapacity(double, int, RoundingMode)
+   */
+  public final CharBuffer appendDec(double value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    FloatToDecimal.format(this, value, FloatToDecimal.FIXED, fractionDigits,
+        Checks.checkNotNull(mode));
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to represent the specified {@code double} value as a
+   * plain decimal string with the specified number of fraction digits.
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return The number of characters required to represent the specified {@code double} value as a
+   *         plain decimal string with the specified number of fraction digits.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #appendDec(double, int, RoundingMode)
+   */
+  public static int getDecCapacity(double value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    return FloatToDecimal.format(null, value, FloatToDecimal.FIXED, fractionDigits,
+        Checks.checkNotNull(mode));
+  }
+
+  // Scientific representation
+
+  /**
+   * Appends a scientific notation string representation of the specified {@code float} value with
+   * the specified number of fraction digits to the buffer. This is a shortcut for the
+   * {@code appendSci(value, fractionDigits, RoundingMode.HALF_UP)}.
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @see #appendSci(float, int, RoundingMode)
+   */
+  public final CharBuffer appendSci(float value, int fractionDigits) {
+    return appendSci(value, fractionDigits, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Appends a scientific notation string representation of the specified {@code float} value with
+   * the specified number of fraction digits to the buffer. The shortest decimal representation of
+   * the value (see {@link #appendDec(float)}) is rounded using the specified rounding mode. The
+   * decimal point is omitted if the number of fraction digits is 0.
+   *
+   * <p>The format is <code>(NaN)|(\-?Infinity)|(\-?[0-9](\.[0-9]+)?E\-?[0-9]+)</code>.</p>
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #getSciCapacity(float, int, RoundingMode)
+   */
+  public final CharBuffer appendSci(float value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    FloatToDecimal.format(this, value, FloatToDecimal.SCIENTIFIC, fractionDigits,
+        Checks.checkNotNull(mode));
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to represent the specified {@code float} value in
+   * scientific notation with the specified number of fraction digits.
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return The number of characters required to represent the specified {@code float} value.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #appendSci(float, int, RoundingMode)
+   */
+  public static int getSciCapacity(float value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    return FloatToDecimal.format(null, value, FloatToDecimal.SCIENTIFIC, fractionDigits,
+        Checks.checkNotNull(mode));
+  }
+
+  /**
+   * Appends a scientific notation string representation of the specified {@code double} value with
+   * the specified number of fraction digits to the buffer. This is a shortcut for the
+   * {@code appendSci(value, fractionDigits, RoundingMode.HALF_UP)}.
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @see #appendSci(double, int, RoundingMode)
+   */
+  public final CharBuffer appendSci(double value, int fractionDigits) {
+    return appendSci(value, fractionDigits, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Appends a scientific notation string representation of the specified {@code double} value with
+   * the specified number of fraction digits to the buffer. The shortest decimal representation of
+   * the value (see {@link #appendDec(double)}) is rounded using the specified rounding mode. The
+   * decimal point is omitted if the number of fraction digits is 0.
+   *
+   * <p>The format is <code>(NaN)|(\-?Infinity)|(\-?[0-9](\.[0-9]+)?E\-?[0-9]+)</code>.</p>
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #getSciCapacity(double, int, RoundingMode)
+   */
+  public final CharBuffer appendSci(double value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    FloatToDecimal.format(this, value, FloatToDecimal.SCIENTIFIC, fractionDigits,
+        Checks.checkNotNull(mode));
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to represent the specified {@code double} value in
+   * scientific notation with the specified number of fraction digits.
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return The number of characters required to represent the specified {@code double} value.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #appendSci(double, int, RoundingMode)
+   */
+  public static int getSciCapacity(double value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    return FloatToDecimal.format(null, value, FloatToDecimal.SCIENTIFIC, fractionDigits,
+        Checks.checkNotNull(mode));
+  }
+
+  // Engineering representation
+
+  /**
+   * Appends an engineering notation string representation (i.e. the exponent is a multiple of 3)
+   * of the specified {@code float} value with the specified number of fraction digits to the
+   * buffer. This is a shortcut for the
+   * {@code appendEng(value, fractionDigits, RoundingMode.HALF_UP)}.
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @see #appendEng(float, int, RoundingMode)
+   */
+  public final CharBuffer appendEng(float value, int fractionDigits) {
+    return appendEng(value, fractionDigits, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Appends an engineering notation string representation (i.e. the exponent is a multiple of 3)
+   * of the specified {@code float} value with the specified number of fraction digits to the
+   * buffer. The shortest decimal representation of the value (see {@link #appendDec(float)}) is
+   * rounded using the specified rounding mode. The decimal point is omitted if the number of
+   * fraction digits is 0.
+   *
+   * <p>The format is <code>(NaN)|(\-?Infinity)|(\-?[0-9]{1,3}(\.[0-9]+)?E\-?[0-9]+)</code>.</p>
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #getEngCapacity(float, int, RoundingMode)
+   */
+  public final CharBuffer appendEng(float value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    FloatToDecimal.format(this, value, FloatToDecimal.ENGINEERING, fractionDigits,
+        Checks.checkNotNull(mode));
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to represent the specified {@code float} value in
+   * engineering notation (i.e. the exponent is a multiple of 3) with the specified number of
+   * fraction digits.
+   *
+   * @param value The {@code float} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return The number of characters required to represent the specified {@code float} value.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #appendEng(float, int, RoundingMode)
+   */
+  public static int getEngCapacity(float value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    return FloatToDecimal.format(null, value, FloatToDecimal.ENGINEERING, fractionDigits,
+        Checks.checkNotNull(mode));
+  }
+
+  /**
+   * Appends an engineering notation string representation (i.e. the exponent is a multiple of 3)
+   * of the specified {@code double} value with the specified number of fraction digits to the
+   * buffer. This is a shortcut for the
+   * {@code appendEng(value, fractionDigits, RoundingMode.HALF_UP)}.
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @see #appendEng(double, int, RoundingMode)
+   */
+  public final CharBuffer appendEng(double value, int fractionDigits) {
+    return appendEng(value, fractionDigits, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Appends an engineering notation string representation (i.e. the exponent is a multiple of 3)
+   * of the specified {@code double} value with the specified number of fraction digits to the
+   * buffer. The shortest decimal representation of the value (see {@link #appendDec(double)}) is
+   * rounded using the specified rounding mode. The decimal point is omitted if the number of
+   * fraction digits is 0.
+   *
+   * <p>The format is <code>(NaN)|(\-?Infinity)|(\-?[0-9]{1,3}(\.[0-9]+)?E\-?[0-9]+)</code>.</p>
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return A reference to this buffer.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #getEngCapacity(double, int, RoundingMode)
+   */
+  public final CharBuffer appendEng(double value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    FloatToDecimal.format(this, value, FloatToDecimal.ENGINEERING, fractionDigits,
+        Checks.checkNotNull(mode));
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to represent the specified {@code double} value in
+   * engineering notation (i.e. the exponent is a multiple of 3) with the specified number of
+   * fraction digits.
+   *
+   * @param value The {@code double} value to be converted to a decimal string.
+   * @param fractionDigits The number of digits after the decimal point.
+   * @param mode The rounding mode.
+   * @return The number of characters required to represent the specified {@code double} value.
+   * @throws IllegalArgumentException if the specified number of fraction digits is negative.
+   * @throws NullPointerException if the specified rounding mode is {@code null}.
+   * @throws ArithmeticException if the rounding mode is {@link RoundingMode#UNNECESSARY}, but
+   *         rounding is necessary.
+   * @see #appendEng(double, int, RoundingMode)
+   */
+  public static int getEngCapacity(double value, int fractionDigits, RoundingMode mode) {
+    Checks.checkThat(fractionDigits, fractionDigits >= 0);
+    return FloatToDecimal.format(null, value, FloatToDecimal.ENGINEERING, fractionDigits,
+        Checks.checkNotNull(mode));
   }
 
   // Hexadecimal representation
@@ -923,6 +1700,39 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
     return 8 + getHexCapacity((int) (value >>> 32));
   }
 
+  /**
+   * Appends unsigned hexadecimal string representations of all the bytes in the specified array
+   * with leading zeros to the buffer.
+   *
+   * <p>The format is <code>([0-9a-f]{2})*</code>.</p>
+   *
+   * @param array The array of bytes to be converted to an unsigned hexadecimal string.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @see #appendHex(byte[], int, int)
+   */
+  public final CharBuffer appendHex(byte[] array) {
+    return appendHex(array, 0, array.length);
+  }
+
+  /**
+   * Appends unsigned hexadecimal string representations of the bytes in the specified range of
+   * the array with leading zeros to the buffer.
+   *
+   * <p>The format is <code>([0-9a-f]{2})*</code>.</p>
+   *
+   * @param array The array of bytes to be converted to an unsigned hexadecimal string.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   * @see #appendHexDump(byte[], int, int)
+   */
+  public final CharBuffer appendHex(byte[] array, int from, int to) {
+    return appendDigits(array, from, to, HEX_DIGITS, 2);
+  }
+
   // Octal representation
 
   /**
@@ -1549,6 +2359,39 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
     return 32 + getBinCapacity((int) (value >>> 32));
   }
 
+  /**
+   * Appends unsigned binary string representations of all the bytes in the specified array with
+   * leading zeros to the buffer.
+   *
+   * <p>The format is <code>([0-1]{8})*</code>.</p>
+   *
+   * @param array The array of bytes to be converted to an unsigned binary string.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @see #appendBin(byte[], int, int)
+   */
+  public final CharBuffer appendBin(byte[] array) {
+    return appendBin(array, 0, array.length);
+  }
+
+  /**
+   * Appends unsigned binary string representations of the bytes in the specified range of the
+   * array with leading zeros to the buffer.
+   *
+   * <p>The format is <code>([0-1]{8})*</code>.</p>
+   *
+   * @param array The array of bytes to be converted to an unsigned binary string.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   * @see #appendBinDump(byte[], int, int)
+   */
+  public final CharBuffer appendBin(byte[] array, int from, int to) {
+    return appendDigits(array, from, to, BIN_DIGITS, 8);
+  }
+
   // ===== OBJECT TO STRING =======================================================================
 
   /**
@@ -1557,9 +2400,32 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
   private static final CharSegment NULL_REFERENCE = CharSegment.from('n', 'u', 'l', 'l');
 
   /**
-   * The objects cross-reference map to detect circular references.
+   * Default maximum number of object references on the stack of the traversed objects that are
+   * scanned linearly to detect circular references.
+   *
+   * @see #setReferenceDepth(int)
+   */
+  public static final int DEFAULT_REFERENCE_DEPTH = 16;
+
+  /**
+   * The stack of the traversed object references to detect circular references.
    */
-  private IdentityHashMap<Object, CharBuffer> crossrefs;
+  private Object[] references;
+
+  /**
+   * The current number of the traversed object references.
+   */
+  private int depth;
+
+  /**
+   * The maximum number of object references on the {@link #references} stack.
+   */
+  private int referenceDepth = DEFAULT_REFERENCE_DEPTH;
+
+  /**
+   * The traversed object references deeper than the {@link #referenceDepth}.
+   */
+  private IdentityHashMap<Object, Boolean> deepReferences;
 
   /**
    * Appends string representation of the {@code null} reference to the buffer.
@@ -1674,12 +2540,23 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
    *     <td>{@link #appendMap(Map)}</td>
    *   </tr>
    *   <tr>
+   *     <td>{@link java.util.UUID}</td>
+   *     <td>The same format as {@code UUID.toString()} without creating a {@code String}</td>
+   *   </tr>
+   *   <tr>
+   *     <td>{@link java.time.Instant}</td>
+   *     <td>The same format as {@code Instant.toString()} without creating a {@code String}</td>
+   *   </tr>
+   *   <tr>
    *     <td><strong>None of the above</strong></td>
    *     <td>{@link #appendPlain(Object)}</td>
    *   </tr>
    * </table>
    * </p>
    *
+   * <p>The mapping is resolved only once per class of objects. Formatters registered in the
+   * {@link ObjectFormatters} registry take precedence over the mappings above.</p>
+   *
    * @param object The object to append to the buffer.
    * @return A reference to this buffer.
    */
@@ -1688,72 +2565,10 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
     if (object == null) {
       return appendNull();
     }
-    // check known types (in order of probability)
-    if (object instanceof CharSequence) {
-      return appendString((CharSequence) object);
-    }
-    if (object instanceof Integer) {
-      return appendInteger(((Integer) object).intValue());
-    }
-    if (object instanceof Long) {
-      return appendLong(((Long) object).longValue());
-    }
-    if (object instanceof Double) {
-      return appendDouble(((Double) object).doubleValue());
-    }
-    if (object instanceof Float) {
-      return appendFloat(((Float) object).floatValue());
-    }
-    if (object instanceof Byte) {
-      return appendByte(((Byte) object).byteValue());
-    }
-    if (object instanceof Short) {
-      return appendShort(((Short) object).shortValue());
-    }
-    if (object instanceof Character) {
-      return appendCharacter(((Character) object).charValue());
-    }
-    if (object instanceof Boolean) {
-      return appendBoolean(((Boolean) object).booleanValue());
-    }
-    if (object instanceof Enum<?>) {
-      return appendEnum(((Enum<?>) object));
-    }
-    if (object instanceof Iterable<?>) {
-      return appendIterable((Iterable<?>) object);
-    }
-    if (object instanceof Map<?, ?>) {
-      return appendMap((Map<?, ?>) object);
-    }
-    if (object instanceof Object[]) {
-      return appendObjectArray((Object[]) object);
-    }
-    if (object instanceof int[]) {
-      return appendIntegerArray((int[]) object);
-    }
-    if (object instanceof long[]) {
-      return appendLongArray((long[]) object);
-    }
-    if (object instanceof double[]) {
-      return appendDoubleArray((double[]) object);
-    }
-    if (object instanceof float[]) {
-      return appendFloatArray((float[]) object);
-    }
-    if (object instanceof byte[]) {
-      return appendByteArray((byte[]) object);
-    }
-    if (object instanceof short[]) {
-      return appendShortArray((short[]) object);
-    }
-    if (object instanceof char[]) {
-      return appendCharacterArray((char[]) object);
-    }
-    if (object instanceof boolean[]) {
-      return appendBooleanArray((boolean[]) object);
-    }
-    // unsupported object type
-    return appendPlain(object);
+    // resolved once per class
+    ObjectFormatters.lookup(object.getClass()).format(this, object);
+    // avoid potential buffer swapping
+    return this;
   }
 
   /**
@@ -2321,17 +3136,53 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
   }
 
   /**
-   * Adds a reference to the specified object to the cross-reference map.
+   * Returns the maximum number of object references on the stack of the traversed objects that
+   * are scanned linearly to detect circular references.
+   *
+   * @return The maximum depth of the reference stack.
+   * @see #setReferenceDepth(int)
+   */
+  public final int referenceDepth() {
+    return referenceDepth;
+  }
+
+  /**
+   * Sets the maximum number of object references on the stack of the traversed objects that are
+   * scanned linearly to detect circular references. References of deeper objects are kept in a
+   * hash table. The default value is {@link #DEFAULT_REFERENCE_DEPTH}, which is enough for the
+   * most object graphs to be traversed without any allocation.
    *
-   * <p>If the specified object reference appears for the first time then it will be added to the
-   * cross-reference map and {@code false} will be returned, which means that there is no circular
-   * reference yet. But if the cross-reference map already contains the specified reference then
-   * circular reference takes place. In that case this method will create a string representation
-   * of the circular reference, save it in the cross-reference map (multiple circular references
-   * are also possible), append the reference string to the buffer and return {@code true}. The
-   * format of circular reference is <code>!CLASS@HASH</code>, where {@code CLASS} is the full name
-   * of the object's class and {@code HASH} is the object's hash code created by the
-   * {@link System#identityHashCode(Object)} method.</p>
+   * @param depth The maximum depth of the reference stack.
+   * @throws IllegalArgumentException if the specified depth is negative.
+   * @throws IllegalStateException if a graph of objects is being traversed at the moment.
+   * @see #pushReference(Object)
+   */
+  public final void setReferenceDepth(int depth) {
+    Checks.checkThat(depth, depth >= 0);
+    if (this.depth > 0) {
+      throw new IllegalStateException();
+    }
+    if (references != null && references.length != depth) {
+      references = null;
+    }
+    referenceDepth = depth;
+  }
+
+  /**
+   * Pushes a reference to the specified object on the stack of the traversed objects.
+   *
+   * <p>If the specified object reference appears for the first time then it will be pushed on the
+   * stack and {@code false} will be returned, which means that there is no circular reference yet.
+   * But if the stack already contains the specified reference then circular reference takes
+   * place. In that case this method will append string representation of the circular reference
+   * to the buffer and return {@code true}. The format of circular reference is
+   * <code>!CLASS@HASH</code>, where {@code CLASS} is the full name of the object's class and
+   * {@code HASH} is the object's hash code created by the {@link System#identityHashCode(Object)}
+   * method.</p>
+   *
+   * <p>The first {@link #referenceDepth()} references are kept in an array which is scanned
+   * linearly and allocated only once per buffer, so traversing a shallow graph of objects does not
+   * allocate memory at all.</p>
    *
    * <p>Typical usage:</p>
    * <blockquote><pre>
@@ -2349,82 +3200,251 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
    * }
    * </pre></blockquote>
    *
-   * @param object An object reference to be added to the cross-reference map.
-   * @return {@code true} if the cross-reference map already contains the specified reference to an
-   *         object (circular reference detected); {@code false} if the specified reference appears
-   *         for the first time while traversing a graph of objects.
+   * @param object An object reference to be pushed on the stack.
+   * @return {@code true} if the stack already contains the specified reference to an object
+   *         (circular reference detected); {@code false} if the specified reference appears for
+   *         the first time while traversing a graph of objects.
    * @see #popReference(Object)
    */
   protected final boolean pushReference(Object object) {
-    if (crossrefs == null) {
-      crossrefs = new IdentityHashMap<>();
-    }
-    if (crossrefs.containsKey(object)) {
-      CharBuffer crossref = crossrefs.get(object);
-      if (crossref == null) {
-        final String classname = object.getClass().getName();
-        final int length = classname.length() + 10;
-        crossref = new LinearCharBuffer(length, length);
-        crossref.append('!').append(classname);
-        crossref.append('@').appendHex(System.identityHashCode(object));
+    final int depth = this.depth;
+    final int limit = referenceDepth;
+    Object[] references = this.references;
+    // scan the stack
+    for (int i = Math.min(depth, limit) - 1; i >= 0; i--) {
+      if (references[i] == object) {
+        appendCrossReference(object);
+        return true;
+      }
+    }
+    if (depth < limit) {
+      if (references == null) {
+        this.references = references = new Object[limit];
       }
-      append(crossref);
-      return true;
+      references[depth] = object;
+    } else {
+      // too deep
+      if (deepReferences == null) {
+        deepReferences = new IdentityHashMap<>();
+      } else if (deepReferences.containsKey(object)) {
+        appendCrossReference(object);
+        return true;
+      }
+      deepReferences.put(object, Boolean.TRUE);
     }
-    crossrefs.put(object, null);
+    this.depth = depth + 1;
     return false;
   }
 
   /**
-   * Removes the specified object reference previously added by the {@link #pushReference(Object)}
-   * method from the cross-reference map.
+   * Pops the specified object reference previously pushed by the {@link #pushReference(Object)}
+   * method from the stack of the traversed objects.
    *
-   * @param object An object reference to be removed from the cross-reference map.
+   * @param object An object reference to be popped from the stack.
    * @see #pushReference(Object)
    */
   protected final void popReference(Object object) {
-    crossrefs.remove(object);
+    final int depth = --this.depth;
+    if (depth < referenceDepth) {
+      // do not retain the object
+      references[depth] = null;
+    } else {
+      deepReferences.remove(object);
+    }
+  }
+
+  /**
+   * Appends string representation of the circular reference to the specified object.
+   */
+  private void appendCrossReference(Object object) {
+    append('!').append(object.getClass().getName());
+    append('@').appendHex(System.identityHashCode(object));
   }
 
   // ===== ADVANCED OPERATIONS ====================================================================
 
   // Encoding
 
+  /**
+   * The view of a sequence being encoded, allocated on demand. It is taken from the field while in
+   * use, so that a reentrant call allocates a new one.
+   */
+  private CharSegmentView encodedSequence;
+
+  /**
+   * The view used to append runs of unchanged characters in bulk, allocated on demand. It is taken
+   * from the field while in use, so that a reentrant call allocates a new one.
+   */
+  private CharSegmentView encodedRange;
+
   public final CharBuffer appendEncoded(int cp, CharEncoder encoder) {
     encoder.encode(cp, this);
     return this;
   }
 
   public final CharBuffer appendEncoded(CharSequence sequence, CharEncoder encoder) {
-    return appendEncoded(CharSegment.from(sequence), encoder);
+    if (sequence instanceof CharSegment) {
+      return appendEncoded((CharSegment) sequence, encoder);
+    }
+    // wrap the sequence with a reusable view instead of a new segment
+    CharSegmentView view = encodedSequence;
+    encodedSequence = null;
+    if (view == null) {
+      view = new CharSegmentView();
+    }
+    try {
+      return appendEncoded(view.of(sequence, 0, sequence.length()), encoder);
+    } finally {
+      view.release();
+      encodedSequence = view;
+    }
   }
 
   public final CharBuffer appendEncoded(CharSegment segment, CharEncoder encoder) {
     Checks.checkNotNull(encoder);
     final int length = segment.length();
-    for (int cp, index = 0; index < length; index += Character.charCount(cp)) {
-      cp = segment.codePointAt(index);
-      encoder.encode(cp, this);
+    // the leading unchanged characters are copied and scanned in place if possible
+    int index = 0;
+    if (length > 0 && encoder.skip(segment, 0, 1) > 0) {
+      index = appendUnchanged(segment, encoder);
+    }
+    while (index < length) {
+      final int end = encoder.skip(segment, index, length);
+      if (end > index) {
+        // copy unchanged characters in bulk
+        if (index == 0 && end == length) {
+          return append(segment);
+        }
+        CharSegmentView range = encodedRange;
+        encodedRange = null;
+        if (range == null) {
+          range = new CharSegmentView();
+        }
+        try {
+          append(range.of(segment, index, end));
+        } finally {
+          range.release();
+          encodedRange = range;
+        }
+        index = end;
+      } else {
+        final int cp = segment.codePointAt(index);
+        encoder.encode(cp, this);
+        index += Character.charCount(cp);
+      }
     }
     return this;
   }
 
+  /**
+   * Appends the leading characters of the specified segment that are passed through unchanged by
+   * the specified encoder and returns the number of characters appended. Buffers that store
+   * characters in an array may copy the segment in bulk and then scan the copy in place with the
+   * {@link CharEncoder#skip(char[], int, int)} method, keeping only the unchanged prefix. The
+   * default implementation appends nothing and returns 0.
+   */
+  int appendUnchanged(CharSegment segment, CharEncoder encoder) {
+    return 0;
+  }
+
   public final CharBuffer appendDecoded(CharSequence sequence, CharDecoder decoder) {
     return appendDecoded(CharSegment.from(sequence), decoder);
   }
 
   public final CharBuffer appendDecoded(CharSegment segment, CharDecoder decoder) {
-    Checks.checkNotNull(decoder);
-    final int length = segment.length();
-    for (int count, index = 0; index < length; index += count) {
-      count = decoder.decode(segment, index, this);
-      if (count <= 0) { // avoid infinite loop
-        return this;
-      }
-    }
+    decoder.decode(segment, 0, segment.length(), this);
     return this;
   }
 
+  // Base encoding
+
+  /**
+   * Appends the Base64 representation (with the standard alphabet and padding) of all the bytes in
+   * the specified array to the buffer.
+   *
+   * @param array The array of bytes to be encoded.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @see #appendBase64(byte[], int, int)
+   */
+  public final CharBuffer appendBase64(byte[] array) {
+    return appendBase64(array, 0, array.length);
+  }
+
+  /**
+   * Appends the Base64 representation (with the standard alphabet and padding) of the bytes in the
+   * specified range of the array to the buffer.
+   *
+   * @param array The array of bytes to be encoded.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   * @see BaseEncoding#BASE64
+   */
+  public final CharBuffer appendBase64(byte[] array, int from, int to) {
+    return BaseEncoding.BASE64.encode(array, from, to, this);
+  }
+
+  /**
+   * Appends the Base64 representation (with the URL and filename safe alphabet and padding) of all
+   * the bytes in the specified array to the buffer.
+   *
+   * @param array The array of bytes to be encoded.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @see #appendBase64Url(byte[], int, int)
+   */
+  public final CharBuffer appendBase64Url(byte[] array) {
+    return appendBase64Url(array, 0, array.length);
+  }
+
+  /**
+   * Appends the Base64 representation (with the URL and filename safe alphabet and padding) of the
+   * bytes in the specified range of the array to the buffer.
+   *
+   * @param array The array of bytes to be encoded.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   * @see BaseEncoding#BASE64_URL
+   */
+  public final CharBuffer appendBase64Url(byte[] array, int from, int to) {
+    return BaseEncoding.BASE64_URL.encode(array, from, to, this);
+  }
+
+  /**
+   * Appends the Base32 representation (with the standard alphabet and padding) of all the bytes in
+   * the specified array to the buffer.
+   *
+   * @param array The array of bytes to be encoded.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @see #appendBase32(byte[], int, int)
+   */
+  public final CharBuffer appendBase32(byte[] array) {
+    return appendBase32(array, 0, array.length);
+  }
+
+  /**
+   * Appends the Base32 representation (with the standard alphabet and padding) of the bytes in the
+   * specified range of the array to the buffer.
+   *
+   * @param array The array of bytes to be encoded.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   * @see BaseEncoding#BASE32
+   */
+  public final CharBuffer appendBase32(byte[] array, int from, int to) {
+    return BaseEncoding.BASE32.encode(array, from, to, this);
+  }
+
   // Indentation
 
   /**
@@ -2523,6 +3543,199 @@ public abstract class CharBuffer implements Appendable, CharSegment, ToString {
     return this;
   }
 
+  // Dumping
+
+  /**
+   * The number of bytes per line of the hexadecimal dump.
+   */
+  private static final int HEX_DUMP_WIDTH = 16;
+
+  /**
+   * The number of bytes per line of the binary dump.
+   */
+  private static final int BIN_DUMP_WIDTH = 8;
+
+  /**
+   * Appends a hexadecimal dump of all the bytes in the specified array to the buffer.
+   *
+   * @param array The array of bytes to be dumped.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @see #appendHexDump(byte[], int, int)
+   */
+  public final CharBuffer appendHexDump(byte[] array) {
+    return appendHexDump(array, 0, array.length);
+  }
+
+  /**
+   * Appends a hexadecimal dump of the bytes in the specified range of the array to the buffer.
+   * The format is the same as the canonical format of the {@code hexdump -C} command: each line
+   * contains an offset relative to the beginning of the range, up to 16 bytes in hexadecimal
+   * split into two groups and the same bytes as ASCII characters, non-printable characters are
+   * replaced with the {@code '.'} character. Each line ends with the {@code '\n'} character.
+   *
+   * <pre>
+   * 00000000  48 65 6c 6c 6f 2c 20 77  6f 72 6c 64 21 0a 00 ff  |Hello, world!...|
+   * 00000010  2e 2e 2e                                          |...|
+   * </pre>
+   *
+   * @param array The array of bytes to be dumped.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   * @see #getHexDumpCapacity(int)
+   */
+  public final CharBuffer appendHexDump(byte[] array, int from, int to) {
+    return appendDump(array, from, to, HEX_DIGITS, 2, HEX_DUMP_WIDTH);
+  }
+
+  /**
+   * Returns the number of characters required to dump the specified number of bytes using the
+   * {@link #appendHexDump(byte[], int, int)} method.
+   *
+   * @param count The number of bytes to be dumped.
+   * @return The number of characters required to dump the specified number of bytes.
+   * @throws IllegalArgumentException if the specified number of bytes is negative.
+   * @see #appendHexDump(byte[], int, int)
+   */
+  public static int getHexDumpCapacity(int count) {
+    return getDumpCapacity(Checks.checkThat(count, count >= 0), 2, HEX_DUMP_WIDTH);
+  }
+
+  /**
+   * Appends a binary dump of all the bytes in the specified array to the buffer.
+   *
+   * @param array The array of bytes to be dumped.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @see #appendBinDump(byte[], int, int)
+   */
+  public final CharBuffer appendBinDump(byte[] array) {
+    return appendBinDump(array, 0, array.length);
+  }
+
+  /**
+   * Appends a binary dump of the bytes in the specified range of the array to the buffer. The
+   * format is similar to the {@link #appendHexDump(byte[], int, int)} but each line contains up
+   * to 8 bytes grouped into binary octets.
+   *
+   * <pre>
+   * 00000000  01001000 01100101 01101100 01101100  01101111 00101100 00100000 01110111  |Hello, w|
+   * 00000008  01101111 01110010                                                         |or|
+   * </pre>
+   *
+   * @param array The array of bytes to be dumped.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @return A reference to this buffer.
+   * @throws NullPointerException if the specified array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   * @see #getBinDumpCapacity(int)
+   */
+  public final CharBuffer appendBinDump(byte[] array, int from, int to) {
+    return appendDump(array, from, to, BIN_DIGITS, 8, BIN_DUMP_WIDTH);
+  }
+
+  /**
+   * Returns the number of characters required to dump the specified number of bytes using the
+   * {@link #appendBinDump(byte[], int, int)} method.
+   *
+   * @param count The number of bytes to be dumped.
+   * @return The number of characters required to dump the specified number of bytes.
+   * @throws IllegalArgumentException if the specified number of bytes is negative.
+   * @see #appendBinDump(byte[], int, int)
+   */
+  public static int getBinDumpCapacity(int count) {
+    return getDumpCapacity(Checks.checkThat(count, count >= 0), 8, BIN_DUMP_WIDTH);
+  }
+
+  /**
+   * Appends a dump of the bytes in the specified range of the array to the buffer. Lines are
+   * formatted in a local chunk using the specified lookup table and appended in bulk after
+   * presizing the buffer once.
+   *
+   * @param array The array of bytes to be dumped.
+   * @param from The initial index of the range, inclusive.
+   * @param to The final index of the range, exclusive.
+   * @param table The lookup table of digit strings.
+   * @param digits The number of digits per {@code byte} value.
+   * @param width The number of bytes per line.
+   * @return A reference to this buffer.
+   */
+  private CharBuffer appendDump(byte[] array, int from, int to, char[] table, int digits,
+      int width) {
+    Checks.checkRange(array, from, to);
+    if (from < to) {
+      final int size = getDumpCapacity(to - from, digits, width);
+      final int line = getDumpCapacity(width, digits, width);
+      ensureCapacity(size);
+      final char[] chunk = new char[Math.min(size, Math.max(TRANSFER_SIZE / line, 1) * line)];
+      int count = 0;
+      for (int offset = 0, index = from; index < to; offset += width) {
+        final int end = to - index > width ? index + width : to;
+        // offset
+        for (int shift = 28; shift >= 0; shift -= 4) {
+          chunk[count++] = DIGITS[offset >>> shift & 0x0f];
+        }
+        chunk[count++] = ' ';
+        chunk[count++] = ' ';
+        // digits
+        for (int i = 0, n = index; i < width; i++, n++) {
+          if (i == width >> 1) {
+            chunk[count++] = ' ';
+          }
+          if (n < end) {
+            final int value = (array[n] & 0xff) * digits;
+            for (int j = 0; j < digits; j++) {
+              chunk[count++] = table[value + j];
+            }
+          } else {
+            for (int j = 0; j < digits; j++) {
+              chunk[count++] = ' ';
+            }
+          }
+          chunk[count++] = ' ';
+        }
+        // characters
+        chunk[count++] = ' ';
+        chunk[count++] = '|';
+        for (; index < end; index++) {
+          final byte value = array[index];
+          chunk[count++] = value >= 0x20 && value < 0x7f ? (char) value : '.';
+        }
+        chunk[count++] = '|';
+        chunk[count++] = '\n';
+        if (chunk.length - count < line) {
+          append(CharSegment.from(chunk, 0, count));
+          count = 0;
+        }
+      }
+      if (count > 0) {
+        append(CharSegment.from(chunk, 0, count));
+      }
+    }
+    return this;
+  }
+
+  /**
+   * Returns the number of characters required to dump the specified number of bytes, or
+   * {@code Integer.MAX_VALUE} if the result does not fit into an {@code int}.
+   *
+   * @param count The number of bytes to be dumped.
+   * @param digits The number of digits per {@code byte} value.
+   * @param width The number of bytes per line.
+   * @return The number of characters required to dump the specified number of bytes.
+   */
+  private static int getDumpCapacity(int count, int digits, int width) {
+    // offset + 2 spaces + digit groups + 2 spaces + 2 bars + new line (+ characters)
+    final int prefix = 8 + 2 + width * (digits + 1) + 2 + 2 + 1;
+    final int rest = count % width;
+    final long size = (long) (count / width) * (prefix + width) + (rest > 0 ? prefix + rest : 0);
+    return (int) Math.min(size, Integer.MAX_VALUE);
+  }
+
   // Joining
 
   public final CharBuffer appendJoin(int delimiter, CharSequence... elements) {
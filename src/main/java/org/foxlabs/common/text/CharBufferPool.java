@@ -0,0 +1,324 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.foxlabs.common.Checks;
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+/**
+ * A pool of {@link LinearCharBuffer}s of the same threshold that allows to avoid buffer allocation
+ * on every {@code toString()} call. Buffers are reused by the {@link CharBuffer#reset()} method, so
+ * in a steady state the only object allocated per call is the resulting {@code String}.
+ *
+ * <p>A buffer which capacity exceeds the {@link #retainedCapacity()} will be cleared by the
+ * {@link CharBuffer#clear()} method before it is returned to the pool, so that a single huge
+ * string representation does not keep a huge buffer alive forever.</p>
+ *
+ * <p>Typical usage:</p>
+ * <blockquote><pre>
+ * static final CharBufferPool POOL = CharBufferPool.threadLocal(CharBuffer.LOG_THRESHOLD);
+ *
+ * final CharBuffer buffer = POOL.acquire();
+ * try {
+ *   return buffer.appendObject(object).toString();
+ * } finally {
+ *   POOL.release(buffer);
+ * }
+ * </pre></blockquote>
+ * Or just {@code POOL.format(object)}.
+ *
+ * @author Fox Mulder
+ * @see ToString.Adapter#bufferPool()
+ * @see org.foxlabs.common.Objects#toString(Object, CharBufferPool)
+ */
+public abstract class CharBufferPool {
+
+  /**
+   * Default maximum capacity of a buffer that can be returned to the pool without clearing.
+   */
+  public static final int DEFAULT_RETAINED_CAPACITY = 1 << 14; // 16K characters long (32K bytes)
+
+  /**
+   * The threshold of buffers of the pool.
+   */
+  protected final int threshold;
+
+  /**
+   * The maximum capacity of a buffer that can be returned to the pool without clearing.
+   */
+  protected final int retainedCapacity;
+
+  /**
+   * Constructs a new {@code CharBufferPool} with the specified buffer {@code threshold} and
+   * {@code retainedCapacity}.
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} or
+   *         {@code retainedCapacity} is negative.
+   */
+  protected CharBufferPool(int threshold, int retainedCapacity) {
+    Checks.checkThat(threshold, threshold >= 0);
+    this.threshold = Math.min(threshold, LinearCharBuffer.MAX_THRESHOLD);
+    this.retainedCapacity = Checks.checkThat(retainedCapacity, retainedCapacity >= 0);
+  }
+
+  /**
+   * Returns the threshold of buffers of the pool.
+   */
+  public final int threshold() {
+    return threshold;
+  }
+
+  /**
+   * Returns the maximum capacity of a buffer that can be returned to the pool without clearing.
+   */
+  public final int retainedCapacity() {
+    return retainedCapacity;
+  }
+
+  /**
+   * Returns an empty buffer from the pool or a new one if the pool is empty. The buffer must be
+   * returned to the pool by the {@link #release(CharBuffer)} method after use and must not be used
+   * after that.
+   *
+   * @return An empty buffer with the {@link #threshold()} threshold.
+   */
+  public final CharBuffer acquire() {
+    final LinearCharBuffer buffer = poll();
+    return buffer != null
+        ? buffer
+        : new LinearCharBuffer(LinearCharBuffer.DEFAULT_CAPACITY, threshold);
+  }
+
+  /**
+   * Returns the specified buffer previously obtained by the {@link #acquire()} method back to the
+   * pool. Buffers that could not be obtained from the pool are silently ignored.
+   *
+   * @param buffer The buffer to return to the pool.
+   */
+  public final void release(CharBuffer buffer) {
+    if (buffer instanceof LinearCharBuffer && buffer.threshold() == threshold) {
+      final LinearCharBuffer linear = (LinearCharBuffer) buffer;
+      if (linear.capacity() > retainedCapacity) {
+        linear.clear();
+      } else {
+        linear.reset();
+      }
+      offer(linear);
+    }
+  }
+
+  /**
+   * Returns a string representation of the specified object produced by the
+   * {@link CharBuffer#appendObject(Object)} method on a pooled buffer. In case of buffer overflow
+   * partial result will be returned and no exception will be thrown.
+   *
+   * @param object The object to be converted to a string representation.
+   * @return A string representation of the specified object.
+   */
+  public final String format(Object object) {
+    final CharBuffer buffer = acquire();
+    try {
+      return buffer.appendObject(object).toString();
+    } catch (ThresholdReachedException e) {
+      // threshold has been reached, return partial result anyway
+      return e.getProducer().toString();
+    } finally {
+      release(buffer);
+    }
+  }
+
+  /**
+   * Returns a string representation of the specified object produced by the
+   * {@link ToString#toString(CharBuffer)} method on a pooled buffer. In case of buffer overflow
+   * partial result will be returned and no exception will be thrown.
+   *
+   * @param object The object to be converted to a string representation.
+   * @return A string representation of the specified object.
+   */
+  public final String format(ToString object) {
+    final CharBuffer buffer = acquire();
+    try {
+      return object.toString(buffer).toString();
+    } catch (ThresholdReachedException e) {
+      // threshold has been reached, return partial result anyway
+      return e.getProducer().toString();
+    } finally {
+      release(buffer);
+    }
+  }
+
+  /**
+   * Removes an empty buffer from the pool and returns it or returns {@code null} if the pool is
+   * empty.
+   */
+  protected abstract LinearCharBuffer poll();
+
+  /**
+   * Adds the specified empty buffer to the pool if the pool has room for it.
+   */
+  protected abstract void offer(LinearCharBuffer buffer);
+
+  // Factories
+
+  /**
+   * Creates a new pool that retains a single buffer per thread with the specified
+   * {@code threshold} and the {@link #DEFAULT_RETAINED_CAPACITY}.
+   *
+   * @see #threadLocal(int, int)
+   */
+  public static CharBufferPool threadLocal(int threshold) {
+    return threadLocal(threshold, DEFAULT_RETAINED_CAPACITY);
+  }
+
+  /**
+   * Creates a new pool that retains a single buffer per thread with the specified
+   * {@code threshold} and {@code retainedCapacity}. Nested (reentrant) acquisitions on the same
+   * thread get new buffers.
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} or
+   *         {@code retainedCapacity} is negative.
+   */
+  public static CharBufferPool threadLocal(int threshold, int retainedCapacity) {
+    return new ThreadLocalPool(threshold, retainedCapacity);
+  }
+
+  /**
+   * Creates a new pool shared between threads with the specified {@code threshold}, the
+   * {@link #DEFAULT_RETAINED_CAPACITY} and the number of stripes twice the number of available
+   * processors.
+   *
+   * @see #striped(int, int, int)
+   */
+  public static CharBufferPool striped(int threshold) {
+    final int stripes = Runtime.getRuntime().availableProcessors() << 1;
+    return striped(threshold, DEFAULT_RETAINED_CAPACITY, stripes);
+  }
+
+  /**
+   * Creates a new pool shared between threads with the specified {@code threshold},
+   * {@code retainedCapacity} and the number of {@code stripes}. Each stripe retains at most one
+   * buffer, a thread starts looking for a buffer from the stripe selected by its identifier. The
+   * pool is lock-free. The number of stripes will be rounded up to the nearest power of 2.
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} or
+   *         {@code retainedCapacity} is negative or the specified number of {@code stripes} is
+   *         not positive.
+   */
+  public static CharBufferPool striped(int threshold, int retainedCapacity, int stripes) {
+    return new StripedPool(threshold, retainedCapacity, stripes);
+  }
+
+  // Implementations
+
+  /**
+   * The pool that retains a single buffer per thread.
+   */
+  private static final class ThreadLocalPool extends CharBufferPool {
+
+    /**
+     * The single buffer slot per thread. The slot is emptied while its buffer is in use to
+     * support reentrancy.
+     */
+    private final ThreadLocal<LinearCharBuffer[]> slots =
+        ThreadLocal.withInitial(() -> new LinearCharBuffer[1]);
+
+    private ThreadLocalPool(int threshold, int retainedCapacity) {
+      super(threshold, retainedCapacity);
+    }
+
+    @Override
+    protected LinearCharBuffer poll() {
+      final LinearCharBuffer[] slot = slots.get();
+      final LinearCharBuffer buffer = slot[0];
+      slot[0] = null;
+      return buffer;
+    }
+
+    @Override
+    protected void offer(LinearCharBuffer buffer) {
+      final LinearCharBuffer[] slot = slots.get();
+      if (slot[0] == null) {
+        slot[0] = buffer;
+      }
+    }
+
+  }
+
+  /**
+   * The lock-free pool that retains a single buffer per stripe.
+   */
+  private static final class StripedPool extends CharBufferPool {
+
+    /**
+     * The number of stripes to probe before giving up.
+     */
+    private static final int PROBES = 2;
+
+    /**
+     * The stripes, the number of stripes is a power of 2.
+     */
+    private final AtomicReferenceArray<LinearCharBuffer> stripes;
+
+    /**
+     * The mask to select a stripe by a thread identifier.
+     */
+    private final int mask;
+
+    private StripedPool(int threshold, int retainedCapacity, int stripes) {
+      super(threshold, retainedCapacity);
+      Checks.checkThat(stripes, stripes > 0);
+      final int count = Integer.highestOneBit((Math.min(stripes, 1 << 16) << 1) - 1);
+      this.stripes = new AtomicReferenceArray<>(count);
+      this.mask = this.stripes.length() - 1;
+    }
+
+    @Override
+    protected LinearCharBuffer poll() {
+      final int start = stripe();
+      for (int n = 0; n < PROBES; n++) {
+        final int index = (start + n) & mask;
+        // avoid redundant writes to empty stripes
+        if (stripes.get(index) != null) {
+          final LinearCharBuffer buffer = stripes.getAndSet(index, null);
+          if (buffer != null) {
+            return buffer;
+          }
+        }
+      }
+      return null;
+    }
+
+    @Override
+    protected void offer(LinearCharBuffer buffer) {
+      final int start = stripe();
+      for (int n = 0; n < PROBES; n++) {
+        if (stripes.compareAndSet((start + n) & mask, null, buffer)) {
+          return;
+        }
+      }
+    }
+
+    private int stripe() {
+      // spread thread identifiers (Fibonacci hashing)
+      return (int) (Thread.currentThread().getId() * 0x9e3779b97f4a7c15L >>> 40) & mask;
+    }
+
+  }
+
+}
@@ -0,0 +1,160 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.ConcurrentModificationException;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * An immutable view of a range of the {@link CharBuffer} contents that reads characters directly
+ * from the buffer storage without copying them. The view remembers generation of the buffer
+ * contents it was created for and fails with {@link ConcurrentModificationException} when the
+ * contents have been discarded since then.
+ *
+ * @author Fox Mulder
+ * @see CharBuffer#subSequence(int, int)
+ */
+final class CharBufferView implements CharSegment {
+
+  /**
+   * The underlying buffer.
+   */
+  private final CharBuffer buffer;
+
+  /**
+   * The start position of the range in the buffer.
+   */
+  private final int start;
+
+  /**
+   * The length of the range.
+   */
+  private final int length;
+
+  /**
+   * The generation of the buffer contents this view was created for.
+   */
+  private final int generation;
+
+  /**
+   * Constructs a new view of the specified range {@code [start, end)} of the specified buffer.
+   * The range is expected to be already validated.
+   *
+   * @param buffer The underlying buffer.
+   * @param start The start position of the range, inclusive.
+   * @param end The end position of the range, exclusive.
+   * @param generation The generation of the buffer contents.
+   */
+  CharBufferView(CharBuffer buffer, int start, int end, int generation) {
+    this.buffer = buffer;
+    this.start = start;
+    this.length = end - start;
+    this.generation = generation;
+  }
+
+  /**
+   * Returns the underlying buffer if this view is still valid.
+   *
+   * @throws ConcurrentModificationException if the buffer contents have been discarded.
+   */
+  private CharBuffer buffer() {
+    if (buffer.generation() != generation) {
+      throw new ConcurrentModificationException("The buffer contents have been discarded");
+    }
+    return buffer;
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    Checks.checkIndex(this, index);
+    return buffer().charAt(start + index);
+  }
+
+  @Override
+  public int codePointAt(int index) {
+    Checks.checkIndex(this, index);
+    final CharBuffer buffer = buffer();
+    final char high = buffer.charAt(start + index);
+    if (Character.isHighSurrogate(high) && ++index < length) {
+      final char low = buffer.charAt(start + index);
+      if (Character.isLowSurrogate(low)) {
+        return Character.toCodePoint(high, low);
+      }
+    }
+    return high;
+  }
+
+  @Override
+  public CharSegment subSequence(int start, int end) {
+    Checks.checkRange(this, start, end);
+    if (start == end) {
+      return CharSegment.EMPTY;
+    }
+    buffer(); // fail fast
+    return start == 0 && end == length ? this
+        : new CharBufferView(buffer, this.start + start, this.start + end, generation);
+  }
+
+  @Override
+  public void copyTo(int start, int end, char[] target, int offset) {
+    Checks.checkRange(this, start, end);
+    Checks.checkRange(target, offset, offset + end - start);
+    if (start < end) {
+      buffer().copyChars(this.start + start, this.start + end, target, offset);
+    }
+  }
+
+  @Override
+  public int indexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final int index = buffer().indexOf(ch, this.start + start, this.start + end);
+    return index < 0 ? -1 : index - this.start;
+  }
+
+  @Override
+  public int lastIndexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final int index = buffer().lastIndexOf(ch, this.start + start, this.start + end);
+    return index < 0 ? -1 : index - this.start;
+  }
+
+  @Override
+  public int indexOf(CharSequence needle, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final int index = buffer().indexOf(needle, this.start + start, this.start + end);
+    return index < 0 ? -1 : index - this.start;
+  }
+
+  @Override
+  public int lastIndexOf(CharSequence needle, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final int index = buffer().lastIndexOf(needle, this.start + start, this.start + end);
+    return index < 0 ? -1 : index - this.start;
+  }
+
+  @Override
+  public String toString() {
+    return buffer().toString(start, start + length);
+  }
+
+}
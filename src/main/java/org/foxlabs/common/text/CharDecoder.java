@@ -16,10 +16,64 @@
 
 package org.foxlabs.common.text;
 
+import org.foxlabs.common.Checks;
+
 public interface CharDecoder {
 
   int decode(CharSegment segment, int index, CharBuffer buffer);
 
+  /**
+   * Returns index of the first character in the specified range {@code [start, end)} of the
+   * specified {@code segment} that may start an escape sequence, or {@code end} if all the
+   * characters in the range are literals. The characters skipped are appended to the buffer in
+   * bulk by the {@link #decode(CharSegment, int, int, CharBuffer)} method. The default
+   * implementation skips nothing and returns {@code start}.
+   */
+  default int skip(CharSegment segment, int start, int end) {
+    return start;
+  }
+
+  /**
+   * Decodes characters in the specified range {@code [start, end)} of the specified
+   * {@code segment} and appends the result to the specified {@code buffer}. Runs of literal
+   * characters found by the {@link #skip(CharSegment, int, int)} method are appended in bulk and
+   * escape sequences are decoded one by one using the
+   * {@link #decode(CharSegment, int, CharBuffer)} method. Escape sequences are not allowed to
+   * span beyond the end of the range.
+   *
+   * @param segment The segment of characters to decode.
+   * @param start The start position in the segment, inclusive.
+   * @param end The end position in the segment, exclusive.
+   * @param buffer The buffer to append the result to.
+   * @return The position in the segment where decoding stopped, which is {@code end} unless the
+   *         {@link #decode(CharSegment, int, CharBuffer)} method returned a non-positive count.
+   * @throws NullPointerException if the specified segment or buffer is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   */
+  default int decode(CharSegment segment, int start, int end, CharBuffer buffer) {
+    Checks.checkRange(segment, start, end);
+    Checks.checkNotNull(buffer);
+    final CharSegment range =
+        end < segment.length() ? new CharSegmentView().of(segment, 0, end) : segment;
+    final CharSegmentView run = new CharSegmentView();
+    int index = start;
+    while (index < end) {
+      final int next = skip(range, index, end);
+      if (next > index) {
+        // copy literal characters in bulk
+        buffer.append(index == 0 && next == range.length() ? range : run.of(range, index, next));
+        index = next;
+      } else {
+        final int count = decode(range, index, buffer);
+        if (count <= 0) { // avoid infinite loop
+          break;
+        }
+        index += count;
+      }
+    }
+    return index;
+  }
+
   /**
    * An identity character decoder that does not apply any conversion to characters and appends
    * them to the buffer as is (1:1 mapping).
@@ -107,5 +161,122 @@ public interface CharDecoder {
     }
   };
 
+  /**
+   * The XML character decoder for element content that decodes the {@code &amp;amp;},
+   * {@code &amp;lt;}, {@code &amp;gt;}, {@code &amp;quot;} and {@code &amp;apos;} entity
+   * references and numeric character references. Invalid or unknown references are appended to
+   * the buffer as is.
+   *
+   * @see CharEncoder#XML_TEXT
+   */
+  CharDecoder XML_TEXT = EntityDecoder.newXmlDecoder();
+
+  /**
+   * The XML character decoder for attribute values, the same as the {@link #XML_TEXT}.
+   *
+   * @see CharEncoder#XML_ATTRIBUTE
+   */
+  CharDecoder XML_ATTRIBUTE = XML_TEXT;
+
+  /**
+   * The HTML character decoder that decodes the predefined XML entity references, the HTML 4
+   * entity references for the Latin-1 characters (like {@code &amp;nbsp;} or
+   * {@code &amp;eacute;}), the most common HTML 4 entity references beyond Latin-1 (like
+   * {@code &amp;euro;} or {@code &amp;mdash;}) and numeric character references. Invalid or
+   * unknown references are appended to the buffer as is.
+   *
+   * @see CharEncoder#HTML
+   */
+  CharDecoder HTML = EntityDecoder.newHtmlDecoder();
+
+  /**
+   * The CSV (RFC 4180) character decoder for contents of a quoted field that converts doubled
+   * {@code '\"'} characters to a single one.
+   *
+   * @see CharEncoder#CSV
+   */
+  CharDecoder CSV = new EscapeDecoder('\"') {
+    @Override int decodeEscape(CharSegment segment, int index, CharBuffer buffer) {
+      if (++index < segment.length() && segment.charAt(index) == '\"') {
+        buffer.append('\"');
+        return 2;
+      }
+      return 0;
+    }
+  };
+
+  /**
+   * The POSIX shell character decoder for contents of a single-quoted string that converts the
+   * <code>'\''</code> sequences to a single quote character.
+   *
+   * @see CharEncoder#SHELL
+   */
+  CharDecoder SHELL = new EscapeDecoder('\'') {
+    @Override int decodeEscape(CharSegment segment, int index, CharBuffer buffer) {
+      if (index + 3 < segment.length() && segment.charAt(index + 1) == '\\'
+          && segment.charAt(index + 2) == '\'' && segment.charAt(index + 3) == '\'') {
+        buffer.append('\'');
+        return 4;
+      }
+      return 0;
+    }
+  };
+
+  /**
+   * The URL character decoder that decodes percent-encoded (RFC 3986) UTF-8 octets like
+   * {@code %20} or {@code %C3%A9}. Invalid or incomplete sequences are appended to the buffer as
+   * is. Note that the {@code '+'} character is not decoded as space.
+   */
+  CharDecoder URL = new UrlDecoder();
+
+  /**
+   * The Java character decoder that decodes the {@code \\}, {@code \'}, {@code \"},
+   * {@code \n}, {@code \r}, {@code \t}, {@code \b}, {@code \f} and {@code \}{@code uXXXX}
+   * escape sequences. Unlike the other decoders this one is strict and throws
+   * {@link IllegalArgumentException} on a malformed escape sequence.
+   *
+   * @see CharEncoder#JAVA
+   */
+  CharDecoder JAVA = new EscapeDecoder('\\') {
+    @Override int decodeEscape(CharSegment segment, int index, CharBuffer buffer) {
+      final int length = segment.length();
+      final char ch = index + 1 < length ? segment.charAt(index + 1) : 0;
+      switch (ch) {
+      case '\\':
+      case '\'':
+      case '\"':
+        buffer.append(ch);
+        return 2;
+      case 'n':
+        buffer.append('\n');
+        return 2;
+      case 'r':
+        buffer.append('\r');
+        return 2;
+      case 't':
+        buffer.append('\t');
+        return 2;
+      case 'b':
+        buffer.append('\b');
+        return 2;
+      case 'f':
+        buffer.append('\f');
+        return 2;
+      case 'u':
+        int code = index + 6 <= length ? 0 : -1;
+        for (int i = index + 2; code >= 0 && i < index + 6; i++) {
+          final int digit = EscapeDecoder.hexDigit(segment.charAt(i));
+          code = digit < 0 ? -1 : code << 4 | digit;
+        }
+        if (code < 0) {
+          throw new IllegalArgumentException("Invalid escape sequence at " + index);
+        }
+        buffer.append((char) code);
+        return 6;
+      default:
+        throw new IllegalArgumentException("Invalid escape sequence at " + index);
+      }
+    }
+  };
 
 }
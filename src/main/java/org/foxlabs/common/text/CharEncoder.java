@@ -16,6 +16,11 @@
 
 package org.foxlabs.common.text;
 
+import java.util.Collections;
+import java.util.Map;
+
+import org.foxlabs.util.UnicodeSet;
+
 /**
  * A character encoder that converts a given single character (Unicode code point) to a sequence of
  * characters (1:M mapping) and appends the encoded representation to the buffer.
@@ -33,6 +38,54 @@ public interface CharEncoder {
    */
   int encode(int ch, CharBuffer buffer);
 
+  /**
+   * Returns the index of the first character in the specified range {@code [start, end)} of the
+   * specified {@code segment} that may be changed by this encoder, or {@code end} if all the
+   * characters in the range are passed through unchanged. The characters skipped are appended to
+   * the buffer in bulk by the {@link CharBuffer#appendEncoded(CharSegment, CharEncoder)} method.
+   * The default implementation skips nothing and returns {@code start}.
+   */
+  default int skip(CharSegment segment, int start, int end) {
+    return start;
+  }
+
+  /**
+   * Returns the index of the first character in the specified range {@code [start, end)} of the
+   * specified {@code array} that may be changed by this encoder, or {@code end} if all the
+   * characters in the range are passed through unchanged. This is the array counterpart of the
+   * {@link #skip(CharSegment, int, int)} method used by buffers that copy a segment in bulk and
+   * then scan the copy in place. The default implementation skips nothing and returns
+   * {@code start}.
+   */
+  default int skip(char[] array, int start, int end) {
+    return start;
+  }
+
+  /**
+   * Compiles a new character encoder that passes the characters of the specified {@code safe} set
+   * through unchanged and encodes all other characters using the specified {@code escaper}.
+   *
+   * @see #compile(UnicodeSet, Map, CharEncoder)
+   */
+  static CharEncoder compile(UnicodeSet safe, CharEncoder escaper) {
+    return compile(safe, Collections.emptyMap(), escaper);
+  }
+
+  /**
+   * Compiles a new character encoder that replaces characters (Unicode code points) according to
+   * the specified {@code replacements} mapping, passes other characters of the specified
+   * {@code safe} set through unchanged and encodes all the remaining characters using the
+   * specified {@code escaper}. The encoder uses lookup tables and supports the
+   * {@link #skip(CharSegment, int, int)} method, so that runs of unchanged characters are copied
+   * in bulk.
+   *
+   * @throws NullPointerException if any of the specified arguments is {@code null}.
+   */
+  static CharEncoder compile(UnicodeSet safe, Map<Integer, ? extends CharSequence> replacements,
+      CharEncoder escaper) {
+    return new CompiledCharEncoder(safe, replacements, escaper);
+  }
+
   /**
    * An identity character encoder that does not apply any conversion to characters and appends
    * them to the buffer as is (1:1 mapping).
@@ -42,6 +95,12 @@ public interface CharEncoder {
       buffer.append(ch);
       return Character.charCount(ch);
     }
+    @Override public int skip(CharSegment segment, int start, int end) {
+      return end;
+    }
+    @Override public int skip(char[] array, int start, int end) {
+      return end;
+    }
   };
 
   /**
@@ -113,37 +172,174 @@ public interface CharEncoder {
    * converted to the {@link #UCODE} format as well. Other characters will be appended to the
    * buffer as is.
    */
-  CharEncoder JAVA = new CharEncoder() {
-    @Override public int encode(int ch, CharBuffer buffer) {
-      switch (ch) {
-      case '\\':
-        buffer.append('\\').append('\\');
-        return 2;
-      case '\'':
-        buffer.append('\\').append('\'');
-        return 2;
-      case '\"':
-        buffer.append('\\').append('\"');
-        return 2;
-      case '\n':
-        buffer.append('\\').append('n');
-        return 2;
-      case '\r':
-        buffer.append('\\').append('r');
-        return 2;
-      case '\t':
-        buffer.append('\\').append('t');
-        return 2;
-      case '\b':
-        buffer.append('\\').append('b');
-        return 2;
-      case '\f':
-        buffer.append('\\').append('f');
-        return 2;
-      default:
-        return Character.isISOControl(ch) ? UCODE.encode(ch, buffer) : IDENTITY.encode(ch, buffer);
-      }
+  CharEncoder JAVA = compile(
+      UnicodeSet.fromIntervals(new int[] {0x00, 0x1f, 0x7f, 0x9f})
+          .union(UnicodeSet.fromElements("\\\'\"")).inverse(),
+      (ch, buffer) -> {
+        switch (ch) {
+        case '\\':
+          buffer.append('\\').append('\\');
+          return 2;
+        case '\'':
+          buffer.append('\\').append('\'');
+          return 2;
+        case '\"':
+          buffer.append('\\').append('\"');
+          return 2;
+        case '\n':
+          buffer.append('\\').append('n');
+          return 2;
+        case '\r':
+          buffer.append('\\').append('r');
+          return 2;
+        case '\t':
+          buffer.append('\\').append('t');
+          return 2;
+        case '\b':
+          buffer.append('\\').append('b');
+          return 2;
+        case '\f':
+          buffer.append('\\').append('f');
+          return 2;
+        default:
+          return Character.isISOControl(ch)
+              ? UCODE.encode(ch, buffer)
+              : IDENTITY.encode(ch, buffer);
+        }
+      });
+
+  /**
+   * The JSON character encoder (RFC 8259) that adds {@code '\\'} escape character for the
+   * {@code '\\'}, {@code '\"'}, {@code '\n'}, {@code '\r'}, {@code '\t'}, {@code '\b'} and
+   * {@code '\f'} characters. Other control characters ({@code U+0000} through {@code U+001F}) as
+   * well as the {@code U+2028} and {@code U+2029} line separators (which are not allowed in
+   * JavaScript string literals) will be converted to the {@link #UCODE} format. Other characters
+   * will be appended to the buffer as is.
+   */
+  CharEncoder JSON = compile(
+      UnicodeSet.fromIntervals(new int[] {0x00, 0x1f, 0x2028, 0x2029})
+          .union(UnicodeSet.fromElements("\\\"")).inverse(),
+      (ch, buffer) -> {
+        switch (ch) {
+        case '\\':
+          buffer.append('\\').append('\\');
+          return 2;
+        case '\"':
+          buffer.append('\\').append('\"');
+          return 2;
+        case '\n':
+          buffer.append('\\').append('n');
+          return 2;
+        case '\r':
+          buffer.append('\\').append('r');
+          return 2;
+        case '\t':
+          buffer.append('\\').append('t');
+          return 2;
+        case '\b':
+          buffer.append('\\').append('b');
+          return 2;
+        case '\f':
+          buffer.append('\\').append('f');
+          return 2;
+        default:
+          return UCODE.encode(ch, buffer);
+        }
+      });
+
+  /**
+   * The HTML character encoder that replaces the {@code '&'}, {@code '<'}, {@code '>'},
+   * {@code '\"'} and {@code '\''} characters with the {@code &amp;amp;}, {@code &amp;lt;},
+   * {@code &amp;gt;}, {@code &amp;quot;} and {@code &amp;#39;} character references respectively,
+   * so that the encoded text is safe in both element content and quoted attribute values. Other
+   * characters will be appended to the buffer as is.
+   *
+   * @see CharDecoder#HTML
+   */
+  CharEncoder HTML = compile(UnicodeSet.fromElements("&<>\"'").inverse(), (ch, buffer) -> {
+    switch (ch) {
+    case '&':
+      buffer.append('&').append('a').append('m').append('p').append(';');
+      return 5;
+    case '<':
+      buffer.append('&').append('l').append('t').append(';');
+      return 4;
+    case '>':
+      buffer.append('&').append('g').append('t').append(';');
+      return 4;
+    case '\"':
+      buffer.append('&').append('q').append('u').append('o').append('t').append(';');
+      return 6;
+    default: // '\''
+      buffer.append('&').append('#').append('3').append('9').append(';');
+      return 5;
     }
-  };
+  });
+
+  /**
+   * The XML character encoder for element content that replaces the {@code '&'}, {@code '<'} and
+   * {@code '>'} characters with the {@code &amp;amp;}, {@code &amp;lt;} and {@code &amp;gt;}
+   * entity references respectively (the {@code '>'} character is replaced to avoid the
+   * {@code ]]>} sequence). Other characters will be appended to the buffer as is.
+   *
+   * @see CharDecoder#XML_TEXT
+   */
+  CharEncoder XML_TEXT = compile(UnicodeSet.fromElements("&<>").inverse(),
+      (ch, buffer) -> HTML.encode(ch, buffer));
+
+  /**
+   * The XML character encoder for attribute values that replaces the {@code '&'}, {@code '<'},
+   * {@code '>'}, {@code '\"'} and {@code '\''} characters with the {@code &amp;amp;},
+   * {@code &amp;lt;}, {@code &amp;gt;}, {@code &amp;quot;} and {@code &amp;apos;} entity references
+   * respectively. The {@code '\t'}, {@code '\n'} and {@code '\r'} characters are replaced with
+   * the {@code &amp;#9;}, {@code &amp;#10;} and {@code &amp;#13;} character references to survive
+   * attribute value normalization. Other characters will be appended to the buffer as is.
+   *
+   * @see CharDecoder#XML_ATTRIBUTE
+   */
+  CharEncoder XML_ATTRIBUTE = compile(UnicodeSet.fromElements("&<>\"'\t\n\r").inverse(),
+      (ch, buffer) -> {
+        switch (ch) {
+        case '\'':
+          buffer.append('&').append('a').append('p').append('o').append('s').append(';');
+          return 6;
+        case '\t':
+          buffer.append('&').append('#').append('9').append(';');
+          return 4;
+        case '\n':
+          buffer.append('&').append('#').append('1').append('0').append(';');
+          return 5;
+        case '\r':
+          buffer.append('&').append('#').append('1').append('3').append(';');
+          return 5;
+        default:
+          return HTML.encode(ch, buffer);
+        }
+      });
+
+  /**
+   * The CSV (RFC 4180) character encoder for contents of a quoted field that doubles the
+   * {@code '\"'} character. Other characters will be appended to the buffer as is. Note that the
+   * encoder does not add enclosing double quotes.
+   *
+   * @see CharDecoder#CSV
+   */
+  CharEncoder CSV = compile(UnicodeSet.fromElements('\"').inverse(), (ch, buffer) -> {
+    buffer.append('\"').append('\"');
+    return 2;
+  });
+
+  /**
+   * The POSIX shell character encoder for contents of a single-quoted string that replaces the
+   * single quote character with the <code>'\''</code> sequence (i.e. closes the quoted string,
+   * appends an escaped single quote and opens the quoted string again). Other characters will be
+   * appended to the buffer as is. Note that the encoder does not add enclosing single quotes.
+   *
+   * @see CharDecoder#SHELL
+   */
+  CharEncoder SHELL = compile(UnicodeSet.fromElements('\'').inverse(), (ch, buffer) -> {
+    buffer.append('\'').append('\\').append('\'').append('\'');
+    return 4;
+  });
 
 }
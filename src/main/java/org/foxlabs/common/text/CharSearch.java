@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.Arrays;
+
+/**
+ * Search algorithms over {@link CharSegment}s that do not materialize the segment contents.
+ *
+ * <p>Short needles are searched by scanning for the first character using the
+ * {@link CharSegment#indexOf(char, int, int)} method (which implementations override with a scan
+ * over the underlying storage) and verifying candidates. Longer needles are searched using the
+ * Boyer-Moore-Horspool algorithm with a bad character table indexed by the low byte of
+ * characters.</p>
+ *
+ * <p>Methods of this class expect the ranges to be already validated.</p>
+ *
+ * @author Fox Mulder
+ */
+final class CharSearch {
+
+  /**
+   * The maximum length of a needle that is searched by scanning for its first character.
+   */
+  static final int SHORT_NEEDLE = 4;
+
+  /**
+   * The size of the bad character table.
+   */
+  private static final int TABLE_SIZE = 256;
+
+  // Instantiation is not possible
+  private CharSearch() {
+    throw new IllegalAccessError();
+  }
+
+  /**
+   * Returns index of the first occurrence of the specified needle in the specified range
+   * {@code [start, end)} of the haystack or {@code -1} if there is no such occurrence. An empty
+   * needle is found at {@code start}.
+   */
+  static int indexOf(CharSegment haystack, CharSequence needle, int start, int end) {
+    final int length = needle.length();
+    if (length <= 1) {
+      return length == 0 ? start : haystack.indexOf(needle.charAt(0), start, end);
+    }
+    final int last = end - length; // last possible position
+    if (length <= SHORT_NEEDLE) {
+      final char first = needle.charAt(0);
+      for (int index = start; index <= last; index++) {
+        if ((index = haystack.indexOf(first, index, last + 1)) < 0) {
+          break;
+        }
+        if (matches(haystack, index + 1, needle, 1, length)) {
+          return index;
+        }
+      }
+      return -1;
+    }
+    // Boyer-Moore-Horspool
+    final char[] pattern = new char[length];
+    CharSegment.from(needle).copyTo(0, length, pattern, 0);
+    final int[] shifts = new int[TABLE_SIZE];
+    Arrays.fill(shifts, length);
+    for (int i = 0; i < length - 1; i++) {
+      shifts[pattern[i] & 0xff] = length - 1 - i;
+    }
+    final char tail = pattern[length - 1];
+    for (int index = start; index <= last;) {
+      final char ch = haystack.charAt(index + length - 1);
+      if (ch == tail && matches(haystack, index, pattern, 0, length - 1)) {
+        return index;
+      }
+      index += shifts[ch & 0xff];
+    }
+    return -1;
+  }
+
+  /**
+   * Returns index of the last occurrence of the specified needle in the specified range
+   * {@code [start, end)} of the haystack or {@code -1} if there is no such occurrence. An empty
+   * needle is found at {@code end}.
+   */
+  static int lastIndexOf(CharSegment haystack, CharSequence needle, int start, int end) {
+    final int length = needle.length();
+    if (length <= 1) {
+      return length == 0 ? end : haystack.lastIndexOf(needle.charAt(0), start, end);
+    }
+    final int last = end - length; // last possible position
+    if (length <= SHORT_NEEDLE) {
+      final char first = needle.charAt(0);
+      for (int index = last + 1; index > start;) {
+        if ((index = haystack.lastIndexOf(first, start, index)) < 0) {
+          break;
+        }
+        if (matches(haystack, index + 1, needle, 1, length)) {
+          return index;
+        }
+      }
+      return -1;
+    }
+    // Boyer-Moore-Horspool in reverse direction
+    final char[] pattern = new char[length];
+    CharSegment.from(needle).copyTo(0, length, pattern, 0);
+    final int[] shifts = new int[TABLE_SIZE];
+    Arrays.fill(shifts, length);
+    for (int i = length - 1; i > 0; i--) {
+      shifts[pattern[i] & 0xff] = i;
+    }
+    final char head = pattern[0];
+    for (int index = last; index >= start;) {
+      final char ch = haystack.charAt(index);
+      if (ch == head && matches(haystack, index + 1, pattern, 1, length)) {
+        return index;
+      }
+      index -= shifts[ch & 0xff];
+    }
+    return -1;
+  }
+
+  /**
+   * Tests if the specified region of the segment matches the specified region of the other
+   * sequence. Has the same semantics as the
+   * {@link String#regionMatches(boolean, int, String, int, int)} method.
+   */
+  static boolean regionMatches(CharSegment segment, boolean ignoreCase, int offset,
+      CharSequence other, int otherOffset, int length) {
+    if (offset < 0 || otherOffset < 0 || offset > (long) segment.length() - length
+        || otherOffset > (long) other.length() - length) {
+      return false;
+    }
+    for (int i = 0; i < length; i++) {
+      final char ch1 = segment.charAt(offset + i);
+      final char ch2 = other.charAt(otherOffset + i);
+      if (ch1 != ch2) {
+        if (!ignoreCase) {
+          return false;
+        }
+        // the same rules as in the String.regionMatches()
+        final char upper1 = Character.toUpperCase(ch1);
+        final char upper2 = Character.toUpperCase(ch2);
+        if (upper1 != upper2 && Character.toLowerCase(upper1) != Character.toLowerCase(upper2)) {
+          return false;
+        }
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Tests if characters of the haystack starting at the specified index match characters of the
+   * needle in the specified range {@code [from, to)}.
+   */
+  private static boolean matches(CharSegment haystack, int index, CharSequence needle, int from,
+      int to) {
+    for (; from < to; from++, index++) {
+      if (haystack.charAt(index) != needle.charAt(from)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * Tests if characters of the haystack starting at the specified index match characters of the
+   * pattern in the specified range {@code [from, to)}.
+   */
+  private static boolean matches(CharSegment haystack, int index, char[] pattern, int from,
+      int to) {
+    for (; from < to; from++, index++) {
+      if (haystack.charAt(index) != pattern[from]) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+}
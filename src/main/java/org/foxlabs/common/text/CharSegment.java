@@ -105,6 +105,93 @@ public interface CharSegment extends CharSequence {
    */
   void copyTo(int start, int end, char[] target, int offset);
 
+  /**
+   * Returns index of the first occurrence of the specified character in the specified range
+   * {@code [start, end)} of this {@code CharSegment} or {@code -1} if there is no such occurrence.
+   * The default implementation checks characters one by one, implementations are encouraged to
+   * override it with a faster scan over the underlying storage.
+   *
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   */
+  default int indexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    for (; start < end; start++) {
+      if (charAt(start) == ch) {
+        return start;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns index of the last occurrence of the specified character in the specified range
+   * {@code [start, end)} of this {@code CharSegment} or {@code -1} if there is no such occurrence.
+   * The default implementation checks characters one by one, implementations are encouraged to
+   * override it with a faster scan over the underlying storage.
+   *
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   */
+  default int lastIndexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    while (--end >= start) {
+      if (charAt(end) == ch) {
+        return end;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Returns index of the first occurrence of the specified {@code needle} in the specified range
+   * {@code [start, end)} of this {@code CharSegment} or {@code -1} if there is no such
+   * occurrence. An empty needle is found at {@code start}.
+   *
+   * <p>Short needles are searched by scanning for the first character using the
+   * {@link #indexOf(char, int, int)} method, longer ones are searched using the
+   * Boyer-Moore-Horspool algorithm.</p>
+   *
+   * @throws NullPointerException if the specified {@code needle} is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   */
+  default int indexOf(CharSequence needle, int start, int end) {
+    Checks.checkRange(this, start, end);
+    return CharSearch.indexOf(this, Checks.checkNotNull(needle), start, end);
+  }
+
+  /**
+   * Returns index of the last occurrence of the specified {@code needle} in the specified range
+   * {@code [start, end)} of this {@code CharSegment} or {@code -1} if there is no such
+   * occurrence. An empty needle is found at {@code end}.
+   *
+   * @throws NullPointerException if the specified {@code needle} is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is invalid.
+   * @see #indexOf(CharSequence, int, int)
+   */
+  default int lastIndexOf(CharSequence needle, int start, int end) {
+    Checks.checkRange(this, start, end);
+    return CharSearch.lastIndexOf(this, Checks.checkNotNull(needle), start, end);
+  }
+
+  /**
+   * Tests if a region of this {@code CharSegment} matches a region of the specified
+   * {@code other} sequence. This method has the same semantics as the
+   * {@link String#regionMatches(boolean, int, String, int, int)}, i.e. returns {@code false} if
+   * any of the regions is out of range.
+   *
+   * @param ignoreCase Whether to ignore case when comparing characters.
+   * @param offset The start position of the region in this segment.
+   * @param other The other sequence of characters.
+   * @param otherOffset The start position of the region in the other sequence.
+   * @param length The number of characters to compare.
+   * @return {@code true} if the regions match, {@code false} otherwise.
+   * @throws NullPointerException if the specified {@code other} sequence is {@code null}.
+   */
+  default boolean regionMatches(boolean ignoreCase, int offset, CharSequence other,
+      int otherOffset, int length) {
+    return CharSearch.regionMatches(this, ignoreCase, offset, Checks.checkNotNull(other),
+        otherOffset, length);
+  }
+
   /**
    * An empty character source with the following behavior:
    * <ul>
@@ -132,7 +219,7 @@ public interface CharSegment extends CharSequence {
     }
     @Override public void copyTo(int start, int end, char[] target, int offset) {
       Checks.checkRange(this, start, end);
-      Checks.checkIndex(target, offset);
+      Checks.checkRange(target, offset, offset);
     }
     @Override public String toString() {
       return Strings.EMPTY;
@@ -175,6 +262,24 @@ public interface CharSegment extends CharSequence {
       @Override public void copyTo(int start, int end, char[] target, int offset) {
         System.arraycopy(array, start, target, offset, end - start);
       }
+      @Override public int indexOf(char ch, int start, int end) {
+        Checks.checkRange(this, start, end);
+        for (; start < end; start++) {
+          if (array[start] == ch) {
+            return start;
+          }
+        }
+        return -1;
+      }
+      @Override public int lastIndexOf(char ch, int start, int end) {
+        Checks.checkRange(this, start, end);
+        while (--end >= start) {
+          if (array[end] == ch) {
+            return end;
+          }
+        }
+        return -1;
+      }
       @Override public String toString() {
         return new String(array);
       }
@@ -224,6 +329,24 @@ public interface CharSegment extends CharSequence {
         Checks.checkRange(target, offset, offset + end - start);
         System.arraycopy(array, from + start, target, offset, end - start);
       }
+      @Override public int indexOf(char ch, int start, int end) {
+        Checks.checkRange(this, start, end);
+        for (start += from, end += from; start < end; start++) {
+          if (array[start] == ch) {
+            return start - from;
+          }
+        }
+        return -1;
+      }
+      @Override public int lastIndexOf(char ch, int start, int end) {
+        Checks.checkRange(this, start, end);
+        for (start += from, end += from; --end >= start;) {
+          if (array[end] == ch) {
+            return end - from;
+          }
+        }
+        return -1;
+      }
       @Override public String toString() {
         return new String(array, from, length);
       }
@@ -255,6 +378,16 @@ public interface CharSegment extends CharSequence {
       @Override public void copyTo(int start, int end, char[] target, int offset) {
         string.getChars(start, end, target, offset);
       }
+      @Override public int indexOf(char ch, int start, int end) {
+        Checks.checkRange(this, start, end);
+        final int index = string.indexOf(ch, start);
+        return index < end ? index : -1;
+      }
+      @Override public int lastIndexOf(char ch, int start, int end) {
+        Checks.checkRange(this, start, end);
+        final int index = string.lastIndexOf(ch, end - 1);
+        return index < start ? -1 : index;
+      }
       @Override public String toString() {
         return string;
       }
@@ -304,6 +437,16 @@ public interface CharSegment extends CharSequence {
         Checks.checkRange(target, offset, offset + end - start);
         string.getChars(from + start, from + end, target, offset);
       }
+      @Override public int indexOf(char ch, int start, int end) {
+        Checks.checkRange(this, start, end);
+        final int index = string.indexOf(ch, from + start);
+        return index >= 0 && index < from + end ? index - from : -1;
+      }
+      @Override public int lastIndexOf(char ch, int start, int end) {
+        Checks.checkRange(this, start, end);
+        final int index = string.lastIndexOf(ch, from + end - 1);
+        return index < from + start ? -1 : index - from;
+      }
       @Override public String toString() {
         return string.substring(from, from + length);
       }
@@ -0,0 +1,149 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * A mutable view of a range of the underlying character sequence that can be pointed to another
+ * range without allocating a new object. Used internally to append runs of characters to a
+ * {@link CharBuffer} in bulk without copying them into an intermediate array.
+ *
+ * <p>Note that the view does not validate the range it is pointed to, callers are responsible
+ * for that.</p>
+ *
+ * @author Fox Mulder
+ */
+final class CharSegmentView implements CharSegment {
+
+  /**
+   * The underlying sequence of characters.
+   */
+  private CharSequence sequence;
+
+  /**
+   * The start position of the range in the underlying sequence.
+   */
+  private int start;
+
+  /**
+   * The length of the range.
+   */
+  private int length;
+
+  /**
+   * Points this view to the specified range {@code [start, end)} of the specified sequence.
+   *
+   * @param sequence The underlying sequence of characters.
+   * @param start The start position of the range, inclusive.
+   * @param end The end position of the range, exclusive.
+   * @return A reference to this view.
+   */
+  CharSegmentView of(CharSequence sequence, int start, int end) {
+    this.sequence = sequence;
+    this.start = start;
+    this.length = end - start;
+    return this;
+  }
+
+  /**
+   * Releases the underlying sequence, so that it could be garbage collected.
+   */
+  void release() {
+    of(null, 0, 0);
+  }
+
+  @Override
+  public int length() {
+    return length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    Checks.checkIndex(this, index);
+    return sequence.charAt(start + index);
+  }
+
+  @Override
+  public int codePointAt(int index) {
+    final char high = charAt(index);
+    if (Character.isHighSurrogate(high) && ++index < length) {
+      final char low = charAt(index);
+      if (Character.isLowSurrogate(low)) {
+        return Character.toCodePoint(high, low);
+      }
+    }
+    return high;
+  }
+
+  @Override
+  public CharSegment subSequence(int start, int end) {
+    Checks.checkRange(this, start, end);
+    return CharSegment.from(sequence, this.start + start, this.start + end);
+  }
+
+  @Override
+  public void copyTo(int start, int end, char[] target, int offset) {
+    start += this.start;
+    end += this.start;
+    if (sequence instanceof String) {
+      ((String) sequence).getChars(start, end, target, offset);
+    } else if (sequence instanceof CharSegment) {
+      ((CharSegment) sequence).copyTo(start, end, target, offset);
+    } else if (sequence instanceof StringBuilder) {
+      ((StringBuilder) sequence).getChars(start, end, target, offset);
+    } else {
+      while (start < end) {
+        target[offset++] = sequence.charAt(start++);
+      }
+    }
+  }
+
+  @Override
+  public int indexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final int index;
+    if (sequence instanceof String) {
+      index = ((String) sequence).indexOf(ch, this.start + start);
+      return index >= 0 && index < this.start + end ? index - this.start : -1;
+    } else if (sequence instanceof CharSegment) {
+      index = ((CharSegment) sequence).indexOf(ch, this.start + start, this.start + end);
+      return index < 0 ? -1 : index - this.start;
+    }
+    return CharSegment.super.indexOf(ch, start, end);
+  }
+
+  @Override
+  public int lastIndexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final int index;
+    if (sequence instanceof String) {
+      index = ((String) sequence).lastIndexOf(ch, this.start + end - 1);
+      return index < this.start + start ? -1 : index - this.start;
+    } else if (sequence instanceof CharSegment) {
+      index = ((CharSegment) sequence).lastIndexOf(ch, this.start + start, this.start + end);
+      return index < 0 ? -1 : index - this.start;
+    }
+    return CharSegment.super.lastIndexOf(ch, start, end);
+  }
+
+  @Override
+  public String toString() {
+    return sequence.subSequence(start, start + length).toString();
+  }
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * A destination of characters drained from a {@link CharBuffer}. Since this is a functional
+ * interface, a callback can be provided as a lambda expression.
+ *
+ * @author Fox Mulder
+ * @see CharBuffer#writeTo(CharSink)
+ * @see FlushingCharBuffer
+ */
+@FunctionalInterface
+public interface CharSink extends Flushable, Closeable {
+
+  /**
+   * Writes characters of the specified array in the specified range. The array may be reused by
+   * the caller after this call, so the sink must not keep a reference to it.
+   *
+   * @param chars The array of characters.
+   * @param offset The start position in the array.
+   * @param count The number of characters to write.
+   * @throws IOException if an I/O error occurs.
+   */
+  void write(char[] chars, int offset, int count) throws IOException;
+
+  /**
+   * Flushes the sink. Does nothing by default.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  @Override
+  default void flush() throws IOException {
+    // nothing to do
+  }
+
+  /**
+   * Closes the sink. Does nothing by default.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  @Override
+  default void close() throws IOException {
+    // nothing to do
+  }
+
+  // Factory methods
+
+  /**
+   * Returns a sink that writes characters to the specified writer. Flushing or closing the sink
+   * flushes or closes the writer.
+   *
+   * @param writer The writer to write to.
+   * @return A sink that writes characters to the specified writer.
+   * @throws NullPointerException if the specified writer is {@code null}.
+   */
+  static CharSink from(Writer writer) {
+    Checks.checkNotNull(writer);
+    return new CharSink() {
+      @Override public void write(char[] chars, int offset, int count) throws IOException {
+        writer.write(chars, offset, count);
+      }
+      @Override public void flush() throws IOException {
+        writer.flush();
+      }
+      @Override public void close() throws IOException {
+        writer.close();
+      }
+    };
+  }
+
+  /**
+   * Returns a sink that encodes characters using the specified encoder and writes them to the
+   * specified channel. Closing the sink completes encoding and closes the channel.
+   *
+   * @param channel The channel to write to.
+   * @param encoder The encoder to encode characters.
+   * @return A sink that encodes characters and writes them to the specified channel.
+   * @throws NullPointerException if the specified channel or encoder is {@code null}.
+   */
+  static CharSink from(WritableByteChannel channel, CharsetEncoder encoder) {
+    return new ChannelCharSink(channel, encoder);
+  }
+
+  /**
+   * Returns a sink that encodes characters using the specified charset and writes them to the
+   * specified output stream. Malformed and unmappable characters are replaced with the charset's
+   * default replacement. Closing the sink completes encoding and closes the output stream.
+   *
+   * @param stream The output stream to write to.
+   * @param charset The charset to encode characters.
+   * @return A sink that encodes characters and writes them to the specified output stream.
+   * @throws NullPointerException if the specified output stream or charset is {@code null}.
+   */
+  static CharSink from(OutputStream stream, Charset charset) {
+    return ChannelCharSink.from(stream, charset);
+  }
+
+}
@@ -0,0 +1,470 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.io.IOException;
+
+import org.foxlabs.common.Checks;
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+/**
+ * A linear {@code CharBuffer} that stores characters in a compact form as long as possible. While
+ * all the appended characters are Latin-1 ones (i.e. {@code ch <= 0xff}) the buffer keeps
+ * them in a {@code byte} array, which takes half the memory of a {@code char} array. As soon as
+ * the first non Latin-1 character is appended the buffer contents are inflated to a {@code char}
+ * array and the buffer behaves exactly as the {@link LinearCharBuffer} from then on.
+ *
+ * <p>This is the same idea as the compact strings of the JDK 9+, and the {@link #toString()}
+ * method of a compact buffer takes advantage of it, since Latin-1 bytes are copied to a new
+ * {@code String} directly.</p>
+ *
+ * @author Fox Mulder
+ * @see LinearCharBuffer
+ */
+public final class CompactCharBuffer extends CharBuffer {
+
+  /**
+   * The maximum allowed buffer threshold. Some VMs reserve some header words in an array, that is
+   * why the value is less than {@code Integer.MAX_VALUE}.
+   */
+  public static final int MAX_THRESHOLD = Integer.MAX_VALUE - 8;
+
+  /**
+   * Default initial capacity of the buffer.
+   */
+  public static final int DEFAULT_CAPACITY = 32;
+
+  /**
+   * The maximum length of a segment that is narrowed character by character.
+   */
+  private static final int SHORT_SEGMENT = 32;
+
+  /**
+   * The maximum size of the transfer buffer used to narrow appended segments.
+   */
+  private static final int TRANSFER_SIZE = 1 << 10;
+
+  /**
+   * The Latin-1 buffer contents or {@code null} if the buffer has been inflated.
+   */
+  private byte[] bytes;
+
+  /**
+   * The UTF-16 buffer contents or {@code null} if the buffer has not been inflated yet.
+   */
+  private char[] chars;
+
+  /**
+   * The current length of the buffer.
+   */
+  private int length;
+
+  /**
+   * Constructs a new {@code CompactCharBuffer} of the {@link #DEFAULT_CAPACITY} initial capacity
+   * and with the {@link #MAX_THRESHOLD} threshold.
+   *
+   * @see #CompactCharBuffer(int, int)
+   */
+  public CompactCharBuffer() {
+    this(DEFAULT_CAPACITY, MAX_THRESHOLD);
+  }
+
+  /**
+   * Constructs a new {@code CompactCharBuffer} of the specified initial {@code capacity} and with
+   * the {@link #MAX_THRESHOLD} threshold.
+   *
+   * @throws IllegalArgumentException if the specified {@code capacity} is negative.
+   * @see #CompactCharBuffer(int, int)
+   */
+  public CompactCharBuffer(int capacity) {
+    this(capacity, MAX_THRESHOLD);
+  }
+
+  /**
+   * Constructs a new {@code CompactCharBuffer} of the specified initial {@code capacity} and with
+   * the specified {@code threshold}.
+   *
+   * <p>If the specified {@code threshold} is greater than {@link #MAX_THRESHOLD} then it will be
+   * quietly reduced to the {@link #MAX_THRESHOLD}. If the specified {@code capacity} is greater
+   * than the specified {@code threshold} then it will be quietly reduced to the {@code threshold}
+   * as well. Zero length {@code capacity} and {@code threshold} are allowed.</p>
+   *
+   * @throws IllegalArgumentException if the specified {@code capacity} or {@code threshold} is
+   *         negative.
+   * @see CharBuffer#CharBuffer(int)
+   */
+  public CompactCharBuffer(int capacity, int threshold) {
+    super(Math.min(threshold, MAX_THRESHOLD));
+    this.bytes = new byte[Math.min(Checks.checkThat(capacity, capacity >= 0), this.threshold)];
+  }
+
+  /**
+   * Returns {@code true} if the buffer contents are still stored in the compact Latin-1 form;
+   * {@code false} if the buffer has been inflated.
+   */
+  public boolean isCompact() {
+    return bytes != null;
+  }
+
+  /**
+   * Returns the current length of the buffer (i.e. the current number of characters that have
+   * already been appended to the buffer).
+   */
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Returns a character at the specified {@code index} in the buffer contents.
+   *
+   * <p>The {@code index} is zero-based and must be less than {@link #length()} (i.e.
+   * {@code 0 <= index < length()}).</p>
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code index} is out of range.
+   */
+  @Override
+  public char charAt(int index) {
+    if (index < length) { // fast check
+      try {
+        // throws AIOOBE if index is negative
+        return bytes != null ? (char) (bytes[index] & 0xff) : chars[index];
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // handle it a bit later
+      }
+    }
+    // throw IOOBE exception with pretty message
+    // performance does not matter now
+    Checks.checkIndex(this, index);
+    // should never happen
+    throw new InternalError();
+  }
+
+  /**
+   * Returns a character (Unicode code point) at the specified {@code index} in the buffer contents.
+   *
+   * <p>The {@code index} is zero-based and must be less than {@link #length()} (i.e.
+   * {@code 0 <= index < length()}).</p>
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code index} is out of range.
+   */
+  @Override
+  public int codePointAt(int index) {
+    if (bytes != null) {
+      // there are no surrogates in the Latin-1 contents
+      return charAt(index);
+    }
+    if (index < length) { // fast check
+      try {
+        // throws AIOOBE if index is negative
+        final char high = chars[index];
+        // detect supplementary character
+        if (Character.isHighSurrogate(high) && ++index < length) {
+          final char low = chars[index];
+          if (Character.isLowSurrogate(low)) {
+            return Character.toCodePoint(high, low);
+          }
+        }
+        return high;
+      } catch (ArrayIndexOutOfBoundsException e) {
+        // handle it a bit later
+      }
+    }
+    // throw IOOBE exception with pretty message
+    // performance does not matter now
+    Checks.checkIndex(this, index);
+    // should never happen
+    throw new InternalError();
+  }
+
+  /**
+   * Appends the specified {@code ch} character to the buffer contents and increments the current
+   * length.
+   *
+   * <p>If current capacity of the buffer is not enough then additional space will be automatically
+   * allocated. If the specified character is not a Latin-1 one and the buffer is still compact
+   * then the buffer contents will be inflated first.</p>
+   *
+   * @throws ThresholdReachedException if threshold of the buffer has been exceeded.
+   * @see #append(int)
+   */
+  @Override
+  public CharBuffer append(char ch) {
+    // check buffer capacity first
+    // it cannot be greater than threshold
+    if (length >= capacity()) {
+      // check threshold
+      if (length >= threshold) {
+        throw new ThresholdReachedException(this);
+      }
+      // double the buffer
+      doubleBuffer(length + 2);
+    }
+    // append character
+    final byte[] bytes = this.bytes;
+    if (bytes != null) {
+      if (ch <= 0xff) {
+        bytes[length++] = (byte) ch;
+        return this;
+      }
+      inflate();
+    }
+    chars[length++] = ch;
+    return this;
+  }
+
+  /**
+   * Appends the specified {@code segment} of characters to the buffer contents and increases
+   * current length accordingly.
+   *
+   * <p>If current capacity of the buffer is not enough then additional space will be automatically
+   * allocated. If the buffer is still compact then characters are narrowed to Latin-1 until the
+   * first non Latin-1 character is met, in which case the buffer contents will be inflated and
+   * the rest of characters will be copied as is. If threshold of the buffer is exceeded during
+   * this operation then remaining number of characters (i.e. {@code threshold - length}) will be
+   * copied anyway.</p>
+   *
+   * @throws NullPointerException if the specified {@code segment} reference is {@code null}.
+   * @throws ThresholdReachedException if threshold of the buffer has been exceeded.
+   */
+  @Override
+  public CharBuffer append(CharSegment segment) {
+    final int count = segment.length();
+    // fast current capacity check
+    if (capacity() - count >= length) {
+      // current capacity is enough
+      copyFrom(segment, count);
+      return this;
+    }
+    // check threshold
+    if (threshold - count >= length) {
+      // threshold is not reached
+      // double the buffer
+      doubleBuffer(length + count);
+      copyFrom(segment, count);
+      return this;
+    }
+    // threshold exceeded
+    if (length < threshold) {
+      // copy remainder
+      if (capacity() < threshold) {
+        doubleBuffer(threshold);
+      }
+      copyFrom(segment, threshold - length);
+    }
+    throw new ThresholdReachedException(this);
+  }
+
+  /**
+   * Copies the first {@code count} characters of the specified segment to the buffer contents,
+   * which must have enough capacity.
+   */
+  private void copyFrom(CharSegment segment, int count) {
+    int index = 0;
+    if (bytes != null && count <= SHORT_SEGMENT) {
+      // avoid transfer buffer allocation for short segments
+      final byte[] bytes = this.bytes;
+      for (; index < count; index++) {
+        final char ch = segment.charAt(index);
+        if (ch > 0xff) {
+          inflate();
+          segment.copyTo(index, count, chars, length);
+          length += count - index;
+          return;
+        }
+        bytes[length++] = (byte) ch;
+      }
+    } else if (bytes != null) {
+      // narrow characters until non Latin-1 one is met
+      final byte[] bytes = this.bytes;
+      final char[] transfer = new char[Math.min(count, TRANSFER_SIZE)];
+      while (index < count) {
+        final int limit = Math.min(transfer.length, count - index);
+        segment.copyTo(index, index + limit, transfer, 0);
+        for (int i = 0; i < limit; i++) {
+          final char ch = transfer[i];
+          if (ch > 0xff) {
+            inflate();
+            System.arraycopy(transfer, i, chars, length, limit - i);
+            length += limit - i;
+            index += limit;
+            // copy the rest as is
+            segment.copyTo(index, count, chars, length);
+            length += count - index;
+            return;
+          }
+          bytes[length++] = (byte) ch;
+        }
+        index += limit;
+      }
+    } else {
+      segment.copyTo(0, count, chars, length);
+      length += count;
+    }
+  }
+
+  /**
+   * Returns the current capacity of the buffer (i.e. the number of characters that can be appended
+   * to the buffer without reallocation).
+   */
+  final int capacity() {
+    return bytes != null ? bytes.length : chars.length;
+  }
+
+  /**
+   * Resets the buffer length to 0 but does not release allocated memory. This method is useful
+   * when the same buffer instance can be reused multiple times.
+   *
+   * <p>Note that an inflated buffer stays inflated after reset, use the {@link #clear()} method to
+   * return it to the compact form.</p>
+   *
+   * @see #clear()
+   */
+  @Override
+  public void reset() {
+    invalidateViews();
+    length = 0;
+  }
+
+  /**
+   * Clears the buffer, shrinks its capacity to the {@link #DEFAULT_CAPACITY} (or to the threshold
+   * if it is less) and returns the buffer to the compact form. This method is useful when the
+   * same buffer instance can be reused multiple times in a long term (for example, in an object
+   * pool).
+   *
+   * @see #reset()
+   */
+  @Override
+  public void clear() {
+    if (bytes == null || bytes.length > DEFAULT_CAPACITY) {
+      bytes = new byte[Math.min(DEFAULT_CAPACITY, threshold)];
+      chars = null;
+    }
+    invalidateViews();
+    length = 0;
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  protected String toString(int start, int end) {
+    // the JDK 9+ stores Latin-1 bytes as is
+    return bytes != null
+        ? new String(bytes, 0, start, end - start)
+        : new String(chars, start, end - start);
+  }
+
+  @Override
+  public int indexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final byte[] bytes = this.bytes;
+    if (bytes != null) {
+      if (ch <= 0xff) {
+        for (final byte b = (byte) ch; start < end; start++) {
+          if (bytes[start] == b) {
+            return start;
+          }
+        }
+      }
+      return -1;
+    }
+    final char[] chars = this.chars;
+    for (; start < end; start++) {
+      if (chars[start] == ch) {
+        return start;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public int lastIndexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final byte[] bytes = this.bytes;
+    if (bytes != null) {
+      if (ch <= 0xff) {
+        for (final byte b = (byte) ch; --end >= start;) {
+          if (bytes[end] == b) {
+            return end;
+          }
+        }
+      }
+      return -1;
+    }
+    final char[] chars = this.chars;
+    while (--end >= start) {
+      if (chars[end] == ch) {
+        return end;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  protected void copyChars(int start, int end, char[] target, int offset) {
+    final byte[] bytes = this.bytes;
+    if (bytes != null) {
+      while (start < end) {
+        target[offset++] = (char) (bytes[start++] & 0xff);
+      }
+    } else {
+      System.arraycopy(chars, start, target, offset, end - start);
+    }
+  }
+
+  @Override
+  protected void writeChars(int start, int end, CharSink sink) throws IOException {
+    if (bytes != null) {
+      super.writeChars(start, end, sink);
+    } else {
+      sink.write(chars, start, end - start);
+    }
+  }
+
+  @Override
+  protected void extendCapacity(int nlength) {
+    if (nlength > capacity()) {
+      doubleBuffer(nlength);
+    }
+  }
+
+  private void doubleBuffer(long nlength) {
+    final int capacity = (int) Math.min(nlength << 1, threshold);
+    if (bytes != null) {
+      final byte[] copy = new byte[capacity];
+      System.arraycopy(bytes, 0, copy, 0, length);
+      bytes = copy;
+    } else {
+      final char[] copy = new char[capacity];
+      System.arraycopy(chars, 0, copy, 0, length);
+      chars = copy;
+    }
+  }
+
+  /**
+   * Inflates the Latin-1 buffer contents to the UTF-16 ones keeping the current capacity.
+   */
+  private void inflate() {
+    final byte[] bytes = this.bytes;
+    final char[] chars = new char[bytes.length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = (char) (bytes[i] & 0xff);
+    }
+    this.chars = chars;
+    this.bytes = null;
+  }
+
+}
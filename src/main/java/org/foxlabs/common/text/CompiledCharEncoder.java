@@ -0,0 +1,192 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+import org.foxlabs.common.Checks;
+import org.foxlabs.util.UnicodeSet;
+
+/**
+ * A {@link CharEncoder} compiled from a set of safe characters, a replacement mapping and an
+ * escaper for other characters into lookup tables.
+ *
+ * <p>Replacements of the Latin-1 characters are precomputed, so that they are encoded by a single
+ * table lookup. The ASCII characters that may be changed are marked in a 128-entry table and the
+ * other BMP characters that are passed through unchanged are marked in a 64K bit set. Both are
+ * used by the {@code skip()} methods to find runs of unchanged characters, so that the
+ * {@link CharBuffer#appendEncoded(CharSegment, CharEncoder)} method could copy them in bulk.</p>
+ *
+ * @author Fox Mulder
+ * @see CharEncoder#compile(UnicodeSet, Map, CharEncoder)
+ */
+final class CompiledCharEncoder implements CharEncoder {
+
+  /**
+   * The number of characters which replacements are precomputed (Latin-1).
+   */
+  private static final int TABLE_SIZE = 256;
+
+  /**
+   * The set of characters to be passed through unchanged unless they have a replacement.
+   */
+  private final UnicodeSet safe;
+
+  /**
+   * The encoder of characters that are neither safe nor have a replacement.
+   */
+  private final CharEncoder escaper;
+
+  /**
+   * The ASCII characters that may be changed by the encoder.
+   */
+  private final boolean[] ascii = new boolean[128];
+
+  /**
+   * The bit set of the BMP characters to be passed through unchanged. Surrogates are never
+   * included.
+   */
+  private final long[] unchanged = new long[1 << 10];
+
+  /**
+   * The precomputed replacements of the Latin-1 characters or {@code null} for characters to be
+   * passed through unchanged.
+   */
+  private final CharSegment[] table = new CharSegment[TABLE_SIZE];
+
+  /**
+   * The sorted characters beyond Latin-1 that have replacements.
+   */
+  private final int[] codes;
+
+  /**
+   * The replacements of the {@link #codes} characters.
+   */
+  private final CharSegment[] replacements;
+
+  /**
+   * Constructs a new compiled encoder.
+   *
+   * @param safe The set of characters to be passed through unchanged unless they have a
+   *        replacement.
+   * @param replacements The mapping of characters (Unicode code points) to their replacements.
+   * @param escaper The encoder of characters that are neither safe nor have a replacement.
+   */
+  CompiledCharEncoder(UnicodeSet safe, Map<Integer, ? extends CharSequence> replacements,
+      CharEncoder escaper) {
+    this.safe = Checks.checkNotNull(safe);
+    this.escaper = Checks.checkNotNull(escaper);
+    // replacements beyond Latin-1
+    final TreeMap<Integer, CharSequence> sorted = new TreeMap<>(replacements);
+    final Map<Integer, CharSequence> tail = sorted.tailMap(TABLE_SIZE);
+    this.codes = new int[tail.size()];
+    this.replacements = new CharSegment[tail.size()];
+    int index = 0;
+    for (Map.Entry<Integer, CharSequence> entry : tail.entrySet()) {
+      codes[index] = entry.getKey();
+      this.replacements[index++] = CharSegment.from(entry.getValue().toString());
+    }
+    // precompute Latin-1 replacements
+    for (int ch = 0; ch < TABLE_SIZE; ch++) {
+      final CharSequence replacement = sorted.get(ch);
+      if (replacement != null) {
+        table[ch] = CharSegment.from(replacement.toString());
+      } else if (!safe.contains(ch)) {
+        final CharBuffer buffer = new LinearCharBuffer();
+        escaper.encode(ch, buffer);
+        final String escaped = buffer.toString();
+        table[ch] = escaped.length() == 1 && escaped.charAt(0) == ch
+            ? null : CharSegment.from(escaped);
+      }
+    }
+    // mark unchanged BMP characters
+    for (int ch = 0; ch <= Character.MAX_VALUE; ch++) {
+      if (ch < TABLE_SIZE ? table[ch] == null
+          : !Character.isSurrogate((char) ch) && safe.contains(ch) && replacementOf(ch) == null) {
+        unchanged[ch >>> 6] |= 1L << ch;
+      } else if (ch < ascii.length) {
+        ascii[ch] = true;
+      }
+    }
+  }
+
+  /**
+   * Returns a replacement of the specified character beyond Latin-1 or {@code null} if there is
+   * no replacement.
+   */
+  private CharSegment replacementOf(int ch) {
+    final int index = Arrays.binarySearch(codes, ch);
+    return index < 0 ? null : replacements[index];
+  }
+
+  @Override
+  public int encode(int ch, CharBuffer buffer) {
+    if (ch < TABLE_SIZE) {
+      final CharSegment replacement = table[ch];
+      if (replacement == null) {
+        buffer.append((char) ch);
+        return 1;
+      }
+      buffer.append(replacement);
+      return replacement.length();
+    }
+    final CharSegment replacement = replacementOf(ch);
+    if (replacement != null) {
+      buffer.append(replacement);
+      return replacement.length();
+    }
+    if (safe.contains(ch)) {
+      buffer.append(ch);
+      return Character.charCount(ch);
+    }
+    return escaper.encode(ch, buffer);
+  }
+
+  @Override
+  public int skip(CharSegment segment, int start, int end) {
+    for (; start < end; start++) {
+      final char ch = segment.charAt(start);
+      if (ch < 128 ? ascii[ch] : (unchanged[ch >>> 6] & 1L << ch) == 0L) {
+        break;
+      }
+    }
+    return start;
+  }
+
+  @Override
+  public int skip(char[] array, int start, int end) {
+    final boolean[] ascii = this.ascii;
+    // fast path for ASCII text, checks 4 characters at a time
+    for (final int limit = end - 3; start < limit; start += 4) {
+      final char ch0 = array[start], ch1 = array[start + 1];
+      final char ch2 = array[start + 2], ch3 = array[start + 3];
+      if ((ch0 | ch1 | ch2 | ch3) >= 128 || ascii[ch0] | ascii[ch1] | ascii[ch2] | ascii[ch3]) {
+        break;
+      }
+    }
+    for (; start < end; start++) {
+      final char ch = array[start];
+      if (ch < 128 ? ascii[ch] : (unchanged[ch >>> 6] & 1L << ch) == 0L) {
+        break;
+      }
+    }
+    return start;
+  }
+
+}
@@ -0,0 +1,405 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+import org.foxlabs.common.Checks;
+import org.foxlabs.common.Strings;
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+/**
+ * A paged buffer of characters that can be appended by multiple threads concurrently without
+ * locking, for example, to aggregate log records in memory.
+ *
+ * <p>A writer appends a whole record at once: it atomically reserves a range of the buffer (by
+ * CAS on the reserved length), fills the range in place and then commits it. Readers see only
+ * the committed prefix of the buffer (i.e. the {@link #length()} of the buffer is the committed
+ * length), which never contains partially filled records. Records are committed in the order of
+ * reservation, but a writer does not wait for the writers that reserved earlier ranges: if they
+ * are not done yet, the range is left pending and the last of them commits it.</p>
+ *
+ * <p>Pages are allocated lazily and never copied, so the buffer grows without reallocation.
+ * Records are supposed to be formatted in advance, by a thread-local {@link CharBuffer} taken from
+ * a {@link CharBufferPool}, for example:</p>
+ * <blockquote><pre>
+ * final CharBuffer record = POOL.acquire();
+ * try {
+ *   log.append(record.append(level).append(' ').appendObject(message).append('\n'));
+ * } finally {
+ *   POOL.release(record);
+ * }
+ * </pre></blockquote>
+ *
+ * @author Fox Mulder
+ * @see PaginalCharBuffer
+ */
+public final class ConcurrentCharBuffer implements CharSegment {
+
+  /**
+   * Default number of characters in a page.
+   */
+  public static final int DEFAULT_DEPTH = 1 << 12; // 4K characters long (8K bytes)
+
+  /**
+   * The number of pages in a group of pages as a power of 2.
+   */
+  private static final int GROUP_SHIFT = 10;
+
+  /**
+   * The buffer threshold (i.e. the maximum number of characters that the buffer can contain).
+   */
+  private final int threshold;
+
+  /**
+   * The number of characters in a page as a power of 2.
+   */
+  private final int shift;
+
+  /**
+   * The groups of pages, both are allocated lazily.
+   */
+  private final AtomicReferenceArray<AtomicReferenceArray<char[]>> groups;
+
+  /**
+   * The reserved length of the buffer.
+   */
+  private final AtomicInteger reserved = new AtomicInteger();
+
+  /**
+   * The committed length of the buffer.
+   */
+  private final AtomicInteger committed = new AtomicInteger();
+
+  /**
+   * The filled ranges that wait for the previous ranges to be committed (start to end).
+   */
+  private final Map<Integer, Integer> pending = new ConcurrentHashMap<>();
+
+  /**
+   * Constructs a new {@code ConcurrentCharBuffer} with the {@code Integer.MAX_VALUE} threshold
+   * and the {@link #DEFAULT_DEPTH} page depth.
+   */
+  public ConcurrentCharBuffer() {
+    this(Integer.MAX_VALUE, DEFAULT_DEPTH);
+  }
+
+  /**
+   * Constructs a new {@code ConcurrentCharBuffer} with the specified threshold and the
+   * {@link #DEFAULT_DEPTH} page depth.
+   *
+   * @param threshold The maximum number of characters the buffer can hold.
+   * @throws IllegalArgumentException if the specified threshold is negative.
+   */
+  public ConcurrentCharBuffer(int threshold) {
+    this(threshold, DEFAULT_DEPTH);
+  }
+
+  /**
+   * Constructs a new {@code ConcurrentCharBuffer} with the specified threshold and page depth.
+   * The depth is rounded up to a power of 2 between the {@link PaginalCharBuffer#MIN_DEPTH} and
+   * {@link PaginalCharBuffer#MAX_DEPTH}.
+   *
+   * @param threshold The maximum number of characters the buffer can hold.
+   * @param depth The number of characters in a page.
+   * @throws IllegalArgumentException if the specified threshold is negative or depth is not
+   *         positive.
+   */
+  public ConcurrentCharBuffer(int threshold, int depth) {
+    this.threshold = Checks.checkThat(threshold, threshold >= 0);
+    Checks.checkThat(depth, depth > 0);
+    depth = Math.max(Math.min(depth, PaginalCharBuffer.MAX_DEPTH), PaginalCharBuffer.MIN_DEPTH);
+    this.shift = 32 - Integer.numberOfLeadingZeros(depth - 1);
+    final long pages = ((long) threshold + (1 << shift) - 1) >>> shift;
+    final long count = (pages + (1 << GROUP_SHIFT) - 1) >>> GROUP_SHIFT;
+    this.groups = new AtomicReferenceArray<>((int) count);
+  }
+
+  /**
+   * Returns the threshold of the buffer.
+   */
+  public int threshold() {
+    return threshold;
+  }
+
+  /**
+   * Returns the number of characters in a page.
+   */
+  public int depth() {
+    return 1 << shift;
+  }
+
+  /**
+   * Returns the committed length of the buffer (i.e. the number of characters of the completely
+   * filled records). Reading methods of the buffer operate on the committed characters only.
+   *
+   * @see #reserved()
+   */
+  @Override
+  public int length() {
+    return committed.get();
+  }
+
+  /**
+   * Returns the reserved length of the buffer (i.e. the number of characters of all the records
+   * including the ones that are being filled at the moment).
+   *
+   * @see #length()
+   */
+  public int reserved() {
+    return reserved.get();
+  }
+
+  // Writing operations
+
+  /**
+   * Appends the specified record to the buffer atomically and returns its start position.
+   *
+   * @param record The record to append.
+   * @return The start position of the appended record in the buffer.
+   * @throws NullPointerException if the specified record is {@code null}.
+   * @throws ThresholdReachedException if there is not enough space for the whole record, in which
+   *         case nothing is appended.
+   * @see #append(CharSegment)
+   */
+  public int append(CharSequence record) {
+    return append(CharSegment.from(record));
+  }
+
+  /**
+   * Appends the specified record to the buffer atomically and returns its start position. The
+   * record becomes visible to readers as soon as it and all the records reserved before it are
+   * filled.
+   *
+   * <p>If copying of the record fails (a {@link CharBuffer} view of the record is invalidated
+   * concurrently, for example) then the reserved range is filled with spaces and committed anyway
+   * so that it does not block the subsequent records.</p>
+   *
+   * <p>An empty record is neither reserved nor committed, the current reserved length is returned
+   * for it.</p>
+   *
+   * @param record The record to append.
+   * @return The start position of the appended record in the buffer.
+   * @throws NullPointerException if the specified record is {@code null}.
+   * @throws ThresholdReachedException if there is not enough space for the whole record, in which
+   *         case nothing is appended.
+   */
+  public int append(CharSegment record) {
+    final int count = record.length();
+    if (count == 0) {
+      // nothing to reserve and commit, an empty range would clash with the next one
+      return reserved.get();
+    }
+    // reserve range
+    int start;
+    do {
+      start = reserved.get();
+      if (count > threshold - start) {
+        throw new ThresholdReachedException(this);
+      }
+    } while (!reserved.compareAndSet(start, start + count));
+    final int end = start + count;
+    try {
+      // fill range in place
+      final int mask = (1 << shift) - 1;
+      for (int index = start; index < end;) {
+        final int offset = index & mask;
+        final int remainder = Math.min(mask + 1 - offset, end - index);
+        record.copyTo(index - start, index - start + remainder, page(index >>> shift), offset);
+        index += remainder;
+      }
+    } catch (RuntimeException | Error e) {
+      fill(start, end, ' ');
+      throw e;
+    } finally {
+      commit(start, end);
+    }
+    return start;
+  }
+
+  /**
+   * Returns the page at the specified index allocating it if necessary.
+   */
+  private char[] page(int index) {
+    final int slot = index >>> GROUP_SHIFT;
+    AtomicReferenceArray<char[]> group = groups.get(slot);
+    if (group == null) {
+      groups.compareAndSet(slot, null, new AtomicReferenceArray<>(1 << GROUP_SHIFT));
+      group = groups.get(slot);
+    }
+    index &= (1 << GROUP_SHIFT) - 1;
+    char[] page = group.get(index);
+    if (page == null) {
+      group.compareAndSet(index, null, new char[1 << shift]);
+      page = group.get(index);
+    }
+    return page;
+  }
+
+  /**
+   * Fills the specified range with the specified character.
+   */
+  private void fill(int start, int end, char ch) {
+    final int mask = (1 << shift) - 1;
+    for (; start < end; start++) {
+      page(start >>> shift)[start & mask] = ch;
+    }
+  }
+
+  /**
+   * Commits the specified filled range and all the pending ranges that follow it.
+   */
+  private void commit(int start, int end) {
+    if (!committed.compareAndSet(start, end)) {
+      // previous ranges are still being filled
+      pending.put(start, end);
+    }
+    // the last one commits the pending ranges
+    while (!pending.isEmpty()) {
+      final int position = committed.get();
+      final Integer next = pending.get(position);
+      if (next == null) {
+        break;
+      }
+      if (committed.compareAndSet(position, next)) {
+        pending.remove(position);
+      }
+    }
+  }
+
+  /**
+   * Resets the buffer length to 0 but does not release allocated pages. Note that this method is
+   * not thread-safe and must not be called concurrently with appending records.
+   */
+  public void reset() {
+    pending.clear();
+    committed.set(0);
+    reserved.set(0);
+  }
+
+  // Reading operations
+
+  /**
+   * Returns a committed character at the specified index.
+   *
+   * @throws IndexOutOfBoundsException if the specified index is out of the committed range.
+   */
+  @Override
+  public char charAt(int index) {
+    Checks.checkIndex(this, index);
+    return pageAt(index >>> shift)[index & ((1 << shift) - 1)];
+  }
+
+  /**
+   * Returns a committed character (Unicode code point) at the specified index.
+   *
+   * @throws IndexOutOfBoundsException if the specified index is out of the committed range.
+   */
+  @Override
+  public int codePointAt(int index) {
+    final char high = charAt(index);
+    if (Character.isHighSurrogate(high) && ++index < length()) {
+      final char low = charAt(index);
+      if (Character.isLowSurrogate(low)) {
+        return Character.toCodePoint(high, low);
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Returns a copy of the committed characters in the specified range.
+   *
+   * @throws IndexOutOfBoundsException if the specified range is out of the committed range.
+   */
+  @Override
+  public CharSegment subSequence(int start, int end) {
+    Checks.checkRange(this, start, end);
+    return start == end ? CharSegment.EMPTY : CharSegment.from(toString(start, end));
+  }
+
+  /**
+   * Copies the committed characters in the specified range to the specified target array
+   * starting from the specified offset.
+   *
+   * @throws NullPointerException if the specified target array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified range is out of the committed range or
+   *         length of the specified target array is not enough to receive requested number of
+   *         characters.
+   */
+  @Override
+  public void copyTo(int start, int end, char[] target, int offset) {
+    Checks.checkRange(this, start, end);
+    Checks.checkRange(target, offset, offset + end - start);
+    final int mask = (1 << shift) - 1;
+    while (start < end) {
+      final int index = start & mask;
+      final int remainder = Math.min(mask + 1 - index, end - start);
+      System.arraycopy(pageAt(start >>> shift), index, target, offset, remainder);
+      start += remainder;
+      offset += remainder;
+    }
+  }
+
+  /**
+   * Writes the committed characters to the specified sink page by page.
+   *
+   * @param sink The sink to write to.
+   * @return The number of characters written.
+   * @throws NullPointerException if the specified sink is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   */
+  public int writeTo(CharSink sink) throws IOException {
+    Checks.checkNotNull(sink);
+    final int end = length();
+    final int mask = (1 << shift) - 1;
+    for (int start = 0; start < end;) {
+      final int remainder = Math.min(mask + 1, end - start);
+      sink.write(pageAt(start >>> shift), 0, remainder);
+      start += remainder;
+    }
+    return end;
+  }
+
+  /**
+   * Returns a copy of the committed characters.
+   */
+  @Override
+  public String toString() {
+    final int length = length();
+    return length == 0 ? Strings.EMPTY : toString(0, length);
+  }
+
+  private String toString(int start, int end) {
+    final char[] copy = new char[end - start];
+    copyTo(start, end, copy, 0);
+    return new String(copy);
+  }
+
+  /**
+   * Returns an already allocated page at the specified index.
+   */
+  private char[] pageAt(int index) {
+    return groups.get(index >>> GROUP_SHIFT).get(index & ((1 << GROUP_SHIFT) - 1));
+  }
+
+}
@@ -0,0 +1,181 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+/**
+ * A {@code CharBuffer} that only counts appended characters and never stores them. It is useful
+ * to measure the exact length of a string representation before allocating a buffer for it, for
+ * example:
+ * <blockquote><pre>
+ * final int length = CountingCharBuffer.measure(object, threshold);
+ * final CharBuffer buffer = new LinearCharBuffer(length, threshold).appendObject(object);
+ * </pre></blockquote>
+ *
+ * <p>Note that methods accessing contents of the buffer (such as {@link #charAt(int)} or
+ * {@link #copyTo(int, int, char[], int)}) throw {@link UnsupportedOperationException} unless the
+ * buffer is empty.</p>
+ *
+ * @author Fox Mulder
+ * @see ToString.Adapter#presize()
+ * @see org.foxlabs.common.Objects#toString(Object, int, boolean)
+ */
+public final class CountingCharBuffer extends CharBuffer {
+
+  /**
+   * The number of characters appended so far.
+   */
+  private int length;
+
+  /**
+   * Constructs a new {@code CountingCharBuffer} with the {@code Integer.MAX_VALUE} threshold.
+   *
+   * @see #CountingCharBuffer(int)
+   */
+  public CountingCharBuffer() {
+    this(Integer.MAX_VALUE);
+  }
+
+  /**
+   * Constructs a new {@code CountingCharBuffer} with the specified {@code threshold}.
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} is negative.
+   * @see CharBuffer#CharBuffer(int)
+   */
+  public CountingCharBuffer(int threshold) {
+    super(threshold);
+  }
+
+  /**
+   * Returns the number of characters that have been appended to the buffer.
+   */
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Throws {@link IndexOutOfBoundsException} if the buffer is empty or
+   * {@link UnsupportedOperationException} otherwise.
+   */
+  @Override
+  public char charAt(int index) {
+    checkContents(index);
+    throw new InternalError();
+  }
+
+  /**
+   * Throws {@link IndexOutOfBoundsException} if the buffer is empty or
+   * {@link UnsupportedOperationException} otherwise.
+   */
+  @Override
+  public int codePointAt(int index) {
+    checkContents(index);
+    throw new InternalError();
+  }
+
+  private void checkContents(int index) {
+    if (length > 0) {
+      throw new UnsupportedOperationException("Characters are not stored");
+    }
+    throw new IndexOutOfBoundsException("Attempt to get character on an empty buffer");
+  }
+
+  /**
+   * Increments the number of characters.
+   *
+   * @throws ThresholdReachedException if threshold of the buffer has been exceeded.
+   */
+  @Override
+  public CharBuffer append(char ch) {
+    if (length >= threshold) {
+      throw new ThresholdReachedException(this);
+    }
+    length++;
+    return this;
+  }
+
+  /**
+   * Increases the number of characters by the length of the specified {@code segment}. If
+   * threshold of the buffer is exceeded during this operation then the number of characters will
+   * be increased up to the threshold anyway.
+   *
+   * @throws NullPointerException if the specified {@code segment} reference is {@code null}.
+   * @throws ThresholdReachedException if threshold of the buffer has been exceeded.
+   */
+  @Override
+  public CharBuffer append(CharSegment segment) {
+    final int count = segment.length();
+    if (threshold - count >= length) {
+      length += count;
+      return this;
+    }
+    length = threshold;
+    throw new ThresholdReachedException(this);
+  }
+
+  @Override
+  protected void copyChars(int start, int end, char[] target, int offset) {
+    throw new UnsupportedOperationException("Characters are not stored");
+  }
+
+  @Override
+  protected void extendCapacity(int nlength) {
+    // nothing to allocate
+  }
+
+  /**
+   * Resets the number of characters to 0.
+   */
+  @Override
+  public void reset() {
+    invalidateViews();
+    length = 0;
+  }
+
+  /**
+   * Resets the number of characters to 0.
+   */
+  @Override
+  public void clear() {
+    reset();
+  }
+
+  // Measurement
+
+  /**
+   * Returns the number of characters that the {@link CharBuffer#appendObject(Object)} method
+   * appends for the specified object, but no more than the specified threshold.
+   *
+   * @param object The object to measure.
+   * @param threshold The maximum length to measure.
+   * @return The length of a string representation of the specified object.
+   * @throws IllegalArgumentException if the specified {@code threshold} is negative.
+   */
+  public static int measure(Object object, int threshold) {
+    final CountingCharBuffer buffer = new CountingCharBuffer(threshold);
+    try {
+      buffer.appendObject(object);
+    } catch (ThresholdReachedException e) {
+      // threshold has been reached, length is known anyway
+    }
+    return buffer.length;
+  }
+
+}
@@ -0,0 +1,369 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+
+import org.foxlabs.common.Checks;
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+/**
+ * A {@link CharBuffer} implementation that stores its contents in off-heap memory. The contents
+ * are split into pages of the same size (depth), each page is a direct {@link ByteBuffer} that is
+ * allocated on demand. Since page data is not a part of the Java heap, this buffer is suitable for
+ * building large transient text (multi-megabyte diagnostic dumps, for example) without pressure on
+ * the garbage collector.
+ *
+ * <p>Note that off-heap memory of the buffer is released explicitly by the {@link #clear()}
+ * method, so the buffer must be cleared as soon as its contents are no longer needed. Otherwise,
+ * memory will be released by the garbage collector once the buffer becomes unreachable.</p>
+ *
+ * @author Fox Mulder
+ * @see PaginalCharBuffer
+ */
+public class DirectCharBuffer extends CharBuffer {
+
+  /**
+   * The maximum allowed buffer threshold.
+   */
+  public static final int MAX_THRESHOLD = Integer.MAX_VALUE;
+
+  /**
+   * The minimum page depth.
+   */
+  public static final int MIN_DEPTH = 1 << 10; // 1K characters long (2K bytes)
+
+  /**
+   * The maximum page depth.
+   */
+  public static final int MAX_DEPTH = 1 << 20; // 1M characters long (2M bytes)
+
+  /**
+   * Default page depth.
+   */
+  public static final int DEFAULT_DEPTH = 1 << 14; // 16K characters long (32K bytes)
+
+  /**
+   * The size of the transfer array used to copy characters from a {@link CharSegment} to a page.
+   */
+  private static final int TRANSFER_SIZE = 512;
+
+  /**
+   * The number of characters in a single page (always a power of 2).
+   */
+  private final int depth;
+
+  /**
+   * The {@code log2(depth)} value to calculate page index.
+   */
+  private final int shift;
+
+  /**
+   * The maximum number of pages.
+   */
+  private final int capacity;
+
+  /**
+   * The direct memory regions of the pages.
+   */
+  private ByteBuffer[] regions;
+
+  /**
+   * The character views of the {@link #regions}.
+   */
+  private java.nio.CharBuffer[] pages;
+
+  /**
+   * The transfer array used by the {@link #append(CharSegment)} method (allocated on demand).
+   */
+  private char[] transfer;
+
+  /**
+   * The current length of the buffer.
+   */
+  private int length;
+
+  /**
+   * Constructs a new {@code DirectCharBuffer} with the {@link #MAX_THRESHOLD} threshold and the
+   * {@link #DEFAULT_DEPTH} page depth.
+   *
+   * @see #DirectCharBuffer(int, int)
+   */
+  public DirectCharBuffer() {
+    this(MAX_THRESHOLD, DEFAULT_DEPTH);
+  }
+
+  /**
+   * Constructs a new {@code DirectCharBuffer} with the specified {@code threshold} and the
+   * {@link #DEFAULT_DEPTH} page depth.
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} is negative.
+   * @see #DirectCharBuffer(int, int)
+   */
+  public DirectCharBuffer(int threshold) {
+    this(threshold, DEFAULT_DEPTH);
+  }
+
+  /**
+   * Constructs a new {@code DirectCharBuffer} with the specified {@code threshold} and page
+   * {@code depth}.
+   *
+   * <p>The specified {@code depth} will be rounded up to the nearest power of 2 and then quietly
+   * adjusted to be in the range {@code [MIN_DEPTH, MAX_DEPTH]}. No off-heap memory is allocated
+   * until the first character is appended.</p>
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} is negative or the
+   *         specified {@code depth} is not positive.
+   */
+  public DirectCharBuffer(int threshold, int depth) {
+    super(threshold);
+    Checks.checkThat(depth, depth > 0);
+    // round depth to be a power of 2 in the range [MIN_DEPTH, MAX_DEPTH]
+    this.depth = Integer.highestOneBit((Math.max(MIN_DEPTH, Math.min(MAX_DEPTH, depth)) << 1) - 1);
+    this.shift = Integer.numberOfTrailingZeros(this.depth);
+    // calculate maximum number of pages
+    this.capacity = ((this.threshold - 1) >> shift) + 1;
+    // allocate at most 16 initial slots depending on the capacity
+    this.regions = new ByteBuffer[Math.min(this.capacity, 16)];
+    this.pages = new java.nio.CharBuffer[this.regions.length];
+  }
+
+  // Basic operations
+
+  /**
+   * Returns the current length of the buffer (i.e. the current number of characters that have
+   * already been appended to the buffer).
+   */
+  @Override
+  public final int length() {
+    return length;
+  }
+
+  /**
+   * Returns a character at the specified {@code index} in the buffer contents.
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code index} is out of range.
+   */
+  @Override
+  public final char charAt(int index) {
+    Checks.checkIndex(this, index);
+    return pages[index >>> shift].get(index & (depth - 1));
+  }
+
+  /**
+   * Returns a character (Unicode code point) at the specified {@code index} in the buffer contents.
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code index} is out of range.
+   */
+  @Override
+  public final int codePointAt(int index) {
+    final char high = charAt(index);
+    // detect supplementary character
+    if (Character.isHighSurrogate(high) && ++index < length) {
+      final char low = pages[index >>> shift].get(index & (depth - 1));
+      if (Character.isLowSurrogate(low)) {
+        return Character.toCodePoint(high, low);
+      }
+    }
+    return high;
+  }
+
+  /**
+   * Appends the specified {@code ch} character to the buffer contents and increments the current
+   * length.
+   *
+   * @throws ThresholdReachedException if threshold of the buffer has been exceeded.
+   */
+  @Override
+  public final CharBuffer append(char ch) {
+    if (length >= threshold) {
+      throw new ThresholdReachedException(this);
+    }
+    page(length >>> shift).put(length & (depth - 1), ch);
+    length++;
+    return this;
+  }
+
+  /**
+   * Appends the specified {@code segment} of characters to the buffer contents and increases
+   * current length accordingly. If threshold of the buffer is exceeded during this operation then
+   * remaining number of characters (i.e. {@code threshold - length}) will be copied anyway.
+   *
+   * @throws NullPointerException if the specified {@code segment} reference is {@code null}.
+   * @throws ThresholdReachedException if threshold of the buffer has been exceeded.
+   */
+  @Override
+  public final CharBuffer append(CharSegment segment) {
+    // calculate the number of characters to append
+    int count = segment.length();
+    if (count > 0) { // fast check
+      if (transfer == null) {
+        transfer = new char[Math.min(depth, TRANSFER_SIZE)];
+      }
+      int start = 0;
+      for (count = ensureCapacity(count); count > 0;) {
+        // copy part of the characters to the current page through the transfer array
+        final int offset = length & (depth - 1);
+        final int remainder = Math.min(Math.min(depth - offset, count), transfer.length);
+        segment.copyTo(start, start + remainder, transfer, 0);
+        final java.nio.CharBuffer page = page(length >>> shift);
+        ((Buffer) page).position(offset);
+        page.put(transfer, 0, remainder);
+        length += remainder;
+        start += remainder;
+        count -= remainder;
+      }
+      if (start < segment.length()) {
+        // not all the characters have been appended
+        throw new ThresholdReachedException(this);
+      }
+    }
+    return this;
+  }
+
+  @Override
+  public final int indexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    for (; start < end; start++) {
+      if (pages[start >>> shift].get(start & (depth - 1)) == ch) {
+        return start;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public final int lastIndexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    while (--end >= start) {
+      if (pages[end >>> shift].get(end & (depth - 1)) == ch) {
+        return end;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  protected final void copyChars(int start, int end, char[] target, int offset) {
+    while (start < end) {
+      final int index = start & (depth - 1);
+      final int remainder = Math.min(depth - index, end - start);
+      final java.nio.CharBuffer page = pages[start >>> shift];
+      ((Buffer) page).position(index);
+      page.get(target, offset, remainder);
+      start += remainder;
+      offset += remainder;
+    }
+  }
+
+  @Override
+  protected final void extendCapacity(int nlength) {
+    // calculate total number of required pages
+    final int npages = ((nlength - 1) >> shift) + 1;
+    if (npages > pages.length) {
+      extendPages(npages);
+    }
+  }
+
+  /**
+   * Extends the page tables to the doubled specified number of pages.
+   */
+  private void extendPages(int npages) {
+    final int size = Math.min(npages << 1, capacity);
+    final ByteBuffer[] rcopy = new ByteBuffer[size];
+    System.arraycopy(regions, 0, rcopy, 0, regions.length);
+    regions = rcopy;
+    final java.nio.CharBuffer[] pcopy = new java.nio.CharBuffer[size];
+    System.arraycopy(pages, 0, pcopy, 0, pages.length);
+    pages = pcopy;
+  }
+
+  /**
+   * Returns a page at the specified index, allocates it if necessary.
+   */
+  private java.nio.CharBuffer page(int index) {
+    if (index >= pages.length) {
+      extendPages(index + 1);
+    }
+    java.nio.CharBuffer page = pages[index];
+    if (page == null) {
+      regions[index] = allocateRegion(index, depth << 1);
+      page = pages[index] = regions[index].order(ByteOrder.nativeOrder()).asCharBuffer();
+    }
+    return page;
+  }
+
+  /**
+   * Allocates a new memory region of the specified size for the page at the specified index.
+   * Default implementation allocates a new direct buffer. Subclasses may override this method to
+   * provide another kind of memory (memory-mapped file regions, for example).
+   *
+   * @param index The index of the page.
+   * @param size The size of the region in bytes.
+   * @return A new memory region of the specified size.
+   */
+  protected ByteBuffer allocateRegion(int index, int size) {
+    return DirectMemory.allocate(size);
+  }
+
+  /**
+   * Releases the specified memory region previously allocated by the
+   * {@link #allocateRegion(int, int)} method.
+   *
+   * @param region The memory region to release.
+   */
+  protected void releaseRegion(ByteBuffer region) {
+    DirectMemory.release(region);
+  }
+
+  // Cleanup operations
+
+  /**
+   * Resets the buffer length to 0 but does not release allocated memory. This method is useful
+   * when the same buffer instance can be reused multiple times.
+   *
+   * @see #clear()
+   */
+  @Override
+  public final void reset() {
+    invalidateViews();
+    length = 0;
+  }
+
+  /**
+   * Clears the buffer and explicitly releases all allocated off-heap memory. The buffer may be
+   * reused after this call, new pages will be allocated on demand.
+   *
+   * @see #reset()
+   */
+  @Override
+  public void clear() {
+    for (int index = 0; index < regions.length; index++) {
+      if (regions[index] != null) {
+        releaseRegion(regions[index]);
+      }
+      regions[index] = null;
+      pages[index] = null;
+    }
+    transfer = null;
+    invalidateViews();
+    length = 0;
+  }
+
+}
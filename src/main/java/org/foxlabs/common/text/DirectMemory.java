@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.function.Consumer;
+
+/**
+ * Helper methods to allocate and explicitly release direct (off-heap) memory regions. Normally
+ * direct buffers are released by the garbage collector once they become unreachable, which may
+ * happen too late for large regions; this class allows to do that as soon as a region is no
+ * longer needed.
+ *
+ * @author Fox Mulder
+ */
+final class DirectMemory {
+
+  // Instantiation is not possible
+  private DirectMemory() {
+    throw new IllegalAccessError();
+  }
+
+  /**
+   * The platform-specific function that releases memory of a direct buffer.
+   */
+  private static final Consumer<ByteBuffer> CLEANER = lookupCleaner();
+
+  /**
+   * Allocates a new direct buffer of the specified capacity (in bytes) with the native byte order.
+   *
+   * @param capacity The capacity of the buffer in bytes.
+   * @return A new direct buffer.
+   * @throws OutOfMemoryError if there is not enough direct memory.
+   */
+  static ByteBuffer allocate(int capacity) {
+    return ByteBuffer.allocateDirect(capacity).order(ByteOrder.nativeOrder());
+  }
+
+  /**
+   * Releases memory of the specified direct or mapped buffer. The buffer must not be used after
+   * this call. Does nothing if the specified buffer is {@code null} or not direct, or if the
+   * platform does not provide a way to release memory explicitly (in that case the memory will be
+   * released by the garbage collector).
+   *
+   * @param buffer The buffer to release.
+   */
+  static void release(ByteBuffer buffer) {
+    if (buffer != null && buffer.isDirect()) {
+      CLEANER.accept(buffer);
+    }
+  }
+
+  /**
+   * Looks up the platform-specific function that releases memory of a direct buffer.
+   */
+  private static Consumer<ByteBuffer> lookupCleaner() {
+    // Java 9+: sun.misc.Unsafe.invokeCleaner(ByteBuffer)
+    try {
+      final Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+      final Field field = unsafeClass.getDeclaredField("theUnsafe");
+      field.setAccessible(true);
+      final Object unsafe = field.get(null);
+      final Method invokeCleaner = unsafeClass.getMethod("invokeCleaner", ByteBuffer.class);
+      return (buffer) -> {
+        try {
+          invokeCleaner.invoke(unsafe, buffer);
+        } catch (ReflectiveOperationException e) {
+          // leave it to the garbage collector
+        }
+      };
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // fallback to Java 8
+    }
+    // Java 8: ((sun.nio.ch.DirectBuffer) buffer).cleaner().clean()
+    try {
+      final Method cleaner = Class.forName("sun.nio.ch.DirectBuffer").getMethod("cleaner");
+      final Method clean = Class.forName("sun.misc.Cleaner").getMethod("clean");
+      return (buffer) -> {
+        try {
+          final Object instance = cleaner.invoke(buffer);
+          if (instance != null) {
+            clean.invoke(instance);
+          }
+        } catch (ReflectiveOperationException e) {
+          // leave it to the garbage collector
+        }
+      };
+    } catch (ReflectiveOperationException | RuntimeException e) {
+      // leave it to the garbage collector
+      return (buffer) -> {};
+    }
+  }
+
+}
@@ -0,0 +1,222 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A {@link CharDecoder} that decodes markup character references: named entity references like
+ * {@code &amp;amp;} from a fixed table and numeric character references like {@code &amp;#39;}
+ * or {@code &amp;#x27;}. Invalid or unknown references are appended to the buffer as is.
+ *
+ * <p>Entity names are matched against the segment characters in place using binary search, so
+ * decoding does not allocate.</p>
+ *
+ * @author Fox Mulder
+ * @see CharDecoder#HTML
+ * @see CharDecoder#XML_TEXT
+ */
+final class EntityDecoder extends EscapeDecoder {
+
+  /**
+   * The maximum length of a reference including the leading {@code '&'} and the trailing
+   * {@code ';'} characters.
+   */
+  private static final int MAX_LENGTH = 32;
+
+  /**
+   * The predefined XML entities with their replacements.
+   */
+  private static final String[] XML_ENTITIES =
+      {"amp", "&", "lt", "<", "gt", ">", "quot", "\"", "apos", "'"};
+
+  /**
+   * The names of the HTML entities for the Latin-1 characters from {@code U+00A0} to
+   * {@code U+00FF} in order.
+   */
+  private static final String LATIN1_ENTITIES =
+      "nbsp iexcl cent pound curren yen brvbar sect uml copy ordf laquo not shy reg macr deg " +
+      "plusmn sup2 sup3 acute micro para middot cedil sup1 ordm raquo frac14 frac12 frac34 " +
+      "iquest Agrave Aacute Acirc Atilde Auml Aring AElig Ccedil Egrave Eacute Ecirc Euml " +
+      "Igrave Iacute Icirc Iuml ETH Ntilde Ograve Oacute Ocirc Otilde Ouml times Oslash Ugrave " +
+      "Uacute Ucirc Uuml Yacute THORN szlig agrave aacute acirc atilde auml aring aelig ccedil " +
+      "egrave eacute ecirc euml igrave iacute icirc iuml eth ntilde ograve oacute ocirc otilde " +
+      "ouml divide oslash ugrave uacute ucirc uuml yacute thorn yuml";
+
+  /**
+   * The HTML entities beyond Latin-1 with their replacements.
+   */
+  private static final String[] EXTRA_ENTITIES = {
+      "OElig", "\u0152", "oelig", "\u0153", "Scaron", "\u0160", "scaron", "\u0161",
+      "Yuml", "\u0178", "fnof", "\u0192", "circ", "\u02c6", "tilde", "\u02dc",
+      "ensp", "\u2002", "emsp", "\u2003", "thinsp", "\u2009", "zwnj", "\u200c",
+      "zwj", "\u200d", "lrm", "\u200e", "rlm", "\u200f", "ndash", "\u2013",
+      "mdash", "\u2014", "lsquo", "\u2018", "rsquo", "\u2019", "sbquo", "\u201a",
+      "ldquo", "\u201c", "rdquo", "\u201d", "bdquo", "\u201e", "dagger", "\u2020",
+      "Dagger", "\u2021", "bull", "\u2022", "hellip", "\u2026", "permil", "\u2030",
+      "prime", "\u2032", "Prime", "\u2033", "lsaquo", "\u2039", "rsaquo", "\u203a",
+      "euro", "\u20ac", "trade", "\u2122", "larr", "\u2190", "uarr", "\u2191",
+      "rarr", "\u2192", "darr", "\u2193", "harr", "\u2194", "minus", "\u2212",
+      "ne", "\u2260", "le", "\u2264", "ge", "\u2265", "infin", "\u221e"};
+
+  /**
+   * The sorted entity names.
+   */
+  private final String[] names;
+
+  /**
+   * The replacements of the {@link #names} entities.
+   */
+  private final CharSegment[] values;
+
+  /**
+   * Constructs a new entity decoder with the specified pairs of entity names and their
+   * replacements.
+   *
+   * @param entities The alternating entity names and their replacements.
+   */
+  EntityDecoder(String... entities) {
+    super('&');
+    final Map<String, String> sorted = new TreeMap<>();
+    for (int i = 0; i < entities.length; i += 2) {
+      sorted.put(entities[i], entities[i + 1]);
+    }
+    this.names = new String[sorted.size()];
+    this.values = new CharSegment[sorted.size()];
+    int index = 0;
+    for (Map.Entry<String, String> entry : sorted.entrySet()) {
+      names[index] = entry.getKey();
+      values[index++] = CharSegment.from(entry.getValue());
+    }
+  }
+
+  /**
+   * Creates a new decoder of the predefined XML entities.
+   */
+  static EntityDecoder newXmlDecoder() {
+    return new EntityDecoder(XML_ENTITIES);
+  }
+
+  /**
+   * Creates a new decoder of the predefined XML entities, the HTML entities for the Latin-1
+   * characters and the most common HTML entities beyond Latin-1.
+   */
+  static EntityDecoder newHtmlDecoder() {
+    final String[] names = LATIN1_ENTITIES.split(" ");
+    final String[] entities =
+        Arrays.copyOf(XML_ENTITIES, XML_ENTITIES.length + EXTRA_ENTITIES.length + names.length * 2);
+    System.arraycopy(EXTRA_ENTITIES, 0, entities, XML_ENTITIES.length, EXTRA_ENTITIES.length);
+    int index = XML_ENTITIES.length + EXTRA_ENTITIES.length;
+    for (int i = 0; i < names.length; i++) {
+      entities[index++] = names[i];
+      entities[index++] = String.valueOf((char) (0xa0 + i));
+    }
+    return new EntityDecoder(entities);
+  }
+
+  @Override
+  int decodeEscape(CharSegment segment, int index, CharBuffer buffer) {
+    final int start = index + 1;
+    final int limit = Math.min(segment.length(), index + MAX_LENGTH);
+    int end = start;
+    while (end < limit && segment.charAt(end) != ';') {
+      end++;
+    }
+    if (end == limit || end == start) {
+      return 0;
+    }
+    if (segment.charAt(start) == '#') {
+      final int cp = parseCodePoint(segment, start + 1, end);
+      if (cp < 0) {
+        return 0;
+      }
+      buffer.append(cp);
+    } else {
+      final int entity = indexOf(segment, start, end);
+      if (entity < 0) {
+        return 0;
+      }
+      buffer.append(values[entity]);
+    }
+    return end + 1 - index;
+  }
+
+  /**
+   * Parses a decimal or hexadecimal (if prefixed with {@code 'x'}) code point in the specified
+   * range of the segment, returns {@code -1} if the range is not a valid code point.
+   */
+  private static int parseCodePoint(CharSegment segment, int start, int end) {
+    int radix = 10;
+    if (start < end && (segment.charAt(start) | 0x20) == 'x') {
+      radix = 16;
+      start++;
+    }
+    if (start == end) {
+      return -1;
+    }
+    int cp = 0;
+    for (; start < end; start++) {
+      final int digit = hexDigit(segment.charAt(start));
+      if (digit < 0 || digit >= radix) {
+        return -1;
+      }
+      cp = cp * radix + digit;
+      if (cp > Character.MAX_CODE_POINT) {
+        return -1;
+      }
+    }
+    return cp == 0 || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE) ? -1 : cp;
+  }
+
+  /**
+   * Returns index of the entity which name is in the specified range of the segment or
+   * {@code -1} if there is no such entity.
+   */
+  private int indexOf(CharSegment segment, int start, int end) {
+    int low = 0;
+    int high = names.length - 1;
+    while (low <= high) {
+      final int mid = (low + high) >>> 1;
+      final int cmp = compare(names[mid], segment, start, end);
+      if (cmp < 0) {
+        low = mid + 1;
+      } else if (cmp > 0) {
+        high = mid - 1;
+      } else {
+        return mid;
+      }
+    }
+    return -1;
+  }
+
+  /**
+   * Compares the specified name with the specified range of the segment lexicographically.
+   */
+  private static int compare(String name, CharSegment segment, int start, int end) {
+    final int length = Math.min(name.length(), end - start);
+    for (int i = 0; i < length; i++) {
+      final int diff = name.charAt(i) - segment.charAt(start + i);
+      if (diff != 0) {
+        return diff;
+      }
+    }
+    return name.length() - (end - start);
+  }
+
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+/**
+ * A base class for {@link CharDecoder}s of escape sequences that start with a single introducer
+ * character, like {@code '&'} in markup or {@code '%'} in URLs. The {@link #skip(CharSegment,
+ * int, int)} method looks for the next introducer using {@link CharSegment#indexOf(char, int,
+ * int)}, so that literal runs between escape sequences are copied in bulk by the
+ * {@link #decode(CharSegment, int, int, CharBuffer)} method.
+ *
+ * @author Fox Mulder
+ */
+abstract class EscapeDecoder implements CharDecoder {
+
+  /**
+   * The character that starts an escape sequence.
+   */
+  private final char introducer;
+
+  /**
+   * Constructs a new escape decoder with the specified introducer character.
+   *
+   * @param introducer The character that starts an escape sequence.
+   */
+  EscapeDecoder(char introducer) {
+    this.introducer = introducer;
+  }
+
+  @Override
+  public final int decode(CharSegment segment, int index, CharBuffer buffer) {
+    final char ch = segment.charAt(index);
+    if (ch == introducer) {
+      final int count = decodeEscape(segment, index, buffer);
+      if (count > 0) {
+        return count;
+      }
+    }
+    buffer.append(ch);
+    return 1;
+  }
+
+  @Override
+  public final int skip(CharSegment segment, int start, int end) {
+    final int index = segment.indexOf(introducer, start, end);
+    return index < 0 ? end : index;
+  }
+
+  /**
+   * Decodes an escape sequence that starts at the specified index of the segment (i.e. with the
+   * introducer character), appends the result to the buffer and returns the number of characters
+   * consumed. Returns {@code 0} if there is no valid escape sequence at the specified index, in
+   * which case the introducer character is appended as is.
+   *
+   * @param segment The segment of characters to decode.
+   * @param index The index of the introducer character in the segment.
+   * @param buffer The buffer to append the result to.
+   * @return The number of characters consumed or {@code 0} if there is no valid escape sequence.
+   */
+  abstract int decodeEscape(CharSegment segment, int index, CharBuffer buffer);
+
+  /**
+   * Returns value of the specified ASCII hexadecimal digit or {@code -1} if the specified
+   * character is not a hexadecimal digit.
+   */
+  static int hexDigit(char ch) {
+    if (ch >= '0' && ch <= '9') {
+      return ch - '0';
+    }
+    ch |= 0x20; // to lowercase
+    return ch >= 'a' && ch <= 'f' ? ch - 'a' + 10 : -1;
+  }
+
+}
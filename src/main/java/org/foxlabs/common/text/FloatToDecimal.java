@@ -0,0 +1,718 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.math.BigInteger;
+import java.math.RoundingMode;
+
+/**
+ * Allocation-free conversion of {@code float} and {@code double} values to their shortest decimal
+ * string representations that round-trip (i.e. the Schubfach algorithm by Raffaello Giulietti).
+ * The output is the same as the one of {@link Float#toString(float)} and
+ * {@link Double#toString(double)} methods since JDK 19, older JDKs may produce longer (not the
+ * shortest) representations for some values.
+ *
+ * <p>Fixed precision notations round the shortest decimal representation (i.e. the same decimal
+ * {@code BigDecimal.valueOf(double)} produces since JDK 19), not the exact binary value. For
+ * example, {@code 0.15} is rounded to {@code 0.2} using {@code HALF_UP}, which is also what
+ * {@code String.format("%.1f", 0.15)} returns.</p>
+ *
+ * <p>See "The Schubfach way to render doubles" by Raffaello Giulietti for the algorithm details
+ * and proofs.</p>
+ *
+ * @author Fox Mulder
+ */
+final class FloatToDecimal {
+
+  private FloatToDecimal() {
+    throw new IllegalAccessError();
+  }
+
+  // Constants
+
+  /**
+   * The minimum exponent of the {@code double} value ({@code c 2^q}).
+   */
+  private static final int D_Q_MIN = -1074;
+
+  /**
+   * The number of decimal digits of the {@code double} significand.
+   */
+  private static final int D_H = 17;
+
+  /**
+   * The {@code double} significand of the minimum normal value.
+   */
+  private static final long D_C_MIN = 1L << 52;
+
+  /**
+   * The {@code double} significand below which a subnormal value needs one more digit.
+   */
+  private static final long D_C_TINY = 3;
+
+  /**
+   * The minimum exponent of the {@code float} value ({@code c 2^q}).
+   */
+  private static final int F_Q_MIN = -149;
+
+  /**
+   * The number of decimal digits of the {@code float} significand.
+   */
+  private static final int F_H = 9;
+
+  /**
+   * The {@code float} significand of the minimum normal value.
+   */
+  private static final int F_C_MIN = 1 << 23;
+
+  /**
+   * The {@code float} significand below which a subnormal value needs one more digit.
+   */
+  private static final int F_C_TINY = 8;
+
+  /**
+   * The minimum decimal exponent for which the {@link #G} table has an entry.
+   */
+  private static final int K_MIN = -324;
+
+  /**
+   * The maximum decimal exponent for which the {@link #G} table has an entry.
+   */
+  private static final int K_MAX = 292;
+
+  private static final long MASK_63 = (1L << 63) - 1;
+
+  private static final long MASK_32 = (1L << 32) - 1;
+
+  private static final int MASK_28 = (1 << 28) - 1;
+
+  /**
+   * Powers of 10 from {@code 10^0} to {@code 10^18}.
+   */
+  private static final long[] POW10 = new long[19];
+
+  /**
+   * The 126-bit approximations {@code g = floor(10^(-k) 2^(-r)) + 1} of powers of 10, where
+   * {@code 2^125 <= g < 2^126}, stored as pairs of 63-bit halves {@code g1, g0}.
+   */
+  private static final long[] G = new long[(K_MAX - K_MIN + 1) << 1];
+
+  static {
+    POW10[0] = 1L;
+    for (int e = 1; e < POW10.length; e++) {
+      POW10[e] = POW10[e - 1] * 10L;
+    }
+    for (int k = K_MIN; k <= K_MAX; k++) {
+      final int r = flog2pow10(-k) - 125;
+      final BigInteger beta = k > 0
+          ? BigInteger.ONE.shiftLeft(-r).divide(BigInteger.TEN.pow(k))
+          : r < 0 ? BigInteger.TEN.pow(-k).shiftLeft(-r) : BigInteger.TEN.pow(-k).shiftRight(r);
+      final BigInteger g = beta.add(BigInteger.ONE);
+      G[(k - K_MIN) << 1] = g.shiftRight(63).longValue();
+      G[(k - K_MIN) << 1 | 1] = g.longValue() & MASK_63;
+    }
+  }
+
+  /**
+   * The string representation of not-a-number values.
+   */
+  private static final CharSegment NAN = CharSegment.from('N', 'a', 'N');
+
+  /**
+   * The string representation of the positive infinity.
+   */
+  private static final CharSegment INFINITY = CharSegment.from(
+      'I', 'n', 'f', 'i', 'n', 'i', 't', 'y'
+  );
+
+  /**
+   * The string representation of the positive zero.
+   */
+  private static final CharSegment ZERO = CharSegment.from('0', '.', '0');
+
+  // Conversion
+
+  /**
+   * The shortest representation in the {@link Double#toString(double)} format.
+   */
+  static final int SHORTEST = 0;
+
+  /**
+   * The plain representation with the specified number of fraction digits.
+   */
+  static final int FIXED = 1;
+
+  /**
+   * The scientific notation with the specified number of fraction digits.
+   */
+  static final int SCIENTIFIC = 2;
+
+  /**
+   * The engineering notation (exponent is a multiple of 3) with the specified number of fraction
+   * digits.
+   */
+  static final int ENGINEERING = 3;
+
+  /**
+   * Formats the specified {@code double} value in the specified notation and appends the result
+   * to the specified buffer, if any. Fixed precision notations round the shortest decimal
+   * representation of the value using the specified rounding mode.
+   *
+   * @param buffer The buffer to append to or {@code null} to calculate length of the result only.
+   * @param value The {@code double} value to format.
+   * @param notation The notation ({@link #SHORTEST}, {@link #FIXED}, {@link #SCIENTIFIC} or
+   *        {@link #ENGINEERING}).
+   * @param digits The number of fraction digits (ignored by the {@link #SHORTEST} notation).
+   * @param mode The rounding mode (ignored by the {@link #SHORTEST} notation).
+   * @return The length of the result.
+   * @throws ArithmeticException if rounding is necessary, but the rounding mode is
+   *         {@link RoundingMode#UNNECESSARY}.
+   */
+  static int format(CharBuffer buffer, double value, int notation, int digits,
+      RoundingMode mode) {
+    final long bits = Double.doubleToRawLongBits(value);
+    final long t = bits & (D_C_MIN - 1);
+    final int bq = (int) (bits >>> 52) & 0x7ff;
+    final boolean negative = bits < 0;
+    if (bq == 0x7ff) {
+      return formatSpecial(buffer, t != 0, negative);
+    } else if (bq != 0) {
+      // normal value
+      final int mq = -D_Q_MIN + 1 - bq;
+      final long c = D_C_MIN | t;
+      // fast path for integer values
+      if (0 < mq && mq < 53) {
+        final long f = c >> mq;
+        if (f << mq == c) {
+          return format(buffer, negative, f, 0, notation, digits, mode);
+        }
+      }
+      return toDecimal(buffer, negative, -mq, c, 0, notation, digits, mode);
+    } else if (t != 0) {
+      // subnormal value
+      return t < D_C_TINY
+          ? toDecimal(buffer, negative, D_Q_MIN, 10L * t, -1, notation, digits, mode)
+          : toDecimal(buffer, negative, D_Q_MIN, t, 0, notation, digits, mode);
+    }
+    return format(buffer, negative, 0L, 0, notation, digits, mode);
+  }
+
+  /**
+   * Formats the specified {@code float} value in the specified notation and appends the result to
+   * the specified buffer, if any. Fixed precision notations round the shortest decimal
+   * representation of the value using the specified rounding mode.
+   *
+   * @param buffer The buffer to append to or {@code null} to calculate length of the result only.
+   * @param value The {@code float} value to format.
+   * @param notation The notation ({@link #SHORTEST}, {@link #FIXED}, {@link #SCIENTIFIC} or
+   *        {@link #ENGINEERING}).
+   * @param digits The number of fraction digits (ignored by the {@link #SHORTEST} notation).
+   * @param mode The rounding mode (ignored by the {@link #SHORTEST} notation).
+   * @return The length of the result.
+   * @throws ArithmeticException if rounding is necessary, but the rounding mode is
+   *         {@link RoundingMode#UNNECESSARY}.
+   */
+  static int format(CharBuffer buffer, float value, int notation, int digits, RoundingMode mode) {
+    final int bits = Float.floatToRawIntBits(value);
+    final int t = bits & (F_C_MIN - 1);
+    final int bq = (bits >>> 23) & 0xff;
+    final boolean negative = bits < 0;
+    if (bq == 0xff) {
+      return formatSpecial(buffer, t != 0, negative);
+    } else if (bq != 0) {
+      // normal value
+      final int mq = -F_Q_MIN + 1 - bq;
+      final int c = F_C_MIN | t;
+      // fast path for integer values
+      if (0 < mq && mq < 24) {
+        final int f = c >> mq;
+        if (f << mq == c) {
+          return format(buffer, negative, f, 0, notation, digits, mode);
+        }
+      }
+      return toDecimal(buffer, negative, -mq, c, 0, notation, digits, mode);
+    } else if (t != 0) {
+      // subnormal value
+      return t < F_C_TINY
+          ? toDecimal(buffer, negative, F_Q_MIN, 10 * t, -1, notation, digits, mode)
+          : toDecimal(buffer, negative, F_Q_MIN, t, 0, notation, digits, mode);
+    }
+    return format(buffer, negative, 0L, 0, notation, digits, mode);
+  }
+
+  private static int formatSpecial(CharBuffer buffer, boolean nan, boolean negative) {
+    if (nan) {
+      if (buffer != null) {
+        buffer.append(NAN);
+      }
+      return NAN.length();
+    }
+    if (buffer != null) {
+      if (negative) {
+        buffer.append('-');
+      }
+      buffer.append(INFINITY);
+    }
+    return negative ? INFINITY.length() + 1 : INFINITY.length();
+  }
+
+  /**
+   * Finds the shortest decimal {@code d 10^k} that rounds to the {@code double} value
+   * {@code c 2^q} and formats it.
+   */
+  private static int toDecimal(CharBuffer buffer, boolean negative, int q, long c, int dk,
+      int notation, int digits, RoundingMode mode) {
+    final int out = (int) c & 0x1;
+    final long cb = c << 2;
+    final long cbr = cb + 2;
+    final long cbl;
+    final int k;
+    if (c != D_C_MIN || q == D_Q_MIN) {
+      cbl = cb - 2;
+      k = flog10pow2(q);
+    } else {
+      // the lower boundary is closer at powers of 2
+      cbl = cb - 1;
+      k = flog10threeQuartersPow2(q);
+    }
+    final int h = q + flog2pow10(-k) + 2;
+    final long g1 = G[(k - K_MIN) << 1];
+    final long g0 = G[(k - K_MIN) << 1 | 1];
+    final long vb = rop(g1, g0, cb << h);
+    final long vbl = rop(g1, g0, cbl << h);
+    final long vbr = rop(g1, g0, cbr << h);
+    final long s = vb >> 2;
+    if (s >= 100) {
+      // try a decimal with one digit less: s' = floor(s / 10)
+      final long sp10 = 10L * multiplyHigh(s, 115_292_150_460_684_698L << 4);
+      final long tp10 = sp10 + 10L;
+      final boolean upin = vbl + out <= sp10 << 2;
+      final boolean wpin = (tp10 << 2) + out <= vbr;
+      if (upin != wpin) {
+        return format(buffer, negative, upin ? sp10 : tp10, k, notation, digits, mode);
+      }
+    }
+    final long t = s + 1;
+    final boolean uin = vbl + out <= s << 2;
+    final boolean win = (t << 2) + out <= vbr;
+    if (uin != win) {
+      return format(buffer, negative, uin ? s : t, k + dk, notation, digits, mode);
+    }
+    // both are in the rounding interval, choose the closest one
+    final long cmp = vb - (s + t << 1);
+    final long d = cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t;
+    return format(buffer, negative, d, k + dk, notation, digits, mode);
+  }
+
+  /**
+   * Finds the shortest decimal {@code d 10^k} that rounds to the {@code float} value
+   * {@code c 2^q} and formats it.
+   */
+  private static int toDecimal(CharBuffer buffer, boolean negative, int q, int c, int dk,
+      int notation, int digits, RoundingMode mode) {
+    final int out = c & 0x1;
+    final long cb = (long) c << 2;
+    final long cbr = cb + 2;
+    final long cbl;
+    final int k;
+    if (c != F_C_MIN || q == F_Q_MIN) {
+      cbl = cb - 2;
+      k = flog10pow2(q);
+    } else {
+      // the lower boundary is closer at powers of 2
+      cbl = cb - 1;
+      k = flog10threeQuartersPow2(q);
+    }
+    final int h = q + flog2pow10(-k) + 33;
+    final long g = G[(k - K_MIN) << 1] + 1;
+    final int vb = rop(g, cb << h);
+    final int vbl = rop(g, cbl << h);
+    final int vbr = rop(g, cbr << h);
+    final int s = vb >> 2;
+    if (s >= 100) {
+      // try a decimal with one digit less: s' = floor(s / 10)
+      final int sp10 = 10 * (int) (s * 1_717_986_919L >>> 34);
+      final int tp10 = sp10 + 10;
+      final boolean upin = vbl + out <= sp10 << 2;
+      final boolean wpin = (tp10 << 2) + out <= vbr;
+      if (upin != wpin) {
+        return format(buffer, negative, upin ? sp10 : tp10, k, notation, digits, mode);
+      }
+    }
+    final int t = s + 1;
+    final boolean uin = vbl + out <= s << 2;
+    final boolean win = (t << 2) + out <= vbr;
+    if (uin != win) {
+      return format(buffer, negative, uin ? s : t, k + dk, notation, digits, mode);
+    }
+    // both are in the rounding interval, choose the closest one
+    final int cmp = vb - (s + t << 1);
+    final int d = cmp < 0 || cmp == 0 && (s & 0x1) == 0 ? s : t;
+    return format(buffer, negative, d, k + dk, notation, digits, mode);
+  }
+
+  /**
+   * Formats the decimal {@code f 10^e} in the specified notation.
+   *
+   * @param buffer The buffer to append to or {@code null} to calculate length of the result only.
+   * @param negative Whether the value is negative.
+   * @param f The decimal significand (at most 17 digits long).
+   * @param e The decimal exponent.
+   * @param notation The notation.
+   * @param digits The number of fraction digits.
+   * @param mode The rounding mode.
+   * @return The length of the result or {@code Integer.MAX_VALUE} if it does not fit in an
+   *         {@code int}.
+   */
+  private static int format(CharBuffer buffer, boolean negative, long f, int e, int notation,
+      int digits, RoundingMode mode) {
+    // normalize f to be exactly 17 digits long, so that f 10^e = 0.f 10^(e + len)
+    int len = flog10pow2(64 - Long.numberOfLeadingZeros(f));
+    if (f >= POW10[len]) {
+      len++;
+    }
+    f *= POW10[D_H - len];
+    e += len;
+    if (buffer != null && negative) {
+      buffer.append('-');
+    }
+    final long length;
+    switch (notation) {
+      case FIXED:
+        length = formatFixed(buffer, negative, f, e, digits, mode);
+        break;
+      case SCIENTIFIC:
+        length = formatScientific(buffer, negative, f, e, digits, mode, false);
+        break;
+      case ENGINEERING:
+        length = formatScientific(buffer, negative, f, e, digits, mode, true);
+        break;
+      default:
+        length = formatShortest(buffer, f, e);
+    }
+    return (int) Math.min((negative ? 1 : 0) + length, Integer.MAX_VALUE);
+  }
+
+  /**
+   * Formats the normalized decimal {@code 0.f 10^e} using the same format as the
+   * {@link Double#toString(double)} method does.
+   */
+  private static int formatShortest(CharBuffer buffer, long f, int e) {
+    if (f == 0) {
+      if (buffer != null) {
+        buffer.append(ZERO);
+      }
+      return ZERO.length();
+    }
+    // split f into the most significant digit and two 8 digits long parts
+    final long hm = multiplyHigh(f, 193_428_131_138_340_668L) >>> 20;
+    final int l = (int) (f - 100_000_000L * hm);
+    final int h = (int) (hm * 1_441_151_881L >>> 57);
+    final int m = (int) (hm - 100_000_000L * h);
+    // calculate the number of significant digits
+    final int n = l != 0 ? D_H - trailingZeros(l) : m != 0 ? 9 - trailingZeros(m) : 1;
+    if (0 < e && e <= 7) {
+      // plain format without leading zeros
+      if (buffer != null) {
+        if (n <= e) {
+          appendDigits(buffer, h, m, l, 0, n);
+          appendZeros(buffer, e - n);
+          buffer.append('.').append('0');
+        } else {
+          appendDigits(buffer, h, m, l, 0, e);
+          buffer.append('.');
+          appendDigits(buffer, h, m, l, e, n);
+        }
+      }
+      return n <= e ? e + 2 : n + 1;
+    } else if (-3 < e && e <= 0) {
+      // plain format with leading zeros
+      if (buffer != null) {
+        buffer.append('0').append('.');
+        appendZeros(buffer, -e);
+        appendDigits(buffer, h, m, l, 0, n);
+      }
+      return 2 - e + n;
+    }
+    // computerized scientific notation
+    if (buffer != null) {
+      appendDigits(buffer, h, m, l, 0, 1);
+      buffer.append('.');
+      if (n > 1) {
+        appendDigits(buffer, h, m, l, 1, n);
+      } else {
+        buffer.append('0');
+      }
+      buffer.append('E').appendDec(e - 1);
+    }
+    return Math.max(n, 2) + 2 + CharBuffer.getDecCapacity(e - 1);
+  }
+
+  /**
+   * Formats the normalized decimal {@code 0.f 10^e} in plain format with the specified number of
+   * fraction digits.
+   */
+  private static long formatFixed(CharBuffer buffer, boolean negative, long f, int e, int digits,
+      RoundingMode mode) {
+    // the result is q 10^z units of 10^(-digits), where q is qlen digits long
+    final long q;
+    final int qlen;
+    final long z;
+    final long p = (long) e + digits; // number of significant digits to keep
+    if (p >= D_H) {
+      q = f;
+      qlen = f == 0 ? 0 : D_H;
+      z = p - D_H;
+    } else {
+      q = round(f, (int) Math.max(p, -1), negative, mode);
+      qlen = q == 0 ? 0 : CharBuffer.getDecCapacity(q);
+      z = 0;
+    }
+    final long total = qlen + z;
+    if (buffer != null) {
+      if (total > digits) {
+        appendDigits(buffer, q, qlen, 0, total - digits);
+      } else {
+        buffer.append('0');
+      }
+      if (digits > 0) {
+        buffer.append('.');
+        if (total >= digits) {
+          appendDigits(buffer, q, qlen, total - digits, total);
+        } else {
+          appendZeros(buffer, digits - total);
+          appendDigits(buffer, q, qlen, 0, total);
+        }
+      }
+    }
+    return Math.max(total - digits, 1L) + (digits > 0 ? digits + 1L : 0L);
+  }
+
+  /**
+   * Formats the normalized decimal {@code 0.f 10^e} in scientific or engineering notation with
+   * the specified number of fraction digits.
+   */
+  private static long formatScientific(CharBuffer buffer, boolean negative, long f, int e,
+      int digits, RoundingMode mode, boolean engineering) {
+    // the result is i integer digits, fraction digits and exponent x
+    long q = f;
+    int qlen = D_H;
+    int x = 0;
+    int i = 1;
+    if (f == 0) {
+      qlen = 0;
+    } else {
+      x = engineering ? Math.floorDiv(e - 1, 3) * 3 : e - 1;
+      i = e - x;
+      final long p = (long) i + digits; // number of significant digits to keep
+      if (p < D_H) {
+        qlen = (int) p;
+        q = round(f, qlen, negative, mode);
+        if (q == POW10[qlen]) {
+          // rounded up to the next power of 10
+          e++;
+          x = engineering ? Math.floorDiv(e - 1, 3) * 3 : e - 1;
+          i = e - x;
+          q = 1;
+          qlen = 1;
+        }
+      }
+    }
+    if (buffer != null) {
+      appendDigits(buffer, q, qlen, 0, i);
+      if (digits > 0) {
+        buffer.append('.');
+        appendDigits(buffer, q, qlen, i, (long) i + digits);
+      }
+      buffer.append('E').appendDec(x);
+    }
+    return i + (digits > 0 ? digits + 1L : 0L) + 1 + CharBuffer.getDecCapacity(x);
+  }
+
+  /**
+   * Rounds the 17 digits long decimal significand {@code f} to the specified number {@code p} of
+   * the most significant digits (i.e. {@code f / 10^(17 - p)}) using the specified rounding mode.
+   * Negative {@code p} means that all the digits are below the rounding position and less than a
+   * half.
+   */
+  private static long round(long f, int p, boolean negative, RoundingMode mode) {
+    if (f == 0) { // fast check
+      return 0;
+    }
+    final long q;
+    final int half; // comparison of the remainder with a half
+    if (p >= 0) {
+      final long divisor = POW10[D_H - p];
+      q = f / divisor;
+      final long r = f - q * divisor;
+      if (r == 0) {
+        return q;
+      }
+      half = Long.compare(r, divisor >> 1);
+    } else {
+      q = 0;
+      half = -1;
+    }
+    switch (mode) {
+      case UP:
+        return q + 1;
+      case DOWN:
+        return q;
+      case CEILING:
+        return negative ? q : q + 1;
+      case FLOOR:
+        return negative ? q + 1 : q;
+      case HALF_UP:
+        return half >= 0 ? q + 1 : q;
+      case HALF_DOWN:
+        return half > 0 ? q + 1 : q;
+      case HALF_EVEN:
+        return half > 0 || half == 0 && (q & 0x1) != 0 ? q + 1 : q;
+      default:
+        throw new ArithmeticException("Rounding necessary");
+    }
+  }
+
+  /**
+   * Appends digits of the 17 digits long decimal significand in the specified range. The digit at
+   * position 0 is {@code h}, positions 1-8 are digits of {@code m} and positions 9-16 are digits
+   * of {@code l}.
+   */
+  private static void appendDigits(CharBuffer buffer, int h, int m, int l, int from, int to) {
+    if (from == 0 && to > 0) {
+      buffer.append((char) ('0' + h));
+      from = 1;
+    }
+    if (from < to && from < 9) {
+      appendDigits(buffer, m, from - 1, Math.min(to, 9) - 1);
+      from = 9;
+    }
+    if (from < to) {
+      appendDigits(buffer, l, from - 9, to - 9);
+    }
+  }
+
+  /**
+   * Appends digits of the 8 digits long {@code value} in the specified range using left-to-right
+   * digits extraction.
+   */
+  private static void appendDigits(CharBuffer buffer, int value, int from, int to) {
+    // y = floor((value + 1) 2^28 / 10^8) - 1
+    int y = (int) (multiplyHigh((long) (value + 1) << 28, 193_428_131_138_340_668L) >>> 20) - 1;
+    for (int index = 0; index < to; index++) {
+      final int t = 10 * y;
+      if (index >= from) {
+        buffer.append((char) ('0' + (t >>> 28)));
+      }
+      y = t & MASK_28;
+    }
+  }
+
+  /**
+   * Appends digits in the specified range of the {@code qlen} digits long decimal {@code q}
+   * followed by infinite number of zeros.
+   */
+  private static void appendDigits(CharBuffer buffer, long q, int qlen, long from, long to) {
+    if (from < qlen) {
+      final int end = (int) Math.min(to, qlen);
+      final long part = q / POW10[qlen - end] % POW10[end - (int) from];
+      final int plen = part == 0 ? 0 : CharBuffer.getDecCapacity(part);
+      appendZeros(buffer, end - from - plen);
+      if (plen > 0) {
+        buffer.appendDec(part);
+      }
+      from = end;
+    }
+    appendZeros(buffer, to - from);
+  }
+
+  private static void appendZeros(CharBuffer buffer, long count) {
+    for (; count > 0; count--) {
+      buffer.append('0');
+    }
+  }
+
+  private static int trailingZeros(int value) {
+    int count = 0;
+    for (; value % 10 == 0; value /= 10) {
+      count++;
+    }
+    return count;
+  }
+
+  // Arithmetic
+
+  /**
+   * Returns {@code floor(e log10(2))} for {@code |e| <= 5456721}.
+   */
+  private static int flog10pow2(int e) {
+    return (int) (e * 661_971_961_083L >> 41);
+  }
+
+  /**
+   * Returns {@code floor(e log10(2) + log10(3/4))} for {@code |e| <= 5456721}.
+   */
+  private static int flog10threeQuartersPow2(int e) {
+    return (int) (e * 661_971_961_083L + -274_743_187_321L >> 41);
+  }
+
+  /**
+   * Returns {@code floor(e log2(10))} for {@code |e| <= 1838394}.
+   */
+  private static int flog2pow10(int e) {
+    return (int) (e * 913_124_641_741L >> 38);
+  }
+
+  /**
+   * Returns {@code rop(cp g 2^(-127))} (i.e. round to odd), where {@code g = g1 2^63 + g0}.
+   */
+  private static long rop(long g1, long g0, long cp) {
+    final long x1 = multiplyHigh(g0, cp);
+    final long y0 = g1 * cp;
+    final long y1 = multiplyHigh(g1, cp);
+    final long z = (y0 >>> 1) + x1;
+    final long vbp = y1 + (z >>> 63);
+    return vbp | (z & MASK_63) + MASK_63 >>> 63;
+  }
+
+  /**
+   * Returns {@code rop(cp g 2^(-95))} (i.e. round to odd).
+   */
+  private static int rop(long g, long cp) {
+    final long x1 = multiplyHigh(g, cp);
+    final long vbp = x1 >>> 31;
+    return (int) (vbp | (x1 & MASK_32) + MASK_32 >>> 32);
+  }
+
+  /**
+   * Returns the most significant 64 bits of the 128-bit product of two 64-bit factors (the same as
+   * the {@code Math.multiplyHigh()} method available since JDK 9).
+   */
+  private static long multiplyHigh(long x, long y) {
+    final long x1 = x >> 32;
+    final long x2 = x & 0xffffffffL;
+    final long y1 = y >> 32;
+    final long y2 = y & 0xffffffffL;
+    final long z2 = x2 * y2;
+    final long t = x1 * y2 + (z2 >>> 32);
+    long z1 = t & 0xffffffffL;
+    final long z0 = t >> 32;
+    z1 += x2 * y1;
+    return x1 * y1 + z0 + (z1 >> 32);
+  }
+
+}
@@ -0,0 +1,243 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * A bounded-memory {@link CharBuffer} that drains its contents to a {@link CharSink} when it
+ * reaches the high-water mark (i.e. its capacity) and then keeps going instead of throwing the
+ * {@code ThresholdReachedException}. This allows to render arbitrarily large contents (for
+ * example, huge {@link #appendObject(Object)} graphs) in constant memory.
+ *
+ * <p>The {@link #length()} of the buffer is the number of characters that have not been drained
+ * yet, only these characters are accessible by the {@link #charAt(int)}, {@link #toString()} and
+ * other reading methods. A high surrogate at the end of the buffer is kept in the buffer on
+ * automatic draining, so that surrogate pairs are never split between writes to the sink. I/O
+ * errors occurred during automatic draining are rethrown as {@link UncheckedIOException}.</p>
+ *
+ * @author Fox Mulder
+ */
+public final class FlushingCharBuffer extends CharBuffer implements Flushable, Closeable {
+
+  /**
+   * Default capacity of the buffer.
+   */
+  public static final int DEFAULT_CAPACITY = 1 << 13;
+
+  /**
+   * The sink to drain the buffer contents to.
+   */
+  private final CharSink sink;
+
+  /**
+   * The buffer contents.
+   */
+  private final char[] data;
+
+  /**
+   * The current length of the buffer.
+   */
+  private int length;
+
+  /**
+   * The number of characters that have already been drained to the sink.
+   */
+  private long drained;
+
+  /**
+   * Constructs a new {@code FlushingCharBuffer} of the {@link #DEFAULT_CAPACITY} that drains its
+   * contents to the specified sink.
+   *
+   * @throws NullPointerException if the specified sink is {@code null}.
+   * @see #FlushingCharBuffer(CharSink, int)
+   */
+  public FlushingCharBuffer(CharSink sink) {
+    this(sink, DEFAULT_CAPACITY);
+  }
+
+  /**
+   * Constructs a new {@code FlushingCharBuffer} of the specified {@code capacity} that drains its
+   * contents to the specified sink.
+   *
+   * @param sink The sink to drain the buffer contents to.
+   * @param capacity The maximum number of characters the buffer holds before draining.
+   * @throws NullPointerException if the specified sink is {@code null}.
+   * @throws IllegalArgumentException if the specified {@code capacity} is less than 2.
+   */
+  public FlushingCharBuffer(CharSink sink, int capacity) {
+    super(Integer.MAX_VALUE);
+    this.sink = Checks.checkNotNull(sink);
+    this.data = new char[Checks.checkThat(capacity, capacity > 1)];
+  }
+
+  /**
+   * Returns the current number of characters that have not been drained to the sink yet.
+   */
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Returns the total number of characters that have been appended to the buffer (i.e. drained
+   * and not drained yet).
+   *
+   * @return The total number of characters that have been appended to the buffer.
+   */
+  public long totalLength() {
+    return drained + length;
+  }
+
+  @Override
+  public char charAt(int index) {
+    Checks.checkIndex(this, index);
+    return data[index];
+  }
+
+  @Override
+  public int codePointAt(int index) {
+    Checks.checkIndex(this, index);
+    final char high = data[index];
+    // detect supplementary character
+    if (Character.isHighSurrogate(high) && ++index < length) {
+      final char low = data[index];
+      if (Character.isLowSurrogate(low)) {
+        return Character.toCodePoint(high, low);
+      }
+    }
+    return high;
+  }
+
+  @Override
+  public CharBuffer append(char ch) {
+    if (length == data.length) {
+      drain();
+    }
+    data[length++] = ch;
+    return this;
+  }
+
+  @Override
+  public CharBuffer append(CharSegment segment) {
+    final int count = segment.length();
+    for (int start = 0; start < count;) {
+      if (length == data.length) {
+        drain();
+      }
+      // copy part of the characters that fits the buffer
+      final int remainder = Math.min(data.length - length, count - start);
+      segment.copyTo(start, start + remainder, data, length);
+      length += remainder;
+      start += remainder;
+    }
+    return this;
+  }
+
+  @Override
+  protected void copyChars(int start, int end, char[] target, int offset) {
+    System.arraycopy(data, start, target, offset, end - start);
+  }
+
+  @Override
+  protected void writeChars(int start, int end, CharSink sink) throws IOException {
+    sink.write(data, start, end - start);
+  }
+
+  /**
+   * Drains the buffer if the specified new length exceeds its capacity.
+   */
+  @Override
+  protected void extendCapacity(int nlength) {
+    if (nlength > data.length) {
+      drain();
+    }
+  }
+
+  /**
+   * Writes all the characters that have not been drained yet to the sink and flushes it.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  @Override
+  public void flush() throws IOException {
+    if (length > 0) { // fast check
+      sink.write(data, 0, length);
+      drained += length;
+      invalidateViews();
+      length = 0;
+    }
+    sink.flush();
+  }
+
+  /**
+   * Flushes the buffer and closes the sink.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      flush();
+    } finally {
+      sink.close();
+    }
+  }
+
+  /**
+   * Discards all the characters that have not been drained yet.
+   */
+  @Override
+  public void reset() {
+    invalidateViews();
+    length = 0;
+  }
+
+  /**
+   * Discards all the characters that have not been drained yet. The buffer does not release its
+   * memory since the capacity is fixed.
+   */
+  @Override
+  public void clear() {
+    invalidateViews();
+    length = 0;
+  }
+
+  private void drain() {
+    if (length == 0) { // fast check
+      return;
+    }
+    // do not split surrogate pairs between writes
+    final int count = Character.isHighSurrogate(data[length - 1]) ? length - 1 : length;
+    try {
+      sink.write(data, 0, count);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    drained += count;
+    invalidateViews();
+    if ((length -= count) > 0) {
+      data[0] = data[count];
+    }
+  }
+
+}
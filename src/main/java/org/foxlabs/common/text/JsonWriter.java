@@ -0,0 +1,485 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.Arrays;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * A streaming writer of JSON (RFC 8259) documents that appends tokens directly to a
+ * {@link CharBuffer}.
+ *
+ * <p>Numbers are formatted by the {@link CharBuffer#appendDec(long)} and
+ * {@link CharBuffer#appendDec(double)} methods, strings are escaped by the
+ * {@link CharEncoder#JSON} encoder copying runs of unescaped characters in bulk. The writer does
+ * not allocate anything beyond the target buffer after construction, unless nesting exceeds the
+ * initial depth of 32 levels.</p>
+ *
+ * <p>Pretty printing is enabled by a positive indentation, in which case each array element and
+ * object member is written on a new line indented using the {@link CharBuffer#appendIndent(int)}
+ * method.</p>
+ *
+ * <pre>
+ * new JsonWriter(buffer)
+ *     .beginObject()
+ *     .name("id").value(42)
+ *     .name("tags").beginArray().value("a").value("b").endArray()
+ *     .endObject();
+ * </pre>
+ *
+ * <p>Writers are not thread-safe.</p>
+ *
+ * @author Fox Mulder
+ */
+public final class JsonWriter {
+
+  // Scopes
+
+  /**
+   * No value has been written yet.
+   */
+  private static final byte EMPTY_DOCUMENT = 0;
+
+  /**
+   * The top-level value has been written.
+   */
+  private static final byte NONEMPTY_DOCUMENT = 1;
+
+  /**
+   * An array without elements.
+   */
+  private static final byte EMPTY_ARRAY = 2;
+
+  /**
+   * An array with at least one element.
+   */
+  private static final byte NONEMPTY_ARRAY = 3;
+
+  /**
+   * An object without members.
+   */
+  private static final byte EMPTY_OBJECT = 4;
+
+  /**
+   * An object whose member name has been written but the value has not.
+   */
+  private static final byte DANGLING_NAME = 5;
+
+  /**
+   * An object with at least one member.
+   */
+  private static final byte NONEMPTY_OBJECT = 6;
+
+  /**
+   * The JSON {@code null} literal.
+   */
+  private static final CharSegment NULL = CharSegment.from('n', 'u', 'l', 'l');
+
+  /**
+   * The JSON {@code true} literal.
+   */
+  private static final CharSegment TRUE = CharSegment.from('t', 'r', 'u', 'e');
+
+  /**
+   * The JSON {@code false} literal.
+   */
+  private static final CharSegment FALSE = CharSegment.from('f', 'a', 'l', 's', 'e');
+
+  /**
+   * The buffer to append JSON to.
+   */
+  private final CharBuffer buffer;
+
+  /**
+   * The number of spaces per nesting level or {@code 0} for compact output.
+   */
+  private final int indent;
+
+  /**
+   * The stack of scopes, the document scope is at the bottom.
+   */
+  private byte[] stack = new byte[32];
+
+  /**
+   * The number of scopes in the stack.
+   */
+  private int depth = 1;
+
+  /**
+   * The view of a string being written.
+   */
+  private final CharSegmentView string = new CharSegmentView();
+
+  /**
+   * The view of a run of unescaped characters of a string being written.
+   */
+  private final CharSegmentView run = new CharSegmentView();
+
+  /**
+   * Constructs a new writer of compact JSON to the specified buffer.
+   *
+   * @param buffer The buffer to append JSON to.
+   * @throws NullPointerException if the specified buffer is {@code null}.
+   */
+  public JsonWriter(CharBuffer buffer) {
+    this(buffer, 0);
+  }
+
+  /**
+   * Constructs a new writer of JSON to the specified buffer with the specified indentation.
+   *
+   * @param buffer The buffer to append JSON to.
+   * @param indent The number of spaces per nesting level or {@code 0} for compact output.
+   * @throws NullPointerException if the specified buffer is {@code null}.
+   * @throws IllegalArgumentException if the specified indentation is negative.
+   */
+  public JsonWriter(CharBuffer buffer, int indent) {
+    this.buffer = Checks.checkNotNull(buffer);
+    this.indent = Checks.checkThat(indent, indent >= 0);
+  }
+
+  /**
+   * Returns the buffer this writer appends JSON to.
+   *
+   * @return The buffer this writer appends JSON to.
+   */
+  public CharBuffer buffer() {
+    return buffer;
+  }
+
+  /**
+   * Determines whether a complete JSON document has been written (i.e. the top-level value has
+   * been written and all arrays and objects are closed).
+   *
+   * @return {@code true} if a complete JSON document has been written; {@code false} otherwise.
+   */
+  public boolean isComplete() {
+    return depth == 1 && stack[0] == NONEMPTY_DOCUMENT;
+  }
+
+  /**
+   * Resets the state of this writer so that a new document could be written. Note that the
+   * buffer contents is not affected.
+   *
+   * @return A reference to this writer.
+   */
+  public JsonWriter reset() {
+    stack[0] = EMPTY_DOCUMENT;
+    depth = 1;
+    return this;
+  }
+
+  // Structure
+
+  /**
+   * Begins a new array.
+   *
+   * @return A reference to this writer.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter beginArray() {
+    beforeValue();
+    push(EMPTY_ARRAY);
+    buffer.append('[');
+    return this;
+  }
+
+  /**
+   * Ends the current array.
+   *
+   * @return A reference to this writer.
+   * @throws IllegalStateException if the current scope is not an array.
+   */
+  public JsonWriter endArray() {
+    return close(EMPTY_ARRAY, NONEMPTY_ARRAY, ']');
+  }
+
+  /**
+   * Begins a new object.
+   *
+   * @return A reference to this writer.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter beginObject() {
+    beforeValue();
+    push(EMPTY_OBJECT);
+    buffer.append('{');
+    return this;
+  }
+
+  /**
+   * Ends the current object.
+   *
+   * @return A reference to this writer.
+   * @throws IllegalStateException if the current scope is not an object or a member value is
+   *         expected.
+   */
+  public JsonWriter endObject() {
+    return close(EMPTY_OBJECT, NONEMPTY_OBJECT, '}');
+  }
+
+  /**
+   * Writes a name of the next member of the current object.
+   *
+   * @param name The name of the member.
+   * @return A reference to this writer.
+   * @throws NullPointerException if the specified name is {@code null}.
+   * @throws IllegalStateException if the current scope is not an object or a member value is
+   *         expected.
+   */
+  public JsonWriter name(CharSequence name) {
+    Checks.checkNotNull(name);
+    final byte scope = stack[depth - 1];
+    if (scope == NONEMPTY_OBJECT) {
+      buffer.append(',');
+    } else if (scope != EMPTY_OBJECT) {
+      throw new IllegalStateException("Name is not expected");
+    }
+    newline();
+    stack[depth - 1] = DANGLING_NAME;
+    string(name);
+    buffer.append(':');
+    if (indent > 0) {
+      buffer.append(' ');
+    }
+    return this;
+  }
+
+  // Values
+
+  /**
+   * Writes the {@code null} value.
+   *
+   * @return A reference to this writer.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter nullValue() {
+    beforeValue();
+    buffer.append(NULL);
+    return this;
+  }
+
+  /**
+   * Writes the specified {@code boolean} value.
+   *
+   * @param value The {@code boolean} value to write.
+   * @return A reference to this writer.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter value(boolean value) {
+    beforeValue();
+    buffer.append(value ? TRUE : FALSE);
+    return this;
+  }
+
+  /**
+   * Writes the specified {@code int} value.
+   *
+   * @param value The {@code int} value to write.
+   * @return A reference to this writer.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter value(int value) {
+    beforeValue();
+    buffer.appendDec(value);
+    return this;
+  }
+
+  /**
+   * Writes the specified {@code long} value.
+   *
+   * @param value The {@code long} value to write.
+   * @return A reference to this writer.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter value(long value) {
+    beforeValue();
+    buffer.appendDec(value);
+    return this;
+  }
+
+  /**
+   * Writes the specified {@code float} value.
+   *
+   * @param value The {@code float} value to write.
+   * @return A reference to this writer.
+   * @throws IllegalArgumentException if the specified value is NaN or infinite.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter value(float value) {
+    Checks.checkThat(value, Float.isFinite(value));
+    beforeValue();
+    buffer.appendDec(value);
+    return this;
+  }
+
+  /**
+   * Writes the specified {@code double} value.
+   *
+   * @param value The {@code double} value to write.
+   * @return A reference to this writer.
+   * @throws IllegalArgumentException if the specified value is NaN or infinite.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter value(double value) {
+    Checks.checkThat(value, Double.isFinite(value));
+    beforeValue();
+    buffer.appendDec(value);
+    return this;
+  }
+
+  /**
+   * Writes the specified {@code char} value as a string.
+   *
+   * @param value The {@code char} value to write.
+   * @return A reference to this writer.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter value(char value) {
+    beforeValue();
+    buffer.append('"');
+    CharEncoder.JSON.encode(value, buffer);
+    buffer.append('"');
+    return this;
+  }
+
+  /**
+   * Writes the specified string value or the {@code null} value if the specified string is
+   * {@code null}.
+   *
+   * @param value The string value to write.
+   * @return A reference to this writer.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter value(CharSequence value) {
+    if (value == null) {
+      return nullValue();
+    }
+    beforeValue();
+    string(value);
+    return this;
+  }
+
+  /**
+   * Writes the specified JSON text as is. The text is not validated, so it must be a valid JSON
+   * value.
+   *
+   * @param json The JSON text to write.
+   * @return A reference to this writer.
+   * @throws NullPointerException if the specified JSON text is {@code null}.
+   * @throws IllegalStateException if a value is not expected.
+   */
+  public JsonWriter rawValue(CharSequence json) {
+    Checks.checkNotNull(json);
+    beforeValue();
+    buffer.append(json);
+    return this;
+  }
+
+  // Internals
+
+  /**
+   * Updates the current scope before writing a value and appends a separator if necessary.
+   */
+  private void beforeValue() {
+    switch (stack[depth - 1]) {
+    case EMPTY_DOCUMENT:
+      stack[depth - 1] = NONEMPTY_DOCUMENT;
+      break;
+    case EMPTY_ARRAY:
+      stack[depth - 1] = NONEMPTY_ARRAY;
+      newline();
+      break;
+    case NONEMPTY_ARRAY:
+      buffer.append(',');
+      newline();
+      break;
+    case DANGLING_NAME:
+      stack[depth - 1] = NONEMPTY_OBJECT;
+      break;
+    case NONEMPTY_DOCUMENT:
+      throw new IllegalStateException("JSON must have only one top-level value");
+    default:
+      throw new IllegalStateException("Name is expected");
+    }
+  }
+
+  /**
+   * Pushes the specified scope to the stack.
+   */
+  private void push(byte scope) {
+    if (depth == stack.length) {
+      stack = Arrays.copyOf(stack, depth * 2);
+    }
+    stack[depth++] = scope;
+  }
+
+  /**
+   * Closes the current scope which should be either the specified empty or nonempty scope.
+   */
+  private JsonWriter close(byte empty, byte nonempty, char bracket) {
+    final byte scope = stack[depth - 1];
+    if (scope != empty && scope != nonempty) {
+      throw new IllegalStateException(
+          scope == DANGLING_NAME ? "Value is expected" : "Nesting problem");
+    }
+    depth--;
+    if (scope == nonempty) {
+      newline();
+    }
+    buffer.append(bracket);
+    return this;
+  }
+
+  /**
+   * Appends a new line and indentation of the current nesting level if pretty printing is
+   * enabled.
+   */
+  private void newline() {
+    if (indent > 0) {
+      buffer.append('\n');
+      buffer.appendIndent((depth - 1) * indent);
+    }
+  }
+
+  /**
+   * Appends the specified string in double quotes escaping characters as necessary. Runs of
+   * characters that do not require escaping are appended in bulk.
+   */
+  private void string(CharSequence value) {
+    final int length = value.length();
+    final CharSegment segment = string.of(value, 0, length);
+    buffer.append('"');
+    try {
+      for (int index = 0; index < length;) {
+        final int end = CharEncoder.JSON.skip(segment, index, length);
+        if (end > index) {
+          buffer.append(run.of(value, index, end));
+          index = end;
+        } else {
+          CharEncoder.JSON.encode(value.charAt(index++), buffer);
+        }
+      }
+    } finally {
+      string.release();
+      run.release();
+    }
+    buffer.append('"');
+  }
+
+}
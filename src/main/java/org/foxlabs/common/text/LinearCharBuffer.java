@@ -16,6 +16,8 @@
 
 package org.foxlabs.common.text;
 
+import java.io.IOException;
+
 import org.foxlabs.common.Checks;
 import org.foxlabs.common.exception.ThresholdReachedException;
 
@@ -253,19 +255,85 @@ public final class LinearCharBuffer extends CharBuffer {
     throw new ThresholdReachedException(this);
   }
 
+  @Override
+  int appendUnchanged(CharSegment segment, CharEncoder encoder) {
+    final int count = Math.min(segment.length(), threshold - length);
+    if (count == 0) {
+      return 0;
+    }
+    if (data.length - count < length) {
+      doubleBuffer(length + count);
+    }
+    // copy in bulk and keep the unchanged prefix only
+    segment.copyTo(0, count, data, length);
+    final int skipped = encoder.skip(data, length, length + count) - length;
+    length += skipped;
+    return skipped;
+  }
+
+  /**
+   * Returns the current capacity of the buffer (i.e. the number of characters that can be appended
+   * to the buffer without reallocation).
+   */
+  final int capacity() {
+    return data.length;
+  }
+
+  /**
+   * Resets the buffer length to 0 but does not release allocated memory. This method is useful
+   * when the same buffer instance can be reused multiple times.
+   *
+   * @see #clear()
+   */
   @Override
   public void reset() {
+    invalidateViews();
     length = 0;
   }
 
+  /**
+   * Clears the buffer and shrinks its capacity to the {@link #DEFAULT_CAPACITY} (or to the
+   * threshold if it is less). This method is useful when the same buffer instance can be reused
+   * multiple times in a long term (for example, in an object pool).
+   *
+   * @see #reset()
+   */
   @Override
   public void clear() {
+    if (data.length > DEFAULT_CAPACITY) {
+      data = new char[Math.min(DEFAULT_CAPACITY, threshold)];
+    }
+    invalidateViews();
     length = 0;
   }
 
   @Override
   protected String toString(int start, int end) {
-    return new String(data, start, end);
+    return new String(data, start, end - start);
+  }
+
+  @Override
+  public final int indexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final char[] data = this.data;
+    for (; start < end; start++) {
+      if (data[start] == ch) {
+        return start;
+      }
+    }
+    return -1;
+  }
+
+  @Override
+  public final int lastIndexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    final char[] data = this.data;
+    while (--end >= start) {
+      if (data[end] == ch) {
+        return end;
+      }
+    }
+    return -1;
   }
 
   @Override
@@ -273,6 +341,11 @@ public final class LinearCharBuffer extends CharBuffer {
     System.arraycopy(data, start, target, offset, end - start);
   }
 
+  @Override
+  protected void writeChars(int start, int end, CharSink sink) throws IOException {
+    sink.write(data, start, end - start);
+  }
+
   @Override
   protected void extendCapacity(int nlength) {
     if (nlength > data.length) {
@@ -0,0 +1,186 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link CharBuffer} implementation that spills its contents to a temporary file. The file is
+ * split into regions of the same size (depth), each region is mapped into memory by the
+ * {@link FileChannel#map(FileChannel.MapMode, long, long)} method on demand. Thus, the buffer
+ * contents live off-heap: the mapped regions occupy the process address space but are backed by
+ * the OS page cache, which may write them back to the file under memory pressure. So the buffer
+ * is able to build outputs that are larger than the heap (up to the {@link #MAX_THRESHOLD}
+ * characters, i.e. 4G bytes).
+ *
+ * <p>The buffer must be closed by the {@link #close()} method as soon as its contents are no longer
+ * needed, that will unmap all the regions and delete the temporary file. The {@link #clear()}
+ * method unmaps all the regions and truncates the file, but the buffer remains usable.</p>
+ *
+ * <p>Since {@code CharBuffer} methods do not declare {@link IOException}, I/O errors that occur
+ * while mapping regions are rethrown as {@link UncheckedIOException}.</p>
+ *
+ * @author Fox Mulder
+ * @see DirectCharBuffer
+ */
+public class MappedCharBuffer extends DirectCharBuffer implements Closeable {
+
+  /**
+   * Default region depth.
+   */
+  public static final int DEFAULT_DEPTH = MAX_DEPTH; // 1M characters long (2M bytes)
+
+  /**
+   * The temporary file of the buffer.
+   */
+  private final Path file;
+
+  /**
+   * The file channel to map regions of the {@link #file}.
+   */
+  private final FileChannel channel;
+
+  /**
+   * Constructs a new {@code MappedCharBuffer} with the {@link #MAX_THRESHOLD} threshold and the
+   * {@link #DEFAULT_DEPTH} region depth. The temporary file will be created in the default
+   * temporary-file directory.
+   *
+   * @throws IOException if the temporary file cannot be created.
+   * @see #MappedCharBuffer(int, int, Path)
+   */
+  public MappedCharBuffer() throws IOException {
+    this(MAX_THRESHOLD, DEFAULT_DEPTH, null);
+  }
+
+  /**
+   * Constructs a new {@code MappedCharBuffer} with the specified {@code threshold} and the
+   * {@link #DEFAULT_DEPTH} region depth. The temporary file will be created in the default
+   * temporary-file directory.
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} is negative.
+   * @throws IOException if the temporary file cannot be created.
+   * @see #MappedCharBuffer(int, int, Path)
+   */
+  public MappedCharBuffer(int threshold) throws IOException {
+    this(threshold, DEFAULT_DEPTH, null);
+  }
+
+  /**
+   * Constructs a new {@code MappedCharBuffer} with the specified {@code threshold} and region
+   * {@code depth}. The temporary file will be created in the default temporary-file directory.
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} is negative or the
+   *         specified {@code depth} is not positive.
+   * @throws IOException if the temporary file cannot be created.
+   * @see #MappedCharBuffer(int, int, Path)
+   */
+  public MappedCharBuffer(int threshold, int depth) throws IOException {
+    this(threshold, depth, null);
+  }
+
+  /**
+   * Constructs a new {@code MappedCharBuffer} with the specified {@code threshold} and region
+   * {@code depth}. The temporary file will be created in the specified {@code directory} or in the
+   * default temporary-file directory if the specified {@code directory} is {@code null}.
+   *
+   * <p>The specified {@code depth} will be rounded up to the nearest power of 2 and then quietly
+   * adjusted to be in the range {@code [MIN_DEPTH, MAX_DEPTH]}. No region is mapped until the
+   * first character is appended.</p>
+   *
+   * @throws IllegalArgumentException if the specified {@code threshold} is negative or the
+   *         specified {@code depth} is not positive.
+   * @throws IOException if the temporary file cannot be created.
+   * @see DirectCharBuffer#DirectCharBuffer(int, int)
+   */
+  public MappedCharBuffer(int threshold, int depth, Path directory) throws IOException {
+    super(threshold, depth);
+    this.file = directory == null
+        ? Files.createTempFile("foxlabs-", ".chars")
+        : Files.createTempFile(directory, "foxlabs-", ".chars");
+    try {
+      this.channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    } catch (IOException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the temporary file of the buffer.
+   */
+  public final Path file() {
+    return file;
+  }
+
+  /**
+   * Maps a region of the temporary file for the page at the specified index. The file is
+   * automatically extended if necessary.
+   *
+   * @throws UncheckedIOException if the region cannot be mapped.
+   */
+  @Override
+  protected ByteBuffer allocateRegion(int index, int size) {
+    try {
+      return channel.map(FileChannel.MapMode.READ_WRITE, (long) index * size, size);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+  }
+
+  /**
+   * Clears the buffer, unmaps all the regions and truncates the temporary file. The buffer may be
+   * reused after this call, new regions will be mapped on demand.
+   *
+   * @throws UncheckedIOException if the temporary file cannot be truncated.
+   * @see #close()
+   */
+  @Override
+  public void clear() {
+    super.clear();
+    if (channel.isOpen()) {
+      try {
+        channel.truncate(0L);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    }
+  }
+
+  /**
+   * Clears the buffer, closes and deletes the temporary file. The buffer cannot be used after this
+   * call.
+   *
+   * @throws IOException if an I/O error occurs.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      super.clear();
+      channel.close();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+}
@@ -0,0 +1,580 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.text.ChoiceFormat;
+import java.text.DateFormat;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.text.Format;
+import java.text.MessageFormat;
+import java.text.NumberFormat;
+import java.text.SimpleDateFormat;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * A precompiled {@link MessageFormat} pattern. The pattern is parsed once into a plan of literal
+ * segments and typed argument slots that render directly into a {@link CharBuffer}. The output
+ * is the same as the one of the {@code MessageFormat.format(Object...)} method for the same
+ * pattern, locale and arguments.
+ *
+ * <p>Unlike the {@code MessageFormat} the template is immutable and thread-safe. Integral
+ * arguments ({@code Byte}, {@code Short}, {@code Integer} and {@code Long}) of the
+ * <code>{n}</code>, <code>{n,number}</code> and <code>{n,number,integer}</code> slots are
+ * rendered without intermediate strings as long as the number format of the locale allows
+ * (i.e. it has no multiplier, fraction digits and so on). Other formatted arguments are rendered
+ * by a copy of the slot format, since {@code java.text} formats are not thread-safe.</p>
+ *
+ * @author Fox Mulder
+ * @see MessageFormat
+ */
+public final class MessageTemplate {
+
+  /**
+   * The pool of buffers used by the {@link #format(Object...)} method.
+   */
+  private static final CharBufferPool BUFFER_POOL =
+      CharBufferPool.threadLocal(LinearCharBuffer.MAX_THRESHOLD);
+
+  /**
+   * The source pattern.
+   */
+  private final String pattern;
+
+  /**
+   * The locale of the template.
+   */
+  private final Locale locale;
+
+  /**
+   * The literal segments, the segment at index {@code i} precedes the slot at index {@code i}
+   * and the last one follows the last slot.
+   */
+  private final String[] literals;
+
+  /**
+   * The argument slots.
+   */
+  private final Slot[] slots;
+
+  /**
+   * Constructs a new {@code MessageTemplate}.
+   */
+  private MessageTemplate(String pattern, Locale locale, String[] literals, Slot[] slots) {
+    this.pattern = pattern;
+    this.locale = locale;
+    this.literals = literals;
+    this.slots = slots;
+  }
+
+  /**
+   * Returns the source pattern of the template.
+   */
+  public String pattern() {
+    return pattern;
+  }
+
+  /**
+   * Returns the locale of the template.
+   */
+  public Locale locale() {
+    return locale;
+  }
+
+  /**
+   * Formats the specified arguments and returns the resulting string.
+   *
+   * @param args The arguments to format.
+   * @return The formatted message.
+   * @throws IllegalArgumentException if an argument cannot be formatted by its slot format.
+   * @see #format(CharBuffer, Object...)
+   */
+  public String format(Object... args) {
+    final CharBuffer buffer = BUFFER_POOL.acquire();
+    try {
+      return format(buffer, args).toString();
+    } finally {
+      BUFFER_POOL.release(buffer);
+    }
+  }
+
+  /**
+   * Formats the specified arguments into the specified buffer. Missing arguments are rendered as
+   * <code>{n}</code> and {@code null} arguments as {@code "null"}, exactly as the
+   * {@code MessageFormat} does.
+   *
+   * @param buffer The buffer to append to.
+   * @param args The arguments to format.
+   * @return A reference to the specified buffer.
+   * @throws NullPointerException if the specified buffer is {@code null}.
+   * @throws IllegalArgumentException if an argument cannot be formatted by its slot format.
+   * @throws org.foxlabs.common.exception.ThresholdReachedException if threshold of the buffer has
+   *         been reached.
+   */
+  public CharBuffer format(CharBuffer buffer, Object... args) {
+    for (int i = 0; i < slots.length; i++) {
+      buffer.append(literals[i]);
+      final Slot slot = slots[i];
+      if (args == null || slot.index >= args.length) {
+        buffer.append('{').appendDec(slot.index).append('}');
+      } else {
+        slot.format(buffer, args[slot.index], args);
+      }
+    }
+    return buffer.append(literals[slots.length]);
+  }
+
+  /**
+   * Returns the source pattern of the template.
+   */
+  @Override
+  public String toString() {
+    return pattern;
+  }
+
+  // Compilation
+
+  private static final int SEG_RAW = 0;
+  private static final int SEG_INDEX = 1;
+  private static final int SEG_TYPE = 2;
+  private static final int SEG_MODIFIER = 3;
+
+  /**
+   * Compiles the specified {@code MessageFormat} pattern for the specified locale.
+   *
+   * @param pattern The pattern to compile.
+   * @param locale The locale of the template.
+   * @return A new compiled template.
+   * @throws NullPointerException if the specified pattern or locale is {@code null}.
+   * @throws IllegalArgumentException if the specified pattern is invalid.
+   */
+  public static MessageTemplate compile(String pattern, Locale locale) {
+    Checks.checkNotNull(pattern);
+    Checks.checkNotNull(locale);
+    final List<String> literals = new ArrayList<>();
+    final List<Slot> slots = new ArrayList<>();
+    final StringBuilder[] segments = {new StringBuilder(), null, null, null};
+    final Defaults defaults = new Defaults(locale);
+    int part = SEG_RAW;
+    int braces = 0;
+    boolean quoted = false;
+    // the same parsing rules as of the MessageFormat.applyPattern()
+    for (int i = 0; i < pattern.length(); i++) {
+      final char ch = pattern.charAt(i);
+      if (part == SEG_RAW) {
+        if (ch == '\'') {
+          if (i + 1 < pattern.length() && pattern.charAt(i + 1) == '\'') {
+            segments[part].append(ch);
+            i++;
+          } else {
+            quoted = !quoted;
+          }
+        } else if (ch == '{' && !quoted) {
+          part = SEG_INDEX;
+          segments[SEG_INDEX] = new StringBuilder();
+        } else {
+          segments[part].append(ch);
+        }
+      } else if (quoted) {
+        segments[part].append(ch);
+        quoted = ch != '\'';
+      } else if (ch == ',') {
+        if (part < SEG_MODIFIER) {
+          segments[++part] = new StringBuilder();
+        } else {
+          segments[part].append(ch);
+        }
+      } else if (ch == '{') {
+        braces++;
+        segments[part].append(ch);
+      } else if (ch == '}') {
+        if (braces == 0) {
+          literals.add(segments[SEG_RAW].toString());
+          slots.add(compileSlot(segments, locale, defaults));
+          segments[SEG_RAW].setLength(0);
+          segments[SEG_INDEX] = segments[SEG_TYPE] = segments[SEG_MODIFIER] = null;
+          part = SEG_RAW;
+        } else {
+          braces--;
+          segments[part].append(ch);
+        }
+      } else if (ch == ' ') {
+        // skip leading spaces of the type
+        if (part != SEG_TYPE || segments[SEG_TYPE].length() > 0) {
+          segments[part].append(ch);
+        }
+      } else {
+        quoted = ch == '\'';
+        segments[part].append(ch);
+      }
+    }
+    if (braces == 0 && part != SEG_RAW) {
+      throw new IllegalArgumentException("Unmatched braces in the pattern");
+    }
+    literals.add(segments[SEG_RAW].toString());
+    return new MessageTemplate(pattern, locale,
+        literals.toArray(new String[literals.size()]), slots.toArray(new Slot[slots.size()]));
+  }
+
+  private static Slot compileSlot(StringBuilder[] segments, Locale locale, Defaults defaults) {
+    final String index = segments[SEG_INDEX].toString();
+    final String type = segments[SEG_TYPE] == null ? "" : segments[SEG_TYPE].toString();
+    final String modifier = segments[SEG_MODIFIER] == null ? "" : segments[SEG_MODIFIER].toString();
+    final int argument;
+    try {
+      argument = Integer.parseInt(index);
+    } catch (NumberFormatException e) {
+      throw new IllegalArgumentException("Can't parse argument number: " + index, e);
+    }
+    if (argument < 0) {
+      throw new IllegalArgumentException("Negative argument number: " + argument);
+    }
+    switch (keyword(type)) {
+      case "":
+        return new Slot(argument, null, defaults);
+      case "number":
+        switch (keyword(modifier)) {
+          case "":
+            return new Slot(argument, NumberFormat.getInstance(locale), defaults);
+          case "currency":
+            return new Slot(argument, NumberFormat.getCurrencyInstance(locale), defaults);
+          case "percent":
+            return new Slot(argument, NumberFormat.getPercentInstance(locale), defaults);
+          case "integer":
+            return new Slot(argument, NumberFormat.getIntegerInstance(locale), defaults);
+          default:
+            return new Slot(argument,
+                new DecimalFormat(modifier, DecimalFormatSymbols.getInstance(locale)), defaults);
+        }
+      case "date":
+      case "time":
+        final boolean date = keyword(type).equals("date");
+        final int style = dateStyle(keyword(modifier));
+        if (style < 0) {
+          return new Slot(argument, new SimpleDateFormat(modifier, locale), defaults);
+        }
+        return new Slot(argument, date
+            ? DateFormat.getDateInstance(style, locale)
+            : DateFormat.getTimeInstance(style, locale), defaults);
+      case "choice":
+        final ChoiceFormat choice;
+        try {
+          choice = new ChoiceFormat(modifier);
+        } catch (Exception e) {
+          throw new IllegalArgumentException("Choice pattern incorrect: " + modifier, e);
+        }
+        return new ChoiceSlot(argument, choice, locale, defaults);
+      default:
+        throw new IllegalArgumentException("Unknown format type: " + type);
+    }
+  }
+
+  private static String keyword(String segment) {
+    return segment.trim().toLowerCase(Locale.ROOT);
+  }
+
+  private static int dateStyle(String keyword) {
+    switch (keyword) {
+      case "":
+        return DateFormat.DEFAULT;
+      case "short":
+        return DateFormat.SHORT;
+      case "medium":
+        return DateFormat.MEDIUM;
+      case "long":
+        return DateFormat.LONG;
+      case "full":
+        return DateFormat.FULL;
+      default:
+        return -1;
+    }
+  }
+
+  // Slots
+
+  /**
+   * The formats applied to arguments of the <code>{n}</code> slots, created once per compilation.
+   */
+  private static final class Defaults {
+
+    final Locale locale;
+
+    Format numbers;
+
+    IntegerStyle integers;
+
+    Format dates;
+
+    Defaults(Locale locale) {
+      this.locale = locale;
+    }
+
+    void init() {
+      if (numbers == null) {
+        numbers = NumberFormat.getInstance(locale);
+        integers = IntegerStyle.of(numbers);
+        dates = DateFormat.getDateTimeInstance(DateFormat.SHORT, DateFormat.SHORT, locale);
+      }
+    }
+
+  }
+
+  /**
+   * The argument slot.
+   */
+  private static class Slot {
+
+    /**
+     * The argument index.
+     */
+    final int index;
+
+    /**
+     * The slot format or {@code null} if the argument is formatted according to its type.
+     */
+    final Format format;
+
+    /**
+     * The integral numbers style or {@code null} if integral numbers should be formatted by the
+     * format.
+     */
+    final IntegerStyle integers;
+
+    /**
+     * The default number format or {@code null} if the slot has a format.
+     */
+    final Format numbers;
+
+    /**
+     * The default date format or {@code null} if the slot has a format.
+     */
+    final Format dates;
+
+    Slot(int index, Format format, Defaults defaults) {
+      this.index = index;
+      this.format = format;
+      if (format == null) {
+        defaults.init();
+        this.integers = defaults.integers;
+        this.numbers = defaults.numbers;
+        this.dates = defaults.dates;
+      } else {
+        this.integers = IntegerStyle.of(format);
+        this.numbers = this.dates = null;
+      }
+    }
+
+    void format(CharBuffer buffer, Object arg, Object[] args) {
+      if (arg == null) {
+        buffer.append("null");
+      } else if (format != null) {
+        if (!(integers != null && integers.append(buffer, arg))) {
+          buffer.append(copy(format).format(arg));
+        }
+      } else if (arg instanceof String) {
+        buffer.append((String) arg);
+      } else if (arg instanceof Number) {
+        if (!(integers != null && integers.append(buffer, arg))) {
+          buffer.append(copy(numbers).format(arg));
+        }
+      } else if (arg instanceof Date) {
+        buffer.append(copy(dates).format(arg));
+      } else if (arg instanceof ToString) {
+        buffer.appendObject(arg);
+      } else {
+        final String string = arg.toString();
+        buffer.append(string == null ? "null" : string);
+      }
+    }
+
+    static Format copy(Format format) {
+      return (Format) format.clone();
+    }
+
+  }
+
+  /**
+   * The argument slot of the {@code choice} type.
+   */
+  private static final class ChoiceSlot extends Slot {
+
+    /**
+     * The choice format is safe to share, since it does not have mutable state.
+     */
+    final ChoiceFormat choice;
+
+    /**
+     * The locale of the nested templates.
+     */
+    final Locale locale;
+
+    /**
+     * The precompiled choices that contain nested arguments.
+     */
+    final Map<String, MessageTemplate> templates = new HashMap<>();
+
+    ChoiceSlot(int index, ChoiceFormat choice, Locale locale, Defaults defaults) {
+      super(index, choice, defaults);
+      this.choice = choice;
+      this.locale = locale;
+      for (Object option : choice.getFormats()) {
+        final String nested = (String) option;
+        if (nested.indexOf('{') >= 0) {
+          try {
+            templates.put(nested, compile(nested, locale));
+          } catch (IllegalArgumentException e) {
+            // MessageFormat fails only when the choice is taken, so does the template
+          }
+        }
+      }
+    }
+
+    @Override
+    void format(CharBuffer buffer, Object arg, Object[] args) {
+      if (arg == null) {
+        buffer.append("null");
+        return;
+      }
+      final String result = choice.format(arg);
+      if (result.indexOf('{') < 0) {
+        buffer.append(result);
+      } else {
+        final MessageTemplate template = templates.get(result);
+        (template == null ? compile(result, locale) : template).format(buffer, args);
+      }
+    }
+
+  }
+
+  /**
+   * The style of a {@link DecimalFormat} applied to integral numbers that is rendered directly
+   * into a buffer.
+   */
+  private static final class IntegerStyle {
+
+    /**
+     * Powers of 10 from 10^0 to 10^18.
+     */
+    static final long[] TENS = new long[19];
+    static {
+      TENS[0] = 1L;
+      for (int i = 1; i < TENS.length; i++) {
+        TENS[i] = TENS[i - 1] * 10L;
+      }
+    }
+
+    /**
+     * Values the style is verified against the format with.
+     */
+    static final long[] PROBES = {0L, 7L, -7L, 999L, 1000L, -1234567L, 123456789012L,
+        Long.MAX_VALUE, Long.MIN_VALUE + 1L};
+
+    final String positivePrefix;
+    final String positiveSuffix;
+    final String negativePrefix;
+    final String negativeSuffix;
+    final char zero;
+    final char separator;
+    final int grouping;
+
+    IntegerStyle(DecimalFormat format) {
+      final DecimalFormatSymbols symbols = format.getDecimalFormatSymbols();
+      this.positivePrefix = format.getPositivePrefix();
+      this.positiveSuffix = format.getPositiveSuffix();
+      this.negativePrefix = format.getNegativePrefix();
+      this.negativeSuffix = format.getNegativeSuffix();
+      this.zero = symbols.getZeroDigit();
+      this.separator = symbols.getGroupingSeparator();
+      this.grouping = format.isGroupingUsed() ? format.getGroupingSize() : 0;
+    }
+
+    /**
+     * Returns the style of the specified format or {@code null} if integral numbers cannot be
+     * rendered directly (the format is not a {@code DecimalFormat}, has a multiplier, fraction
+     * digits and so on).
+     */
+    static IntegerStyle of(Format format) {
+      if (!(format instanceof DecimalFormat)) {
+        return null;
+      }
+      final DecimalFormat decimal = (DecimalFormat) format;
+      if (decimal.getMultiplier() != 1 || decimal.getMinimumIntegerDigits() > 1
+          || decimal.getMinimumFractionDigits() > 0 || decimal.isDecimalSeparatorAlwaysShown()) {
+        return null;
+      }
+      final IntegerStyle style = new IntegerStyle(decimal);
+      final CharBuffer buffer = new LinearCharBuffer();
+      for (long probe : PROBES) {
+        buffer.reset();
+        style.append(buffer, Long.valueOf(probe));
+        if (!buffer.toString().equals(decimal.format(probe))) {
+          return null;
+        }
+      }
+      return style;
+    }
+
+    /**
+     * Appends the specified argument if it is an integral number, otherwise returns
+     * {@code false}.
+     */
+    boolean append(CharBuffer buffer, Object arg) {
+      if (!(arg instanceof Integer || arg instanceof Long
+          || arg instanceof Short || arg instanceof Byte)) {
+        return false;
+      }
+      long value = ((Number) arg).longValue();
+      if (value == Long.MIN_VALUE) {
+        return false;
+      }
+      final String suffix;
+      if (value < 0L) {
+        buffer.append(negativePrefix);
+        suffix = negativeSuffix;
+        value = -value;
+      } else {
+        buffer.append(positivePrefix);
+        suffix = positiveSuffix;
+      }
+      final int digits = CharBuffer.getDecCapacity(value);
+      if (zero == '0' && (grouping == 0 || digits <= grouping)) {
+        buffer.appendDec(value);
+      } else {
+        for (int n = digits; n > 0; n--) {
+          final long divider = TENS[n - 1];
+          buffer.append((char) (zero + value / divider));
+          value %= divider;
+          if (grouping > 0 && n > 1 && (n - 1) % grouping == 0) {
+            buffer.append(separator);
+          }
+        }
+      }
+      buffer.append(suffix);
+      return true;
+    }
+
+  }
+
+}
@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+/**
+ * A function that appends a string representation of an object of a particular type to a
+ * {@link CharBuffer}. Formatters are used by the {@link CharBuffer#appendObject(Object)} method,
+ * which resolves a formatter only once per class of objects it appends. Custom formatters can be
+ * registered by the {@link ObjectFormatters#register(Class, ObjectFormatter)} method.
+ *
+ * <p>
+ * For example:
+ * <blockquote><pre>
+ * ObjectFormatters.register(Point.class,
+ *     (buffer, p) -&gt; buffer.append('(').appendDec(p.x).append(", ").appendDec(p.y).append(')'));
+ * </pre></blockquote>
+ * </p>
+ *
+ * @param <T> The type of objects to format.
+ * @author Fox Mulder
+ * @see ObjectFormatters
+ */
+@FunctionalInterface
+public interface ObjectFormatter<T> {
+
+  /**
+   * Appends a string representation of the specified object to the specified buffer and returns
+   * a reference to the same buffer.
+   *
+   * @param buffer The buffer to append to.
+   * @param object The object which string representation to append to the buffer, never
+   *        {@code null}.
+   * @return A reference to the specified buffer.
+   * @throws ThresholdReachedException if threshold of the buffer has been reached.
+   */
+  CharBuffer format(CharBuffer buffer, T object);
+
+}
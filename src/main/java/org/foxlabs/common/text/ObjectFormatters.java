@@ -0,0 +1,313 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.time.Instant;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * The registry of {@link ObjectFormatter}s used by the {@link CharBuffer#appendObject(Object)}
+ * method.
+ *
+ * <p>A formatter is resolved only once per class and cached by means of {@link ClassValue}, so
+ * appending an object does not walk through the chain of type checks each time. Formatters
+ * registered by the {@link #register(Class, ObjectFormatter)} method take precedence over the
+ * built-in ones, a formatter registered for a superclass or an interface is applied to all of its
+ * subclasses that have no own formatter. Registration is thread-safe and takes effect for the
+ * subsequent calls, but since it invalidates the whole cache it is supposed to be done once
+ * during application startup.</p>
+ *
+ * <p>Note that custom formatters are not protected against circular references, so they should be
+ * used for value types (identifiers, dates, amounts and so on) rather than for containers.</p>
+ *
+ * @author Fox Mulder
+ * @see ObjectFormatter
+ */
+public final class ObjectFormatters {
+
+  // Instantiation is not possible
+  private ObjectFormatters() {
+    throw new IllegalAccessError();
+  }
+
+  /**
+   * The registered formatters.
+   */
+  private static final Map<Class<?>, ObjectFormatter<?>> registry = new ConcurrentHashMap<>();
+
+  /**
+   * The resolved formatters cache, it is replaced on every registration.
+   */
+  private static volatile ClassValue<ObjectFormatter<Object>> cache = newCache();
+
+  /**
+   * Registers the specified formatter for the specified type of objects replacing the one that
+   * could be registered before.
+   *
+   * @param type The type of objects to format.
+   * @param formatter The formatter to register.
+   * @throws NullPointerException if the specified type or formatter is {@code null}.
+   */
+  public static <T> void register(Class<T> type, ObjectFormatter<? super T> formatter) {
+    registry.put(Checks.checkNotNull(type), Checks.checkNotNull(formatter));
+    cache = newCache();
+  }
+
+  /**
+   * Unregisters formatter of the specified type of objects.
+   *
+   * @param type The type of objects which formatter to unregister.
+   * @return {@code true} if the formatter was registered; {@code false} otherwise.
+   * @throws NullPointerException if the specified type is {@code null}.
+   */
+  public static boolean unregister(Class<?> type) {
+    if (registry.remove(Checks.checkNotNull(type)) != null) {
+      cache = newCache();
+      return true;
+    }
+    return false;
+  }
+
+  /**
+   * Returns formatter that is used to format objects of the specified type, it is either a
+   * registered formatter or a built-in one.
+   *
+   * @param type The type of objects to format.
+   * @return The formatter of objects of the specified type.
+   * @throws NullPointerException if the specified type is {@code null}.
+   */
+  public static <T> ObjectFormatter<? super T> get(Class<T> type) {
+    return lookup(Checks.checkNotNull(type));
+  }
+
+  /**
+   * Returns formatter of the specified type of objects from the cache.
+   */
+  static ObjectFormatter<Object> lookup(Class<?> type) {
+    return cache.get(type);
+  }
+
+  private static ClassValue<ObjectFormatter<Object>> newCache() {
+    return new ClassValue<ObjectFormatter<Object>>() {
+      @Override protected ObjectFormatter<Object> computeValue(Class<?> type) {
+        return resolve(type);
+      }
+    };
+  }
+
+  /**
+   * Resolves formatter of the specified type of objects looking for a registered one first.
+   */
+  private static ObjectFormatter<Object> resolve(Class<?> type) {
+    if (!registry.isEmpty()) {
+      // registered formatter of the class or its superclasses
+      for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+        final ObjectFormatter<Object> formatter = registered(cls);
+        if (formatter != null) {
+          return formatter;
+        }
+      }
+      // registered formatter of the interfaces
+      for (Class<?> cls = type; cls != null; cls = cls.getSuperclass()) {
+        final ObjectFormatter<Object> formatter = resolveInterfaces(cls);
+        if (formatter != null) {
+          return formatter;
+        }
+      }
+    }
+    return resolveBuiltin(type);
+  }
+
+  private static ObjectFormatter<Object> resolveInterfaces(Class<?> type) {
+    for (Class<?> cls : type.getInterfaces()) {
+      ObjectFormatter<Object> formatter = registered(cls);
+      if (formatter == null) {
+        formatter = resolveInterfaces(cls);
+      }
+      if (formatter != null) {
+        return formatter;
+      }
+    }
+    return null;
+  }
+
+  @SuppressWarnings("unchecked")
+  private static ObjectFormatter<Object> registered(Class<?> type) {
+    return (ObjectFormatter<Object>) registry.get(type);
+  }
+
+  /**
+   * Resolves built-in formatter of the specified type of objects.
+   */
+  private static ObjectFormatter<Object> resolveBuiltin(Class<?> type) {
+    if (CharSequence.class.isAssignableFrom(type)) {
+      return (buffer, object) -> buffer.appendString((CharSequence) object);
+    }
+    if (type == Integer.class) {
+      return (buffer, object) -> buffer.appendInteger(((Integer) object).intValue());
+    }
+    if (type == Long.class) {
+      return (buffer, object) -> buffer.appendLong(((Long) object).longValue());
+    }
+    if (type == Double.class) {
+      return (buffer, object) -> buffer.appendDouble(((Double) object).doubleValue());
+    }
+    if (type == Float.class) {
+      return (buffer, object) -> buffer.appendFloat(((Float) object).floatValue());
+    }
+    if (type == Byte.class) {
+      return (buffer, object) -> buffer.appendByte(((Byte) object).byteValue());
+    }
+    if (type == Short.class) {
+      return (buffer, object) -> buffer.appendShort(((Short) object).shortValue());
+    }
+    if (type == Character.class) {
+      return (buffer, object) -> buffer.appendCharacter(((Character) object).charValue());
+    }
+    if (type == Boolean.class) {
+      return (buffer, object) -> buffer.appendBoolean(((Boolean) object).booleanValue());
+    }
+    if (Enum.class.isAssignableFrom(type)) {
+      return (buffer, object) -> buffer.appendEnum((Enum<?>) object);
+    }
+    if (Iterable.class.isAssignableFrom(type)) {
+      return (buffer, object) -> buffer.appendIterable((Iterable<?>) object);
+    }
+    if (Map.class.isAssignableFrom(type)) {
+      return (buffer, object) -> buffer.appendMap((Map<?, ?>) object);
+    }
+    if (type.isArray()) {
+      return resolveArray(type.getComponentType());
+    }
+    if (type == UUID.class) {
+      return (buffer, object) -> appendUUID(buffer, (UUID) object);
+    }
+    if (type == Instant.class) {
+      return (buffer, object) -> appendInstant(buffer, (Instant) object);
+    }
+    // unsupported object type
+    return CharBuffer::appendPlain;
+  }
+
+  /**
+   * Resolves built-in formatter of arrays of the specified component type.
+   */
+  private static ObjectFormatter<Object> resolveArray(Class<?> type) {
+    if (!type.isPrimitive()) {
+      return (buffer, object) -> buffer.appendObjectArray((Object[]) object);
+    }
+    if (type == int.class) {
+      return (buffer, object) -> buffer.appendIntegerArray((int[]) object);
+    }
+    if (type == long.class) {
+      return (buffer, object) -> buffer.appendLongArray((long[]) object);
+    }
+    if (type == double.class) {
+      return (buffer, object) -> buffer.appendDoubleArray((double[]) object);
+    }
+    if (type == float.class) {
+      return (buffer, object) -> buffer.appendFloatArray((float[]) object);
+    }
+    if (type == byte.class) {
+      return (buffer, object) -> buffer.appendByteArray((byte[]) object);
+    }
+    if (type == short.class) {
+      return (buffer, object) -> buffer.appendShortArray((short[]) object);
+    }
+    if (type == char.class) {
+      return (buffer, object) -> buffer.appendCharacterArray((char[]) object);
+    }
+    return (buffer, object) -> buffer.appendBooleanArray((boolean[]) object);
+  }
+
+  // Built-in formatters
+
+  /**
+   * Appends a string representation of the specified {@code UUID} to the specified buffer in the
+   * same format as the {@link UUID#toString()} method does, but without creating a {@code String}.
+   */
+  static CharBuffer appendUUID(CharBuffer buffer, UUID uuid) {
+    final long msb = uuid.getMostSignificantBits();
+    final long lsb = uuid.getLeastSignificantBits();
+    buffer.ensureCapacity(36);
+    return buffer.appendHex((int) (msb >>> 32)).append('-')
+        .appendHex((short) (msb >>> 16)).append('-')
+        .appendHex((short) msb).append('-')
+        .appendHex((short) (lsb >>> 48)).append('-')
+        .appendHex((short) (lsb >>> 32)).appendHex((int) lsb);
+  }
+
+  /**
+   * Appends a string representation of the specified {@code Instant} to the specified buffer in
+   * the same format as the {@link Instant#toString()} method does (i.e. ISO-8601), but without
+   * creating a {@code String} for years from 0 to 9999.
+   */
+  static CharBuffer appendInstant(CharBuffer buffer, Instant instant) {
+    final long seconds = instant.getEpochSecond();
+    final int time = (int) Math.floorMod(seconds, 86400L);
+    // convert epoch day to year, month and day of month
+    final long zero = Math.floorDiv(seconds, 86400L) + 719468L; // since 0000-03-01
+    final long era = Math.floorDiv(zero, 146097L);
+    final int doe = (int) (zero - era * 146097L);
+    final int yoe = (doe - doe / 1460 + doe / 36524 - doe / 146096) / 365;
+    final int doy = doe - (365 * yoe + yoe / 4 - yoe / 100);
+    final int mp = (5 * doy + 2) / 153;
+    final int day = doy - (153 * mp + 2) / 5 + 1;
+    final int month = mp < 10 ? mp + 3 : mp - 9;
+    final long year = era * 400L + yoe + (month <= 2 ? 1 : 0);
+    if (year < 0L || year > 9999L) {
+      // signed and long years are rare
+      return buffer.append(instant.toString());
+    }
+    buffer.ensureCapacity(30);
+    appendDigits(buffer, (int) year, 1000).append('-');
+    appendDigits(buffer, month, 10).append('-');
+    appendDigits(buffer, day, 10).append('T');
+    appendDigits(buffer, time / 3600, 10).append(':');
+    appendDigits(buffer, time / 60 % 60, 10).append(':');
+    appendDigits(buffer, time % 60, 10);
+    final int nano = instant.getNano();
+    if (nano > 0) {
+      buffer.append('.');
+      if (nano % 1000000 == 0) {
+        appendDigits(buffer, nano / 1000000, 100);
+      } else if (nano % 1000 == 0) {
+        appendDigits(buffer, nano / 1000, 100000);
+      } else {
+        appendDigits(buffer, nano, 100000000);
+      }
+    }
+    return buffer.append('Z');
+  }
+
+  /**
+   * Appends decimal digits of the specified non-negative value with leading zeros starting from
+   * the specified power of 10.
+   */
+  private static CharBuffer appendDigits(CharBuffer buffer, int value, int divisor) {
+    for (; divisor > 0; divisor /= 10) {
+      buffer.append((char) ('0' + value / divisor % 10));
+    }
+    return buffer;
+  }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+/**
+ * An allocator of character pages for the {@link PaginalCharBuffer}. The buffer takes a page from
+ * the allocator every time it needs a new one and returns all its pages back on
+ * {@link PaginalCharBuffer#clear()}.
+ *
+ * @author Fox Mulder
+ * @see SlabPageAllocator
+ */
+public interface PageAllocator {
+
+  /**
+   * Returns a page that is at least {@code depth} characters long. Contents of the returned page
+   * are undefined.
+   *
+   * @param depth The required number of characters in the page.
+   * @return A page that is at least {@code depth} characters long.
+   */
+  char[] allocate(int depth);
+
+  /**
+   * Returns the specified page previously obtained by the {@link #allocate(int)} method back to
+   * the allocator. The page must not be used after this call.
+   *
+   * @param page The page to return.
+   */
+  void release(char[] page);
+
+  /**
+   * The allocator that just creates a new page every time and leaves released pages to the
+   * garbage collector.
+   */
+  PageAllocator HEAP = new PageAllocator() {
+    @Override public char[] allocate(int depth) {
+      return new char[depth];
+    }
+    @Override public void release(char[] page) {
+      // nothing to do
+    }
+  };
+
+}
@@ -16,6 +16,10 @@
 
 package org.foxlabs.common.text;
 
+import java.io.IOException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
 import org.foxlabs.common.Checks;
 import org.foxlabs.common.exception.ThresholdReachedException;
 
@@ -35,6 +39,8 @@ public class PaginalCharBuffer extends CharBuffer {
 
   private final int capacity;
 
+  private final PageAllocator allocator;
+
   private char[][] buffer;
 
   private int length;
@@ -48,7 +54,23 @@ public class PaginalCharBuffer extends CharBuffer {
   }
 
   public PaginalCharBuffer(int threshold, int depth) {
+    this(threshold, depth, PageAllocator.HEAP);
+  }
+
+  /**
+   * Constructs a new {@code PaginalCharBuffer} that takes pages from the specified allocator and
+   * returns them back on {@link #clear()}.
+   *
+   * @param threshold The maximum number of characters the buffer can hold.
+   * @param depth The number of characters in a page.
+   * @param allocator The allocator of pages.
+   * @throws IllegalArgumentException if the specified threshold or depth is not positive.
+   * @throws NullPointerException if the specified allocator is {@code null}.
+   * @see SlabPageAllocator
+   */
+  public PaginalCharBuffer(int threshold, int depth, PageAllocator allocator) {
     super(threshold);
+    this.allocator = Checks.checkNotNull(allocator);
     // round depth to be a multiple of 32 and trim it to maximum possible
     this.depth = Math.min((((Checks.checkThat(depth, depth > 0) - 1) >>> 5) + 1) << 5, MAX_DEPTH);
     // calculate maximum number of slots
@@ -114,14 +136,15 @@ public class PaginalCharBuffer extends CharBuffer {
   private final void extendBuffer(int nslots) {
     // extend buffer for new slots as x2 required slots
     final char[][] copy = new char[Math.min(nslots << 1, capacity)][];
-    System.arraycopy(buffer, 0, copy, 0, (length - 1) / depth + 1);
+    // copy all allocated slots since the buffer may have been reset
+    System.arraycopy(buffer, 0, copy, 0, buffer.length);
     buffer = copy;
   }
 
   private final char[] nextSlot() {
     // allocate a new slot if necessary
     final int index = length / depth;
-    return buffer[index] == null ? buffer[index] = new char[depth] : buffer[index];
+    return buffer[index] == null ? buffer[index] = allocator.allocate(depth) : buffer[index];
   }
 
   @Override
@@ -134,6 +157,42 @@ public class PaginalCharBuffer extends CharBuffer {
     return buffer[index / depth][index % depth];
   }
 
+  @Override
+  public final int indexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    // scan pages directly
+    while (start < end) {
+      final char[] page = buffer[start / depth];
+      final int offset = start - start % depth;
+      final int limit = Math.min(depth, end - offset);
+      for (int index = start - offset; index < limit; index++) {
+        if (page[index] == ch) {
+          return offset + index;
+        }
+      }
+      start = offset + limit;
+    }
+    return -1;
+  }
+
+  @Override
+  public final int lastIndexOf(char ch, int start, int end) {
+    Checks.checkRange(this, start, end);
+    // scan pages directly in reverse order
+    while (start < end) {
+      final char[] page = buffer[(end - 1) / depth];
+      final int offset = (end - 1) - (end - 1) % depth;
+      final int limit = Math.max(start - offset, 0);
+      for (int index = end - offset - 1; index >= limit; index--) {
+        if (page[index] == ch) {
+          return offset + index;
+        }
+      }
+      end = offset;
+    }
+    return -1;
+  }
+
   @Override
   protected final void copyChars(int start, int end, char[] target, int offset) {
     while (start < end) {
@@ -145,6 +204,141 @@ public class PaginalCharBuffer extends CharBuffer {
     }
   }
 
+  @Override
+  protected final void writeChars(int start, int end, CharSink sink) throws IOException {
+    // write pages directly
+    while (start < end) {
+      final int index = start % depth;
+      final int remainder = Math.min(depth - index, end - start);
+      sink.write(buffer[start / depth], index, remainder);
+      start += remainder;
+    }
+  }
+
+  // Parallel operations
+
+  /**
+   * The default minimum number of characters that are copied in parallel by the
+   * {@link #copyToParallel(int, int, char[], int)} method, shorter ranges are copied sequentially.
+   * This is a conservative default rather than a measured crossover point, callers that measured
+   * it on their hardware should pass it to the
+   * {@link #copyToParallel(int, int, char[], int, ForkJoinPool, int)} method.
+   */
+  private static final int PARALLEL_THRESHOLD = 1 << 21; // 2M characters long (4M bytes)
+
+  /**
+   * The minimum number of characters that are copied by a single parallel task.
+   */
+  private static final int MIN_PARALLEL_CHUNK = 1 << 16;
+
+  /**
+   * Returns a copy of the buffer contents as a new {@code char[]} array. If the buffer length is
+   * not less than the default threshold (2M characters) then pages are copied in parallel in the
+   * {@link ForkJoinPool#commonPool()}.
+   *
+   * @return A copy of the buffer contents.
+   * @see #copyToParallel(int, int, char[], int)
+   */
+  public final char[] toCharArrayParallel() {
+    final char[] copy = new char[length];
+    copyToParallel(0, length, copy, 0);
+    return copy;
+  }
+
+  /**
+   * Copies characters from the buffer contents in the specified range to the specified target
+   * array starting from the specified offset. If the range is not shorter than the default
+   * threshold (2M characters) then pages are copied in parallel in the
+   * {@link ForkJoinPool#commonPool()}.
+   *
+   * @param start The start position in the buffer contents.
+   * @param end The end position in the buffer contents.
+   * @param target The target array to copy.
+   * @param offset The start position in the target array.
+   * @throws NullPointerException if the specified target array is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified start or end position is out of range or
+   *         length of the specified target array is not enough to receive requested number of
+   *         characters.
+   * @see #copyToParallel(int, int, char[], int, ForkJoinPool, int)
+   */
+  public final void copyToParallel(int start, int end, char[] target, int offset) {
+    copyToParallel(start, end, target, offset, ForkJoinPool.commonPool(), PARALLEL_THRESHOLD);
+  }
+
+  /**
+   * Copies characters from the buffer contents in the specified range to the specified target
+   * array starting from the specified offset. If the range is not shorter than the specified
+   * {@code threshold} and the specified pool is able to run tasks in parallel then the range is
+   * split at page boundaries and the parts are copied in parallel. Otherwise, characters are
+   * copied sequentially, the same way as the {@link #copyTo(int, int, char[], int)} method does.
+   *
+   * <p>Note that copying is limited by memory bandwidth rather than by CPU, so it makes sense for
+   * really large buffers only. The crossover point depends on hardware, run the
+   * {@code PaginalCharBufferBenchmark} on the target machine to find it.</p>
+   *
+   * @param start The start position in the buffer contents.
+   * @param end The end position in the buffer contents.
+   * @param target The target array to copy.
+   * @param offset The start position in the target array.
+   * @param pool The pool to run parallel tasks in.
+   * @param threshold The minimum number of characters to copy in parallel.
+   * @throws NullPointerException if the specified target array or pool is {@code null}.
+   * @throws IndexOutOfBoundsException if the specified start or end position is out of range or
+   *         length of the specified target array is not enough to receive requested number of
+   *         characters.
+   * @throws IllegalArgumentException if the specified threshold is negative.
+   */
+  public final void copyToParallel(int start, int end, char[] target, int offset,
+      ForkJoinPool pool, int threshold) {
+    Checks.checkRange(this, start, end);
+    Checks.checkRange(target, offset, offset + end - start);
+    Checks.checkNotNull(pool);
+    Checks.checkThat(threshold, threshold >= 0);
+    if (end - start < Math.max(threshold, MIN_PARALLEL_CHUNK) || pool.getParallelism() < 2) {
+      copyChars(start, end, target, offset);
+    } else {
+      // split the range into at most 4 chunks per thread
+      final int chunk = Math.max((end - start) / (pool.getParallelism() << 2), MIN_PARALLEL_CHUNK);
+      pool.invoke(new CopyTask(start, end, target, offset, chunk));
+    }
+  }
+
+  /**
+   * A task that copies the specified range of the buffer contents splitting it in halves at page
+   * boundaries until the range is not longer than the specified chunk.
+   */
+  private final class CopyTask extends RecursiveAction {
+
+    private static final long serialVersionUID = -6226734263307839402L;
+
+    private final int start;
+    private final int end;
+    private final char[] target;
+    private final int offset;
+    private final int chunk;
+
+    CopyTask(int start, int end, char[] target, int offset, int chunk) {
+      this.start = start;
+      this.end = end;
+      this.target = target;
+      this.offset = offset;
+      this.chunk = chunk;
+    }
+
+    @Override
+    protected void compute() {
+      final int middle = (start + (end - start) / 2) / depth * depth;
+      if (end - start <= chunk || middle <= start) {
+        copyChars(start, end, target, offset);
+      } else {
+        invokeAll(
+            new CopyTask(start, middle, target, offset, chunk),
+            new CopyTask(middle, end, target, offset + middle - start, chunk));
+      }
+    }
+
+  }
+
   // Cleanup operations
 
   /**
@@ -155,21 +349,25 @@ public class PaginalCharBuffer extends CharBuffer {
    */
   @Override
   public final void reset() {
+    invalidateViews();
     length = 0;
   }
 
   /**
-   * Clears the buffer and releases allocated memory. This method is useful when the same buffer
-   * instance can be reused multiple times in a long term (for example, in an object pool).
+   * Clears the buffer and returns all allocated pages back to the {@link PageAllocator}. This
+   * method is useful when the same buffer instance can be reused multiple times in a long term
+   * (for example, in an object pool).
    *
    * @see #reset()
    */
   @Override
   public final void clear() {
-    final int nslots = (length - 1) / depth + 1;
-    for (int index = 0; index < nslots; index++) {
+    // slots are allocated sequentially, so stop at the first empty one
+    for (int index = 0; index < buffer.length && buffer[index] != null; index++) {
+      allocator.release(buffer[index]);
       buffer[index] = null;
     }
+    invalidateViews();
     length = 0;
   }
 
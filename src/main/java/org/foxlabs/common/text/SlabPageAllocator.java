@@ -0,0 +1,261 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.foxlabs.common.Checks;
+
+/**
+ * A {@link PageAllocator} that retains released pages in lock-free free lists segregated by size
+ * class, so that pages can be shared between many short-lived {@link PaginalCharBuffer}s. Size
+ * classes are powers of 2 from {@link PaginalCharBuffer#MIN_DEPTH} to
+ * {@link PaginalCharBuffer#MAX_DEPTH} characters, the requested depth is rounded up to the nearest
+ * size class. Each size class retains at most a fixed number of pages, excess pages are left to
+ * the garbage collector.
+ *
+ * <p>The allocator also collects usage statistics. The {@link #outstanding()} number of pages is
+ * the number of pages that have been allocated but not released yet; the pages of buffers that
+ * have been thrown away without {@link PaginalCharBuffer#clear()} are never released, so a
+ * steadily growing outstanding number indicates a leak. The {@link #highWaterMark()} is the
+ * maximum outstanding number of pages ever observed.</p>
+ *
+ * @author Fox Mulder
+ * @see PaginalCharBuffer#PaginalCharBuffer(int, int, PageAllocator)
+ */
+public final class SlabPageAllocator extends ToString.Adapter implements PageAllocator {
+
+  /**
+   * Default maximum number of pages retained per size class.
+   */
+  public static final int DEFAULT_RETAINED_PAGES = 64;
+
+  /**
+   * The {@code log2} of the smallest size class.
+   */
+  private static final int MIN_SHIFT = Integer.numberOfTrailingZeros(PaginalCharBuffer.MIN_DEPTH);
+
+  /**
+   * The {@code log2} of the largest size class.
+   */
+  private static final int MAX_SHIFT = Integer.numberOfTrailingZeros(PaginalCharBuffer.MAX_DEPTH);
+
+  /**
+   * The number of size classes.
+   */
+  private static final int CLASS_COUNT = MAX_SHIFT - MIN_SHIFT + 1;
+
+  /**
+   * The maximum number of pages retained per size class.
+   */
+  private final int retainedPages;
+
+  /**
+   * The free list slots of all size classes, each class takes {@link #retainedPages} slots.
+   */
+  private final AtomicReferenceArray<char[]> slots;
+
+  /**
+   * The approximate number of retained pages per size class.
+   */
+  private final AtomicIntegerArray sizes;
+
+  /**
+   * The number of pages that have been allocated but not released yet.
+   */
+  private final AtomicLong outstanding = new AtomicLong();
+
+  /**
+   * The maximum observed value of the {@link #outstanding} counter.
+   */
+  private final AtomicLong highWaterMark = new AtomicLong();
+
+  /**
+   * The total number of allocations.
+   */
+  private final LongAdder allocations = new LongAdder();
+
+  /**
+   * The number of allocations satisfied from the free lists.
+   */
+  private final LongAdder hits = new LongAdder();
+
+  /**
+   * The total number of releases.
+   */
+  private final LongAdder releases = new LongAdder();
+
+  /**
+   * Constructs a new {@code SlabPageAllocator} with the {@link #DEFAULT_RETAINED_PAGES}.
+   */
+  public SlabPageAllocator() {
+    this(DEFAULT_RETAINED_PAGES);
+  }
+
+  /**
+   * Constructs a new {@code SlabPageAllocator} with the specified maximum number of pages retained
+   * per size class.
+   *
+   * @throws IllegalArgumentException if the specified number of pages is negative.
+   */
+  public SlabPageAllocator(int retainedPages) {
+    this.retainedPages = Checks.checkThat(retainedPages, retainedPages >= 0);
+    this.slots = new AtomicReferenceArray<>(CLASS_COUNT * retainedPages);
+    this.sizes = new AtomicIntegerArray(CLASS_COUNT);
+  }
+
+  /**
+   * Returns a page of the size class the specified {@code depth} falls into, either a retained one
+   * or a new one.
+   *
+   * @throws IllegalArgumentException if the specified {@code depth} is not positive or greater
+   *         than the {@link PaginalCharBuffer#MAX_DEPTH}.
+   */
+  @Override
+  public char[] allocate(int depth) {
+    Checks.checkThat(depth, depth > 0 && depth <= PaginalCharBuffer.MAX_DEPTH);
+    final int shift = Math.max(MIN_SHIFT, 32 - Integer.numberOfLeadingZeros(depth - 1));
+    final int sclass = shift - MIN_SHIFT;
+    allocations.increment();
+    updateHighWaterMark(outstanding.incrementAndGet());
+    // look through the free list of the size class
+    if (sizes.get(sclass) > 0) {
+      final int base = sclass * retainedPages;
+      final int start = probe();
+      for (int n = 0; n < retainedPages; n++) {
+        final int index = base + (start + n) % retainedPages;
+        // avoid redundant writes to empty slots
+        if (slots.get(index) != null) {
+          final char[] page = slots.getAndSet(index, null);
+          if (page != null) {
+            sizes.decrementAndGet(sclass);
+            hits.increment();
+            return page;
+          }
+        }
+      }
+    }
+    return new char[1 << shift];
+  }
+
+  /**
+   * Returns the specified page to the free list of its size class if the list is not full. Pages
+   * that do not match any size class are ignored.
+   */
+  @Override
+  public void release(char[] page) {
+    final int length = page.length;
+    if (length < PaginalCharBuffer.MIN_DEPTH || length > PaginalCharBuffer.MAX_DEPTH
+        || Integer.bitCount(length) != 1) {
+      // not allocated by this allocator
+      return;
+    }
+    releases.increment();
+    outstanding.decrementAndGet();
+    final int sclass = Integer.numberOfTrailingZeros(length) - MIN_SHIFT;
+    if (sizes.get(sclass) < retainedPages) {
+      final int base = sclass * retainedPages;
+      final int start = probe();
+      for (int n = 0; n < retainedPages; n++) {
+        if (slots.compareAndSet(base + (start + n) % retainedPages, null, page)) {
+          sizes.incrementAndGet(sclass);
+          return;
+        }
+      }
+    }
+    // the free list is full, leave the page to the garbage collector
+  }
+
+  /**
+   * Returns the total number of allocations.
+   */
+  public long allocations() {
+    return allocations.sum();
+  }
+
+  /**
+   * Returns the number of allocations satisfied from the free lists.
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * Returns the total number of releases.
+   */
+  public long releases() {
+    return releases.sum();
+  }
+
+  /**
+   * Returns the number of pages that have been allocated but not released yet (i.e. pages in use
+   * or leaked).
+   */
+  public long outstanding() {
+    return outstanding.get();
+  }
+
+  /**
+   * Returns the maximum number of outstanding pages ever observed.
+   */
+  public long highWaterMark() {
+    return highWaterMark.get();
+  }
+
+  /**
+   * Returns the number of pages currently retained in the free lists.
+   */
+  public int retained() {
+    int count = 0;
+    for (int sclass = 0; sclass < CLASS_COUNT; sclass++) {
+      count += sizes.get(sclass);
+    }
+    return count;
+  }
+
+  /**
+   * Appends the allocator statistics to the specified buffer.
+   */
+  @Override
+  public CharBuffer toString(CharBuffer buffer) {
+    buffer.append("SlabPageAllocator(allocations=").appendDec(allocations());
+    buffer.append(", hits=").appendDec(hits());
+    buffer.append(", releases=").appendDec(releases());
+    buffer.append(", outstanding=").appendDec(outstanding());
+    buffer.append(", highWaterMark=").appendDec(highWaterMark());
+    buffer.append(", retained=").appendDec(retained());
+    return buffer.append(')');
+  }
+
+  private void updateHighWaterMark(long value) {
+    long current;
+    while (value > (current = highWaterMark.get())) {
+      if (highWaterMark.compareAndSet(current, value)) {
+        break;
+      }
+    }
+  }
+
+  private static int probe() {
+    // spread thread identifiers (Fibonacci hashing)
+    return (int) (Thread.currentThread().getId() * 0x9e3779b97f4a7c15L >>> 40) & 0x7fffffff;
+  }
+
+}
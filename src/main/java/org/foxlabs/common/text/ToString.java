@@ -89,18 +89,52 @@ public interface ToString {
    * the resulting string (i.e. {@code toString(new LinearCharBuffer()).toString()}). In case of
    * buffer overflow partial result will be returned and no exception will be thrown.
    *
+   * <p>Subclasses may override the {@link #bufferPool()} method to take buffers from a
+   * {@link CharBufferPool} instead of allocating a new one on every call, or the
+   * {@link #presize()} method to allocate a buffer of the exact length.</p>
+   *
    * @author Fox Mulder
    * @see LinearCharBuffer
+   * @see CharBufferPool
    */
   public static abstract class Adapter implements ToString {
     @Override public String toString() {
+      final CharBufferPool pool = bufferPool();
+      if (pool != null) {
+        return pool.format(this);
+      }
       try {
-        return toString(new LinearCharBuffer()).toString();
+        final int capacity = presize()
+            ? CountingCharBuffer.measure(this, LinearCharBuffer.MAX_THRESHOLD)
+            : LinearCharBuffer.DEFAULT_CAPACITY;
+        return toString(new LinearCharBuffer(capacity)).toString();
       } catch (ThresholdReachedException e) {
         // threshold has been reached, return partial result anyway
         return e.getProducer().toString();
       }
     }
+
+    /**
+     * Returns the pool of buffers to be used by the {@link #toString()} method or {@code null} if
+     * a new buffer should be allocated on every call (default behavior).
+     *
+     * @return The pool of buffers or {@code null}.
+     */
+    protected CharBufferPool bufferPool() {
+      return null;
+    }
+
+    /**
+     * Determines whether the {@link #toString()} method should measure length of the result with
+     * a {@link CountingCharBuffer} first and then allocate a buffer of the exact length (default
+     * is {@code false}). This doubles the formatting work but avoids reallocation of the buffer,
+     * which pays off for large objects with a stable string representation.
+     *
+     * @return {@code true} if the buffer should be presized; {@code false} otherwise.
+     */
+    protected boolean presize() {
+      return false;
+    }
   }
 
 }
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+/**
+ * A {@link CharDecoder} that decodes percent-encoded (RFC 3986) UTF-8 octets like {@code %20} or
+ * {@code %C3%A9}. Invalid or incomplete sequences are appended to the buffer as is. Note that
+ * the {@code '+'} character is not decoded as space since that is a convention of the
+ * {@code application/x-www-form-urlencoded} format only.
+ *
+ * @author Fox Mulder
+ * @see CharDecoder#URL
+ */
+final class UrlDecoder extends EscapeDecoder {
+
+  /**
+   * Constructs a new URL decoder.
+   */
+  UrlDecoder() {
+    super('%');
+  }
+
+  @Override
+  int decodeEscape(CharSegment segment, int index, CharBuffer buffer) {
+    final int octet = parseOctet(segment, index);
+    if (octet < 0x80) {
+      if (octet < 0) {
+        return 0;
+      }
+      buffer.append((char) octet);
+      return 3;
+    }
+    // determine length of the UTF-8 sequence
+    final int count;
+    final int min;
+    int cp;
+    if ((octet & 0xe0) == 0xc0) {
+      count = 1;
+      min = 0x80;
+      cp = octet & 0x1f;
+    } else if ((octet & 0xf0) == 0xe0) {
+      count = 2;
+      min = 0x800;
+      cp = octet & 0x0f;
+    } else if ((octet & 0xf8) == 0xf0) {
+      count = 3;
+      min = 0x10000;
+      cp = octet & 0x07;
+    } else {
+      return 0;
+    }
+    for (int n = 1; n <= count; n++) {
+      final int next = parseOctet(segment, index + n * 3);
+      if ((next & 0xc0) != 0x80) { // also handles -1
+        return 0;
+      }
+      cp = cp << 6 | next & 0x3f;
+    }
+    if (cp < min || cp > Character.MAX_CODE_POINT
+        || (cp >= Character.MIN_SURROGATE && cp <= Character.MAX_SURROGATE)) {
+      return 0;
+    }
+    buffer.append(cp);
+    return (count + 1) * 3;
+  }
+
+  /**
+   * Parses a percent-encoded octet at the specified index of the segment, returns {@code -1} if
+   * there is no valid octet at the specified index.
+   */
+  private static int parseOctet(CharSegment segment, int index) {
+    if (index + 2 < segment.length() && segment.charAt(index) == '%') {
+      final int high = hexDigit(segment.charAt(index + 1));
+      final int low = hexDigit(segment.charAt(index + 2));
+      if (high >= 0 && low >= 0) {
+        return high << 4 | low;
+      }
+    }
+    return -1;
+  }
+
+}
@@ -0,0 +1,630 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+
+import org.foxlabs.common.Checks;
+import org.foxlabs.common.exception.ThresholdReachedException;
+import org.foxlabs.util.ByteBuffer;
+
+/**
+ * A {@code CharBuffer} that encodes appended characters to UTF-8 right away and stores bytes
+ * instead of characters. It offers the whole {@code CharBuffer} API, so it can be used anywhere
+ * a {@code CharBuffer} is expected, but its main purpose is to produce UTF-8 bytes without an
+ * intermediate {@code String} copy. The encoded bytes can be exported by the {@link #getBytes()},
+ * {@link #writeTo(ByteBuffer)}, {@link #writeTo(OutputStream)} and
+ * {@link #writeTo(WritableByteChannel)} methods, the last one does not copy bytes at all.
+ *
+ * <p>Unpaired surrogates are encoded as {@code '?'} the same way as
+ * {@link String#getBytes(java.nio.charset.Charset)} does, so reading them back returns
+ * {@code '?'} as well. Characters of the buffer contents are addressed by their UTF-16 indices
+ * like in any other {@code CharBuffer}. As long as the contents are ASCII the indices are equal to
+ * byte offsets, otherwise the buffer lazily maintains byte offsets of every
+ * {@code 1024}th character, so random access to the contents is still reasonably fast but
+ * sequential access (by the {@link #copyTo(int, int, char[], int)} method, for example) should
+ * be preferred.</p>
+ *
+ * <p>A trailing high surrogate reads as {@code '?'} until the next appended character turns out
+ * to be a low surrogate, then both are rewritten as a single code point. This is the only case
+ * when an already appended character changes, so the views returned by the
+ * {@link #subSequence(int, int)} method are invalidated then.</p>
+ *
+ * @author Fox Mulder
+ * @see ByteBuffer
+ */
+public final class Utf8Buffer extends CharBuffer {
+
+  /**
+   * The maximum allowed buffer threshold. Since a single character may take up to 3 bytes, the
+   * value is limited to make sure that the encoded bytes always fit in an array.
+   */
+  public static final int MAX_THRESHOLD = (Integer.MAX_VALUE - 8) / 3;
+
+  /**
+   * Default initial capacity of the buffer in bytes.
+   */
+  public static final int DEFAULT_CAPACITY = 32;
+
+  /**
+   * The maximum length of a segment that is encoded character by character.
+   */
+  private static final int SHORT_SEGMENT = 32;
+
+  /**
+   * The maximum size of the transfer buffer used to encode appended segments.
+   */
+  private static final int TRANSFER_SIZE = 1 << 10;
+
+  /**
+   * The number of characters between two byte offset marks as a power of 2.
+   */
+  private static final int MARK_SHIFT = 10;
+
+  /**
+   * The encoded buffer contents.
+   */
+  private byte[] data;
+
+  /**
+   * The number of bytes of the encoded buffer contents.
+   */
+  private int size;
+
+  /**
+   * The current length of the buffer in characters.
+   */
+  private int length;
+
+  /**
+   * The last appended character if it is a high surrogate that has been encoded as {@code '?'}
+   * and still waits for a low surrogate; {@code 0} otherwise.
+   */
+  private char pending;
+
+  /**
+   * Byte offsets of the code points that contain every {@code 1024}th character. The value is
+   * inverted (i.e. {@code ~offset}) if the character is a low surrogate.
+   */
+  private int[] marks;
+
+  /**
+   * The number of valid byte offset marks.
+   */
+  private int marked;
+
+  /**
+   * Constructs a new {@code Utf8Buffer} of the {@link #DEFAULT_CAPACITY} initial capacity and
+   * with the {@link #MAX_THRESHOLD} threshold.
+   *
+   * @see #Utf8Buffer(int, int)
+   */
+  public Utf8Buffer() {
+    this(DEFAULT_CAPACITY, MAX_THRESHOLD);
+  }
+
+  /**
+   * Constructs a new {@code Utf8Buffer} of the specified initial {@code capacity} in bytes and
+   * with the {@link #MAX_THRESHOLD} threshold.
+   *
+   * @throws IllegalArgumentException if the specified {@code capacity} is negative.
+   * @see #Utf8Buffer(int, int)
+   */
+  public Utf8Buffer(int capacity) {
+    this(capacity, MAX_THRESHOLD);
+  }
+
+  /**
+   * Constructs a new {@code Utf8Buffer} of the specified initial {@code capacity} in bytes and
+   * with the specified {@code threshold} in characters.
+   *
+   * <p>If the specified {@code threshold} is greater than {@link #MAX_THRESHOLD} then it will be
+   * quietly reduced to the {@link #MAX_THRESHOLD}. Zero length {@code capacity} and
+   * {@code threshold} are allowed.</p>
+   *
+   * @throws IllegalArgumentException if the specified {@code capacity} or {@code threshold} is
+   *         negative.
+   * @see CharBuffer#CharBuffer(int)
+   */
+  public Utf8Buffer(int capacity, int threshold) {
+    super(Math.min(threshold, MAX_THRESHOLD));
+    this.data = new byte[Checks.checkThat(capacity, capacity >= 0)];
+  }
+
+  /**
+   * Returns the current length of the buffer (i.e. the current number of characters that have
+   * already been appended to the buffer).
+   *
+   * @see #size()
+   */
+  @Override
+  public int length() {
+    return length;
+  }
+
+  /**
+   * Returns the current number of bytes of the encoded buffer contents.
+   *
+   * @see #length()
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Returns a character at the specified {@code index} in the buffer contents.
+   *
+   * <p>The {@code index} is zero-based and must be less than {@link #length()} (i.e.
+   * {@code 0 <= index < length()}).</p>
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code index} is out of range.
+   */
+  @Override
+  public char charAt(int index) {
+    Checks.checkIndex(this, index);
+    final int offset = locate(index);
+    if (offset < 0) {
+      return Character.lowSurrogate(decode(~offset));
+    }
+    final int cp = decode(offset);
+    return Character.isBmpCodePoint(cp) ? (char) cp : Character.highSurrogate(cp);
+  }
+
+  /**
+   * Returns a character (Unicode code point) at the specified {@code index} in the buffer contents.
+   *
+   * <p>The {@code index} is zero-based and must be less than {@link #length()} (i.e.
+   * {@code 0 <= index < length()}).</p>
+   *
+   * @throws IndexOutOfBoundsException if the specified {@code index} is out of range.
+   */
+  @Override
+  public int codePointAt(int index) {
+    Checks.checkIndex(this, index);
+    final int offset = locate(index);
+    return offset < 0 ? Character.lowSurrogate(decode(~offset)) : decode(offset);
+  }
+
+  /**
+   * Encodes the specified {@code ch} character to UTF-8, appends it to the buffer contents and
+   * increments the current length.
+   *
+   * <p>If current capacity of the buffer is not enough then additional space will be automatically
+   * allocated. A high surrogate is encoded as {@code '?'} until the next appended character
+   * turns out to be a low surrogate, in which case both are encoded as a single 4-byte
+   * sequence.</p>
+   *
+   * @throws ThresholdReachedException if threshold of the buffer has been exceeded.
+   * @see #append(int)
+   */
+  @Override
+  public CharBuffer append(char ch) {
+    if (length >= threshold) {
+      throw new ThresholdReachedException(this);
+    }
+    // ASCII fast path
+    if (ch < 0x80 && size < data.length) {
+      data[size++] = (byte) ch;
+      pending = 0;
+      length++;
+      return this;
+    }
+    encode(ch);
+    return this;
+  }
+
+  /**
+   * Encodes the specified {@code cp} character (Unicode code point) to UTF-8, appends it to the
+   * buffer contents and increases the current length by 1 or 2 depending on whether the specified
+   * character is in the Basic Multilingual Plane (BMP) or is it a supplementary character,
+   * respectively.
+   *
+   * <p>If the specified character is a supplementary character (i.e. 2 {@code char}s long) and
+   * the {@link #remaining()} number of characters is 1 then none will be appended and
+   * {@link ThresholdReachedException} will be thrown.</p>
+   *
+   * @throws ThresholdReachedException if threshold of the buffer has been reached.
+   * @see #append(char)
+   */
+  @Override
+  public CharBuffer append(int cp) {
+    // detect BMP or supplementary character
+    if (Character.isBmpCodePoint(cp)) {
+      return append((char) cp);
+    }
+    if (length > threshold - 2) {
+      throw new ThresholdReachedException(this);
+    }
+    ensureBytes(4);
+    encodeSupplementary(cp);
+    pending = 0;
+    length += 2;
+    return this;
+  }
+
+  /**
+   * Encodes the specified {@code segment} of characters to UTF-8, appends them to the buffer
+   * contents and increases current length accordingly.
+   *
+   * <p>If current capacity of the buffer is not enough then additional space will be automatically
+   * allocated. Runs of ASCII characters are copied without any further encoding. If threshold of
+   * the buffer is exceeded during this operation then remaining number of characters (i.e.
+   * {@code threshold - length}) will be appended anyway.</p>
+   *
+   * @throws NullPointerException if the specified {@code segment} reference is {@code null}.
+   * @throws ThresholdReachedException if threshold of the buffer has been exceeded.
+   */
+  @Override
+  public CharBuffer append(CharSegment segment) {
+    final int count = segment.length();
+    // check threshold
+    if (threshold - count >= length) {
+      encode(segment, count);
+      return this;
+    }
+    // threshold exceeded
+    if (length < threshold) {
+      // append remainder
+      encode(segment, threshold - length);
+    }
+    throw new ThresholdReachedException(this);
+  }
+
+  /**
+   * Encodes the first {@code count} characters of the specified segment.
+   */
+  private void encode(CharSegment segment, int count) {
+    if (count <= SHORT_SEGMENT) {
+      // avoid transfer buffer allocation for short segments
+      ensureBytes(count);
+      for (int index = 0; index < count; index++) {
+        final char ch = segment.charAt(index);
+        if (ch < 0x80 && size < data.length) {
+          data[size++] = (byte) ch;
+          pending = 0;
+          length++;
+        } else {
+          encode(ch);
+        }
+      }
+    } else {
+      final char[] transfer = new char[Math.min(count, TRANSFER_SIZE)];
+      for (int index = 0; index < count;) {
+        final int limit = Math.min(transfer.length, count - index);
+        segment.copyTo(index, index + limit, transfer, 0);
+        encode(transfer, limit);
+        index += limit;
+      }
+    }
+  }
+
+  /**
+   * Encodes the first {@code count} characters of the specified array.
+   */
+  private void encode(char[] chars, int count) {
+    int index = 0;
+    while (index < count) {
+      // at least 1 byte per character
+      ensureBytes(count - index);
+      // ASCII fast path
+      final byte[] data = this.data;
+      final int start = index;
+      int offset = size;
+      for (char ch; index < count && (ch = chars[index]) < 0x80; index++) {
+        data[offset++] = (byte) ch;
+      }
+      if (index > start) {
+        size = offset;
+        length += index - start;
+        pending = 0;
+      }
+      // encode the following run of non-ASCII characters
+      for (char ch; index < count && (ch = chars[index]) >= 0x80; index++) {
+        encode(ch);
+      }
+    }
+  }
+
+  /**
+   * Encodes the specified character regardless of its type.
+   */
+  private void encode(char ch) {
+    ensureBytes(4);
+    final byte[] data = this.data;
+    if (ch < 0x80) {
+      data[size++] = (byte) ch;
+    } else if (ch < 0x800) {
+      data[size++] = (byte) (0xc0 | (ch >>> 6));
+      data[size++] = (byte) (0x80 | (ch & 0x3f));
+    } else if (Character.isSurrogate(ch)) {
+      if (pending != 0 && Character.isLowSurrogate(ch)) {
+        // replace '?' of the pending high surrogate, views may have already read it
+        size--;
+        encodeSupplementary(Character.toCodePoint(pending, ch));
+        pending = 0;
+        invalidateViews();
+      } else {
+        data[size++] = '?';
+        pending = Character.isHighSurrogate(ch) ? ch : 0;
+      }
+      length++;
+      return;
+    } else {
+      data[size++] = (byte) (0xe0 | (ch >>> 12));
+      data[size++] = (byte) (0x80 | ((ch >>> 6) & 0x3f));
+      data[size++] = (byte) (0x80 | (ch & 0x3f));
+    }
+    pending = 0;
+    length++;
+  }
+
+  /**
+   * Encodes the specified supplementary character as a 4-byte sequence.
+   */
+  private void encodeSupplementary(int cp) {
+    final byte[] data = this.data;
+    data[size++] = (byte) (0xf0 | (cp >>> 18));
+    data[size++] = (byte) (0x80 | ((cp >>> 12) & 0x3f));
+    data[size++] = (byte) (0x80 | ((cp >>> 6) & 0x3f));
+    data[size++] = (byte) (0x80 | (cp & 0x3f));
+  }
+
+  /**
+   * Makes sure that the specified number of bytes can be appended without reallocation.
+   */
+  private void ensureBytes(int count) {
+    if (data.length - size < count) {
+      final long nsize = Math.max((long) size + count, (long) data.length << 1);
+      final byte[] copy = new byte[(int) Math.min(nsize, Integer.MAX_VALUE - 8)];
+      System.arraycopy(data, 0, copy, 0, size);
+      data = copy;
+    }
+  }
+
+  /**
+   * Returns byte offset of the code point that contains a character at the specified index.
+   * The offset is inverted (i.e. {@code ~offset}) if the character is a low surrogate.
+   */
+  private int locate(int index) {
+    if (size == length) {
+      // ASCII contents
+      return index;
+    }
+    final int block = index >>> MARK_SHIFT;
+    // lazily mark blocks up to the requested one
+    if (marked < block) {
+      if (marks == null || marks.length < block) {
+        final int[] copy = new int[Math.max(block, marked << 1)];
+        if (marks != null) {
+          System.arraycopy(marks, 0, copy, 0, marked);
+        }
+        marks = copy;
+      }
+      for (; marked < block; marked++) {
+        marks[marked] = walk(marked, (marked + 1) << MARK_SHIFT);
+      }
+    }
+    return walk(block, index);
+  }
+
+  /**
+   * Walks the encoded contents starting from the mark of the specified block up to a character
+   * at the specified index and returns byte offset of the code point that contains it.
+   */
+  private int walk(int block, int index) {
+    int position = block << MARK_SHIFT;
+    int offset = 0;
+    if (block > 0) {
+      offset = marks[block - 1];
+      if (offset < 0) {
+        // the block starts with a low surrogate
+        offset = ~offset;
+        position--;
+      }
+    }
+    final byte[] data = this.data;
+    for (;;) {
+      final int lead = data[offset] & 0xff;
+      final int count = lead < 0x80 ? 1 : lead < 0xe0 ? 2 : lead < 0xf0 ? 3 : 4;
+      final int next = position + (count == 4 ? 2 : 1);
+      if (next > index) {
+        return position == index ? offset : ~offset;
+      }
+      position = next;
+      offset += count;
+    }
+  }
+
+  /**
+   * Decodes code point at the specified byte offset.
+   */
+  private int decode(int offset) {
+    final byte[] data = this.data;
+    final int lead = data[offset] & 0xff;
+    if (lead < 0x80) {
+      return lead;
+    } else if (lead < 0xe0) {
+      return (lead & 0x1f) << 6 | (data[offset + 1] & 0x3f);
+    } else if (lead < 0xf0) {
+      return (lead & 0x0f) << 12 | (data[offset + 1] & 0x3f) << 6 | (data[offset + 2] & 0x3f);
+    } else {
+      return (lead & 0x07) << 18 | (data[offset + 1] & 0x3f) << 12
+          | (data[offset + 2] & 0x3f) << 6 | (data[offset + 3] & 0x3f);
+    }
+  }
+
+  /**
+   * Resets the buffer length to 0 but does not release allocated memory. This method is useful
+   * when the same buffer instance can be reused multiple times.
+   *
+   * @see #clear()
+   */
+  @Override
+  public void reset() {
+    invalidateViews();
+    size = length = marked = 0;
+    pending = 0;
+  }
+
+  /**
+   * Clears the buffer and shrinks its capacity to the {@link #DEFAULT_CAPACITY}. This method is
+   * useful when the same buffer instance can be reused multiple times in a long term (for
+   * example, in an object pool).
+   *
+   * @see #reset()
+   */
+  @Override
+  public void clear() {
+    if (data.length > DEFAULT_CAPACITY) {
+      data = new byte[DEFAULT_CAPACITY];
+    }
+    marks = null;
+    reset();
+  }
+
+  @Override
+  @SuppressWarnings("deprecation")
+  protected String toString(int start, int end) {
+    if (size == length) {
+      // ASCII contents
+      return new String(data, 0, start, end - start);
+    }
+    final int from = locate(start);
+    final int to = end < length ? locate(end) : size;
+    if (from < 0 || to < 0) {
+      // a surrogate pair is split
+      return super.toString(start, end);
+    }
+    return new String(data, from, to - from, StandardCharsets.UTF_8);
+  }
+
+  @Override
+  protected void copyChars(int start, int end, char[] target, int offset) {
+    if (size == length) {
+      // ASCII contents
+      final byte[] data = this.data;
+      while (start < end) {
+        target[offset++] = (char) data[start++];
+      }
+      return;
+    }
+    int position = locate(start);
+    if (position < 0) {
+      // start from the low surrogate
+      position = ~position;
+      target[offset++] = Character.lowSurrogate(decode(position));
+      position += 4;
+      start++;
+    }
+    final byte[] data = this.data;
+    while (start < end) {
+      final int lead = data[position];
+      if (lead >= 0) {
+        target[offset++] = (char) lead;
+        position++;
+        start++;
+      } else {
+        final int cp = decode(position);
+        if (Character.isBmpCodePoint(cp)) {
+          target[offset++] = (char) cp;
+          position += cp < 0x800 ? 2 : 3;
+          start++;
+        } else {
+          target[offset++] = Character.highSurrogate(cp);
+          if (++start < end) {
+            target[offset++] = Character.lowSurrogate(cp);
+            start++;
+          }
+          position += 4;
+        }
+      }
+    }
+  }
+
+  @Override
+  protected void extendCapacity(int nlength) {
+    // at least 1 byte per character
+    ensureBytes(nlength - length);
+  }
+
+  // Byte operations
+
+  /**
+   * Returns a copy of the encoded buffer contents.
+   *
+   * @return A copy of the encoded buffer contents.
+   */
+  public byte[] getBytes() {
+    final byte[] copy = new byte[size];
+    System.arraycopy(data, 0, copy, 0, size);
+    return copy;
+  }
+
+  /**
+   * Returns a read-only {@code java.nio.ByteBuffer} that wraps the encoded buffer contents
+   * without copying. The returned buffer reflects the current contents only until the next
+   * modification of this buffer.
+   *
+   * @return A read-only {@code java.nio.ByteBuffer} that wraps the encoded buffer contents.
+   */
+  public java.nio.ByteBuffer asByteBuffer() {
+    return java.nio.ByteBuffer.wrap(data, 0, size).asReadOnlyBuffer();
+  }
+
+  /**
+   * Appends the encoded buffer contents to the specified byte buffer.
+   *
+   * @param buffer The byte buffer to append to.
+   * @return A reference to the specified byte buffer.
+   * @throws NullPointerException if the specified byte buffer is {@code null}.
+   */
+  public ByteBuffer writeTo(ByteBuffer buffer) {
+    return buffer.append(data, 0, size);
+  }
+
+  /**
+   * Writes the encoded buffer contents to the specified output stream.
+   *
+   * @param stream The output stream to write to.
+   * @throws NullPointerException if the specified output stream is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   */
+  public void writeTo(OutputStream stream) throws IOException {
+    stream.write(data, 0, size);
+  }
+
+  /**
+   * Writes the encoded buffer contents to the specified channel. The contents are passed to the
+   * channel directly without copying.
+   *
+   * @param channel The channel to write to.
+   * @throws NullPointerException if the specified channel is {@code null}.
+   * @throws IOException if an I/O error occurs.
+   */
+  public void writeTo(WritableByteChannel channel) throws IOException {
+    Checks.checkNotNull(channel);
+    final java.nio.ByteBuffer buffer = java.nio.ByteBuffer.wrap(data, 0, size);
+    while (buffer.hasRemaining()) {
+      channel.write(buffer);
+    }
+  }
+
+}
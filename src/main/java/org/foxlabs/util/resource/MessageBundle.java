@@ -22,7 +22,7 @@ import java.util.MissingResourceException;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.ConcurrentHashMap;
 
-import java.text.MessageFormat;
+import org.foxlabs.common.text.MessageTemplate;
 
 /**
  * This class is lightweight wrapper around <code>java.util.ResourceBundle</code>.
@@ -46,6 +46,12 @@ public final class MessageBundle {
      */
     private final MessageBundle parentBundle;
     
+    /**
+     * Compiled message templates by locale and message key.
+     */
+    private final ConcurrentMap<Locale, ConcurrentMap<String, MessageTemplate>> templateCache =
+            new ConcurrentHashMap<Locale, ConcurrentMap<String, MessageTemplate>>();
+    
     /**
      * Constructs a new message bundle.
      * 
@@ -174,9 +180,41 @@ public final class MessageBundle {
      * @return Formatted message for the specified key and locale.
      * @throws MissingResourceException if message for the specified key is
      *         missing.
+     * @see #getTemplate(String, Locale)
      */
     public String format(String key, Locale locale, Object... args) {
-        return args.length == 0 ? get(key, locale) : new MessageFormat(get(key, locale), locale).format(args);
+        return args.length == 0 ? get(key, locale) : getTemplate(key, locale).format(args);
+    }
+    
+    /**
+     * Returns compiled message template for the specified key and locale.
+     * Templates are compiled once and cached for the lifetime of this bundle.
+     * 
+     * @param key Message key.
+     * @param locale Desired locale.
+     * @return Compiled message template for the specified key and locale.
+     * @throws MissingResourceException if message for the specified key is
+     *         missing.
+     * @throws IllegalArgumentException if message pattern is invalid.
+     */
+    public MessageTemplate getTemplate(String key, Locale locale) {
+        ConcurrentMap<String, MessageTemplate> templates = templateCache.get(locale);
+        if (templates == null) {
+            templates = new ConcurrentHashMap<String, MessageTemplate>();
+            ConcurrentMap<String, MessageTemplate> cached = templateCache.putIfAbsent(locale, templates);
+            if (cached != null) {
+                templates = cached;
+            }
+        }
+        MessageTemplate template = templates.get(key);
+        if (template == null) {
+            template = MessageTemplate.compile(get(key, locale), locale);
+            MessageTemplate cached = templates.putIfAbsent(key, template);
+            if (cached != null) {
+                template = cached;
+            }
+        }
+        return template;
     }
     
     /**
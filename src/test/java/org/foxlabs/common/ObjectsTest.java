@@ -18,6 +18,8 @@ package org.foxlabs.common;
 
 import org.junit.Test;
 
+import org.foxlabs.common.text.CharBufferPool;
+
 import static org.junit.Assert.*;
 import static org.foxlabs.common.Objects.*;
 
@@ -56,4 +58,26 @@ public class ObjectsTest {
     assertEquals("[\"one\"", Objects.toString(sampleObject, 6));
   }
 
+  /**
+   * Tests the {@link Objects#toString(Object, int, boolean)} method.
+   */
+  @Test
+  public void test_toString_presize() {
+    final String[] sampleObject = new String[]{"one", "two", "three"};
+    assertEquals("[\"one\", \"two\", \"three\"]", Objects.toString(sampleObject, 100, true));
+    assertEquals("[\"one\"", Objects.toString(sampleObject, 6, true));
+    assertEquals("null", Objects.toString(null, 100, true));
+  }
+
+  /**
+   * Tests the {@link Objects#toString(Object, CharBufferPool)} method.
+   */
+  @Test
+  public void test_toString_pool() {
+    final String[] sampleObject = new String[]{"one", "two", "three"};
+    final CharBufferPool pool = CharBufferPool.threadLocal(6);
+    assertEquals("[\"one\"", Objects.toString(sampleObject, pool));
+    assertEquals("[\"one\"", Objects.toString(sampleObject, pool));
+  }
+
 }
@@ -268,6 +268,22 @@ public class StringsTest {
     assertEquals("t...", ellipsis("test", 1));
   }
 
+  /**
+   * Tests the {@link Strings#unescape(String)} method.
+   */
+  @Test
+  public void test_unescape() {
+    final String sampleString = "test";
+    assertSame(sampleString, unescape(sampleString));
+    assertEquals(null, unescape(null));
+    assertEquals("", unescape(""));
+    assertEquals("a\\'\"\n\r\t\b\f\u00e9z", unescape("a\\\\\\'\\\"\\n\\r\\t\\b\\f\\u00E9z"));
+    assertThrows(IllegalArgumentException.class, () -> unescape("a\\"));
+    assertThrows(IllegalArgumentException.class, () -> unescape("a\\x"));
+    assertThrows(IllegalArgumentException.class, () -> unescape("\\u12g4"));
+    assertThrows(IllegalArgumentException.class, () -> unescape("\\u123"));
+  }
+
   // Miscellaneous
 
  /**
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import org.foxlabs.util.ByteBuffer;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link BaseEncoding} class.
+ *
+ * @author Fox Mulder
+ */
+public class BaseEncodingTest {
+
+  /**
+   * Tests the {@link BaseEncoding#encode(byte[], int, int, CharBuffer)} and
+   * {@link BaseEncoding#decode(CharSegment, ByteBuffer)} methods using test vectors of the RFC
+   * 4648.
+   */
+  @Test
+  public void test_rfc4648() {
+    final String[] base64 = {"", "Zg==", "Zm8=", "Zm9v", "Zm9vYg==", "Zm9vYmE=", "Zm9vYmFy"};
+    final String[] base32 = {"", "MY======", "MZXQ====", "MZXW6===", "MZXW6YQ=", "MZXW6YTB",
+        "MZXW6YTBOI======"};
+    for (int i = 0; i < base64.length; i++) {
+      final byte[] data = "foobar".substring(0, i).getBytes(StandardCharsets.US_ASCII);
+      assertEquals(base64[i], new LinearCharBuffer().appendBase64(data).toString());
+      assertEquals(base32[i], new LinearCharBuffer().appendBase32(data).toString());
+      assertArrayEquals(data, BaseEncoding.BASE64.decode(base64[i], new ByteBuffer()).getBytes());
+      assertArrayEquals(data, BaseEncoding.BASE32.decode(base32[i], new ByteBuffer()).getBytes());
+      // padding is optional
+      assertArrayEquals(data,
+          BaseEncoding.BASE64.decode(base64[i].replace("=", ""), new ByteBuffer()).getBytes());
+      assertArrayEquals(data,
+          BaseEncoding.BASE32.decode(base32[i].replace("=", ""), new ByteBuffer()).getBytes());
+      assertEquals(base64[i].length(), BaseEncoding.BASE64.getEncodedCapacity(i));
+      assertEquals(base32[i].length(), BaseEncoding.BASE32.getEncodedCapacity(i));
+    }
+  }
+
+  /**
+   * Tests the Base64 encoding against the {@link Base64} implementation.
+   */
+  @Test
+  public void test_base64() {
+    final Random random = new Random(0L);
+    for (int length = 0; length < 10000; length += 1 + random.nextInt(length / 10 + 1)) {
+      final byte[] data = new byte[length];
+      random.nextBytes(data);
+      final String base64 = Base64.getEncoder().encodeToString(data);
+      final String base64Url = Base64.getUrlEncoder().encodeToString(data);
+      assertEquals(base64, new PaginalCharBuffer().appendBase64(data).toString());
+      assertEquals(base64Url, new PaginalCharBuffer().appendBase64Url(data).toString());
+      assertEquals(Base64.getUrlEncoder().withoutPadding().encodeToString(data),
+          BaseEncoding.BASE64_URL.withoutPadding().encode(data, new LinearCharBuffer()).toString());
+      assertArrayEquals(data, BaseEncoding.BASE64.decode(base64, new ByteBuffer()).getBytes());
+      assertArrayEquals(data,
+          BaseEncoding.BASE64_URL.decode(base64Url, new ByteBuffer()).getBytes());
+    }
+  }
+
+  /**
+   * Tests the {@link BaseEncoding.Encoder} and {@link BaseEncoding.Decoder} with data split into
+   * random chunks.
+   */
+  @Test
+  public void test_streaming() {
+    final Random random = new Random(0L);
+    for (BaseEncoding encoding : new BaseEncoding[] {BaseEncoding.BASE64, BaseEncoding.BASE32}) {
+      final BaseEncoding.Encoder encoder = encoding.newEncoder();
+      final BaseEncoding.Decoder decoder = encoding.newDecoder();
+      for (int n = 0; n < 100; n++) {
+        final byte[] data = new byte[random.nextInt(1000)];
+        random.nextBytes(data);
+        final String expected = encoding.encode(data, new LinearCharBuffer()).toString();
+        // encode in chunks
+        final CharBuffer chars = new LinearCharBuffer();
+        for (int from = 0, to; from < data.length; from = to) {
+          to = Math.min(data.length, from + random.nextInt(10));
+          encoder.update(data, from, to, chars);
+        }
+        assertEquals(expected, encoder.finish(chars).toString());
+        // decode in chunks
+        final ByteBuffer bytes = new ByteBuffer();
+        for (int from = 0, to; from < expected.length(); from = to) {
+          to = Math.min(expected.length(), from + random.nextInt(10));
+          decoder.update(expected.subSequence(from, to), bytes);
+        }
+        assertArrayEquals(data, decoder.finish(bytes).getBytes());
+      }
+    }
+  }
+
+  /**
+   * Tests that the {@link BaseEncoding#decode(CharSequence, ByteBuffer)} method rejects invalid
+   * data.
+   */
+  @Test
+  public void test_decode_invalid() {
+    // @formatter:off
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Zm9v!", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Zm9v Zg==", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Z", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Z===", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Zg=", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Zg===", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Zg==Zg==", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Zm9v=", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64.decode("Zm-_", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE64_URL.decode("Zm+/", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE32.decode("MZX", new ByteBuffer()));
+    assertThrows(IllegalArgumentException.class, () -> BaseEncoding.BASE32.decode("mzxw6===", new ByteBuffer()));
+    // @formatter:on
+    final IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+        () -> BaseEncoding.BASE64.decode("Zm9vYmFy!", new ByteBuffer()));
+    assertEquals("Invalid character in Base64 data at 8", e.getMessage());
+  }
+
+}
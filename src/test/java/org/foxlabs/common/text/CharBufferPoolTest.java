@@ -0,0 +1,100 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link CharBufferPool} class.
+ *
+ * @author Fox Mulder
+ */
+public class CharBufferPoolTest {
+
+  /**
+   * Tests the {@link CharBufferPool#threadLocal(int, int)} pool.
+   */
+  @Test
+  public void test_threadLocal() {
+    final CharBufferPool pool = CharBufferPool.threadLocal(100, 64);
+    final CharBuffer buffer = pool.acquire();
+    assertEquals(100, buffer.threshold());
+    // reentrant acquisition gets another buffer
+    final CharBuffer nested = pool.acquire();
+    assertNotSame(buffer, nested);
+    buffer.append("text");
+    pool.release(buffer);
+    pool.release(nested);
+    final CharBuffer reused = pool.acquire();
+    assertSame(buffer, reused);
+    assertEquals(0, reused.length());
+    pool.release(reused);
+    // buffers of other thresholds are ignored
+    pool.release(new LinearCharBuffer(10, 10));
+    assertSame(buffer, pool.acquire());
+  }
+
+  /**
+   * Tests the {@link CharBufferPool#striped(int, int, int)} pool.
+   */
+  @Test
+  public void test_striped() {
+    final CharBufferPool pool = CharBufferPool.striped(100, 64, 4);
+    final CharBuffer buffer = pool.acquire();
+    pool.release(buffer);
+    assertSame(buffer, pool.acquire());
+    assertThrows(IllegalArgumentException.class, () -> CharBufferPool.striped(100, 64, 0));
+  }
+
+  /**
+   * Tests that buffers exceeding the retained capacity are cleared on release.
+   */
+  @Test
+  public void test_retainedCapacity() {
+    final CharBufferPool pool = CharBufferPool.threadLocal(1000, 64);
+    final LinearCharBuffer buffer = (LinearCharBuffer) pool.acquire();
+    buffer.appendIndent(500);
+    assertTrue(buffer.capacity() > 64);
+    pool.release(buffer);
+    assertEquals(LinearCharBuffer.DEFAULT_CAPACITY, buffer.capacity());
+  }
+
+  /**
+   * Tests the {@link CharBufferPool#format(Object)} and {@link CharBufferPool#format(ToString)}
+   * methods.
+   */
+  @Test
+  public void test_format() {
+    final CharBufferPool pool = CharBufferPool.threadLocal(6);
+    assertEquals("[1, 2]", pool.format(new int[] {1, 2}));
+    assertEquals("[1, 2,", pool.format(new int[] {1, 2, 3}));
+    assertEquals("abc", pool.format((ToString) (buffer) -> buffer.append("abc")));
+    assertEquals("abcdef", pool.format((ToString) (buffer) -> buffer.append("abcdefgh")));
+    final ToString.Adapter adapter = new ToString.Adapter() {
+      @Override public CharBuffer toString(CharBuffer buffer) {
+        return buffer.append("adapter");
+      }
+      @Override protected CharBufferPool bufferPool() {
+        return pool;
+      }
+    };
+    assertEquals("adapte", adapter.toString());
+  }
+
+}
@@ -16,6 +16,27 @@
 
 package org.foxlabs.common.text;
 
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
 import org.junit.Test;
 
 import static org.junit.Assert.*;
@@ -27,6 +48,220 @@ import static org.junit.Assert.*;
  */
 public class CharBufferTest {
 
+  // Basic operations
+
+  /**
+   * Tests the {@link CharBuffer#subSequence(int, int)} method.
+   */
+  @Test
+  public void test_subSequence() {
+    final String text = "0123456789abcdef\ud83d\ude00ghijklmnopqrstuvwxyz0123456789";
+    final CharBuffer[] buffers = {
+        new LinearCharBuffer(4), new PaginalCharBuffer(Integer.MAX_VALUE, 8),
+        new DirectCharBuffer(Integer.MAX_VALUE, 8)};
+    for (CharBuffer buffer : buffers) {
+      buffer.append(text);
+      final CharSegment view = buffer.subSequence(10, 40);
+      assertEquals(text.substring(10, 40), view.toString());
+      assertEquals(30, view.length());
+      assertEquals('a', view.charAt(0));
+      assertEquals(0x1f600, view.codePointAt(6));
+      assertEquals('\ude00', view.codePointAt(7));
+      assertEquals(text.substring(15, 25), view.subSequence(5, 15).toString());
+      assertEquals(8, view.indexOf('g', 0, 30));
+      assertEquals(28, view.indexOf('0', 0, 30));
+      assertEquals(-1, view.indexOf('0', 0, 28));
+      final char[] target = new char[32];
+      view.copyTo(2, 12, target, 1);
+      assertEquals(text.substring(12, 22), new String(target, 1, 10));
+      assertThrows(IndexOutOfBoundsException.class, () -> view.charAt(30));
+      assertThrows(IndexOutOfBoundsException.class, () -> buffer.subSequence(10, 70));
+      assertSame(CharSegment.EMPTY, buffer.subSequence(5, 5));
+      // view is not affected by appending
+      buffer.append(text);
+      assertEquals(text.substring(10, 40), view.toString());
+      assertEquals(text + text + text.substring(10, 40), buffer.append(view).toString());
+      // view is invalidated by reset
+      final CharSegment range = view.subSequence(1, 5);
+      buffer.reset();
+      buffer.append(text);
+      assertEquals(30, view.length());
+      assertThrows(ConcurrentModificationException.class, () -> view.charAt(0));
+      assertThrows(ConcurrentModificationException.class, () -> range.toString());
+      assertThrows(ConcurrentModificationException.class, () -> view.subSequence(1, 2));
+      assertThrows(ConcurrentModificationException.class,
+          () -> new LinearCharBuffer().append(view));
+      // view is invalidated by clear
+      final CharSegment other = buffer.subSequence(0, 10);
+      buffer.clear();
+      assertThrows(ConcurrentModificationException.class, () -> other.codePointAt(0));
+      assertThrows(ConcurrentModificationException.class, () -> other.indexOf('0', 0, 10));
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#substring(int, int)} method.
+   */
+  @Test
+  public void test_substring() {
+    final String text = "0123456789abcdefghijklmnopqrstuvwxyz";
+    final CharBuffer[] buffers = {
+        new LinearCharBuffer(), new PaginalCharBuffer(Integer.MAX_VALUE, 8)};
+    for (CharBuffer buffer : buffers) {
+      buffer.append(text);
+      assertEquals(text.substring(10, 20), buffer.substring(10, 20));
+      assertEquals(text.substring(30), buffer.substring(30));
+      assertEquals("", buffer.substring(36));
+      assertThrows(IndexOutOfBoundsException.class, () -> buffer.substring(20, 10));
+    }
+  }
+
+  /**
+   * Tests the {@link PaginalCharBuffer#copyToParallel(int, int, char[], int, ForkJoinPool, int)}
+   * and {@link PaginalCharBuffer#toCharArrayParallel()} methods.
+   */
+  @Test
+  public void test_copyToParallel() {
+    final Random random = new Random(0L);
+    final PaginalCharBuffer buffer = new PaginalCharBuffer(Integer.MAX_VALUE, 1000);
+    for (int n = 0; n < 500000; n++) {
+      buffer.append((char) random.nextInt(0x10000));
+    }
+    final char[] expected = new char[buffer.length()];
+    buffer.copyTo(0, expected.length, expected, 0);
+    assertArrayEquals(expected, buffer.toCharArrayParallel());
+    final ForkJoinPool pool = new ForkJoinPool(4);
+    try {
+      final char[] target = new char[expected.length + 2];
+      buffer.copyToParallel(0, expected.length, target, 1, pool, 0);
+      assertArrayEquals(expected, Arrays.copyOfRange(target, 1, expected.length + 1));
+      final char[] range = new char[300001];
+      buffer.copyToParallel(100001, 400002, range, 0, pool, 0);
+      assertArrayEquals(Arrays.copyOfRange(expected, 100001, 400002), range);
+      assertThrows(IndexOutOfBoundsException.class,
+          () -> buffer.copyToParallel(0, expected.length, range, 0, pool, 0));
+      assertThrows(IllegalArgumentException.class,
+          () -> buffer.copyToParallel(0, 1, range, 0, pool, -1));
+    } finally {
+      pool.shutdown();
+    }
+    assertEquals(0, new PaginalCharBuffer().toCharArrayParallel().length);
+  }
+
+  // Search operations
+
+  /**
+   * Tests the {@link CharBuffer#indexOf(CharSequence, int)} and
+   * {@link CharBuffer#lastIndexOf(CharSequence, int)} methods and their {@code char} counterparts
+   * against the {@code String} ones on random text.
+   */
+  @Test
+  public void test_indexOf() {
+    final Random random = new Random(0L);
+    for (int n = 0; n < 200; n++) {
+      final String text = randomText(random, random.nextInt(300));
+      final CharBuffer[] buffers = {
+          new LinearCharBuffer().append(text),
+          new PaginalCharBuffer(Integer.MAX_VALUE, 32).append(text),
+          new DirectCharBuffer(Integer.MAX_VALUE, 1024).append(text)};
+      for (int k = 0; k < 20; k++) {
+        final String needle = k < 5 ? randomText(random, random.nextInt(3))
+            : randomNeedle(random, text, random.nextInt(k));
+        final char ch = needle.isEmpty() ? 'a' : needle.charAt(0);
+        final int from = random.nextInt(text.length() + 10) - 5;
+        for (CharBuffer buffer : buffers) {
+          assertEquals(text.indexOf(ch), buffer.indexOf(ch));
+          assertEquals(text.indexOf(ch, from), buffer.indexOf(ch, from));
+          assertEquals(text.lastIndexOf(ch), buffer.lastIndexOf(ch));
+          assertEquals(text.lastIndexOf(ch, from), buffer.lastIndexOf(ch, from));
+          assertEquals(text.indexOf(needle), buffer.indexOf(needle));
+          assertEquals(text.indexOf(needle, from), buffer.indexOf(needle, from));
+          assertEquals(text.lastIndexOf(needle), buffer.lastIndexOf(needle));
+          assertEquals(text.lastIndexOf(needle, from), buffer.lastIndexOf(needle, from));
+          assertEquals(text.contains(needle), buffer.contains(needle));
+        }
+      }
+    }
+  }
+
+  /**
+   * Tests the {@link CharSegment#indexOf(CharSequence, int, int)} and
+   * {@link CharSegment#lastIndexOf(CharSequence, int, int)} methods on different segments.
+   */
+  @Test
+  public void test_indexOf_range() {
+    final String text = "abcab_abcabcabd_abcabcabcabd_xyz";
+    final CharSegment[] segments = {
+        CharSegment.from(text), CharSegment.from("_" + text, 1, text.length() + 1),
+        CharSegment.from(text.toCharArray()), new PaginalCharBuffer(100, 8).append(text),
+        new LinearCharBuffer().append("_" + text).subSequence(1, text.length() + 1)};
+    for (CharSegment segment : segments) {
+      assertEquals(6, segment.indexOf("abc", 3, 32));
+      assertEquals(-1, segment.indexOf("abc", 3, 8));
+      assertEquals(6, segment.indexOf("abcabcabd", 0, 32));
+      assertEquals(19, segment.indexOf("abcabcabd", 7, 32));
+      assertEquals(-1, segment.indexOf("abcabcabd", 7, 27));
+      assertEquals(5, segment.indexOf("", 5, 10));
+      assertEquals(22, segment.lastIndexOf("abc", 0, 32));
+      assertEquals(16, segment.lastIndexOf("abc", 0, 21));
+      assertEquals(19, segment.lastIndexOf("abcabcabd", 0, 32));
+      assertEquals(6, segment.lastIndexOf("abcabcabd", 0, 27));
+      assertEquals(10, segment.lastIndexOf("", 5, 10));
+      assertEquals(29, segment.lastIndexOf('x', 0, 32));
+      assertEquals(-1, segment.lastIndexOf('x', 0, 29));
+      assertThrows(IndexOutOfBoundsException.class, () -> segment.indexOf("abc", 0, 33));
+      assertThrows(IndexOutOfBoundsException.class, () -> segment.lastIndexOf("abc", 5, 4));
+      assertThrows(NullPointerException.class, () -> segment.indexOf(null, 0, 1));
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#regionMatches(boolean, int, CharSequence, int, int)},
+   * {@link CharBuffer#startsWith(CharSequence)} and {@link CharBuffer#endsWith(CharSequence)}
+   * methods.
+   */
+  @Test
+  public void test_regionMatches() {
+    final String text = "Hello, World! \u0130stanbul";
+    final CharBuffer buffer = new PaginalCharBuffer(100, 8).append(text);
+    final String[] others = {"world", "WORLD", "World", "xWorld!", "hello", "istanbul", ""};
+    for (String other : others) {
+      for (int offset = -1; offset <= text.length() + 1; offset++) {
+        for (int length = -1; length <= other.length() + 1; length++) {
+          for (int ooffset = -1; ooffset <= 1; ooffset++) {
+            assertEquals(text.regionMatches(false, offset, other, ooffset, length),
+                buffer.regionMatches(false, offset, other, ooffset, length));
+            assertEquals(text.regionMatches(true, offset, other, ooffset, length),
+                buffer.regionMatches(true, offset, other, ooffset, length));
+          }
+        }
+      }
+      assertEquals(text.startsWith(other), buffer.startsWith(other));
+      assertEquals(text.startsWith(other, 7), buffer.startsWith(other, 7));
+      assertEquals(text.endsWith(other), buffer.endsWith(other));
+    }
+    assertTrue(buffer.startsWith("Hello"));
+    assertTrue(buffer.endsWith("stanbul"));
+    assertTrue(buffer.regionMatches(true, 7, "world", 0, 5));
+    assertThrows(NullPointerException.class, () -> buffer.startsWith(null));
+  }
+
+  private static String randomText(Random random, int length) {
+    final char[] chars = new char[length];
+    for (int i = 0; i < length; i++) {
+      chars[i] = "aab\u0161\u0361".charAt(random.nextInt(5));
+    }
+    return new String(chars);
+  }
+
+  private static String randomNeedle(Random random, String text, int length) {
+    if (text.length() < length || random.nextInt(4) == 0) {
+      return randomText(random, length);
+    }
+    final int start = random.nextInt(text.length() - length + 1);
+    return text.substring(start, start + length);
+  }
+
   // Boolean to string representation
 
   /**
@@ -315,6 +550,276 @@ public class CharBufferTest {
     // @formatter:on
   }
 
+  /**
+   * Tests the {@link CharBuffer#appendDec(float)} method.
+   */
+  @Test
+  public void test_appendDec_float() {
+    final float[] values = {
+        0.0f, -0.0f, 1.0f, -1.0f, 0.1f, 1.0E7f, 9999999.0f, 1.0E-3f, 9.999999E-4f, 16.77777f,
+        Float.MIN_VALUE, Float.MIN_NORMAL, Float.MAX_VALUE, 2.0E-45f, 8.0E-45f, 1.0E10f, 3.4E38f,
+        Float.NaN, Float.POSITIVE_INFINITY, Float.NEGATIVE_INFINITY
+    };
+    for (float value : values) {
+      assertDecEquals(value);
+    }
+    // all powers of 2
+    for (int exp = -149; exp <= 127; exp++) {
+      assertDecEquals((float) Math.scalb(1.0, exp));
+    }
+    // random bit patterns including subnormal values
+    final java.util.Random random = new java.util.Random(0x5eedL);
+    for (int i = 0; i < 1000000; i++) {
+      assertDecEquals(Float.intBitsToFloat(random.nextInt()));
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#appendDec(double)} method.
+   */
+  @Test
+  public void test_appendDec_double() {
+    final double[] values = {
+        0.0d, -0.0d, 1.0d, -1.0d, 0.1d, 1.0E7d, 9999999.0d, 1.0E-3d, 9.999999999999999E-4d,
+        -0.987579d, 2964298.27557d, 2.0E-3d, 1.0E23d, 2.0E23d, 9.007199254740991E15d,
+        9.007199254740992E15d, Double.MIN_VALUE, Double.MIN_NORMAL, Double.MAX_VALUE, 1.0E-323d,
+        1.5E-323d, 2.0E-323d, Double.NaN, Double.POSITIVE_INFINITY, Double.NEGATIVE_INFINITY
+    };
+    for (double value : values) {
+      assertDecEquals(value);
+    }
+    // all powers of 2 and 10
+    for (int exp = -1074; exp <= 1023; exp++) {
+      assertDecEquals(Math.scalb(1.0, exp));
+    }
+    for (int exp = -323; exp <= 308; exp++) {
+      assertDecEquals(Double.parseDouble("1.0E" + exp));
+    }
+    // random bit patterns including subnormal values
+    final java.util.Random random = new java.util.Random(0x5eedL);
+    for (int i = 0; i < 1000000; i++) {
+      assertDecEquals(Double.longBitsToDouble(random.nextLong()));
+      assertDecEquals(random.nextDouble());
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#appendDec(double, int, RoundingMode)} and
+   * {@link CharBuffer#getDecCapacity(double, int, RoundingMode)} methods.
+   */
+  @Test
+  public void test_appendDec_double_fractionDigits() {
+    assertEquals("0.2", new LinearCharBuffer().appendDec(0.15d, 1).toString());
+    assertEquals("0.2", new LinearCharBuffer().appendDec(0.25d, 1, RoundingMode.HALF_EVEN).toString());
+    assertEquals("-0.00", new LinearCharBuffer().appendDec(-0.001d, 2).toString());
+    assertEquals("1000", new LinearCharBuffer().appendDec(999.5d, 0).toString());
+    assertEquals("0.000", new LinearCharBuffer().appendDec(0.0d, 3).toString());
+    assertEquals("100000000000000000000.0", new LinearCharBuffer().appendDec(1.0E20d, 1).toString());
+    assertEquals("NaN", new LinearCharBuffer().appendDec(Double.NaN, 3).toString());
+    assertEquals("-Infinity", new LinearCharBuffer().appendDec(Double.NEGATIVE_INFINITY, 3).toString());
+    assertEquals("2.50", new LinearCharBuffer().appendDec(2.5d, 2, RoundingMode.UNNECESSARY).toString());
+    assertThrows(ArithmeticException.class,
+        () -> new LinearCharBuffer().appendDec(2.55d, 1, RoundingMode.UNNECESSARY));
+    assertThrows(IllegalArgumentException.class, () -> new LinearCharBuffer().appendDec(1.0d, -1));
+    final java.util.Random random = new java.util.Random(0x5eedL);
+    for (int i = 0; i < 20000; i++) {
+      final double value = newRandomDouble(random);
+      final int digits = random.nextInt(20);
+      final String shortest = new LinearCharBuffer().appendDec(value).toString();
+      for (RoundingMode mode : ROUNDING_MODES) {
+        final String expected = getFixedString(shortest, digits, mode);
+        assertEquals(shortest, expected, new LinearCharBuffer().appendDec(value, digits, mode).toString());
+        assertEquals(shortest, expected.length(), CharBuffer.getDecCapacity(value, digits, mode));
+      }
+      // String.format() rounds the Double.toString() digits using HALF_UP
+      if (shortest.equals(Double.toString(value))) {
+        assertEquals(String.format(java.util.Locale.ROOT, "%." + digits + "f", value),
+            new LinearCharBuffer().appendDec(value, digits).toString());
+      }
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#appendDec(float, int, RoundingMode)} and
+   * {@link CharBuffer#getDecCapacity(float, int, RoundingMode)} methods.
+   */
+  @Test
+  public void test_appendDec_float_fractionDigits() {
+    assertEquals("16.78", new LinearCharBuffer().appendDec(16.77777f, 2).toString());
+    assertEquals("-16.77", new LinearCharBuffer().appendDec(-16.77777f, 2, RoundingMode.CEILING).toString());
+    final java.util.Random random = new java.util.Random(0x5eedL);
+    for (int i = 0; i < 20000; i++) {
+      final float value = (float) newRandomDouble(random);
+      final int digits = random.nextInt(12);
+      final String shortest = new LinearCharBuffer().appendDec(value).toString();
+      for (RoundingMode mode : ROUNDING_MODES) {
+        final String expected = getFixedString(shortest, digits, mode);
+        assertEquals(shortest, expected, new LinearCharBuffer().appendDec(value, digits, mode).toString());
+        assertEquals(shortest, expected.length(), CharBuffer.getDecCapacity(value, digits, mode));
+      }
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#getDecCapacity(double)} and
+   * {@link CharBuffer#getDecCapacity(float)} methods.
+   */
+  @Test
+  public void test_getDecCapacity_double() {
+    final java.util.Random random = new java.util.Random(0x5eedL);
+    for (int i = 0; i < 100000; i++) {
+      final double value = Double.longBitsToDouble(random.nextLong());
+      assertEquals(new LinearCharBuffer().appendDec(value).length(), CharBuffer.getDecCapacity(value));
+      assertEquals(new LinearCharBuffer().appendDec((float) value).length(),
+          CharBuffer.getDecCapacity((float) value));
+    }
+  }
+
+  // Scientific representation
+
+  /**
+   * Tests the {@link CharBuffer#appendSci(double, int, RoundingMode)} and
+   * {@link CharBuffer#getSciCapacity(double, int, RoundingMode)} methods.
+   */
+  @Test
+  public void test_appendSci_double() {
+    assertEquals("1.23E5", new LinearCharBuffer().appendSci(123456.0d, 2).toString());
+    assertEquals("1.0E1", new LinearCharBuffer().appendSci(9.96d, 1).toString());
+    assertEquals("-5E-324", new LinearCharBuffer().appendSci(-Double.MIN_VALUE, 0).toString());
+    assertEquals("0.00E0", new LinearCharBuffer().appendSci(0.0d, 2).toString());
+    final java.util.Random random = new java.util.Random(0x5eedL);
+    for (int i = 0; i < 20000; i++) {
+      final double value = newRandomDouble(random);
+      final int digits = random.nextInt(20);
+      final String shortest = new LinearCharBuffer().appendDec(value).toString();
+      for (RoundingMode mode : ROUNDING_MODES) {
+        final String expected = getScientificString(shortest, digits, mode, 1);
+        assertEquals(shortest, expected, new LinearCharBuffer().appendSci(value, digits, mode).toString());
+        assertEquals(shortest, expected.length(), CharBuffer.getSciCapacity(value, digits, mode));
+        assertEquals(shortest, getScientificString(new LinearCharBuffer().appendDec((float) value).toString(), digits, mode, 1),
+            new LinearCharBuffer().appendSci((float) value, digits, mode).toString());
+      }
+    }
+  }
+
+  // Engineering representation
+
+  /**
+   * Tests the {@link CharBuffer#appendEng(double, int, RoundingMode)} and
+   * {@link CharBuffer#getEngCapacity(double, int, RoundingMode)} methods.
+   */
+  @Test
+  public void test_appendEng_double() {
+    assertEquals("123.46E3", new LinearCharBuffer().appendEng(123456.0d, 2).toString());
+    assertEquals("12.3E-3", new LinearCharBuffer().appendEng(0.0123d, 1).toString());
+    assertEquals("1.0E3", new LinearCharBuffer().appendEng(999.96d, 1).toString());
+    assertEquals("-1E0", new LinearCharBuffer().appendEng(-1.0f, 0).toString());
+    final java.util.Random random = new java.util.Random(0x5eedL);
+    for (int i = 0; i < 20000; i++) {
+      final double value = newRandomDouble(random);
+      final int digits = random.nextInt(20);
+      final String shortest = new LinearCharBuffer().appendDec(value).toString();
+      for (RoundingMode mode : ROUNDING_MODES) {
+        final String expected = getScientificString(shortest, digits, mode, 3);
+        assertEquals(shortest, expected, new LinearCharBuffer().appendEng(value, digits, mode).toString());
+        assertEquals(shortest, expected.length(), CharBuffer.getEngCapacity(value, digits, mode));
+      }
+    }
+  }
+
+  private static final RoundingMode[] ROUNDING_MODES = {
+      RoundingMode.UP, RoundingMode.DOWN, RoundingMode.CEILING, RoundingMode.FLOOR,
+      RoundingMode.HALF_UP, RoundingMode.HALF_DOWN, RoundingMode.HALF_EVEN
+  };
+
+  private static double newRandomDouble(java.util.Random random) {
+    switch (random.nextInt(4)) {
+      case 0: // exact halves
+        return (random.nextInt(20000) - 10000) / 8.0d;
+      case 1: // few digits
+        return (random.nextInt(200000) - 100000) * Math.pow(10, random.nextInt(40) - 20);
+      case 2: // any magnitude
+        return Double.longBitsToDouble(random.nextLong());
+      default:
+        return (random.nextDouble() - 0.5d) * Math.pow(10, random.nextInt(30) - 10);
+    }
+  }
+
+  private static String getFixedString(String shortest, int digits, RoundingMode mode) {
+    if (!Character.isDigit(shortest.charAt(shortest.length() - 1))) {
+      return shortest; // NaN or Infinity
+    }
+    final BigDecimal result = new BigDecimal(shortest).setScale(digits, mode);
+    return result.signum() == 0 && shortest.startsWith("-")
+        ? "-" + result.abs().toPlainString()
+        : result.toPlainString();
+  }
+
+  private static String getScientificString(String shortest, int digits, RoundingMode mode, int step) {
+    if (!Character.isDigit(shortest.charAt(shortest.length() - 1))) {
+      return shortest; // NaN or Infinity
+    }
+    final String sign = shortest.startsWith("-") ? "-" : "";
+    final BigDecimal value = new BigDecimal(shortest).abs();
+    if (value.signum() == 0) {
+      return sign + BigDecimal.ZERO.setScale(digits).toPlainString() + "E0";
+    }
+    int exponent = Math.floorDiv(value.precision() - value.scale() - 1, step) * step;
+    BigDecimal result = value.setScale(digits - exponent, getAbsoluteMode(mode, sign));
+    if (result.compareTo(BigDecimal.ONE.scaleByPowerOfTen(exponent + step)) >= 0) {
+      exponent += step;
+      result = result.setScale(digits - exponent, RoundingMode.UNNECESSARY);
+    }
+    return sign + result.movePointLeft(exponent).setScale(digits).toPlainString() + "E" + exponent;
+  }
+
+  private static RoundingMode getAbsoluteMode(RoundingMode mode, String sign) {
+    if (mode == RoundingMode.CEILING) {
+      return sign.isEmpty() ? RoundingMode.UP : RoundingMode.DOWN;
+    } else if (mode == RoundingMode.FLOOR) {
+      return sign.isEmpty() ? RoundingMode.DOWN : RoundingMode.UP;
+    }
+    return mode;
+  }
+
+  /**
+   * The JDK prior to version 19 produces representations that are not the shortest ones for some
+   * values, so the result is allowed to be different in that case only. Note that a 2 digits long
+   * representation is preferred to 1 digit long one if it is closer to the value.
+   */
+  private static final boolean SHORTEST_JDK =
+      !System.getProperty("java.specification.version").startsWith("1.")
+      && Integer.parseInt(System.getProperty("java.specification.version")) >= 19;
+
+  private static void assertDecEquals(float value) {
+    final String expected = Float.toString(value);
+    final String actual = new LinearCharBuffer().appendDec(value).toString();
+    if (SHORTEST_JDK || expected.equals(actual)) {
+      assertEquals(expected, actual);
+    } else {
+      assertEquals(expected, value, Float.parseFloat(actual), 0.0f);
+      assertTrue(expected, getSignificantDigits(actual) <= Math.max(getSignificantDigits(expected), 2));
+    }
+  }
+
+  private static void assertDecEquals(double value) {
+    final String expected = Double.toString(value);
+    final String actual = new LinearCharBuffer().appendDec(value).toString();
+    if (SHORTEST_JDK || expected.equals(actual)) {
+      assertEquals(expected, actual);
+    } else {
+      assertEquals(expected, value, Double.parseDouble(actual), 0.0d);
+      assertTrue(expected, getSignificantDigits(actual) <= Math.max(getSignificantDigits(expected), 2));
+    }
+  }
+
+  private static int getSignificantDigits(String value) {
+    final int exp = value.indexOf('E');
+    final String digits = (exp < 0 ? value : value.substring(0, exp)).replace("-", "")
+        .replace(".", "").replaceAll("^0+", "").replaceAll("0+$", "");
+    return Math.max(digits.length(), 1);
+  }
+
   // Hexadecimal representation
 
   /**
@@ -670,6 +1175,34 @@ public class CharBufferTest {
     // @formatter:on
   }
 
+  /**
+   * Tests the {@link CharBuffer#appendHex(byte[], int, int)} method.
+   */
+  @Test
+  public void test_appendHex_byteArray() {
+    final byte[] array = {0x00, 0x0f, (byte) 0xf0, (byte) 0xff, 0x7f, (byte) 0x80};
+    assertThrows(IndexOutOfBoundsException.class, () -> new PaginalCharBuffer().appendHex(array, 1, 0));
+    assertThrows(IndexOutOfBoundsException.class, () -> new PaginalCharBuffer().appendHex(array, 0, 7));
+    // @formatter:off
+    assertEquals("",             new PaginalCharBuffer().appendHex(new byte[0]).toString());
+    assertEquals("000ff0ff7f80", new PaginalCharBuffer().appendHex(array).toString());
+    assertEquals("0ff0",         new PaginalCharBuffer().appendHex(array, 1, 3).toString());
+    // @formatter:on
+    final CharBuffer buffer = new PaginalCharBuffer(5);
+    assertThrows(ThresholdReachedException.class, () -> buffer.appendHex(array));
+    assertEquals("000ff", buffer.toString());
+    // larger than a single transfer chunk
+    final byte[] random = new byte[100000];
+    new java.util.Random(0L).nextBytes(random);
+    final StringBuilder expected = new StringBuilder();
+    for (byte value : random) {
+      expected.append(Character.forDigit(value >>> 4 & 0x0f, 16));
+      expected.append(Character.forDigit(value & 0x0f, 16));
+    }
+    assertEquals(expected.toString(), new PaginalCharBuffer().appendHex(random).toString());
+    assertEquals(expected.toString(), new LinearCharBuffer().appendHex(random).toString());
+  }
+
   // Octal representation
 
   /**
@@ -1554,6 +2087,28 @@ public class CharBufferTest {
     // @formatter:on
   }
 
+  /**
+   * Tests the {@link CharBuffer#appendBin(byte[], int, int)} method.
+   */
+  @Test
+  public void test_appendBin_byteArray() {
+    final byte[] array = {0x00, 0x0f, (byte) 0xf0, (byte) 0xff, 0x55};
+    assertThrows(IndexOutOfBoundsException.class, () -> new PaginalCharBuffer().appendBin(array, -1, 0));
+    // @formatter:off
+    assertEquals("",                                         new PaginalCharBuffer().appendBin(new byte[0]).toString());
+    assertEquals("0000000000001111111100001111111101010101", new PaginalCharBuffer().appendBin(array).toString());
+    assertEquals("1111111101010101",                         new PaginalCharBuffer().appendBin(array, 3, 5).toString());
+    // @formatter:on
+    // larger than a single transfer chunk
+    final byte[] random = new byte[10000];
+    new java.util.Random(0L).nextBytes(random);
+    final StringBuilder expected = new StringBuilder();
+    for (byte value : random) {
+      expected.append(Integer.toBinaryString(value & 0xff | 0x100), 1, 9);
+    }
+    assertEquals(expected.toString(), new PaginalCharBuffer().appendBin(random).toString());
+  }
+
   // Object to string representation
 
   /**
@@ -1784,8 +2339,118 @@ public class CharBufferTest {
     // @formatter:on
   }
 
+  /**
+   * Tests detection of circular references on the stack and beyond the
+   * {@link CharBuffer#referenceDepth()}.
+   */
+  @Test
+  public void test_appendObject_circular() {
+    for (int depth : new int[] {0, 1, 4, CharBuffer.DEFAULT_REFERENCE_DEPTH}) {
+      // a -> [b -> [... -> [a]]] chain of 10 lists
+      final List<Object> head = new ArrayList<>();
+      List<Object> tail = head;
+      for (int n = 1; n < 10; n++) {
+        final List<Object> next = new ArrayList<>();
+        tail.add(n);
+        tail.add(next);
+        tail = next;
+      }
+      tail.add(head);
+      final String crossref = "!java.util.ArrayList@"
+          + String.format("%08x", System.identityHashCode(head));
+      final CharBuffer buffer = new LinearCharBuffer();
+      buffer.setReferenceDepth(depth);
+      assertEquals(depth, buffer.referenceDepth());
+      buffer.appendObject(head);
+      assertEquals("[1, [2, [3, [4, [5, [6, [7, [8, [9, [[" + crossref + "]]]]]]]]]]",
+          buffer.toString());
+      // the same object twice is not a circular reference
+      buffer.reset();
+      final List<Object> leaf = Arrays.asList(1);
+      buffer.appendObject(Arrays.asList(leaf, Arrays.asList(leaf, leaf)));
+      assertEquals("[[1], [[1], [1]]]", buffer.toString());
+    }
+    final CharBuffer buffer = new LinearCharBuffer();
+    assertEquals(CharBuffer.DEFAULT_REFERENCE_DEPTH, buffer.referenceDepth());
+    assertThrows(IllegalArgumentException.class, () -> buffer.setReferenceDepth(-1));
+    final Object array = new Object[] {new ToString.Adapter() {
+      @Override public CharBuffer toString(CharBuffer buffer) {
+        assertThrows(IllegalStateException.class, () -> buffer.setReferenceDepth(1));
+        return buffer.append("nested");
+      }
+    }};
+    assertEquals("[nested]", buffer.appendObject(array).toString());
+  }
+
   // Advanced operations
 
+  /**
+   * Tests the {@link CharBuffer#appendHexDump(byte[], int, int)} method.
+   */
+  @Test
+  public void test_appendHexDump() {
+    final byte[] array = "Hello, world!\n\u0000\u00ff...".getBytes(StandardCharsets.ISO_8859_1);
+    assertThrows(IndexOutOfBoundsException.class, () -> new PaginalCharBuffer().appendHexDump(array, 0, 20));
+    assertEquals("", new PaginalCharBuffer().appendHexDump(array, 5, 5).toString());
+    assertEquals(
+        "00000000  48 65 6c 6c 6f 2c 20 77  6f 72 6c 64 21 0a 00 ff  |Hello, world!...|\n" +
+        "00000010  2e 2e 2e                                          |...|\n",
+        new PaginalCharBuffer().appendHexDump(array).toString());
+    assertEquals(
+        "00000000  6c 6c 6f 2c 20 77 6f 72                           |llo, wor|\n",
+        new PaginalCharBuffer().appendHexDump(array, 2, 10).toString());
+    // larger than a single transfer chunk
+    final byte[] random = new byte[10000];
+    new java.util.Random(0L).nextBytes(random);
+    for (int count : new int[] {0, 1, 15, 16, 17, 1663, 1664, 1665, 10000}) {
+      final String dump = new PaginalCharBuffer().appendHexDump(random, 0, count).toString();
+      assertEquals(getDumpString(random, count, 16, 2), dump);
+      assertEquals(CharBuffer.getHexDumpCapacity(count), dump.length());
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#appendBinDump(byte[], int, int)} method.
+   */
+  @Test
+  public void test_appendBinDump() {
+    final byte[] array = "Hello, world".getBytes(StandardCharsets.ISO_8859_1);
+    assertThrows(IllegalArgumentException.class, () -> CharBuffer.getBinDumpCapacity(-1));
+    assertEquals(
+        "00000000  01001000 01100101 01101100 01101100  01101111 00101100 00100000 01110111  |Hello, w|\n" +
+        "00000008  01101111 01110010 01101100 01100100                                       |orld|\n",
+        new PaginalCharBuffer().appendBinDump(array).toString());
+    final byte[] random = new byte[1000];
+    new java.util.Random(0L).nextBytes(random);
+    for (int count : new int[] {0, 1, 7, 8, 9, 1000}) {
+      final String dump = new LinearCharBuffer().appendBinDump(random, 0, count).toString();
+      assertEquals(getDumpString(random, count, 8, 8), dump);
+      assertEquals(CharBuffer.getBinDumpCapacity(count), dump.length());
+    }
+  }
+
+  private static String getDumpString(byte[] array, int count, int width, int digits) {
+    final StringBuilder dump = new StringBuilder();
+    for (int offset = 0; offset < count; offset += width) {
+      dump.append(String.format("%08x ", offset));
+      for (int i = 0; i < width; i++) {
+        dump.append(i == width / 2 ? "  " : " ");
+        if (offset + i < count) {
+          final String bits = Integer.toString(array[offset + i] & 0xff | 1 << 8, digits == 2 ? 16 : 2);
+          dump.append(bits, bits.length() - digits, bits.length());
+        } else {
+          dump.append(new String(new char[digits]).replace('\u0000', ' '));
+        }
+      }
+      dump.append("  |");
+      for (int i = offset; i < Math.min(offset + width, count); i++) {
+        dump.append(array[i] >= 0x20 && array[i] < 0x7f ? (char) array[i] : '.');
+      }
+      dump.append("|\n");
+    }
+    return dump.toString();
+  }
+
   /**
    * Tests the {@link CharBuffer#appendIdent(int)} method.
    */
@@ -1907,4 +2572,60 @@ public class CharBufferTest {
     // @formatter:on
   }
 
+  // Streaming
+
+  /**
+   * Tests the {@link CharBuffer#writeTo(Writer)} method.
+   */
+  @Test
+  public void test_writeTo_Writer() throws IOException {
+    final String text = newStreamingText();
+    for (CharBuffer buffer : new CharBuffer[] {new LinearCharBuffer(), new PaginalCharBuffer(),
+        new DirectCharBuffer()}) {
+      final StringWriter writer = new StringWriter();
+      buffer.append(text).writeTo(writer);
+      assertEquals(text, writer.toString());
+      buffer.reset();
+      buffer.writeTo(writer);
+      assertEquals(text, writer.toString());
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#writeTo(OutputStream, Charset)} method.
+   */
+  @Test
+  public void test_writeTo_OutputStream() throws IOException {
+    final String text = newStreamingText() + "\ud800";
+    for (Charset charset : new Charset[] {StandardCharsets.UTF_8, StandardCharsets.UTF_16LE,
+        StandardCharsets.US_ASCII}) {
+      final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+      new PaginalCharBuffer().append(text).writeTo(stream, charset);
+      assertArrayEquals(text.getBytes(charset), stream.toByteArray());
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#writeTo(WritableByteChannel, CharsetEncoder)} method.
+   */
+  @Test
+  public void test_writeTo_WritableByteChannel() throws IOException {
+    final String text = newStreamingText();
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final CharBuffer buffer = new LinearCharBuffer().append(text);
+    buffer.writeTo(Channels.newChannel(stream), StandardCharsets.UTF_8.newEncoder());
+    assertArrayEquals(text.getBytes(StandardCharsets.UTF_8), stream.toByteArray());
+    assertThrows(CharacterCodingException.class, () -> buffer.writeTo(Channels.newChannel(stream),
+        StandardCharsets.US_ASCII.newEncoder()));
+  }
+
+  private static String newStreamingText() {
+    // surrogate pairs split between pages and transfer chunks
+    final StringBuilder text = new StringBuilder();
+    for (int i = 0; i < 20000; i++) {
+      text.append(i % 8191 == 8190 || i % 32 == 31 ? "\ud841\udf0e" : "\u00e9");
+    }
+    return text.toString();
+  }
+
 }
@@ -0,0 +1,126 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+import static org.foxlabs.common.text.CharDecoder.*;
+
+/**
+ * Tests for the character decoders defined in the {@link CharDecoder} interface.
+ *
+ * @author Fox Mulder
+ */
+public class CharDecoderTest {
+
+  /**
+   * Tests the {@link CharSegment#indexOf(char, int, int)} method.
+   */
+  @Test
+  public void test_indexOf() {
+    final String text = "abc&def&";
+    final CharSegment[] segments = {
+        CharSegment.from(text),
+        CharSegment.from("x" + text + "x", 1, 9),
+        CharSegment.from(text.toCharArray()),
+        CharSegment.from(("x" + text + "x").toCharArray(), 1, 9),
+        CharSegment.from(new StringBuilder(text)),
+        new CharSegmentView().of("x" + text + "x", 1, 9),
+        new LinearCharBuffer().append(text)};
+    for (CharSegment segment : segments) {
+      assertEquals(3, segment.indexOf('&', 0, 8));
+      assertEquals(7, segment.indexOf('&', 4, 8));
+      assertEquals(-1, segment.indexOf('&', 4, 7));
+      assertEquals(-1, segment.indexOf('x', 0, 8));
+      assertEquals(-1, segment.indexOf('a', 0, 0));
+      assertThrows(IndexOutOfBoundsException.class, () -> segment.indexOf('a', 0, 9));
+      assertThrows(IndexOutOfBoundsException.class, () -> segment.indexOf('a', 2, 1));
+    }
+  }
+
+  /**
+   * Tests the {@link CharDecoder#decode(CharSegment, int, int, CharBuffer)} method.
+   */
+  @Test
+  public void test_decode_range() {
+    final CharSegment segment = CharSegment.from("x&lt;y&amp;z");
+    final CharBuffer buffer = new LinearCharBuffer();
+    assertEquals(12, HTML.decode(segment, 0, 12, buffer));
+    assertEquals("x<y&z", buffer.toString());
+    buffer.clear();
+    assertEquals(6, HTML.decode(segment, 1, 6, buffer));
+    assertEquals("<y", buffer.toString());
+    buffer.clear();
+    // escape sequences do not span beyond the end of the range
+    assertEquals(9, HTML.decode(segment, 5, 9, buffer));
+    assertEquals("y&am", buffer.toString());
+    buffer.clear();
+    // decoders without skipping
+    assertEquals(5, UPPERCASE.decode(segment, 0, 5, buffer));
+    assertEquals("X&LT;", buffer.toString());
+    assertThrows(IndexOutOfBoundsException.class,
+        () -> HTML.decode(segment, 0, 13, new LinearCharBuffer()));
+    assertThrows(NullPointerException.class, () -> HTML.decode(segment, 0, 1, null));
+  }
+
+  /**
+   * Tests the {@link CharDecoder#URL} character decoder.
+   */
+  @Test
+  public void test_URL_decoder() {
+    assertEquals("a b/c+d\u00e9\u20ac\ud83d\ude00", new LinearCharBuffer()
+        .appendDecoded("a%20b%2Fc+d%C3%a9%E2%82%AC%F0%9F%98%80", URL).toString());
+    // invalid or incomplete sequences are left as is
+    final String invalid = "% %2 %zz %C3 %C3x %C0%80 %ED%A0%80 %F4%90%80%80 %FF 100%";
+    assertEquals(invalid, new LinearCharBuffer().appendDecoded(invalid, URL).toString());
+  }
+
+  /**
+   * Tests the {@link CharDecoder#JAVA} character decoder.
+   */
+  @Test
+  public void test_JAVA_decoder() {
+    final String text = "a\\'\"\n\r\t\b\f\u0000\u001f\u007f\u009f\u00e9\u2028\ud83d\ude00";
+    final String java = new LinearCharBuffer().appendEncoded(text, CharEncoder.JAVA).toString();
+    assertEquals(text, new LinearCharBuffer().appendDecoded(java, JAVA).toString());
+    assertEquals("\u00e9\u00e9", new LinearCharBuffer().appendDecoded("\\u00E9\\u00e9", JAVA)
+        .toString());
+    assertThrows(IllegalArgumentException.class,
+        () -> new LinearCharBuffer().appendDecoded("\\", JAVA));
+    assertThrows(IllegalArgumentException.class,
+        () -> new LinearCharBuffer().appendDecoded("\\x", JAVA));
+    assertThrows(IllegalArgumentException.class,
+        () -> new LinearCharBuffer().appendDecoded("\\u00g0", JAVA));
+    assertThrows(IllegalArgumentException.class,
+        () -> new LinearCharBuffer().appendDecoded("\\u00e", JAVA));
+  }
+
+  /**
+   * Tests the {@link CharDecoder#HTML} character decoder with the HTML entities beyond the
+   * predefined XML entities.
+   */
+  @Test
+  public void test_HTML_decoder() {
+    assertEquals("\u00a0\u00e9\u00ff\u00c6\u20ac\u2014\u2026&Eacute", new LinearCharBuffer()
+        .appendDecoded("&nbsp;&eacute;&yuml;&AElig;&euro;&mdash;&hellip;&Eacute", HTML)
+        .toString());
+    assertEquals("&eacute;", new LinearCharBuffer().appendDecoded("&eacute;", XML_TEXT)
+        .toString());
+  }
+
+}
@@ -16,9 +16,16 @@
 
 package org.foxlabs.common.text;
 
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
 import org.junit.Test;
 
 import org.foxlabs.common.text.CharEncoder;
+import org.foxlabs.common.exception.ThresholdReachedException;
+import org.foxlabs.util.UnicodeSet;
 
 import static org.junit.Assert.*;
 import static org.foxlabs.common.text.CharEncoder.*;
@@ -105,4 +112,236 @@ public class CharEncoderTest {
     // @formatter:on
   }
 
+  /**
+   * Tests the {@link CharEncoder#JSON} character encoder.
+   */
+  @Test
+  public void test_JSON_encoder() {
+    // @formatter:off
+    final CharBuffer buffer = new PaginalCharBuffer(44);
+    assertEquals(1, JSON.encode('a',    buffer));
+    assertEquals(1, JSON.encode('\'',   buffer));
+    assertEquals(1, JSON.encode('/',    buffer));
+    assertEquals(2, JSON.encode('\\',   buffer));
+    assertEquals(2, JSON.encode('\"',   buffer));
+    assertEquals(2, JSON.encode('\n',   buffer));
+    assertEquals(2, JSON.encode('\r',   buffer));
+    assertEquals(2, JSON.encode('\t',   buffer));
+    assertEquals(2, JSON.encode('\f',   buffer));
+    assertEquals(2, JSON.encode('\b',   buffer));
+    assertEquals(6, JSON.encode(0x0000, buffer));
+    assertEquals(6, JSON.encode(0x001f, buffer));
+    assertEquals(1, JSON.encode(0x007f, buffer));
+    assertEquals(6, JSON.encode(0x2028, buffer));
+    assertEquals(6, JSON.encode(0x2029, buffer));
+    assertEquals("a'/\\\\\\\"\\n\\r\\t\\f\\b\\u0000\\u001f\u007f\\u2028\\u2029", buffer.toString());
+    // @formatter:on
+  }
+
+  /**
+   * Tests the {@link CharEncoder#HTML} character encoder and the {@link CharDecoder#HTML}
+   * character decoder.
+   */
+  @Test
+  public void test_HTML_encoder() {
+    final String text = "<a href=\"x?a=1&b='2'\">\u00e9\ud83d\ude00</a>";
+    final String html =
+        "&lt;a href=&quot;x?a=1&amp;b=&#39;2&#39;&quot;&gt;\u00e9\ud83d\ude00&lt;/a&gt;";
+    assertEquals(html, new LinearCharBuffer().appendEncoded(text, HTML).toString());
+    assertEquals(text, new LinearCharBuffer().appendDecoded(html, CharDecoder.HTML).toString());
+    // named and numeric references
+    assertEquals("<&>\"'\u00a0\u00e9\ud83d\ude00", new LinearCharBuffer()
+        .appendDecoded("&lt;&amp;&gt;&quot;&apos;&nbsp;&#233;&#x1F600;", CharDecoder.HTML)
+        .toString());
+    // invalid or unknown references are left as is
+    final String invalid = "& &; &#; &#x; &#0; &#xd800; &#x110000; &#12a; &unknown; &amp";
+    assertEquals(invalid,
+        new LinearCharBuffer().appendDecoded(invalid, CharDecoder.HTML).toString());
+  }
+
+  /**
+   * Tests the {@link CharEncoder#XML_TEXT} and {@link CharEncoder#XML_ATTRIBUTE} character
+   * encoders and the {@link CharDecoder#XML_TEXT} and {@link CharDecoder#XML_ATTRIBUTE}
+   * character decoders.
+   */
+  @Test
+  public void test_XML_encoders() {
+    final String text = "a < b && c > 'd'\t\"e\"\r\n";
+    final String xmlText = "a &lt; b &amp;&amp; c &gt; 'd'\t\"e\"\r\n";
+    final String xmlAttribute =
+        "a &lt; b &amp;&amp; c &gt; &apos;d&apos;&#9;&quot;e&quot;&#13;&#10;";
+    assertEquals(xmlText, new LinearCharBuffer().appendEncoded(text, XML_TEXT).toString());
+    assertEquals(xmlAttribute,
+        new LinearCharBuffer().appendEncoded(text, XML_ATTRIBUTE).toString());
+    assertEquals(text,
+        new LinearCharBuffer().appendDecoded(xmlText, CharDecoder.XML_TEXT).toString());
+    assertEquals(text, new LinearCharBuffer()
+        .appendDecoded(xmlAttribute, CharDecoder.XML_ATTRIBUTE).toString());
+  }
+
+  /**
+   * Tests the {@link CharEncoder#CSV} character encoder and the {@link CharDecoder#CSV}
+   * character decoder.
+   */
+  @Test
+  public void test_CSV_encoder() {
+    final String text = "say \"hi\", \"\"bye\"\"\n";
+    final String csv = "say \"\"hi\"\", \"\"\"\"bye\"\"\"\"\n";
+    assertEquals(csv, new LinearCharBuffer().appendEncoded(text, CSV).toString());
+    assertEquals(text, new LinearCharBuffer().appendDecoded(csv, CharDecoder.CSV).toString());
+  }
+
+  /**
+   * Tests the {@link CharEncoder#SHELL} character encoder and the {@link CharDecoder#SHELL}
+   * character decoder.
+   */
+  @Test
+  public void test_SHELL_encoder() {
+    final String text = "it's $HOME \\ 'quoted'";
+    final String shell = "it'\\''s $HOME \\ '\\''quoted'\\''";
+    assertEquals(shell, new LinearCharBuffer().appendEncoded(text, SHELL).toString());
+    assertEquals(text, new LinearCharBuffer().appendDecoded(shell, CharDecoder.SHELL).toString());
+  }
+
+  /**
+   * Tests the {@link CharBuffer#appendEncoded(CharSegment, CharEncoder)} method on a
+   * {@link LinearCharBuffer}, which scans unchanged characters in place, against a
+   * {@link PaginalCharBuffer}, which does not.
+   */
+  @Test
+  public void test_appendEncoded_inPlace() {
+    final Random random = new Random(0L);
+    final String alphabet = "abc xyz<>&\"'\u00e9\ud83d\ude00";
+    final CharEncoder[] encoders = {HTML, JSON, JAVA, CSV, UPPERCASE, IDENTITY};
+    for (int n = 0; n < 500; n++) {
+      final StringBuilder text = new StringBuilder();
+      final int clean = random.nextInt(100);
+      for (int i = random.nextInt(200); i > 0; i--) {
+        text.append(alphabet.charAt(random.nextInt(i > clean ? 7 : alphabet.length())));
+      }
+      final int threshold = 6 + random.nextInt(400);
+      for (CharEncoder encoder : encoders) {
+        final CharBuffer expected = new PaginalCharBuffer(threshold);
+        final CharBuffer actual = new LinearCharBuffer(random.nextInt(64), threshold);
+        actual.append("prefix");
+        expected.append("prefix");
+        boolean reached = false;
+        try {
+          expected.appendEncoded(text, encoder);
+        } catch (ThresholdReachedException e) {
+          reached = true;
+        }
+        if (reached) {
+          assertThrows(ThresholdReachedException.class, () -> actual.appendEncoded(text, encoder));
+        } else {
+          actual.appendEncoded(text, encoder);
+        }
+        assertEquals(expected.toString(), actual.toString());
+      }
+    }
+  }
+
+  /**
+   * Tests the {@link CharBuffer#appendEncoded(CharSequence, CharEncoder)} method with an encoder
+   * that encodes replacements into the same buffer.
+   */
+  @Test
+  public void test_appendEncoded_reentrant() {
+    final CharEncoder escaper = (ch, buffer) -> {
+      final int length = buffer.length();
+      buffer.appendEncoded(new StringBuilder("<").appendCodePoint(ch).append('>'), HTML);
+      return buffer.length() - length;
+    };
+    final CharEncoder encoder = CharEncoder.compile(UnicodeSet.fromElements("ab"), escaper);
+    assertEquals("ab&lt;x&gt;ab&lt;y&gt;", new LinearCharBuffer().appendEncoded("abxaby", encoder)
+        .toString());
+    assertEquals("ab&lt;x&gt;ab&lt;y&gt;", new PaginalCharBuffer().appendEncoded("abxaby", encoder)
+        .toString());
+  }
+
+  /**
+   * Tests the {@link CharEncoder#compile(UnicodeSet, Map, CharEncoder)} method.
+   */
+  @Test
+  public void test_compile() {
+    final Map<Integer, String> replacements = new HashMap<>();
+    replacements.put((int) '&', "&amp;");
+    replacements.put((int) 'a', "[a]");
+    replacements.put(0x2028, "&#8232;");
+    final CharEncoder encoder = CharEncoder.compile(UnicodeSet.PRINT, replacements, UCODE);
+    final CharBuffer buffer = new PaginalCharBuffer();
+    assertEquals(1, encoder.encode('b', buffer));
+    assertEquals(5, encoder.encode('&', buffer));
+    assertEquals(3, encoder.encode('a', buffer));
+    assertEquals(7, encoder.encode(0x2028, buffer));
+    assertEquals(6, encoder.encode(0x0001, buffer));
+    assertEquals(6, encoder.encode(0x00e9, buffer));
+    assertEquals(12, encoder.encode(0x1f600, buffer));
+    assertEquals("b&amp;[a]&#8232;\\u0001\\u00e9\\ud83d\\ude00", buffer.toString());
+    // runs of unchanged characters
+    final CharSegment segment = CharSegment.from("bcd&ef\u00e9");
+    assertEquals(3, encoder.skip(segment, 0, segment.length()));
+    assertEquals(3, encoder.skip(segment, 3, segment.length()));
+    assertEquals(6, encoder.skip(segment, 4, segment.length()));
+    assertEquals(2, encoder.skip(segment, 1, 2));
+    final char[] array = "bcdbcdbcd&ef\u00e9bcdbcdbcd".toCharArray();
+    assertEquals(9, encoder.skip(array, 0, array.length));
+    assertEquals(12, encoder.skip(array, 10, array.length));
+    assertEquals(array.length, encoder.skip(array, 13, array.length));
+    assertEquals(5, encoder.skip(array, 1, 5));
+    assertEquals("bcd&amp;ef\\u00e9",
+        new LinearCharBuffer().appendEncoded(segment, encoder).toString());
+    assertThrows(NullPointerException.class,
+        () -> CharEncoder.compile(null, Collections.emptyMap(), UCODE));
+    assertThrows(NullPointerException.class, () -> CharEncoder.compile(UnicodeSet.PRINT, null));
+  }
+
+  /**
+   * Tests the {@link CharBuffer#appendEncoded(CharSegment, CharEncoder)} method with the
+   * {@link CharEncoder#JAVA} encoder on random text.
+   */
+  @Test
+  public void test_appendEncoded_JAVA() {
+    final Random random = new Random(0L);
+    final char[] alphabet =
+        "abc xyz\\'\"\n\r\t\b\f\u0000\u007f\u00e9\u2028\ud83d\ude00".toCharArray();
+    for (int n = 0; n < 1000; n++) {
+      final StringBuilder text = new StringBuilder();
+      final int length = random.nextInt(100);
+      for (int i = 0; i < length; i++) {
+        text.append(random.nextInt(4) > 0 ? 'a' : alphabet[random.nextInt(alphabet.length)]);
+      }
+      final String expected = escapeJava(text);
+      assertEquals(expected, new LinearCharBuffer().appendEncoded(text, JAVA).toString());
+      assertEquals(expected, new PaginalCharBuffer(Integer.MAX_VALUE, 32)
+          .appendEncoded(CharSegment.from(text.toString()), JAVA).toString());
+      assertEquals(text.toString(),
+          new PaginalCharBuffer().appendEncoded(text, IDENTITY).toString());
+    }
+  }
+
+  private static String escapeJava(CharSequence text) {
+    final StringBuilder result = new StringBuilder();
+    for (int i = 0; i < text.length(); i++) {
+      final char ch = text.charAt(i);
+      switch (ch) {
+      case '\\': result.append("\\\\"); break;
+      case '\'': result.append("\\'"); break;
+      case '\"': result.append("\\\""); break;
+      case '\n': result.append("\\n"); break;
+      case '\r': result.append("\\r"); break;
+      case '\t': result.append("\\t"); break;
+      case '\b': result.append("\\b"); break;
+      case '\f': result.append("\\f"); break;
+      default:
+        if (Character.isISOControl(ch)) {
+          result.append(String.format("\\u%04x", (int) ch));
+        } else {
+          result.append(ch);
+        }
+      }
+    }
+    return result.toString();
+  }
+
 }
@@ -0,0 +1,138 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.io.StringWriter;
+
+import org.junit.Test;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link CompactCharBuffer} class.
+ *
+ * @author Fox Mulder
+ */
+public class CompactCharBufferTest {
+
+  /**
+   * Tests the {@link CompactCharBuffer#append(char)} method and inflation on the first non Latin-1
+   * character.
+   */
+  @Test
+  public void test_append_char() {
+    final StringBuilder expected = new StringBuilder();
+    final CompactCharBuffer buffer = new CompactCharBuffer(4, 1000);
+    for (int n = 0; n < 500; n++) {
+      expected.append((char) ('a' + n % 26)).append('\u00ff');
+      buffer.append((char) ('a' + n % 26)).append('\u00ff');
+    }
+    assertTrue(buffer.isCompact());
+    assertEquals(expected.toString(), buffer.toString());
+    assertEquals('\u00ff', buffer.charAt(999));
+    assertEquals('\u00ff', buffer.codePointAt(1));
+    assertEquals(999, buffer.indexOf('\u00ff', 998, 1000));
+    assertEquals(-1, buffer.indexOf('\u01ff'));
+    buffer.reset();
+    buffer.append("ab").append('\u0161').append('c');
+    assertFalse(buffer.isCompact());
+    assertEquals("ab\u0161c", buffer.toString());
+    assertEquals(2, buffer.indexOf('\u0161'));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(4));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(-1));
+  }
+
+  /**
+   * Tests the {@link CompactCharBuffer#append(CharSegment)} method and inflation in the middle of
+   * a segment.
+   */
+  @Test
+  public void test_append_CharSegment() {
+    final StringBuilder expected = new StringBuilder();
+    final CompactCharBuffer buffer = new CompactCharBuffer();
+    for (int n = 0; n < 1000; n++) {
+      expected.append("segment\u00e9").append(n);
+      buffer.append("segment\u00e9").appendDec(n);
+    }
+    assertTrue(buffer.isCompact());
+    assertEquals(expected.toString(), buffer.toString());
+    // inflate after the transfer buffer size
+    final StringBuilder latin1 = new StringBuilder();
+    for (int n = 0; n < 3000; n++) {
+      latin1.append((char) (n & 0xff));
+    }
+    final String text = latin1 + "\ud83d\ude00" + latin1;
+    buffer.append(text);
+    expected.append(text);
+    assertFalse(buffer.isCompact());
+    assertEquals(expected.toString(), buffer.toString());
+    assertEquals(0x1f600, buffer.codePointAt(expected.indexOf("\ud83d")));
+    assertEquals(expected.substring(100, 16000), buffer.substring(100, 16000));
+    final char[] target = new char[500];
+    buffer.copyTo(9000, 9500, target, 0);
+    assertEquals(expected.substring(9000, 9500), new String(target));
+    buffer.append("tail");
+    assertEquals(expected.append("tail").toString(), buffer.toString());
+  }
+
+  /**
+   * Tests that partial contents are appended when threshold is exceeded.
+   */
+  @Test
+  public void test_threshold() {
+    final CompactCharBuffer buffer = new CompactCharBuffer(2, 5);
+    assertThrows(ThresholdReachedException.class, () -> buffer.append("abc\u0161efgh"));
+    assertEquals("abc\u0161e", buffer.toString());
+    assertThrows(ThresholdReachedException.class, () -> buffer.append('x'));
+    assertEquals(0, new CompactCharBuffer(0, 0).append("").length());
+    assertThrows(IllegalArgumentException.class, () -> new CompactCharBuffer(-1));
+  }
+
+  /**
+   * Tests the {@link CompactCharBuffer#writeTo(CharSink)} method in both forms.
+   */
+  @Test
+  public void test_writeTo() throws Exception {
+    final CompactCharBuffer buffer = new CompactCharBuffer();
+    final StringWriter compact = new StringWriter();
+    buffer.append("caf\u00e9").writeTo(compact);
+    assertEquals("caf\u00e9", compact.toString());
+    final StringWriter inflated = new StringWriter();
+    buffer.append(" \u20ac").writeTo(inflated);
+    assertEquals("caf\u00e9 \u20ac", inflated.toString());
+  }
+
+  /**
+   * Tests the {@link CompactCharBuffer#reset()} and {@link CompactCharBuffer#clear()} methods.
+   */
+  @Test
+  public void test_reset_clear() {
+    final CompactCharBuffer buffer = new CompactCharBuffer();
+    buffer.append("first \u20ac");
+    buffer.reset();
+    assertFalse(buffer.isCompact());
+    assertEquals("second", buffer.append("second").toString());
+    buffer.clear();
+    assertTrue(buffer.isCompact());
+    assertEquals(0, buffer.length());
+    assertEquals("third", buffer.append("third").toString());
+  }
+
+}
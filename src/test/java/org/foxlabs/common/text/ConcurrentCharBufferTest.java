@@ -0,0 +1,201 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import org.junit.Test;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link ConcurrentCharBuffer} class.
+ *
+ * @author Fox Mulder
+ */
+public class ConcurrentCharBufferTest {
+
+  /**
+   * Tests the {@link ConcurrentCharBuffer#append(CharSegment)} method with multiple writers and a
+   * concurrent reader.
+   */
+  @Test
+  public void test_append_concurrent() throws Exception {
+    final int writers = 4;
+    final int records = 5000;
+    final ConcurrentCharBuffer buffer = new ConcurrentCharBuffer(Integer.MAX_VALUE, 64);
+    final AtomicBoolean done = new AtomicBoolean();
+    final Throwable[] failure = new Throwable[1];
+    final Thread reader = new Thread(() -> {
+      try {
+        while (!done.get()) {
+          final int length = buffer.length();
+          if (length > 0) {
+            assertEquals('\n', buffer.charAt(length - 1));
+          }
+        }
+      } catch (Throwable e) {
+        failure[0] = e;
+      }
+    });
+    final Thread[] threads = new Thread[writers];
+    for (int t = 0; t < writers; t++) {
+      final int id = t;
+      threads[t] = new Thread(() -> {
+        final CharBuffer record = new LinearCharBuffer();
+        for (int n = 0; n < records; n++) {
+          record.reset();
+          record.append('T').appendDec(id).append('-').appendDec(n).append('\n');
+          buffer.append(record);
+        }
+      });
+    }
+    reader.start();
+    for (Thread thread : threads) {
+      thread.start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    done.set(true);
+    reader.join();
+    assertNull(failure[0]);
+    assertEquals(buffer.reserved(), buffer.length());
+    final String[] lines = buffer.toString().split("\n");
+    assertEquals(writers * records, lines.length);
+    final Set<String> unique = new HashSet<>();
+    for (String line : lines) {
+      assertTrue(line, line.matches("T\\d-\\d+"));
+      assertTrue(line, unique.add(line));
+    }
+  }
+
+  /**
+   * Tests reading methods of the {@link ConcurrentCharBuffer} class.
+   */
+  @Test
+  public void test_read() throws Exception {
+    final ConcurrentCharBuffer buffer = new ConcurrentCharBuffer(1000, 1);
+    assertEquals(PaginalCharBuffer.MIN_DEPTH, buffer.depth());
+    assertEquals("", buffer.toString());
+    final StringBuilder expected = new StringBuilder();
+    for (int n = 0; n < 20; n++) {
+      final String record = "record \ud83d\ude00 " + n + ";";
+      assertEquals(expected.length(), buffer.append(record));
+      expected.append(record);
+    }
+    assertEquals(expected.toString(), buffer.toString());
+    assertEquals(expected.substring(30, 100), buffer.subSequence(30, 100).toString());
+    assertEquals(0x1f600, buffer.codePointAt(7));
+    assertEquals('\ude00', buffer.codePointAt(8));
+    final char[] target = new char[70];
+    buffer.copyTo(30, 100, target, 0);
+    assertEquals(expected.substring(30, 100), new String(target));
+    final StringBuilder sink = new StringBuilder();
+    assertEquals(expected.length(), buffer.writeTo((chars, offset, count) -> {
+      sink.append(chars, offset, count);
+    }));
+    assertEquals(expected.toString(), sink.toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(buffer.length()));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.copyTo(0, 1000, new char[1000], 0));
+    buffer.reset();
+    assertEquals(0, buffer.length());
+    assertEquals(0, buffer.append("abc"));
+    assertEquals("abc", buffer.toString());
+  }
+
+  /**
+   * Tests the {@link ConcurrentCharBuffer#append(CharSegment)} method with empty records.
+   */
+  @Test
+  public void test_append_empty() throws Exception {
+    final ConcurrentCharBuffer buffer = new ConcurrentCharBuffer(10);
+    assertEquals(0, buffer.append(""));
+    assertEquals(0, buffer.append("xxxxx"));
+    assertEquals(5, buffer.append(CharSegment.EMPTY));
+    assertEquals(5, buffer.append("yyyyy"));
+    assertEquals(10, buffer.append(""));
+    assertEquals(10, buffer.reserved());
+    assertEquals("xxxxxyyyyy", buffer.toString());
+    // empty records interleaved with concurrent ones
+    final ConcurrentCharBuffer shared = new ConcurrentCharBuffer();
+    final Thread[] threads = new Thread[4];
+    for (int t = 0; t < threads.length; t++) {
+      threads[t] = new Thread(() -> {
+        for (int n = 0; n < 5000; n++) {
+          shared.append(n % 2 == 0 ? "" : "record\n");
+        }
+      });
+      threads[t].start();
+    }
+    for (Thread thread : threads) {
+      thread.join();
+    }
+    assertEquals(threads.length * 2500 * 7, shared.length());
+    assertEquals(shared.reserved(), shared.length());
+  }
+
+  /**
+   * Tests the {@link ConcurrentCharBuffer#append(CharSegment)} method when threshold is reached.
+   */
+  @Test
+  public void test_append_threshold() {
+    final ConcurrentCharBuffer buffer = new ConcurrentCharBuffer(10);
+    assertEquals(0, buffer.append("12345"));
+    assertThrows(ThresholdReachedException.class, () -> buffer.append("123456"));
+    assertEquals(5, buffer.reserved());
+    assertEquals(5, buffer.append("12345"));
+    assertEquals("1234512345", buffer.toString());
+    assertThrows(ThresholdReachedException.class, () -> buffer.append("1"));
+  }
+
+  /**
+   * Tests the {@link ConcurrentCharBuffer#append(CharSegment)} method when a record fails to copy.
+   */
+  @Test
+  public void test_append_failure() {
+    final ConcurrentCharBuffer buffer = new ConcurrentCharBuffer();
+    final CharSegment record = CharSegment.from("abc");
+    final CharSegment failing = new CharSegment() {
+      @Override public int length() {
+        return 3;
+      }
+      @Override public char charAt(int index) {
+        return record.charAt(index);
+      }
+      @Override public int codePointAt(int index) {
+        return record.codePointAt(index);
+      }
+      @Override public CharSegment subSequence(int start, int end) {
+        return record.subSequence(start, end);
+      }
+      @Override public void copyTo(int start, int end, char[] target, int offset) {
+        throw new IllegalStateException();
+      }
+    };
+    buffer.append(record);
+    assertThrows(IllegalStateException.class, () -> buffer.append(failing));
+    buffer.append(record);
+    assertEquals("abc   abc", buffer.toString());
+  }
+
+}
@@ -0,0 +1,102 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link CountingCharBuffer} class.
+ *
+ * @author Fox Mulder
+ */
+public class CountingCharBufferTest {
+
+  /**
+   * Tests the {@link CountingCharBuffer#measure(Object, int)} method against the actual length of
+   * a string representation.
+   */
+  @Test
+  public void test_measure() {
+    final Map<String, Object> map = new HashMap<>();
+    map.put("list", Arrays.asList(1, -2L, 3.5d, 'c', "text\n\ud83d\ude00"));
+    map.put("array", new int[][] {{1, 2}, {Integer.MIN_VALUE}});
+    map.put("uuid", new UUID(1L, 2L));
+    final Object[] objects = {null, "", 0, Long.MIN_VALUE, 1.0e-10f, true, map,
+        new byte[] {1, 2, 3}, new Object[] {"nested", new Object[] {1.5}}};
+    for (Object object : objects) {
+      final String expected = new LinearCharBuffer().appendObject(object).toString();
+      assertEquals(expected.length(), CountingCharBuffer.measure(object, Integer.MAX_VALUE));
+      assertEquals(Math.min(expected.length(), 5), CountingCharBuffer.measure(object, 5));
+    }
+  }
+
+  /**
+   * Tests the {@link CountingCharBuffer#append(char)} and
+   * {@link CountingCharBuffer#append(CharSegment)} methods.
+   */
+  @Test
+  public void test_append() {
+    final CountingCharBuffer buffer = new CountingCharBuffer(10);
+    assertEquals("", buffer.toString());
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(0));
+    buffer.append('a').append("bcd").append(0x1f600).appendDec(12);
+    assertEquals(8, buffer.length());
+    assertEquals(2, buffer.remaining());
+    assertThrows(UnsupportedOperationException.class, () -> buffer.charAt(0));
+    assertThrows(UnsupportedOperationException.class, () -> buffer.toString());
+    assertThrows(ThresholdReachedException.class, () -> buffer.append("abc"));
+    assertEquals(10, buffer.length());
+    assertThrows(ThresholdReachedException.class, () -> buffer.append('a'));
+    buffer.reset();
+    assertEquals(0, buffer.length());
+  }
+
+  /**
+   * Tests the {@link ToString.Adapter#toString()} method with the
+   * {@link ToString.Adapter#presize()} method overridden.
+   */
+  @Test
+  public void test_Adapter_presize() {
+    final ToString.Adapter adapter = new ToString.Adapter() {
+      @Override public CharBuffer toString(CharBuffer buffer) {
+        if (!(buffer instanceof CountingCharBuffer)) {
+          // exact capacity has been allocated
+          assertEquals(1000 * 4, ((LinearCharBuffer) buffer).capacity());
+        }
+        for (int n = 0; n < 1000; n++) {
+          buffer.appendHex((short) n);
+        }
+        return buffer;
+      }
+      @Override protected boolean presize() {
+        return true;
+      }
+    };
+    assertEquals(4000, adapter.toString().length());
+  }
+
+}
@@ -0,0 +1,111 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import org.junit.Test;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link DirectCharBuffer} class.
+ *
+ * @author Fox Mulder
+ */
+public class DirectCharBufferTest {
+
+  /**
+   * Tests the {@link DirectCharBuffer#append(char)} method across page boundaries.
+   */
+  @Test
+  public void test_append_char() {
+    final StringBuilder expected = new StringBuilder();
+    final DirectCharBuffer buffer = new DirectCharBuffer(5000, DirectCharBuffer.MIN_DEPTH);
+    for (int n = 0; n < 5000; n++) {
+      expected.append((char) ('a' + n % 26));
+      buffer.append((char) ('a' + n % 26));
+    }
+    assertEquals(5000, buffer.length());
+    assertEquals(expected.toString(), buffer.toString());
+    assertEquals('a', buffer.charAt(0));
+    assertEquals(expected.charAt(4999), buffer.charAt(4999));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(5000));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(-1));
+    assertThrows(ThresholdReachedException.class, () -> buffer.append('x'));
+  }
+
+  /**
+   * Tests the {@link DirectCharBuffer#append(CharSegment)} method across page boundaries.
+   */
+  @Test
+  public void test_append_CharSegment() {
+    final StringBuilder expected = new StringBuilder();
+    final DirectCharBuffer buffer = new DirectCharBuffer();
+    for (int n = 0; n < 10000; n++) {
+      expected.append("segment").append(n);
+      buffer.append("segment").appendDec(n);
+    }
+    assertEquals(expected.toString(), buffer.toString());
+    assertEquals(expected.substring(1000, 50000), buffer.substring(1000, 50000));
+    final char[] target = new char[20000];
+    buffer.copyTo(16380, 36380, target, 0);
+    assertEquals(expected.substring(16380, 36380), new String(target));
+  }
+
+  /**
+   * Tests that partial contents are appended when threshold is exceeded.
+   */
+  @Test
+  public void test_threshold() {
+    final DirectCharBuffer buffer = new DirectCharBuffer(5);
+    assertThrows(ThresholdReachedException.class, () -> buffer.append("abcdefgh"));
+    assertEquals("abcde", buffer.toString());
+    assertEquals(0, new DirectCharBuffer(0).append("").length());
+    assertThrows(IllegalArgumentException.class, () -> new DirectCharBuffer(-1));
+    assertThrows(IllegalArgumentException.class, () -> new DirectCharBuffer(1, 0));
+  }
+
+  /**
+   * Tests the {@link DirectCharBuffer#codePointAt(int)} method.
+   */
+  @Test
+  public void test_codePointAt() {
+    final DirectCharBuffer buffer = new DirectCharBuffer(2048, DirectCharBuffer.MIN_DEPTH);
+    buffer.appendIndent('a', DirectCharBuffer.MIN_DEPTH - 1).append(0x1f600);
+    assertEquals(0x1f600, buffer.codePointAt(DirectCharBuffer.MIN_DEPTH - 1));
+    assertEquals(Character.lowSurrogate(0x1f600), buffer.codePointAt(DirectCharBuffer.MIN_DEPTH));
+    assertEquals('a', buffer.codePointAt(0));
+  }
+
+  /**
+   * Tests the {@link DirectCharBuffer#reset()} and {@link DirectCharBuffer#clear()} methods.
+   */
+  @Test
+  public void test_reset_clear() {
+    final DirectCharBuffer buffer = new DirectCharBuffer();
+    buffer.append("first");
+    buffer.reset();
+    assertEquals(0, buffer.length());
+    assertEquals("second", buffer.append("second").toString());
+    buffer.clear();
+    assertEquals(0, buffer.length());
+    assertEquals("third", buffer.append("third").toString());
+    buffer.clear();
+  }
+
+}
@@ -0,0 +1,107 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link FlushingCharBuffer} class.
+ *
+ * @author Fox Mulder
+ */
+public class FlushingCharBufferTest {
+
+  /**
+   * Tests automatic draining of the {@link FlushingCharBuffer}.
+   */
+  @Test
+  public void test_drain() throws IOException {
+    final StringWriter writer = new StringWriter();
+    final FlushingCharBuffer buffer = new FlushingCharBuffer(CharSink.from(writer), 16);
+    final List<Integer> list = new ArrayList<>();
+    for (int i = 0; i < 1000; i++) {
+      list.add(i);
+    }
+    buffer.appendObject(list);
+    assertTrue(buffer.length() <= 16);
+    assertEquals(list.toString().length(), buffer.totalLength());
+    buffer.append(CharSegment.from(String.join("", Collections.nCopies(10, "abcde"))));
+    buffer.close();
+    assertEquals(0, buffer.length());
+    assertEquals(list.toString() + String.join("", Collections.nCopies(10, "abcde")),
+        writer.toString());
+  }
+
+  /**
+   * Tests that surrogate pairs are not split between writes to the sink.
+   */
+  @Test
+  public void test_drain_surrogates() throws IOException {
+    final StringBuilder chunks = new StringBuilder();
+    final FlushingCharBuffer buffer = new FlushingCharBuffer((chars, offset, count) -> {
+      assertFalse(Character.isHighSurrogate(chars[offset + count - 1]));
+      chunks.append(chars, offset, count);
+    }, 3);
+    for (int i = 0; i < 10; i++) {
+      buffer.append('a').append(0x2070e);
+    }
+    assertEquals(0x2070e, buffer.codePointAt(buffer.length() - 2));
+    buffer.flush();
+    assertEquals(String.join("", Collections.nCopies(10, "a\ud841\udf0e")), chunks.toString());
+    assertEquals(30, buffer.totalLength());
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(0));
+  }
+
+  /**
+   * Tests that I/O errors are rethrown as {@link UncheckedIOException}.
+   */
+  @Test
+  public void test_drain_error() {
+    final FlushingCharBuffer buffer = new FlushingCharBuffer((chars, offset, count) -> {
+      throw new IOException();
+    }, 2);
+    buffer.append("ab");
+    assertThrows(UncheckedIOException.class, () -> buffer.append('c'));
+    assertThrows(IllegalArgumentException.class, () -> new FlushingCharBuffer(CharSink.from(new StringWriter()), 1));
+  }
+
+  /**
+   * Tests the {@link CharSink#from(java.io.OutputStream, java.nio.charset.Charset)} sink.
+   */
+  @Test
+  public void test_CharSink_OutputStream() throws IOException {
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    final CharSink sink = CharSink.from(stream, StandardCharsets.UTF_8);
+    // surrogate pair split between writes
+    sink.write(new char[] {'a', '\ud841'}, 0, 2);
+    sink.write(new char[] {'\udf0e', 'b'}, 0, 2);
+    sink.close();
+    assertArrayEquals("a\ud841\udf0eb".getBytes(StandardCharsets.UTF_8), stream.toByteArray());
+  }
+
+}
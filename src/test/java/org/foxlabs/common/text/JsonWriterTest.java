@@ -0,0 +1,129 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link JsonWriter} class.
+ *
+ * @author Fox Mulder
+ */
+public class JsonWriterTest {
+
+  /**
+   * Tests writing of a compact JSON document.
+   */
+  @Test
+  public void test_compact() {
+    final JsonWriter writer = new JsonWriter(new LinearCharBuffer());
+    assertFalse(writer.isComplete());
+    writer.beginObject()
+        .name("null").nullValue()
+        .name("bool").value(true)
+        .name("int").value(-42)
+        .name("long").value(Long.MIN_VALUE)
+        .name("float").value(1.5f)
+        .name("double").value(0.1)
+        .name("char").value('"')
+        .name("string").value("a\"b\\c\n\u0001\u2028\ud83d\ude00")
+        .name("empty").beginArray().endArray()
+        .name("array").beginArray()
+            .value(1).beginObject().endObject().value((String) null)
+            .endArray()
+        .name("raw").rawValue("{\"x\":1}")
+        .endObject();
+    assertTrue(writer.isComplete());
+    assertEquals("{\"null\":null,\"bool\":true,\"int\":-42,\"long\":-9223372036854775808,"
+        + "\"float\":1.5,\"double\":0.1,\"char\":\"\\\"\","
+        + "\"string\":\"a\\\"b\\\\c\\n\\u0001\\u2028\ud83d\ude00\","
+        + "\"empty\":[],\"array\":[1,{},null],\"raw\":{\"x\":1}}", writer.buffer().toString());
+  }
+
+  /**
+   * Tests writing of a pretty printed JSON document.
+   */
+  @Test
+  public void test_pretty() {
+    final JsonWriter writer = new JsonWriter(new LinearCharBuffer(), 2);
+    writer.beginObject()
+        .name("id").value(1)
+        .name("tags").beginArray().value("a").value("b").endArray()
+        .name("empty").beginObject().endObject()
+        .endObject();
+    assertEquals("{\n"
+        + "  \"id\": 1,\n"
+        + "  \"tags\": [\n"
+        + "    \"a\",\n"
+        + "    \"b\"\n"
+        + "  ],\n"
+        + "  \"empty\": {}\n"
+        + "}", writer.buffer().toString());
+  }
+
+  /**
+   * Tests that the writer rejects invalid sequences of tokens and values.
+   */
+  @Test
+  public void test_invalid() {
+    final CharBuffer buffer = new LinearCharBuffer();
+    assertThrows(IllegalStateException.class, () -> new JsonWriter(buffer).name("a"));
+    assertThrows(IllegalStateException.class, () -> new JsonWriter(buffer).endArray());
+    assertThrows(IllegalStateException.class, () -> new JsonWriter(buffer).beginObject().value(1));
+    assertThrows(IllegalStateException.class,
+        () -> new JsonWriter(buffer).beginObject().endArray());
+    assertThrows(IllegalStateException.class,
+        () -> new JsonWriter(buffer).beginObject().name("a").endObject());
+    assertThrows(IllegalStateException.class,
+        () -> new JsonWriter(buffer).beginObject().name("a").name("b"));
+    assertThrows(IllegalStateException.class, () -> new JsonWriter(buffer).beginArray().name("a"));
+    assertThrows(IllegalStateException.class, () -> new JsonWriter(buffer).value(1).value(2));
+    assertThrows(IllegalArgumentException.class, () -> new JsonWriter(buffer).value(Double.NaN));
+    assertThrows(IllegalArgumentException.class,
+        () -> new JsonWriter(buffer).value(Float.POSITIVE_INFINITY));
+    assertThrows(IllegalArgumentException.class, () -> new JsonWriter(buffer, -1));
+    assertThrows(NullPointerException.class, () -> new JsonWriter(null));
+  }
+
+  /**
+   * Tests deep nesting and reuse of the writer.
+   */
+  @Test
+  public void test_nesting() {
+    final JsonWriter writer = new JsonWriter(new LinearCharBuffer());
+    for (int i = 0; i < 100; i++) {
+      writer.beginArray();
+    }
+    for (int i = 0; i < 100; i++) {
+      writer.endArray();
+    }
+    assertTrue(writer.isComplete());
+    writer.reset().value("x");
+    assertTrue(writer.isComplete());
+    final StringBuilder expected = new StringBuilder();
+    for (int i = 0; i < 100; i++) {
+      expected.append('[');
+    }
+    for (int i = 0; i < 100; i++) {
+      expected.append(']');
+    }
+    assertEquals(expected.append("\"x\"").toString(), writer.buffer().toString());
+  }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import java.nio.file.Files;
+
+import org.junit.Test;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link MappedCharBuffer} class.
+ *
+ * @author Fox Mulder
+ */
+public class MappedCharBufferTest {
+
+  /**
+   * Tests appending across region boundaries and the {@link CharBuffer} contract.
+   */
+  @Test
+  public void test_append() throws Exception {
+    final StringBuilder expected = new StringBuilder();
+    try (MappedCharBuffer buffer = new MappedCharBuffer(100000, MappedCharBuffer.MIN_DEPTH)) {
+      for (int n = 0; buffer.remaining() >= 20; n++) {
+        expected.append("region").append(n).append('\n');
+        buffer.append("region").appendDec(n).append('\n');
+      }
+      assertEquals(100000, buffer.threshold());
+      assertEquals(expected.length(), buffer.length());
+      assertEquals(expected.toString(), buffer.toString());
+      assertEquals(expected.charAt(54321), buffer.charAt(54321));
+      assertEquals(expected.substring(1020, 3100), buffer.substring(1020, 3100));
+      final char[] target = new char[4096];
+      buffer.copyTo(2000, 6096, target, 0);
+      assertEquals(expected.substring(2000, 6096), new String(target));
+      assertTrue(Files.size(buffer.file()) >= 2L * buffer.length());
+    }
+  }
+
+  /**
+   * Tests that partial contents are appended when threshold is exceeded.
+   */
+  @Test
+  public void test_threshold() throws Exception {
+    try (MappedCharBuffer buffer = new MappedCharBuffer(3)) {
+      assertThrows(ThresholdReachedException.class, () -> buffer.append("abcdef"));
+      assertEquals("abc", buffer.toString());
+    }
+  }
+
+  /**
+   * Tests the {@link MappedCharBuffer#clear()} and {@link MappedCharBuffer#close()} methods.
+   */
+  @Test
+  public void test_clear_close() throws Exception {
+    final MappedCharBuffer buffer = new MappedCharBuffer();
+    buffer.append("some text");
+    buffer.clear();
+    assertEquals(0, buffer.length());
+    assertEquals(0L, Files.size(buffer.file()));
+    assertEquals("another text", buffer.append("another text").toString());
+    buffer.close();
+    assertFalse(Files.exists(buffer.file()));
+  }
+
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.math.BigDecimal;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.Locale;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link MessageTemplate} class.
+ *
+ * @author Fox Mulder
+ */
+public class MessageTemplateTest {
+
+  private static final Locale[] LOCALES = {Locale.ROOT, Locale.US, Locale.GERMANY, Locale.FRANCE,
+      Locale.forLanguageTag("hi-IN"), Locale.forLanguageTag("th-TH-u-nu-thai"),
+      Locale.forLanguageTag("ar-EG")};
+
+  private static final String[] PATTERNS = {
+      "",
+      "no arguments",
+      "{0}",
+      "{0} and {1}, again {0}; missing {5}",
+      "It''s '{quoted}' {0} '{1}'''",
+      "{0,number} / {0,number,integer} / {0,number,percent} / {0,number,currency}",
+      "{0,number,#,##0.00} / {0, number, 000} / {1, number , integer }",
+      "{1,date} {1,date,short} {1,time,long} {1,date,yyyy-MM-dd'T'HH:mm}",
+      "{0,choice,-1#negative|0#no files|1#one file|1<{0,number,integer} files of {2}}",
+      "{0,choice,0#none|1#'{'literal'}'}"
+  };
+
+  private static final Object[][] ARGUMENTS = {
+      {0, new Date(0L), "text"},
+      {7, new Date(1234567890123L), null},
+      {-1234567, new Date(-1L), 'c'},
+      {Long.MAX_VALUE, null, 1.5d},
+      {Long.MIN_VALUE, new Date(0L), new BigDecimal("1234.5")},
+      {(short) 1000, new Date(0L), Arrays.asList(1, 2)},
+      {(byte) -5, new Date(0L), new StringBuilder("builder")},
+      {12345.678d, new Date(0L), 42L},
+      {null, null, null},
+      {}
+  };
+
+  /**
+   * Tests the {@link MessageTemplate#format(Object...)} method against the
+   * {@link MessageFormat#format(Object)} method.
+   */
+  @Test
+  public void test_format() {
+    for (Locale locale : LOCALES) {
+      for (String pattern : PATTERNS) {
+        final MessageTemplate template = MessageTemplate.compile(pattern, locale);
+        final MessageFormat format = new MessageFormat(pattern, locale);
+        for (Object[] args : ARGUMENTS) {
+          String expected;
+          try {
+            expected = format.format(args);
+          } catch (IllegalArgumentException e) {
+            assertThrows(IllegalArgumentException.class, () -> template.format(args));
+            continue;
+          }
+          assertEquals(locale + ": " + pattern, expected, template.format(args));
+        }
+        assertEquals(format.format(null), template.format((Object[]) null));
+      }
+    }
+  }
+
+  /**
+   * Tests the {@link MessageTemplate#format(CharBuffer, Object...)} method.
+   */
+  @Test
+  public void test_format_CharBuffer() {
+    final MessageTemplate template = MessageTemplate.compile("{0} has {1,number} items", Locale.US);
+    final CharBuffer buffer = new LinearCharBuffer().append('>');
+    final ToString object = (out) -> out.append("cart");
+    assertSame(buffer, template.format(buffer, object, 123456));
+    assertEquals(">cart has 123,456 items", buffer.toString());
+    assertEquals("{0} items", MessageTemplate.compile("{0} items", Locale.US).pattern());
+  }
+
+  /**
+   * Tests the {@link MessageTemplate#format(Object...)} method when a pooled buffer is exactly
+   * full before an empty literal is appended.
+   */
+  @Test
+  public void test_format_fullBuffer() {
+    final String text16 = "0123456789abcdef";
+    final String text32 = text16 + text16;
+    assertEquals(text32, MessageTemplate.compile("{0}", Locale.ROOT).format(text32));
+    assertEquals(text32, MessageTemplate.compile("{0}{1}", Locale.ROOT).format(text16, text16));
+    for (String tag : new String[] {"wo-SN", "ha-NE", "ff-Adlm-GN"}) {
+      final Locale locale = Locale.forLanguageTag(tag);
+      final String pattern = "{0,number,currency}";
+      assertEquals(new MessageFormat(pattern, locale).format(new Object[] {Long.MIN_VALUE + 1L}),
+          MessageTemplate.compile(pattern, locale).format(Long.MIN_VALUE + 1L));
+    }
+  }
+
+  /**
+   * Tests the {@link MessageTemplate#compile(String, Locale)} method with invalid patterns.
+   */
+  @Test
+  public void test_compile_invalid() {
+    final String[] patterns = {"{0", "{0,number", "{x}", "{-1}", "{0,unknown}", "{0,date,qqq}",
+        "{0,number,#.#.#}"};
+    for (String pattern : patterns) {
+      assertThrows(pattern, IllegalArgumentException.class,
+          () -> new MessageFormat(pattern, Locale.US));
+      assertThrows(pattern, IllegalArgumentException.class,
+          () -> MessageTemplate.compile(pattern, Locale.US));
+    }
+    assertThrows(NullPointerException.class, () -> MessageTemplate.compile(null, Locale.US));
+    assertThrows(NullPointerException.class, () -> MessageTemplate.compile("", null));
+  }
+
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Random;
+import java.util.UUID;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link ObjectFormatters} class.
+ *
+ * @author Fox Mulder
+ */
+public class ObjectFormattersTest {
+
+  /**
+   * Tests the built-in {@code UUID} formatter.
+   */
+  @Test
+  public void test_UUID() {
+    final Random random = new Random(0L);
+    final UUID[] uuids = {
+        new UUID(0L, 0L), new UUID(-1L, -1L), UUID.randomUUID(),
+        new UUID(random.nextLong(), random.nextLong())};
+    for (UUID uuid : uuids) {
+      assertEquals(uuid.toString(), new LinearCharBuffer().appendObject(uuid).toString());
+    }
+  }
+
+  /**
+   * Tests the built-in {@code Instant} formatter.
+   */
+  @Test
+  public void test_Instant() {
+    final Random random = new Random(0L);
+    for (int n = 0; n < 10000; n++) {
+      final long seconds = random.nextLong() % 400000000000L;
+      final int nano = n % 4 == 0 ? 0 : n % 4 == 1 ? random.nextInt(1000) * 1000000
+          : n % 4 == 2 ? random.nextInt(1000000) * 1000 : random.nextInt(1000000000);
+      final Instant instant = Instant.ofEpochSecond(seconds, nano);
+      assertEquals(instant.toString(), new LinearCharBuffer().appendObject(instant).toString());
+    }
+    final Instant[] instants = {
+        Instant.EPOCH, Instant.MIN, Instant.MAX, Instant.parse("0000-01-01T00:00:00Z"),
+        Instant.parse("9999-12-31T23:59:59.999999999Z"), Instant.parse("2000-02-29T12:00:00Z"),
+        Instant.parse("1969-12-31T23:59:59.001Z"), Instant.parse("-0001-12-31T23:59:59Z")};
+    for (Instant instant : instants) {
+      assertEquals(instant.toString(), new LinearCharBuffer().appendObject(instant).toString());
+    }
+  }
+
+  /**
+   * Tests the {@link ObjectFormatters#register(Class, ObjectFormatter)} and
+   * {@link ObjectFormatters#unregister(Class)} methods.
+   */
+  @Test
+  public void test_register() {
+    final Object[] graph = {new BigDecimal("1.50"), 42, Collections.singleton(7L)};
+    assertEquals("[1.50, 42, [7L]]", new LinearCharBuffer().appendObject(graph).toString());
+    ObjectFormatters.register(Number.class,
+        (buffer, n) -> buffer.append('#').appendDec(n.intValue()));
+    try {
+      // registered formatter takes precedence over the built-in ones
+      assertEquals("[#1, #42, [#7]]", new LinearCharBuffer().appendObject(graph).toString());
+      ObjectFormatters.register(Comparable.class, (buffer, c) -> buffer.append("cmp"));
+      // superclass takes precedence over interface
+      assertEquals("#1", new LinearCharBuffer().appendObject(BigDecimal.ONE).toString());
+      assertEquals("cmp", new LinearCharBuffer().appendObject('c').toString());
+      assertTrue(ObjectFormatters.unregister(Comparable.class));
+      assertFalse(ObjectFormatters.unregister(Comparable.class));
+      assertEquals("'c'", new LinearCharBuffer().appendObject('c').toString());
+    } finally {
+      ObjectFormatters.unregister(Number.class);
+    }
+    assertEquals("[1.50, 42, [7L]]", new LinearCharBuffer().appendObject(graph).toString());
+    assertNotNull(ObjectFormatters.get(Arrays.class));
+    assertThrows(NullPointerException.class, () -> ObjectFormatters.register(UUID.class, null));
+    assertThrows(NullPointerException.class, () -> ObjectFormatters.get(null));
+  }
+
+}
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package org.foxlabs.common.text;
+
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link SlabPageAllocator} class.
+ *
+ * @author Fox Mulder
+ */
+public class SlabPageAllocatorTest {
+
+  /**
+   * Tests the {@link SlabPageAllocator#allocate(int)} and
+   * {@link SlabPageAllocator#release(char[])} methods.
+   */
+  @Test
+  public void test_allocate() {
+    final SlabPageAllocator allocator = new SlabPageAllocator(2);
+    // depth is rounded up to the size class
+    final char[] page = allocator.allocate(100);
+    assertEquals(128, page.length);
+    assertEquals(32, allocator.allocate(1).length);
+    allocator.release(page);
+    assertSame(page, allocator.allocate(128));
+    assertEquals(3, allocator.allocations());
+    assertEquals(1, allocator.hits());
+    // the free list is bounded
+    allocator.release(new char[128]);
+    allocator.release(new char[128]);
+    allocator.release(new char[128]);
+    assertEquals(2, allocator.retained());
+    // foreign pages are ignored
+    allocator.release(new char[100]);
+    assertEquals(4, allocator.releases());
+    assertThrows(IllegalArgumentException.class, () -> allocator.allocate(0));
+    assertThrows(IllegalArgumentException.class,
+        () -> allocator.allocate(PaginalCharBuffer.MAX_DEPTH + 1));
+  }
+
+  /**
+   * Tests the outstanding and high-water-mark statistics of the {@link PaginalCharBuffer} pages.
+   */
+  @Test
+  public void test_statistics() {
+    final SlabPageAllocator allocator = new SlabPageAllocator();
+    final PaginalCharBuffer buffer = new PaginalCharBuffer(1000, 32, allocator);
+    buffer.appendIndent(100);
+    assertEquals(4, allocator.outstanding());
+    buffer.reset();
+    buffer.appendIndent(50);
+    assertEquals(4, allocator.outstanding());
+    // reset pages survive buffer extension and are released on clear
+    buffer.appendIndent(500);
+    assertEquals(18, allocator.outstanding());
+    buffer.clear();
+    assertEquals(0, allocator.outstanding());
+    assertEquals(18, allocator.highWaterMark());
+    assertEquals(18, allocator.retained());
+    // another buffer reuses the pages
+    final PaginalCharBuffer other = new PaginalCharBuffer(1000, 32, allocator);
+    other.append("text");
+    assertEquals("text", other.toString());
+    assertEquals(1, allocator.hits());
+    assertEquals("SlabPageAllocator(allocations=19, hits=1, releases=18, outstanding=1, "
+        + "highWaterMark=18, retained=17)", allocator.toString());
+  }
+
+}
@@ -0,0 +1,189 @@
+/*
+ * Copyright (C) 2020 FoxLabs
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package org.foxlabs.common.text;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.ConcurrentModificationException;
+import java.util.Random;
+
+import org.junit.Test;
+
+import org.foxlabs.common.exception.ThresholdReachedException;
+import org.foxlabs.util.ByteBuffer;
+
+import static org.junit.Assert.*;
+
+/**
+ * Tests for methods of the {@link Utf8Buffer} class.
+ *
+ * @author Fox Mulder
+ */
+public class Utf8BufferTest {
+
+  /**
+   * Tests the {@link Utf8Buffer#append(char)} and {@link Utf8Buffer#append(CharSegment)} methods
+   * against the {@code String} encoding on random text.
+   */
+  @Test
+  public void test_append() {
+    final Random random = new Random(0L);
+    final String alphabet = "abc \u00e9\u00ff\u0800\u20ac\ud83d\ude00\ud800\udfff";
+    for (int n = 0; n < 100; n++) {
+      final char[] chars = new char[random.nextInt(5000)];
+      for (int i = 0; i < chars.length; i++) {
+        chars[i] = alphabet.charAt(random.nextInt(alphabet.length()));
+      }
+      final String text = new String(chars);
+      final Utf8Buffer buffer = new Utf8Buffer(0);
+      for (int i = 0; i < text.length();) {
+        final int count = Math.min(random.nextInt(70), text.length() - i);
+        if (count == 1) {
+          buffer.append(text.charAt(i));
+        } else {
+          buffer.append(text, i, i + count);
+        }
+        i += count;
+      }
+      final byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+      final String decoded = new String(expected, StandardCharsets.UTF_8);
+      assertArrayEquals(expected, buffer.getBytes());
+      assertEquals(expected.length, buffer.size());
+      assertEquals(text.length(), buffer.length());
+      assertEquals(decoded, buffer.toString());
+      for (int k = 0; k < 20 && text.length() > 0; k++) {
+        final int start = random.nextInt(text.length());
+        final int end = start + random.nextInt(text.length() - start + 1);
+        assertEquals(decoded.charAt(start), buffer.charAt(start));
+        assertEquals(decoded.codePointAt(start), buffer.codePointAt(start));
+        assertEquals(decoded.substring(start, end), buffer.substring(start, end));
+        assertEquals(decoded.substring(start, end), buffer.subSequence(start, end).toString());
+      }
+    }
+  }
+
+  /**
+   * Tests that surrogate pairs are encoded as 4-byte sequences and unpaired surrogates are
+   * replaced with {@code '?'}.
+   */
+  @Test
+  public void test_append_surrogates() {
+    final Utf8Buffer buffer = new Utf8Buffer();
+    buffer.append('\ud83d').append('\ude00').append(0x1f601).append('\ude00').append('\ud83d');
+    assertArrayEquals("\ud83d\ude00\ud83d\ude01??".getBytes(StandardCharsets.UTF_8),
+        buffer.getBytes());
+    assertEquals(6, buffer.length());
+    assertEquals(10, buffer.size());
+    assertEquals(0x1f600, buffer.codePointAt(0));
+    assertEquals('\ude01', buffer.charAt(3));
+    assertEquals('?', buffer.charAt(5));
+    assertEquals(1, buffer.indexOf("\ude00\ud83d"));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(6));
+    assertThrows(IndexOutOfBoundsException.class, () -> buffer.charAt(-1));
+    // rewriting of the pending high surrogate invalidates views
+    buffer.reset();
+    buffer.append("ab").append('\ud83d');
+    final CharSegment view = buffer.subSequence(0, 3);
+    assertEquals('?', view.charAt(2));
+    buffer.append('\ude00');
+    assertEquals('\ud83d', buffer.charAt(2));
+    assertThrows(ConcurrentModificationException.class, () -> view.charAt(2));
+    final CharSegment valid = buffer.subSequence(0, 4);
+    buffer.append('c').append('\ud83d').append('d');
+    assertEquals("ab\ud83d\ude00", valid.toString());
+  }
+
+  /**
+   * Tests the {@code CharBuffer} append operations that encode values to UTF-8.
+   */
+  @Test
+  public void test_append_values() {
+    final Utf8Buffer buffer = new Utf8Buffer();
+    buffer.appendDec(-12345).append(' ').appendHex(0xcafe).append(' ').appendDec(2.5d);
+    buffer.append(' ').appendObject(Arrays.asList("caf\u00e9", '\u20ac', 42));
+    buffer.append(' ').appendEncoded("\"\u00e9\"\n", CharEncoder.JAVA);
+    final String expected = new LinearCharBuffer().appendDec(-12345).append(' ')
+        .appendHex(0xcafe).append(' ').appendDec(2.5d).append(' ')
+        .appendObject(Arrays.asList("caf\u00e9", '\u20ac', 42)).append(' ')
+        .appendEncoded("\"\u00e9\"\n", CharEncoder.JAVA).toString();
+    assertEquals(expected, buffer.toString());
+    assertArrayEquals(expected.getBytes(StandardCharsets.UTF_8), buffer.getBytes());
+  }
+
+  /**
+   * Tests the byte export methods of the {@link Utf8Buffer}.
+   */
+  @Test
+  public void test_writeTo() throws Exception {
+    final String text = "na\u00efve caf\u00e9 \ud83d\ude00";
+    final byte[] expected = text.getBytes(StandardCharsets.UTF_8);
+    final Utf8Buffer buffer = new Utf8Buffer();
+    buffer.append(text);
+    final ByteArrayOutputStream stream = new ByteArrayOutputStream();
+    buffer.writeTo(Channels.newChannel(stream));
+    assertArrayEquals(expected, stream.toByteArray());
+    stream.reset();
+    buffer.writeTo(stream);
+    assertArrayEquals(expected, stream.toByteArray());
+    final ByteBuffer bytes = new ByteBuffer(4).append((byte) 1);
+    assertSame(bytes, buffer.writeTo(bytes));
+    assertEquals(expected.length + 1, bytes.length());
+    final java.nio.ByteBuffer view = buffer.asByteBuffer();
+    assertTrue(view.isReadOnly());
+    assertEquals(expected.length, view.remaining());
+    assertEquals(expected[6], view.get(6));
+  }
+
+  /**
+   * Tests that partial contents are appended when threshold is exceeded.
+   */
+  @Test
+  public void test_threshold() {
+    final Utf8Buffer buffer = new Utf8Buffer(2, 5);
+    assertThrows(ThresholdReachedException.class, () -> buffer.append("ab\u20acdefgh"));
+    assertEquals("ab\u20acde", buffer.toString());
+    assertEquals(7, buffer.size());
+    assertThrows(ThresholdReachedException.class, () -> buffer.append('x'));
+    final Utf8Buffer other = new Utf8Buffer(0, 1);
+    assertThrows(ThresholdReachedException.class, () -> other.append(0x1f600));
+    assertEquals(0, other.length());
+    assertThrows(IllegalArgumentException.class, () -> new Utf8Buffer(-1));
+  }
+
+  /**
+   * Tests the {@link Utf8Buffer#reset()} and {@link Utf8Buffer#clear()} methods.
+   */
+  @Test
+  public void test_reset_clear() {
+    final Utf8Buffer buffer = new Utf8Buffer();
+    for (int n = 0; n < 3000; n++) {
+      buffer.append("\u00e9");
+    }
+    assertEquals('\u00e9', buffer.charAt(2999));
+    buffer.reset();
+    assertEquals(0, buffer.size());
+    assertEquals("second", buffer.append("second").toString());
+    buffer.clear();
+    assertEquals(0, buffer.length());
+    assertEquals("\u0161", buffer.append("\u0161").toString());
+    assertEquals(2, buffer.size());
+  }
+
+}